@@ -2,6 +2,7 @@ cordova.define("cordova-plugin-firebase-authentication.FirebaseAuthentication",
 var PLUGIN_NAME = "FirebaseAuthentication";
 // @ts-ignore
 var exec = require("cordova/exec");
+var lastAuthStateSubscriberId = 0;
 
 exports.onAuthStateChanged =
 /**
@@ -13,10 +14,12 @@ exports.onAuthStateChanged =
  * @param {(error: string) => void} [errorCallback] Error callback function
  */
 function(callback, errorCallback) {
-    exec(callback, errorCallback, PLUGIN_NAME, "setAuthStateChanged", [false]);
+    // every listener has its own subscriber id, so unsubscribing one keeps the others
+    var subscriberId = String(++lastAuthStateSubscriberId);
+    exec(callback, errorCallback, PLUGIN_NAME, "setAuthStateChanged", [false, subscriberId]);
 
     return function() {
-        exec(null, errorCallback, PLUGIN_NAME, "setAuthStateChanged", [true]);
+        exec(null, errorCallback, PLUGIN_NAME, "setAuthStateChanged", [true, subscriberId]);
     };
 };
 
@@ -0,0 +1,59 @@
+package com.bivunote.app;
+
+import android.webkit.ServiceWorkerClient;
+import android.webkit.ServiceWorkerController;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+import android.webkit.WebView;
+
+import com.getcapacitor.Bridge;
+import com.getcapacitor.BridgeWebViewClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 등록한 WebRequestInterceptor 를 순서대로 거친 뒤, 아무도 응답하지 않으면 Capacitor(BridgeWebViewClient)가 처리합니다.
+ * 나머지 콜백(WebViewListener 등)은 BridgeWebViewClient 그대로입니다.
+ */
+final class AppWebViewClient extends BridgeWebViewClient {
+
+    private final Bridge bridge;
+    private final List<WebRequestInterceptor> interceptors;
+
+    AppWebViewClient(Bridge bridge, List<WebRequestInterceptor> interceptors) {
+        super(bridge);
+        this.bridge = bridge;
+        this.interceptors = new ArrayList<>(interceptors);
+    }
+
+    @Override
+    public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
+        WebResourceResponse response = intercept(request);
+        return response != null ? response : super.shouldInterceptRequest(view, request);
+    }
+
+    /**
+     * 서비스 워커의 요청(sw.js, 서비스 워커 안의 fetch)은 WebViewClient 를 거치지 않으므로 같은 순서로 처리하게 합니다.
+     * pack 에 들어간 웹 번들 파일은 assets/public 에 없으므로 Capacitor 만으로는 찾지 못함 (app/build.gradle 참고)
+     */
+    void installForServiceWorkers() {
+        ServiceWorkerController.getInstance().setServiceWorkerClient(new ServiceWorkerClient() {
+            @Override
+            public WebResourceResponse shouldInterceptRequest(WebResourceRequest request) {
+                WebResourceResponse response = intercept(request);
+                return response != null ? response : bridge.getLocalServer().shouldInterceptRequest(request);
+            }
+        });
+    }
+
+    private WebResourceResponse intercept(WebResourceRequest request) {
+        for (WebRequestInterceptor interceptor : interceptors) {
+            WebResourceResponse response = interceptor.intercept(request);
+            if (response != null) {
+                return response;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.bivunote.app;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import com.bivunote.assetpack.AssetPack;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * 웹 번들 파일을 빌드 때 만든 pack(web-assets.pack)에서 바로 응답합니다.
+ *
+ * pack 은 APK 에 압축하지 않고 넣으므로(noCompress) APK 안의 위치를 그대로 mmap 하고,
+ * 응답 본문은 그 버퍼의 slice 라서 파일별 open/복사가 없습니다.
+ * pack 에 넣은 파일은 APK 의 assets/public 에서 빠지므로 (app/build.gradle) 여기서 응답해야 합니다.
+ * pack 에 없는 경로(HTML, _capacitor_file_ 등)는 Capacitor 로 넘깁니다.
+ */
+final class AssetPackInterceptor implements WebRequestInterceptor {
+
+    private static final String TAG = "AssetPackInterceptor";
+    static final String PACK_ASSET = "web-assets.pack";
+
+    private final Context context;
+    private final String localPrefix;
+    private volatile AssetPack pack;
+    private volatile boolean unavailable;
+
+    /**
+     * @param localUrl Bridge.getLocalUrl() (예: https://localhost). 이 주소로 온 요청만 처리
+     */
+    AssetPackInterceptor(Context context, String localUrl) {
+        this.context = context.getApplicationContext();
+        this.localPrefix = localUrl + "/";
+    }
+
+    @Override
+    public WebResourceResponse intercept(WebResourceRequest request) {
+        if (unavailable || !"GET".equals(request.getMethod())) {
+            return null;
+        }
+        Uri url = request.getUrl();
+        String path = url.getPath();
+        if (path == null || path.length() < 2 || !url.toString().startsWith(localPrefix)) {
+            return null;
+        }
+        AssetPack current = getPack();
+        if (current == null) {
+            return null;
+        }
+        AssetPack.Entry entry = current.get(path.substring(1));
+        if (entry == null) {
+            return null;
+        }
+        AssetPack.Response response = entry.respond();
+        return new WebResourceResponse(response.mimeType, response.charset, 200, "OK",
+                response.headers, response.openStream());
+    }
+
+    // 첫 요청(WebView IO 스레드)에서 한 번만 엽니다
+    private AssetPack getPack() {
+        AssetPack current = pack;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (pack == null && !unavailable) {
+                try (AssetFileDescriptor fd = context.getAssets().openFd(PACK_ASSET);
+                     FileInputStream in = fd.createInputStream();
+                     FileChannel channel = in.getChannel()) {
+                    pack = AssetPack.read(channel.map(FileChannel.MapMode.READ_ONLY,
+                            fd.getStartOffset(), fd.getLength()));
+                    Log.d(TAG, "Serving " + pack.size() + " web assets from " + PACK_ASSET);
+                } catch (FileNotFoundException e) {
+                    // pack 없이 빌드한 경우 (압축된 asset 은 openFd 도 FileNotFoundException)
+                    Log.w(TAG, PACK_ASSET + " is missing or compressed, using Capacitor asset handler");
+                    unavailable = true;
+                } catch (IOException e) {
+                    Log.w(TAG, "Cannot read " + PACK_ASSET, e);
+                    unavailable = true;
+                }
+            }
+            return pack;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bivunote.app;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Collection;
+
+/**
+ * 상품/구매 목록을 JS 로 보낼 JSON 으로 만듭니다.
+ *
+ * Play Billing 타입에 의존하지 않으므로 JVM 벤치마크(:benchmarks)에서 같은 코드를 그대로 측정합니다.
+ */
+final class BillingJson {
+
+    private BillingJson() {
+    }
+
+    static JSONObject product(String productId, String title, String description, String formattedPrice,
+                              long priceAmountMicros, String currencyCode) throws JSONException {
+        JSONObject product = new JSONObject();
+        product.put("productId", productId);
+        product.put("title", title);
+        product.put("description", description);
+        product.put("price", formattedPrice);
+        product.put("priceAmountMicros", priceAmountMicros);
+        product.put("priceCurrencyCode", currencyCode);
+        return product;
+    }
+
+    /**
+     * 스냅샷에서 꺼낸 값은 stale: true 를 붙여 Play 응답과 구분합니다.
+     */
+    static JSONObject staleProduct(ProductCatalogSnapshot.Entry entry) throws JSONException {
+        JSONObject product = product(entry.productId, entry.title, entry.description, entry.formattedPrice,
+                entry.priceAmountMicros, entry.currencyCode);
+        product.put("stale", true);
+        return product;
+    }
+
+    static JSONObject purchase(PurchaseLedger.Record record) throws JSONException {
+        JSONObject purchase = new JSONObject();
+        purchase.put("productId", record.productId);
+        purchase.put("transactionId", record.orderId);
+        purchase.put("purchaseTime", record.purchaseTime);
+        purchase.put("purchaseToken", record.purchaseToken);
+        purchase.put("purchaseState", record.purchaseState);
+        if (record.removed) {
+            purchase.put("removed", true);
+        }
+        return purchase;
+    }
+
+    static JSONArray purchases(Collection<PurchaseLedger.Record> records) throws JSONException {
+        JSONArray purchases = new JSONArray();
+        for (PurchaseLedger.Record record : records) {
+            purchases.put(purchase(record));
+        }
+        return purchases;
+    }
+}
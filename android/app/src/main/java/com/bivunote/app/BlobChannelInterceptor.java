@@ -0,0 +1,81 @@
+package com.bivunote.app;
+
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import com.getcapacitor.JSObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 로컬 서버의 BlobRegistry.PATH_PREFIX 요청에 등록된 내용을 스트리밍으로 응답합니다.
+ * 응답 본문은 WebView 가 IO 스레드에서 필요한 만큼씩 읽으므로 전체를 메모리에 올리지 않습니다.
+ */
+final class BlobChannelInterceptor implements WebRequestInterceptor {
+
+    private static final String TAG = "BlobChannelInterceptor";
+
+    private final String blobPrefix;
+    private final BlobRegistry registry;
+
+    /**
+     * @param localUrl Bridge.getLocalUrl() (예: https://localhost). 같은 origin 의 요청만 처리
+     */
+    BlobChannelInterceptor(String localUrl, BlobRegistry registry) {
+        this.blobPrefix = localUrl + BlobRegistry.PATH_PREFIX;
+        this.registry = registry;
+    }
+
+    /**
+     * 플러그인 응답에 넣을 참조. JS 는 path 를 fetch 하면 됩니다 (src/utils/nativeBlob.ts)
+     */
+    static JSObject toJSObject(BlobRegistry.Blob blob) {
+        JSObject ref = new JSObject();
+        ref.put("handle", blob.handle);
+        ref.put("path", blob.path());
+        ref.put("size", blob.size);
+        ref.put("mimeType", blob.mimeType);
+        return ref;
+    }
+
+    @Override
+    public WebResourceResponse intercept(WebResourceRequest request) {
+        String url = request.getUrl().toString();
+        if (!url.startsWith(blobPrefix) || !"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String handle = url.substring(blobPrefix.length());
+        int end = handle.indexOf('?');
+        if (end >= 0) {
+            handle = handle.substring(0, end);
+        }
+
+        BlobRegistry.Opened opened;
+        try {
+            opened = registry.open(handle);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot open blob: " + e);
+            return error(500, "Internal Server Error");
+        }
+        if (opened == null) {
+            // 이미 읽었거나 만료됨. Capacitor 로 넘기면 index.html 이 돌아오므로 여기서 404
+            return error(404, "Not Found");
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Length", String.valueOf(opened.size));
+        headers.put("Cache-Control", "no-store");
+        headers.put("X-Content-Type-Options", "nosniff");
+        return new WebResourceResponse(opened.mimeType, null, 200, "OK", headers, opened.stream);
+    }
+
+    private static WebResourceResponse error(int status, String reason) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        return new WebResourceResponse("text/plain", "utf-8", status, reason, headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
@@ -0,0 +1,318 @@
+package com.bivunote.app;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 네이티브 → WebView 바이너리 채널. (프로세스당 하나, get())
+ *
+ * 플러그인이 파일이나 ByteBuffer 를 등록하면 추측할 수 없는 handle 을 받고, JS 는 PATH_PREFIX + handle 을
+ * fetch 해서 BlobChannelInterceptor 가 스트리밍하는 응답으로 받습니다. JSON 직렬화나 base64 를 거치지 않습니다.
+ *
+ * 기본적으로 한 번 읽으면 사라지고(consumeOnRead), 읽지 않아도 ttl 이 지나면 정리합니다.
+ * 메모리에 든 버퍼의 합이 maxBufferBytes 를 넘으면 오래된 버퍼부터 버립니다.
+ */
+final class BlobRegistry {
+
+    /** 로컬 서버 origin 아래의 경로 */
+    static final String PATH_PREFIX = "/_native_blob/";
+    static final long DEFAULT_TTL_MS = 60_000;
+
+    private static final int MAX_ENTRIES = 256;
+    private static final long MAX_BUFFER_BYTES = 64L * 1024 * 1024;
+    private static final int HANDLE_BYTES = 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final BlobRegistry INSTANCE =
+            new BlobRegistry(System::currentTimeMillis, MAX_ENTRIES, MAX_BUFFER_BYTES);
+
+    /** 등록된 내용을 여는 방법. 읽을 때마다 새 스트림을 돌려줘야 합니다 */
+    interface Source {
+        InputStream open() throws IOException;
+
+        /** 항목이 사라질 때 (읽은 뒤, 만료, 해제) */
+        default void release() {
+        }
+    }
+
+    /** JS 에 넘길 참조 */
+    static final class Blob {
+        final String handle;
+        final long size;
+        final String mimeType;
+
+        Blob(String handle, long size, String mimeType) {
+            this.handle = handle;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+
+        String path() {
+            return PATH_PREFIX + handle;
+        }
+    }
+
+    /** open() 결과. stream 은 호출한 쪽이 닫습니다 */
+    static final class Opened {
+        final long size;
+        final String mimeType;
+        final InputStream stream;
+
+        Opened(long size, String mimeType, InputStream stream) {
+            this.size = size;
+            this.mimeType = mimeType;
+            this.stream = stream;
+        }
+    }
+
+    private static final class Entry {
+        final Blob blob;
+        final Source source;
+        final long bufferBytes;
+        final long expiresAtMillis;
+        final boolean consumeOnRead;
+
+        Entry(Blob blob, Source source, long bufferBytes, long expiresAtMillis, boolean consumeOnRead) {
+            this.blob = blob;
+            this.source = source;
+            this.bufferBytes = bufferBytes;
+            this.expiresAtMillis = expiresAtMillis;
+            this.consumeOnRead = consumeOnRead;
+        }
+    }
+
+    private final LongSupplier clock;
+    private final int maxEntries;
+    private final long maxBufferBytes;
+    private final SecureRandom random = new SecureRandom();
+    // 등록 순서 (정리할 때 오래된 것부터)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private long bufferBytes;
+    // 읽히지 않고 만료되거나 한도 때문에 버린 항목 수
+    private long dropped;
+
+    BlobRegistry(LongSupplier clock, int maxEntries, long maxBufferBytes) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.maxBufferBytes = maxBufferBytes;
+    }
+
+    static BlobRegistry get() {
+        return INSTANCE;
+    }
+
+    /**
+     * buffer 의 position~limit 를 복사 없이 등록합니다. 등록 후 buffer 내용을 바꾸면 안 됩니다.
+     */
+    Blob registerBuffer(ByteBuffer buffer, String mimeType) {
+        ByteBuffer slice = buffer.slice().asReadOnlyBuffer();
+        return register(() -> new BufferInputStream(slice.duplicate()), slice.remaining(), slice.remaining(),
+                mimeType, DEFAULT_TTL_MS, true);
+    }
+
+    /**
+     * @param deleteOnRelease 항목이 사라질 때 파일도 지울지 (등록하려고 만든 임시 파일)
+     */
+    Blob registerFile(File file, String mimeType, boolean deleteOnRelease) {
+        Source source = new Source() {
+            @Override
+            public InputStream open() throws IOException {
+                return new FileInputStream(file);
+            }
+
+            @Override
+            public void release() {
+                if (deleteOnRelease) {
+                    file.delete();
+                }
+            }
+        };
+        return register(source, file.length(), 0, mimeType, DEFAULT_TTL_MS, true);
+    }
+
+    /**
+     * @param bufferBytes source 가 메모리에 들고 있는 크기 (파일이면 0)
+     * @param consumeOnRead true 면 한 번 읽은 뒤 사라짐
+     */
+    synchronized Blob register(Source source, long size, long bufferBytes, String mimeType,
+                               long ttlMillis, boolean consumeOnRead) {
+        long now = clock.getAsLong();
+        removeExpired(now);
+        Blob blob = new Blob(newHandle(), size, mimeType != null ? mimeType : "application/octet-stream");
+        entries.put(blob.handle, new Entry(blob, source, bufferBytes, now + ttlMillis, consumeOnRead));
+        this.bufferBytes += bufferBytes;
+        trim();
+        return blob;
+    }
+
+    /**
+     * @return 내용 스트림, 모르는(만료, 이미 읽은) handle 이면 null
+     */
+    Opened open(String handle) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            removeExpired(clock.getAsLong());
+            entry = entries.get(handle);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.consumeOnRead) {
+                remove(handle);
+            }
+        }
+        InputStream stream = entry.source.open();
+        if (entry.consumeOnRead) {
+            // 스트림을 다 읽거나 닫을 때까지 파일이 남아 있어야 하므로 release 는 close 에서
+            stream = new ReleasingInputStream(stream, entry.source);
+        }
+        return new Opened(entry.blob.size, entry.blob.mimeType, stream);
+    }
+
+    /** JS 가 읽지 않기로 한 항목을 바로 정리합니다 */
+    synchronized boolean release(String handle) {
+        Entry entry = remove(handle);
+        if (entry == null) {
+            return false;
+        }
+        entry.source.release();
+        return true;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bufferBytes() {
+        return bufferBytes;
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    private Entry remove(String handle) {
+        Entry entry = entries.remove(handle);
+        if (entry != null) {
+            bufferBytes -= entry.bufferBytes;
+        }
+        return entry;
+    }
+
+    private void removeExpired(long now) {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.expiresAtMillis <= now) {
+                it.remove();
+                bufferBytes -= entry.bufferBytes;
+                dropped++;
+                entry.source.release();
+            }
+        }
+    }
+
+    // 항목 수나 버퍼 합계가 한도를 넘으면 오래된 것부터. 방금 등록한 항목(마지막)은 남김
+    private void trim() {
+        Iterator<Entry> it = entries.values().iterator();
+        int candidates = entries.size() - 1;
+        while (candidates-- > 0 && (entries.size() > maxEntries || bufferBytes > maxBufferBytes)) {
+            Entry entry = it.next();
+            // 개수는 한도 안이고 버퍼 합계만 넘었으면 파일 항목은 그대로
+            if (entries.size() <= maxEntries && entry.bufferBytes == 0) {
+                continue;
+            }
+            it.remove();
+            bufferBytes -= entry.bufferBytes;
+            dropped++;
+            entry.source.release();
+        }
+    }
+
+    private String newHandle() {
+        byte[] bytes = new byte[HANDLE_BYTES];
+        random.nextBytes(bytes);
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /** ByteBuffer 를 복사 없이 읽는 InputStream */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static final class ReleasingInputStream extends InputStream {
+        private final InputStream in;
+        private final Source source;
+        private boolean closed;
+
+        ReleasingInputStream(InputStream in, Source source) {
+            this.in = in;
+            this.source = source;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                in.close();
+            } finally {
+                source.release();
+            }
+        }
+    }
+}
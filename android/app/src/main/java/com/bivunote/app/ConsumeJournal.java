@@ -0,0 +1,126 @@
+package com.bivunote.app;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 아직 소비(consume)되지 않은 구매 토큰을 기록하는 작은 append-only 파일.
+ *
+ * 한 줄에 한 레코드이며 "+token\tproductId" 는 추가, "-token" 은 완료를 뜻합니다.
+ * 앱이 소비 도중 종료되어도 다음 실행 때 남은 토큰을 다시 처리할 수 있습니다.
+ * 완료 레코드가 쌓이면 남은 토큰만으로 파일을 다시 씁니다.
+ */
+final class ConsumeJournal {
+
+    static final class Entry {
+        final String purchaseToken;
+        final String productId;
+
+        Entry(String purchaseToken, String productId) {
+            this.purchaseToken = purchaseToken;
+            this.productId = productId;
+        }
+    }
+
+    private static final int COMPACT_THRESHOLD = 64;
+
+    private final File file;
+    private final LinkedHashMap<String, Entry> pending = new LinkedHashMap<>();
+    private int obsoleteRecords;
+
+    ConsumeJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 파일을 읽어 남아 있는 토큰을 복원합니다. 마지막 줄이 깨져 있으면 무시합니다.
+     */
+    synchronized List<Entry> load() throws IOException {
+        pending.clear();
+        obsoleteRecords = 0;
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("+")) {
+                        int tab = line.indexOf('\t');
+                        if (tab < 0) {
+                            continue;
+                        }
+                        String token = line.substring(1, tab);
+                        pending.put(token, new Entry(token, line.substring(tab + 1)));
+                    } else if (line.startsWith("-")) {
+                        pending.remove(line.substring(1));
+                        obsoleteRecords += 2;
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    synchronized boolean add(String purchaseToken, String productId) throws IOException {
+        if (pending.containsKey(purchaseToken)) {
+            return false;
+        }
+        append("+" + purchaseToken + "\t" + productId + "\n");
+        pending.put(purchaseToken, new Entry(purchaseToken, productId));
+        return true;
+    }
+
+    synchronized void remove(String purchaseToken) throws IOException {
+        if (pending.remove(purchaseToken) == null) {
+            return;
+        }
+        obsoleteRecords += 2;
+        if (obsoleteRecords >= COMPACT_THRESHOLD) {
+            compact();
+        } else {
+            append("-" + purchaseToken + "\n");
+        }
+    }
+
+    synchronized List<Entry> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    private void append(String record) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(record.getBytes(StandardCharsets.UTF_8));
+            // 구매 토큰을 잃어버리면 상품을 다시 살 수 없으므로 바로 디스크에 반영
+            out.getFD().sync();
+        }
+    }
+
+    private void compact() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> e : pending.entrySet()) {
+                writer.write("+" + e.getKey() + "\t" + e.getValue().productId + "\n");
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+        obsoleteRecords = 0;
+    }
+}
@@ -0,0 +1,199 @@
+package com.bivunote.app;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 소비형 상품의 consume 을 ConsumeJournal 에 기록한 뒤 처리합니다.
+ *
+ * - 짧은 시간 안에 들어온 토큰은 한 번에 모아서 consume 요청
+ * - 실패하면 토큰별로 백오프 후 재시도
+ * - maxAttempts 를 다 쓴 토큰은 journal 에 남겨 두고 retryStranded() 때 다시 처리 (연결/포그라운드 복귀 시)
+ * - 앱이 재시작되면 replay() 로 남은 토큰을 다시 처리
+ */
+final class ConsumePipeline {
+
+    /** 실제 consume 을 수행하는 쪽 (BillingClient.consumeAsync) */
+    interface Consumer {
+        void consume(String purchaseToken, ResultCallback callback);
+    }
+
+    interface ResultCallback {
+        /** responseCode 는 BillingResponseCode 값 (0 = OK) */
+        void onResult(int responseCode);
+    }
+
+    interface Listener {
+        void onConsumeResult(String purchaseToken, String productId, int responseCode,
+                             int attempts, long latencyMillis, boolean willRetry);
+    }
+
+    private static final int RESPONSE_OK = 0;
+    private static final int RESPONSE_ITEM_NOT_OWNED = 8;
+    private static final int RESPONSE_DEVELOPER_ERROR = 5;
+
+    private final ConsumeJournal journal;
+    private final Consumer consumer;
+    private final Listener listener;
+    private final ScheduledExecutorService scheduler;
+    private final long batchWindowMillis;
+    private final int maxAttempts;
+    private final Supplier<ExponentialBackoff> backoffFactory;
+    private final LongSupplier clock;
+
+    private final Map<String, Attempt> attempts = new HashMap<>();
+    private final List<String> batch = new ArrayList<>();
+    private boolean flushScheduled;
+
+    ConsumePipeline(ConsumeJournal journal, Consumer consumer, Listener listener,
+                    ScheduledExecutorService scheduler, long batchWindowMillis, int maxAttempts,
+                    Supplier<ExponentialBackoff> backoffFactory, LongSupplier clock) {
+        this.journal = journal;
+        this.consumer = consumer;
+        this.listener = listener;
+        this.scheduler = scheduler;
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxAttempts = maxAttempts;
+        this.backoffFactory = backoffFactory;
+        this.clock = clock;
+    }
+
+    /**
+     * 토큰을 journal 에 먼저 기록한 뒤 consume 대기열에 넣습니다.
+     */
+    void enqueue(String purchaseToken, String productId) throws IOException {
+        journal.add(purchaseToken, productId);
+        schedule(purchaseToken, productId);
+    }
+
+    /**
+     * 지난 실행에서 끝내지 못한 토큰을 다시 처리합니다.
+     */
+    int replay() throws IOException {
+        List<ConsumeJournal.Entry> entries = journal.load();
+        for (ConsumeJournal.Entry entry : entries) {
+            schedule(entry.purchaseToken, entry.productId);
+        }
+        return entries.size();
+    }
+
+    /**
+     * 재시도를 다 써서 journal 에만 남은 토큰을 새 시도 횟수로 다시 처리합니다.
+     */
+    int retryStranded() {
+        int count = 0;
+        for (ConsumeJournal.Entry entry : journal.pending()) {
+            if (schedule(entry.purchaseToken, entry.productId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    synchronized int inFlight() {
+        return attempts.size();
+    }
+
+    /**
+     * 더 시도해도 결과가 같은 응답인지 (OK, ITEM_NOT_OWNED: 이미 소비됨, DEVELOPER_ERROR: 잘못된 토큰)
+     */
+    static boolean isFinal(int responseCode) {
+        return responseCode == RESPONSE_OK
+                || responseCode == RESPONSE_ITEM_NOT_OWNED
+                || responseCode == RESPONSE_DEVELOPER_ERROR;
+    }
+
+    private synchronized boolean schedule(String purchaseToken, String productId) {
+        if (attempts.containsKey(purchaseToken)) {
+            return false;
+        }
+        attempts.put(purchaseToken, new Attempt(productId, clock.getAsLong(), backoffFactory.get()));
+        addToBatch(purchaseToken);
+        return true;
+    }
+
+    private synchronized void addToBatch(String purchaseToken) {
+        batch.add(purchaseToken);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        List<String> tokens;
+        synchronized (this) {
+            tokens = new ArrayList<>(batch);
+            batch.clear();
+            flushScheduled = false;
+        }
+        for (String purchaseToken : tokens) {
+            Attempt attempt;
+            synchronized (this) {
+                attempt = attempts.get(purchaseToken);
+                if (attempt == null) {
+                    continue;
+                }
+                attempt.count++;
+            }
+            try {
+                consumer.consume(purchaseToken, responseCode -> onResult(purchaseToken, responseCode));
+            } catch (RuntimeException e) {
+                onResult(purchaseToken, -1);
+            }
+        }
+    }
+
+    private void onResult(String purchaseToken, int responseCode) {
+        Attempt attempt;
+        boolean done;
+        synchronized (this) {
+            attempt = attempts.get(purchaseToken);
+            if (attempt == null) {
+                return;
+            }
+            done = isFinal(responseCode) || attempt.count >= maxAttempts;
+            if (done) {
+                attempts.remove(purchaseToken);
+            }
+        }
+
+        long latency = clock.getAsLong() - attempt.startedAt;
+        if (done) {
+            // 재시도를 다 쓴 토큰은 journal 에 남아 retryStranded()/replay() 를 기다림
+            if (isFinal(responseCode)) {
+                try {
+                    journal.remove(purchaseToken);
+                } catch (IOException e) {
+                    // journal 에 남아 있어도 다음 replay 때 ITEM_NOT_OWNED 로 정리됨
+                }
+            }
+            listener.onConsumeResult(purchaseToken, attempt.productId, responseCode, attempt.count, latency, false);
+            return;
+        }
+
+        listener.onConsumeResult(purchaseToken, attempt.productId, responseCode, attempt.count, latency, true);
+        scheduler.schedule(() -> addToBatch(purchaseToken),
+                attempt.backoff.nextDelayMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Attempt {
+        final String productId;
+        final long startedAt;
+        final ExponentialBackoff backoff;
+        int count;
+
+        Attempt(String productId, long startedAt, ExponentialBackoff backoff) {
+            this.productId = productId;
+            this.startedAt = startedAt;
+            this.backoff = backoff;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bivunote.app;
+
+import com.bivunote.bridge.BridgeTracer;
+import com.bivunote.bridge.CallTrace;
+import com.bivunote.bridge.ExecutorStats;
+import com.bivunote.bridge.LatencyHistogram;
+import com.bivunote.bridge.MethodMetrics;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONArray;
+
+/**
+ * 네이티브 진단 정보: 콜드 스타트 타임라인(StartupTimeline), 플러그인 호출 지표(BridgeTracer), 이미지 캐시 통계
+ */
+@CapacitorPlugin(name = "Diagnostics")
+public class DiagnosticsPlugin extends TracedPlugin {
+
+    public DiagnosticsPlugin() {
+        super("Diagnostics");
+    }
+
+    /**
+     * 콜드 스타트 타임라인. 모든 시각은 프로세스 시작 기준 ms 이고,
+     * JS 는 nowMs 로 performance.now() 와 시계를 맞춰 웹 쪽 mark 를 합칩니다.
+     */
+    @PluginMethod
+    public void getStartupTimeline(PluginCall call) {
+        StartupTimeline timeline = StartupTimeline.get();
+        long origin = timeline.originNanos();
+        JSONArray entries = new JSONArray();
+        for (StartupTimeline.Entry entry : timeline.entries()) {
+            JSObject item = new JSObject();
+            item.put("name", entry.name);
+            item.put("startMs", nanosToMillis(entry.startNanos - origin));
+            if (!entry.isInstant()) {
+                item.put("endMs", nanosToMillis(entry.endNanos - origin));
+                item.put("durationMs", nanosToMillis(entry.endNanos - entry.startNanos));
+            }
+            entries.put(item);
+        }
+        JSObject result = new JSObject();
+        result.put("nowMs", nanosToMillis(timeline.now() - origin));
+        result.put("entries", entries);
+        result.put("dropped", timeline.dropped());
+        call.resolve(result);
+    }
+
+    /**
+     * Capacitor/Cordova 플러그인 메서드별 호출 수, reject/error 수와 queue/run/total 지연 시간 백분위.
+     * Cordova 플러그인 전용 executor(SERIAL/BOUNDED_WORKER)의 대기/실행 시간과 거절 수도 함께 돌려줍니다.
+     * includeRecent 이면 최근에 끝난 호출 목록도 함께 돌려줍니다.
+     */
+    @PluginMethod
+    public void getBridgeMetrics(PluginCall call) {
+        BridgeTracer tracer = BridgeTracer.get();
+        JSONArray methods = new JSONArray();
+        for (MethodMetrics.Snapshot metrics : tracer.snapshot()) {
+            JSObject item = new JSObject();
+            item.put("plugin", metrics.plugin);
+            item.put("method", metrics.method);
+            item.put("calls", metrics.calls);
+            item.put("resolved", metrics.resolved);
+            item.put("rejected", metrics.rejected);
+            item.put("errors", metrics.errors);
+            item.put("inFlight", metrics.getInFlight());
+            item.put("queue", latency(metrics.queue));
+            item.put("run", latency(metrics.run));
+            item.put("total", latency(metrics.total));
+            methods.put(item);
+        }
+        JSONArray executors = new JSONArray();
+        for (ExecutorStats stats : tracer.executorStats()) {
+            JSObject item = new JSObject();
+            item.put("name", stats.name);
+            item.put("submitted", stats.submitted);
+            item.put("rejected", stats.rejected);
+            item.put("completed", stats.completed);
+            item.put("queued", stats.queued);
+            item.put("queueWaitMeanMs", nanosToMillis(meanNanos(stats.queueWaitTotalNanos, stats.completed)));
+            item.put("queueWaitMaxMs", nanosToMillis(stats.queueWaitMaxNanos));
+            item.put("runMeanMs", nanosToMillis(meanNanos(stats.runTotalNanos, stats.completed)));
+            item.put("runMaxMs", nanosToMillis(stats.runMaxNanos));
+            executors.put(item);
+        }
+        JSObject result = new JSObject();
+        result.put("methods", methods);
+        result.put("executors", executors);
+        if (call.getBoolean("includeRecent", false)) {
+            JSONArray recent = new JSONArray();
+            for (CallTrace trace : tracer.recentCalls()) {
+                JSObject item = new JSObject();
+                item.put("id", trace.id);
+                item.put("plugin", trace.plugin);
+                item.put("method", trace.method);
+                item.put("outcome", trace.getOutcome().name());
+                item.put("queueMs", nanosToMillis(trace.getQueueNanos()));
+                item.put("runMs", nanosToMillis(trace.getRunNanos()));
+                item.put("totalMs", nanosToMillis(trace.getTotalNanos()));
+                recent.put(item);
+            }
+            result.put("recent", recent);
+        }
+        call.resolve(result);
+    }
+
+    /**
+     * Storage 이미지 디스크 캐시(ImageCacheInterceptor)의 적중/실패 수와 크기
+     */
+    @PluginMethod
+    public void getImageCacheStats(PluginCall call) {
+        ImageDiskCache.Stats stats = ImageCacheInterceptor.stats();
+        JSObject result = new JSObject();
+        result.put("installed", stats != null);
+        if (stats != null) {
+            result.put("hits", stats.hits);
+            result.put("misses", stats.misses);
+            result.put("revalidated", stats.revalidated);
+            result.put("evictions", stats.evictions);
+            result.put("entries", stats.entries);
+            result.put("bytes", stats.bytes);
+            result.put("maxBytes", stats.maxBytes);
+        }
+        call.resolve(result);
+    }
+
+    private static JSObject latency(LatencyHistogram.Snapshot snapshot) {
+        JSObject latency = new JSObject();
+        latency.put("count", snapshot.count);
+        latency.put("meanMs", nanosToMillis(Math.round(snapshot.getMeanMillis() * 1e6)));
+        latency.put("p50Ms", nanosToMillis(snapshot.percentileNanos(0.5)));
+        latency.put("p90Ms", nanosToMillis(snapshot.percentileNanos(0.9)));
+        latency.put("p99Ms", nanosToMillis(snapshot.percentileNanos(0.99)));
+        latency.put("maxMs", nanosToMillis(snapshot.maxNanos));
+        return latency;
+    }
+
+    private static long meanNanos(long totalNanos, long count) {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    private static Double nanosToMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
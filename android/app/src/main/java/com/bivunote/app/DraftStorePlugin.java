@@ -0,0 +1,356 @@
+package com.bivunote.app;
+
+import android.util.Log;
+
+import com.bivunote.draft.Draft;
+import com.bivunote.draft.DraftJournal;
+import com.bivunote.draft.DraftTooLargeException;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쓰던 글 임시 저장. WebView 의 localStorage 대신 draft-journal 모듈의 저널에 씁니다.
+ *
+ * write 는 바뀐 부분(splice)만 받아서 메모리에 적용하고 저널 버퍼에 붙인 뒤 바로 다음 호출을 받습니다.
+ * 잠시(GROUP_SYNC_DELAY_MS) 동안 들어온 write 는 syncer 스레드의 fsync 한 번으로 디스크에 쓰고,
+ * 그 뒤에 resolve 하므로 resolve 된 write 는 앱이 죽어도 남습니다.
+ * 긴 필드는 load 때 JSON 문자열에 넣지 않고 blob 채널(BlobRegistry)로 스트리밍합니다.
+ */
+@CapacitorPlugin(name = "DraftStore")
+public class DraftStorePlugin extends TracedPlugin {
+
+    private static final String TAG = "DraftStorePlugin";
+    private static final String DRAFTS_DIR = "drafts";
+    // JS 가 가진 내용과 어긋난 splice. JS 는 필드 전체를 다시 보냄
+    private static final String OUT_OF_SYNC = "OUT_OF_SYNC";
+    // 기록 하나에 담을 수 없는 변경. 다시 보내도 같으므로 JS 는 재시도하지 않음
+    private static final String TOO_LARGE = "TOO_LARGE";
+    // 이 시간 동안 들어온 write 를 fsync 한 번으로
+    private static final long GROUP_SYNC_DELAY_MS = 100;
+    // 이보다 긴 필드는 load 에서 blob 으로
+    private static final int INLINE_FIELD_CHARS = 16 * 1024;
+
+    private static final class Waiting {
+        final PluginCall call;
+        final long sequence;
+        final long savedAtMillis;
+
+        Waiting(PluginCall call, long sequence, long savedAtMillis) {
+            this.call = call;
+            this.sequence = sequence;
+            this.savedAtMillis = savedAtMillis;
+        }
+    }
+
+    // 저널 열기, write/remove 적용, load (순서대로)
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+    // fsync 와 compact. writer 는 이걸 기다리지 않음
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor();
+    // 아래는 this 로 보호
+    private final List<Waiting> waiting = new ArrayList<>();
+    private boolean syncScheduled;
+    private File draftsDir;
+    // writer 스레드에서 열고, 닫을 때 syncer 스레드에서 비움
+    private volatile DraftJournal journal;
+
+    public DraftStorePlugin() {
+        super("DraftStore");
+    }
+
+    @Override
+    protected void onLoad() {
+        draftsDir = new File(getContext().getFilesDir(), DRAFTS_DIR);
+        writer.execute(this::openJournal);
+    }
+
+    /**
+     * key 의 글에 ops 를 차례로 적용합니다. op 은 { field, value } (전체) 또는 { field, start, deleteCount, text }.
+     * 디스크에 쓴 뒤 { savedAt } 으로 resolve. splice 범위가 맞지 않으면 OUT_OF_SYNC 로 reject
+     * (그 앞의 op 은 적용된 채로 남으므로 JS 는 모든 필드를 value 로 다시 보냄), 너무 길면 TOO_LARGE 로 reject
+     */
+    @PluginMethod
+    public void write(PluginCall call) {
+        String key = call.getString("key");
+        JSArray ops = call.getArray("ops");
+        if (key == null || key.isEmpty() || ops == null) {
+            call.reject("key and ops are required");
+            return;
+        }
+
+        beginTrace(call);
+        writer.execute(() -> {
+            callStarted(call);
+            DraftJournal current = journal;
+            if (current == null) {
+                reject(call, "Draft store is not available");
+                return;
+            }
+            long now = System.currentTimeMillis();
+            long sequence = current.sequence();
+            try {
+                for (int i = 0; i < ops.length(); i++) {
+                    JSONObject op = ops.getJSONObject(i);
+                    String field = op.getString("field");
+                    if (op.has("value")) {
+                        sequence = current.set(key, field, op.getString("value"), now);
+                    } else {
+                        sequence = current.splice(key, field, op.getInt("start"), op.getInt("deleteCount"),
+                                op.getString("text"), now);
+                    }
+                }
+            } catch (JSONException e) {
+                reject(call, "Invalid draft ops", e);
+                return;
+            } catch (DraftTooLargeException e) {
+                Log.w(TAG, e.getMessage());
+                reject(call, e.getMessage(), TOO_LARGE);
+                return;
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Draft out of sync: " + e.getMessage());
+                reject(call, e.getMessage(), OUT_OF_SYNC);
+                return;
+            }
+            awaitSync(call, sequence, now);
+        });
+    }
+
+    @PluginMethod
+    public void remove(PluginCall call) {
+        String key = call.getString("key");
+        if (key == null) {
+            call.reject("key is required");
+            return;
+        }
+
+        beginTrace(call);
+        writer.execute(() -> {
+            callStarted(call);
+            DraftJournal current = journal;
+            if (current == null) {
+                reject(call, "Draft store is not available");
+                return;
+            }
+            long now = System.currentTimeMillis();
+            current.remove(key, now);
+            awaitSync(call, current.sequence(), now);
+        });
+    }
+
+    /**
+     * { draft: { key, updatedAt, fields, blobFields } | null }. INLINE_FIELD_CHARS 보다 긴 필드는 fields 대신
+     * blobFields 에 blob 참조로 (UTF-8 텍스트, 한 번 읽으면 사라짐)
+     */
+    @PluginMethod
+    public void load(PluginCall call) {
+        String key = call.getString("key");
+        if (key == null) {
+            call.reject("key is required");
+            return;
+        }
+
+        beginTrace(call);
+        writer.execute(() -> {
+            callStarted(call);
+            DraftJournal current = journal;
+            if (current == null) {
+                reject(call, "Draft store is not available");
+                return;
+            }
+            Draft draft = current.get(key);
+            JSObject result = new JSObject();
+            if (draft == null) {
+                result.put("draft", JSONObject.NULL);
+                resolve(call, result);
+                return;
+            }
+            JSObject fields = new JSObject();
+            JSObject blobFields = new JSObject();
+            for (Map.Entry<String, String> field : draft.fields.entrySet()) {
+                String value = field.getValue();
+                if (value.length() > INLINE_FIELD_CHARS) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    blobFields.put(field.getKey(), BlobChannelInterceptor.toJSObject(
+                            BlobRegistry.get().registerBuffer(ByteBuffer.wrap(bytes), "text/plain; charset=utf-8")));
+                } else {
+                    fields.put(field.getKey(), value);
+                }
+            }
+            JSObject item = new JSObject();
+            item.put("key", draft.key);
+            item.put("updatedAt", draft.updatedAtMillis);
+            item.put("fields", fields);
+            item.put("blobFields", blobFields);
+            result.put("draft", item);
+            resolve(call, result);
+        });
+    }
+
+    /** { drafts: [{ key, updatedAt, length }] } (내용 없이) */
+    @PluginMethod
+    public void list(PluginCall call) {
+        writer.execute(() -> {
+            DraftJournal current = journal;
+            if (current == null) {
+                call.reject("Draft store is not available");
+                return;
+            }
+            JSArray drafts = new JSArray();
+            for (String key : current.keys()) {
+                Draft draft = current.get(key);
+                JSObject item = new JSObject();
+                item.put("key", draft.key);
+                item.put("updatedAt", draft.updatedAtMillis);
+                item.put("length", draft.length());
+                drafts.put(item);
+            }
+            JSObject result = new JSObject();
+            result.put("drafts", drafts);
+            call.resolve(result);
+        });
+    }
+
+    /** 기다리지 않고 지금 fsync (화면을 떠날 때) */
+    @PluginMethod
+    public void flush(PluginCall call) {
+        // writer 에 쌓인 write 가 적용된 뒤에
+        writer.execute(() -> syncer.execute(() -> {
+            syncNow();
+            call.resolve();
+        }));
+    }
+
+    // writer 스레드에서
+    private void openJournal() {
+        try {
+            journal = DraftJournal.open(draftsDir);
+        } catch (IOException e) {
+            // 임시 저장은 사용자 글이므로 지우지 않고 옆으로 옮겨 둠
+            File aside = new File(draftsDir.getParentFile(),
+                    DRAFTS_DIR + ".corrupt-" + System.currentTimeMillis());
+            Log.w(TAG, "Draft journal is corrupt, moving to " + aside.getName() + ": " + e);
+            if (!draftsDir.renameTo(aside)) {
+                Log.e(TAG, "Cannot move corrupt draft journal");
+                return;
+            }
+            try {
+                journal = DraftJournal.open(draftsDir);
+            } catch (IOException retry) {
+                Log.e(TAG, "Cannot open draft journal", retry);
+            }
+        }
+    }
+
+    // writer 스레드에서
+    private void awaitSync(PluginCall call, long sequence, long savedAtMillis) {
+        synchronized (this) {
+            waiting.add(new Waiting(call, sequence, savedAtMillis));
+            if (syncScheduled) {
+                return;
+            }
+            syncScheduled = true;
+        }
+        syncer.schedule(this::syncNow, GROUP_SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // syncer 스레드에서
+    private void syncNow() {
+        synchronized (this) {
+            syncScheduled = false;
+        }
+        DraftJournal current = journal;
+        if (current == null) {
+            return;
+        }
+        long durable;
+        try {
+            durable = current.sync();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to sync draft journal: " + e);
+            finishWaiting(Long.MAX_VALUE, e);
+            return;
+        }
+        finishWaiting(durable, null);
+        if (current.needsCompaction()) {
+            try {
+                current.compact();
+            } catch (IOException e) {
+                // 다음 sync 에서 다시 (DraftJournal 이 기억함)
+                Log.w(TAG, "Failed to compact draft journal: " + e);
+            }
+        }
+    }
+
+    private void finishWaiting(long durableSequence, IOException error) {
+        List<Waiting> done = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Waiting> iterator = waiting.iterator();
+            while (iterator.hasNext()) {
+                Waiting item = iterator.next();
+                if (item.sequence <= durableSequence) {
+                    done.add(item);
+                    iterator.remove();
+                }
+            }
+        }
+        for (Waiting item : done) {
+            if (error != null) {
+                reject(item.call, "Failed to save draft", error);
+            } else {
+                JSObject result = new JSObject();
+                result.put("savedAt", item.savedAtMillis);
+                resolve(item.call, result);
+            }
+        }
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        // 백그라운드에서 프로세스가 정리되기 전에
+        writer.execute(() -> syncer.execute(this::syncNow));
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        // writer 에 쌓인 write 를 적용한 뒤 sync 하고 닫음
+        writer.execute(() -> {
+            syncer.execute(() -> {
+                DraftJournal current = journal;
+                if (current == null) {
+                    return;
+                }
+                // 예약된 syncNow 가 닫힌 저널을 만지지 않도록
+                journal = null;
+                try {
+                    long durable = current.sync();
+                    finishWaiting(durable, null);
+                    current.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to close draft journal: " + e);
+                }
+            });
+            syncer.shutdown();
+        });
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,230 @@
+package com.bivunote.app;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 서명 검증을 통과한 구매만 보관하는 권한(entitlement) 저장소.
+ *
+ * 조회는 메모리의 불변 스냅샷을 그대로 돌려주므로 네트워크나 디스크를 거치지 않습니다.
+ * (load() 가 끝나기 전에는 빈 스냅샷이므로 호출자는 isLoaded() 를 확인합니다)
+ * 앱이 소비(consume)한 구매는 Play 의 구매 목록에서 사라지므로 markConsumed() 로 표시해 두고 권한을 유지합니다.
+ * 소비하지 않았는데 전체 구매 목록에서 사라졌거나 완료 상태가 아니게 된 구매(환불, 취소)는 reconcile() 에서 회수합니다.
+ * 소비한 뒤의 환불은 기기에서 알 수 없으므로 (Voided Purchases API 는 서버 전용) 서버 쪽에서 따로 처리해야 합니다.
+ * 변경이 있을 때만 파일 전체를 다시 씁니다 (항목 수가 적음).
+ */
+final class EntitlementStore {
+
+    /** Purchase 에서 필요한 값만 옮긴 것 (JVM 테스트에서 BillingClient 없이 만들 수 있도록) */
+    static final class SignedPurchase {
+        final String originalJson;
+        final String signature;
+        final String productId;
+        final String purchaseToken;
+        final String orderId;
+        final long purchaseTime;
+        final int purchaseState;
+
+        SignedPurchase(String originalJson, String signature, String productId, String purchaseToken,
+                       String orderId, long purchaseTime, int purchaseState) {
+            this.originalJson = originalJson;
+            this.signature = signature;
+            this.productId = productId;
+            this.purchaseToken = purchaseToken;
+            this.orderId = orderId;
+            this.purchaseTime = purchaseTime;
+            this.purchaseState = purchaseState;
+        }
+    }
+
+    static final class Entitlement {
+        final String productId;
+        final String purchaseToken;
+        final String orderId;
+        final long purchaseTime;
+        // 앱이 consume 해서 Play 의 구매 목록에서 빠진 구매
+        final boolean consumed;
+
+        Entitlement(String productId, String purchaseToken, String orderId, long purchaseTime, boolean consumed) {
+            this.productId = productId;
+            this.purchaseToken = purchaseToken;
+            this.orderId = orderId;
+            this.purchaseTime = purchaseTime;
+            this.consumed = consumed;
+        }
+    }
+
+    private static final int PURCHASE_STATE_PURCHASED = 1;
+
+    private final File file;
+    private final PurchaseVerifier verifier;
+    // purchaseToken → Entitlement, 읽기는 lock 없이 스냅샷 참조만
+    private volatile Map<String, Entitlement> snapshot = Collections.emptyMap();
+    private volatile boolean loaded;
+
+    EntitlementStore(File file, PurchaseVerifier verifier) {
+        this.file = file;
+        this.verifier = verifier;
+    }
+
+    boolean isLoaded() {
+        return loaded;
+    }
+
+    Collection<Entitlement> getEntitlements() {
+        return snapshot.values();
+    }
+
+    boolean isEntitled(String productId) {
+        for (Entitlement entitlement : snapshot.values()) {
+            if (entitlement.productId.equals(productId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 서명이 유효하고 결제가 완료된 구매만 저장합니다.
+     *
+     * @return 새로 저장된 권한 수
+     */
+    synchronized int record(Collection<SignedPurchase> purchases) throws IOException {
+        load();
+        Map<String, Entitlement> next = null;
+        for (SignedPurchase purchase : purchases) {
+            if (purchase.purchaseState != PURCHASE_STATE_PURCHASED
+                    || snapshot.containsKey(purchase.purchaseToken)
+                    || (next != null && next.containsKey(purchase.purchaseToken))) {
+                continue;
+            }
+            if (!verifier.verify(purchase.originalJson, purchase.signature)) {
+                continue;
+            }
+            if (next == null) {
+                next = new LinkedHashMap<>(snapshot);
+            }
+            next.put(purchase.purchaseToken, new Entitlement(
+                    purchase.productId, purchase.purchaseToken, purchase.orderId, purchase.purchaseTime, false));
+        }
+        if (next == null) {
+            return 0;
+        }
+        int added = next.size() - snapshot.size();
+        write(next);
+        snapshot = Collections.unmodifiableMap(next);
+        return added;
+    }
+
+    /**
+     * consume 이 성공한 구매를 표시합니다. 이후 Play 의 구매 목록에서 빠져도 reconcile() 이 회수하지 않습니다.
+     *
+     * @return 권한이 있던 구매를 새로 표시했으면 true
+     */
+    synchronized boolean markConsumed(String purchaseToken) throws IOException {
+        load();
+        Entitlement entitlement = snapshot.get(purchaseToken);
+        if (entitlement == null || entitlement.consumed) {
+            return false;
+        }
+        Map<String, Entitlement> next = new LinkedHashMap<>(snapshot);
+        next.put(purchaseToken, new Entitlement(entitlement.productId, entitlement.purchaseToken,
+                entitlement.orderId, entitlement.purchaseTime, true));
+        write(next);
+        snapshot = Collections.unmodifiableMap(next);
+        return true;
+    }
+
+    /**
+     * Play 가 돌려준 전체 구매 목록을 반영합니다. record 와 같고, 완료 상태가 아닌 구매와
+     * 소비하지 않았는데 목록에 없는 구매의 권한은 회수합니다.
+     *
+     * @return 회수된 권한 수
+     */
+    synchronized int reconcile(Collection<SignedPurchase> current) throws IOException {
+        record(current);
+        Set<String> listed = new HashSet<>();
+        Set<String> notPurchased = new HashSet<>();
+        for (SignedPurchase purchase : current) {
+            listed.add(purchase.purchaseToken);
+            if (purchase.purchaseState != PURCHASE_STATE_PURCHASED) {
+                notPurchased.add(purchase.purchaseToken);
+            }
+        }
+        Map<String, Entitlement> next = new LinkedHashMap<>(snapshot);
+        next.values().removeIf(entitlement -> notPurchased.contains(entitlement.purchaseToken)
+                || (!entitlement.consumed && !listed.contains(entitlement.purchaseToken)));
+        int revoked = snapshot.size() - next.size();
+        if (revoked == 0) {
+            return 0;
+        }
+        write(next);
+        snapshot = Collections.unmodifiableMap(next);
+        return revoked;
+    }
+
+    synchronized void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        Map<String, Entitlement> entitlements = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                // consumed 칸이 없는 예전 4칸 형식은 소비 전으로 읽음
+                if (fields.length != 4 && fields.length != 5) {
+                    continue;
+                }
+                try {
+                    entitlements.put(fields[1], new Entitlement(fields[0], fields[1],
+                            fields[2].isEmpty() ? null : fields[2], Long.parseLong(fields[3]),
+                            fields.length == 5 && "1".equals(fields[4])));
+                } catch (NumberFormatException e) {
+                    // 깨진 줄은 건너뜀
+                }
+            }
+        }
+        snapshot = Collections.unmodifiableMap(entitlements);
+    }
+
+    // productId \t purchaseToken \t orderId \t purchaseTime \t consumed(0/1)
+    private void write(Map<String, Entitlement> entitlements) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Entitlement entitlement : entitlements.values()) {
+                writer.write(entitlement.productId + "\t" + entitlement.purchaseToken + "\t"
+                        + (entitlement.orderId == null ? "" : entitlement.orderId) + "\t"
+                        + entitlement.purchaseTime + "\t" + (entitlement.consumed ? "1" : "0") + "\n");
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.bivunote.app;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JS 리스너가 등록되기 전에 발생한 이벤트를 최대 capacity 개까지 보관합니다.
+ *
+ * 가득 차면 가장 오래된 이벤트부터 버리고 버린 개수를 셉니다. (동기화는 호출하는 쪽에서)
+ */
+final class EventReplayBuffer<T> {
+
+    private final int capacity;
+    private final ArrayDeque<T> events = new ArrayDeque<>();
+    private int dropped;
+
+    EventReplayBuffer(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(T event) {
+        if (events.size() >= capacity) {
+            events.pollFirst();
+            dropped++;
+        }
+        events.addLast(event);
+    }
+
+    /**
+     * 보관한 이벤트를 발생 순서대로 꺼내고 버퍼를 비웁니다.
+     */
+    List<T> drain() {
+        List<T> drained = new ArrayList<>(events);
+        events.clear();
+        dropped = 0;
+        return drained;
+    }
+
+    /** 마지막 drain 이후 버린 이벤트 수 */
+    int dropped() {
+        return dropped;
+    }
+
+    int size() {
+        return events.size();
+    }
+}
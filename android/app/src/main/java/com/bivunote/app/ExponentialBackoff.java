@@ -0,0 +1,39 @@
+package com.bivunote.app;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * 상한이 있는 지수 백오프 + full jitter.
+ * n 번째 재시도 지연은 [0, min(maxDelay, baseDelay * 2^n)] 범위에서 무작위로 정해집니다.
+ */
+final class ExponentialBackoff {
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final DoubleSupplier random;
+    private int attempt;
+
+    ExponentialBackoff(long baseDelayMillis, long maxDelayMillis, DoubleSupplier random) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.random = random;
+    }
+
+    synchronized long nextDelayMillis() {
+        long ceiling = maxDelayMillis;
+        // 2^attempt 가 넘치지 않도록 상한에 도달하면 더 이상 키우지 않음
+        if (attempt < 62 && baseDelayMillis <= (maxDelayMillis >> attempt)) {
+            ceiling = baseDelayMillis << attempt;
+        }
+        attempt++;
+        return (long) (random.getAsDouble() * ceiling);
+    }
+
+    synchronized int getAttempt() {
+        return attempt;
+    }
+
+    synchronized void reset() {
+        attempt = 0;
+    }
+}
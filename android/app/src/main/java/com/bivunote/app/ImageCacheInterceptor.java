@@ -0,0 +1,179 @@
+package com.bivunote.app;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Firebase Storage 이미지(아바타, _200x200 썸네일 등)를 WebView HTTP 캐시 대신 ImageDiskCache 에서 응답합니다.
+ *
+ * &lt;img&gt; 로드(Accept: image/...)이면서 허용한 호스트의 GET 만 처리하고, 나머지나 실패는 WebView 로 넘깁니다.
+ */
+final class ImageCacheInterceptor implements WebRequestInterceptor {
+
+    private static final String TAG = "ImageCacheInterceptor";
+    static final Set<String> STORAGE_HOSTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "firebasestorage.googleapis.com",
+            "storage.googleapis.com")));
+    // 캐시 검증/압축/연결은 HttpURLConnection 과 ImageDiskCache 가 정함
+    private static final Set<String> NOT_FORWARDED_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "if-none-match", "if-modified-since", "cache-control", "pragma",
+            "accept-encoding", "range", "host", "connection", "content-length")));
+    // 본문을 받은 그대로가 아니라 풀어서 돌려주므로
+    private static final Set<String> NOT_RETURNED_HEADERS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "content-length", "content-encoding", "transfer-encoding", "connection")));
+    private static final String CACHE_DIR = "image-cache";
+    private static final long MAX_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 20_000;
+
+    // Diagnostics.getImageCacheStats 용 (설치 전이면 null)
+    private static volatile ImageDiskCache installed;
+
+    private final ImageDiskCache cache;
+
+    ImageCacheInterceptor(Context context) {
+        cache = new ImageDiskCache(new File(context.getCacheDir(), CACHE_DIR), MAX_CACHE_BYTES,
+                ImageCacheInterceptor::fetch);
+        installed = cache;
+    }
+
+    static ImageDiskCache.Stats stats() {
+        ImageDiskCache cache = installed;
+        return cache == null ? null : cache.stats();
+    }
+
+    @Override
+    public WebResourceResponse intercept(WebResourceRequest request) {
+        if (!"GET".equals(request.getMethod()) || request.isForMainFrame()) {
+            return null;
+        }
+        Uri url = request.getUrl();
+        if (!"https".equals(url.getScheme()) || !STORAGE_HOSTS.contains(url.getHost())) {
+            return null;
+        }
+        Map<String, String> headers = request.getRequestHeaders();
+        String accept = WebRequestInterceptor.header(headers, "Accept");
+        if (accept == null || !accept.startsWith("image/")
+                || WebRequestInterceptor.header(headers, "Range") != null) {
+            return null;
+        }
+        // firebasestorage 는 alt=media 일 때만 이미지 본문 (아니면 메타데이터 JSON)
+        if (url.getHost().startsWith("firebasestorage.") && !"media".equals(url.getQueryParameter("alt"))) {
+            return null;
+        }
+        try {
+            ImageDiskCache.Result result = cache.get(url.toString(), headers);
+            if (result.status != 200) {
+                return errorResponse(result);
+            }
+            Map<String, String> responseHeaders = new HashMap<>();
+            if (!result.allowOrigin.isEmpty()) {
+                responseHeaders.put("Access-Control-Allow-Origin", result.allowOrigin);
+            }
+            responseHeaders.put("X-Native-Image-Cache", result.fromCache ? "hit" : "miss");
+            return new WebResourceResponse(result.mimeType, null, 200, "OK", responseHeaders, result.openStream());
+        } catch (IOException e) {
+            Log.w(TAG, "Image cache failed, falling back to WebView: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * 이미 받은 404/403 등은 상태, 헤더, 본문 그대로 돌려줌 (null 이면 WebView 가 같은 URL 을 한 번 더 받음).
+     * WebResourceResponse 는 3xx 를 받지 않으므로 그때만 WebView 로 넘김 (HttpURLConnection 이 보통 따라가서 드묾)
+     */
+    private static WebResourceResponse errorResponse(ImageDiskCache.Result result) throws IOException {
+        if (result.status < 200 || (result.status >= 300 && result.status < 400) || result.status > 599) {
+            return null;
+        }
+        // reasonPhrase 는 비어 있으면 안 됨 (HTTP/2 응답은 문구가 없음)
+        String reasonPhrase = result.reasonPhrase.isEmpty()
+                ? (result.status >= 400 ? "Error" : "OK") : result.reasonPhrase;
+        return new WebResourceResponse(result.mimeType, null, result.status, reasonPhrase, result.headers,
+                result.openStream());
+    }
+
+    private static ImageDiskCache.Fetched fetch(String url, String etag, Map<String, String> requestHeaders)
+            throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            // 캐시는 여기서 하므로 HttpURLConnection 캐시는 쓰지 않음
+            connection.setUseCaches(false);
+            // Origin, Referer, User-Agent 등은 WebView 가 보냈을 그대로 (CORS 응답 헤더가 같아지도록)
+            for (Map.Entry<String, String> header : requestHeaders.entrySet()) {
+                String name = header.getKey();
+                if (name != null && !NOT_FORWARDED_HEADERS.contains(name.toLowerCase(Locale.US))) {
+                    connection.setRequestProperty(name, header.getValue());
+                }
+            }
+            if (etag != null && !etag.isEmpty()) {
+                connection.setRequestProperty("If-None-Match", etag);
+            }
+            int status = connection.getResponseCode();
+            String mimeType = connection.getContentType();
+            if (mimeType == null) {
+                mimeType = "application/octet-stream";
+            } else if (mimeType.indexOf(';') >= 0) {
+                mimeType = mimeType.substring(0, mimeType.indexOf(';')).trim();
+            }
+            String responseEtag = connection.getHeaderField("ETag");
+            String allowOrigin = connection.getHeaderField("Access-Control-Allow-Origin");
+            String reasonPhrase = connection.getResponseMessage();
+            byte[] body = status == 304 ? new byte[0] : readAll(status < 400
+                    ? connection.getInputStream() : connection.getErrorStream());
+            return new ImageDiskCache.Fetched(status, reasonPhrase == null ? "" : reasonPhrase.trim(), mimeType,
+                    responseEtag == null ? "" : responseEtag, allowOrigin == null ? "" : allowOrigin,
+                    status == 200 ? Collections.emptyMap() : responseHeaders(connection), body);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static Map<String, String> responseHeaders(HttpURLConnection connection) {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            String name = header.getKey();
+            if (name == null || header.getValue() == null
+                    || NOT_RETURNED_HEADERS.contains(name.toLowerCase(Locale.US))) {
+                continue;
+            }
+            headers.put(name, String.join(", ", header.getValue()));
+        }
+        return headers;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        if (in == null) {
+            return new byte[0];
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+            byte[] buffer = new byte[16 * 1024];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,457 @@
+package com.bivunote.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 원격 이미지(Storage 아바타/썸네일)의 디스크 LRU 캐시. 인덱스는 메모리에 두고, 파일마다 앞부분에 메타데이터를 씁니다.
+ *
+ * 캐시 키는 URL 에서 캐시 버스팅 파라미터 v 를 뺀 값입니다. 같은 키인데 v 가 다르면
+ * 저장된 ETag 로 다시 확인(If-None-Match)하고, 304 면 본문은 그대로 두고 v 만 바꿉니다.
+ * 네트워크는 Fetcher 로 받아서 JVM 테스트에서 바꿔 끼울 수 있습니다.
+ */
+final class ImageDiskCache {
+
+    interface Fetcher {
+        /**
+         * @param etag           있으면 If-None-Match 로 보냄
+         * @param requestHeaders WebView 요청의 헤더 (Origin 등, 그대로 전달)
+         */
+        Fetched fetch(String url, String etag, Map<String, String> requestHeaders) throws IOException;
+    }
+
+    static final class Fetched {
+        final int status;
+        final String mimeType;
+        final String etag;
+        // 응답의 Access-Control-Allow-Origin (없으면 "")
+        final String allowOrigin;
+        final byte[] body;
+        // 200 이 아닌 응답을 그대로 돌려줄 때 씀
+        final String reasonPhrase;
+        final Map<String, String> headers;
+
+        Fetched(int status, String mimeType, String etag, String allowOrigin, byte[] body) {
+            this(status, "", mimeType, etag, allowOrigin, Collections.emptyMap(), body);
+        }
+
+        Fetched(int status, String reasonPhrase, String mimeType, String etag, String allowOrigin,
+                Map<String, String> headers, byte[] body) {
+            this.status = status;
+            this.reasonPhrase = reasonPhrase;
+            this.mimeType = mimeType;
+            this.etag = etag;
+            this.allowOrigin = allowOrigin;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+
+    /** 응답할 내용. 캐시 파일이거나(body == null) 캐시하지 않은 네트워크 응답 */
+    static final class Result {
+        final int status;
+        final String mimeType;
+        final String allowOrigin;
+        final boolean fromCache;
+        // 200 이 아닌 네트워크 응답의 상태 문구와 헤더 (200 이면 "" 와 빈 map)
+        final String reasonPhrase;
+        final Map<String, String> headers;
+        private final File file;
+        private final long bodyOffset;
+        private final byte[] body;
+
+        private Result(int status, String mimeType, String allowOrigin, boolean fromCache,
+                       File file, long bodyOffset, byte[] body) {
+            this(status, "", mimeType, allowOrigin, Collections.emptyMap(), fromCache, file, bodyOffset, body);
+        }
+
+        private Result(int status, String reasonPhrase, String mimeType, String allowOrigin,
+                       Map<String, String> headers, boolean fromCache, File file, long bodyOffset, byte[] body) {
+            this.status = status;
+            this.reasonPhrase = reasonPhrase;
+            this.mimeType = mimeType;
+            this.allowOrigin = allowOrigin;
+            this.headers = headers;
+            this.fromCache = fromCache;
+            this.file = file;
+            this.bodyOffset = bodyOffset;
+            this.body = body;
+        }
+
+        InputStream openStream() throws IOException {
+            if (body != null) {
+                return new ByteArrayInputStream(body);
+            }
+            // 읽는 도중 축출되어도 이미 연 파일은 끝까지 읽힘
+            FileInputStream in = new FileInputStream(file);
+            in.getChannel().position(bodyOffset);
+            return in;
+        }
+    }
+
+    static final class Stats {
+        final long hits;
+        final long misses;
+        final long revalidated;
+        final long evictions;
+        final int entries;
+        final long bytes;
+        final long maxBytes;
+
+        Stats(long hits, long misses, long revalidated, long evictions, int entries, long bytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.revalidated = revalidated;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final File file;
+        final String version;
+        final String etag;
+        final String mimeType;
+        final String allowOrigin;
+        final long bodyOffset;
+        final long size;
+
+        Entry(String key, File file, String version, String etag, String mimeType, String allowOrigin,
+              long bodyOffset, long size) {
+            this.key = key;
+            this.file = file;
+            this.version = version;
+            this.etag = etag;
+            this.mimeType = mimeType;
+            this.allowOrigin = allowOrigin;
+            this.bodyOffset = bodyOffset;
+            this.size = size;
+        }
+    }
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".img";
+    private static final String VERSION_PARAM = "v";
+
+    private final File dir;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final Fetcher fetcher;
+    // key → Entry, 접근 순서 (가장 오래 안 쓴 것이 앞)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    // 같은 URL 을 동시에 요청하면 한 번만 받음
+    private final ConcurrentHashMap<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private long totalBytes;
+    private boolean loaded;
+    private long hits;
+    private long misses;
+    private long revalidated;
+    private long evictions;
+
+    ImageDiskCache(File dir, long maxBytes, Fetcher fetcher) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        // 한 장이 캐시의 1/8 을 넘으면 저장하지 않음
+        this.maxEntryBytes = maxBytes / 8;
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * 캐시에 같은 버전이 있으면 바로, 없으면 받아서 저장한 뒤 돌려줍니다. 호출한 스레드에서 네트워크를 씁니다.
+     */
+    Result get(String url) throws IOException {
+        return get(url, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * @param requestHeaders 캐시에 없어서 받을 때 Fetcher 에 넘길 요청 헤더.
+     *                       같은 URL 을 동시에 받는 중이면 먼저 시작한 요청의 헤더로 받습니다
+     */
+    Result get(String url, Map<String, String> requestHeaders) throws IOException {
+        String key = keyOf(url);
+        String version = versionOf(url);
+        Entry entry;
+        boolean hit;
+        synchronized (this) {
+            ensureLoaded();
+            entry = entries.get(key);
+            hit = entry != null && entry.version.equals(version);
+            if (hit) {
+                hits++;
+            }
+        }
+        if (hit) {
+            // 재시작 후 LRU 순서를 복원하는 데 쓰는 시각
+            entry.file.setLastModified(System.currentTimeMillis());
+            return fromEntry(entry);
+        }
+
+        CompletableFuture<Result> pending = new CompletableFuture<>();
+        CompletableFuture<Result> existing = inFlight.putIfAbsent(url, pending);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            Result result = fetch(url, requestHeaders, key, version, entry);
+            pending.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(url, pending);
+        }
+    }
+
+    private Result fetch(String url, Map<String, String> requestHeaders, String key, String version,
+                         Entry stale) throws IOException {
+        Fetched fetched = fetcher.fetch(url, stale != null ? stale.etag : null, requestHeaders);
+        if (fetched.status == 304 && stale != null) {
+            // 본문은 같고 v 만 바뀜
+            Entry updated = write(key, version, stale.etag, stale.mimeType, stale.allowOrigin, readBody(stale));
+            synchronized (this) {
+                revalidated++;
+                replace(updated);
+            }
+            return fromEntry(updated);
+        }
+        synchronized (this) {
+            misses++;
+        }
+        if (fetched.status != 200) {
+            return new Result(fetched.status, fetched.reasonPhrase, fetched.mimeType, fetched.allowOrigin,
+                    fetched.headers, false, null, 0, fetched.body);
+        }
+        if (fetched.body.length > maxEntryBytes) {
+            return new Result(200, fetched.mimeType, fetched.allowOrigin, false, null, 0, fetched.body);
+        }
+        Entry written = write(key, version, fetched.etag, fetched.mimeType, fetched.allowOrigin, fetched.body);
+        synchronized (this) {
+            replace(written);
+        }
+        return new Result(200, fetched.mimeType, fetched.allowOrigin, false, null, 0, fetched.body);
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, misses, revalidated, evictions, entries.size(), totalBytes, maxBytes);
+    }
+
+    private static Result fromEntry(Entry entry) {
+        return new Result(200, entry.mimeType, entry.allowOrigin, true, entry.file, entry.bodyOffset, null);
+    }
+
+    // synchronized (this) 안에서만
+    private void replace(Entry entry) {
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            totalBytes -= previous.size;
+            if (!previous.file.equals(entry.file)) {
+                previous.file.delete();
+            }
+        }
+        totalBytes += entry.size;
+        for (Iterator<Entry> it = entries.values().iterator(); totalBytes > maxBytes && it.hasNext(); ) {
+            Entry eldest = it.next();
+            if (eldest == entry) {
+                continue;
+            }
+            it.remove();
+            totalBytes -= eldest.size;
+            evictions++;
+            eldest.file.delete();
+        }
+    }
+
+    // magic(format), key, version, etag, mimeType, allowOrigin, bodyLength, body
+    private Entry write(String key, String version, String etag, String mimeType, String allowOrigin,
+                        byte[] body) throws IOException {
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        // 버전마다 다른 파일: 이전 버전을 읽고 있는 응답이 덮어쓴 내용을 읽지 않도록
+        File file = new File(dir, fileNameOf(key, version));
+        File tmp = new File(dir, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        long bodyOffset;
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(FORMAT_VERSION);
+            data.writeUTF(key);
+            data.writeUTF(version);
+            data.writeUTF(etag);
+            data.writeUTF(mimeType);
+            data.writeUTF(allowOrigin);
+            data.writeLong(body.length);
+            bodyOffset = data.size();
+            data.write(body);
+            data.flush();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+        return new Entry(key, file, version, etag, mimeType, allowOrigin, bodyOffset, file.length());
+    }
+
+    private static byte[] readBody(Entry entry) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(entry.file))) {
+            in.skipBytes((int) entry.bodyOffset);
+            byte[] body = new byte[(int) (entry.size - entry.bodyOffset)];
+            in.readFully(body);
+            return body;
+        }
+    }
+
+    // 디스크의 파일 헤더로 인덱스를 다시 만듭니다. 마지막 사용 시각 대신 수정 시각 순서로 LRU 를 복원
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> cached = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                cached.add(file);
+            } else {
+                // 쓰다가 종료된 임시 파일
+                file.delete();
+            }
+        }
+        cached.sort(Comparator.comparingLong(File::lastModified));
+        for (File file : cached) {
+            Entry entry = readHeader(file);
+            if (entry == null) {
+                file.delete();
+                continue;
+            }
+            entries.put(entry.key, entry);
+            totalBytes += entry.size;
+        }
+        for (Iterator<Entry> it = entries.values().iterator(); totalBytes > maxBytes && it.hasNext(); ) {
+            Entry eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.size;
+            eldest.file.delete();
+        }
+    }
+
+    private static Entry readHeader(File file) {
+        try (FileInputStream raw = new FileInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 1024));
+            if (in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String key = in.readUTF();
+            String version = in.readUTF();
+            String etag = in.readUTF();
+            String mimeType = in.readUTF();
+            String allowOrigin = in.readUTF();
+            long bodyLength = in.readLong();
+            long size = file.length();
+            long bodyOffset = size - bodyLength;
+            if (bodyLength < 0 || !file.getName().equals(fileNameOf(key, version)) || bodyOffset <= 0) {
+                return null;
+            }
+            return new Entry(key, file, version, etag, mimeType, allowOrigin, bodyOffset, size);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Result await(CompletableFuture<Result> pending) throws IOException {
+        try {
+            // Result 는 openStream 마다 새 스트림을 만들므로 같이 써도 됨
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for image", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        }
+    }
+
+    /**
+     * URL 에서 v 파라미터를 뺀 값 (#fragment 도 제외)
+     */
+    static String keyOf(String url) {
+        int hash = url.indexOf('#');
+        if (hash >= 0) {
+            url = url.substring(0, hash);
+        }
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return url;
+        }
+        StringBuilder key = new StringBuilder(url.length()).append(url, 0, query);
+        char separator = '?';
+        for (String param : url.substring(query + 1).split("&")) {
+            if (param.isEmpty() || param.equals(VERSION_PARAM) || param.startsWith(VERSION_PARAM + "=")) {
+                continue;
+            }
+            key.append(separator).append(param);
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    /**
+     * v 파라미터 값, 없으면 ""
+     */
+    static String versionOf(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return "";
+        }
+        int hash = url.indexOf('#', query);
+        String params = hash < 0 ? url.substring(query + 1) : url.substring(query + 1, hash);
+        for (String param : params.split("&")) {
+            if (param.startsWith(VERSION_PARAM + "=")) {
+                return param.substring(VERSION_PARAM.length() + 1);
+            }
+        }
+        return "";
+    }
+
+    private static String fileNameOf(String key, String version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((key + '\n' + version).getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(40);
+            for (byte b : Arrays.copyOf(digest, 16)) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
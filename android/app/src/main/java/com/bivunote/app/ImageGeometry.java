@@ -0,0 +1,161 @@
+package com.bivunote.app;
+
+/**
+ * 업로드 이미지 크기/회전 계산. (android.graphics 없이 테스트할 수 있도록 숫자만 다룸)
+ *
+ * 디코딩은 inSampleSize 로 목표보다 크거나 같은 가장 작은 2의 거듭제곱 배율까지 줄이고,
+ * 남은 축소와 EXIF 회전/반전은 한 번의 행렬 변환으로 처리합니다.
+ */
+final class ImageGeometry {
+
+    // ExifInterface.ORIENTATION_* 값
+    static final int ORIENTATION_NORMAL = 1;
+    static final int ORIENTATION_FLIP_HORIZONTAL = 2;
+    static final int ORIENTATION_ROTATE_180 = 3;
+    static final int ORIENTATION_FLIP_VERTICAL = 4;
+    static final int ORIENTATION_TRANSPOSE = 5;
+    static final int ORIENTATION_ROTATE_90 = 6;
+    static final int ORIENTATION_TRANSVERSE = 7;
+    static final int ORIENTATION_ROTATE_270 = 8;
+
+    private ImageGeometry() {
+    }
+
+    /**
+     * 디코딩 결과의 긴 변이 maxEdge 이상으로 남는 가장 큰 2의 거듭제곱 inSampleSize.
+     * 원본이 이미 작으면 1
+     */
+    static int sampleSize(int width, int height, int maxEdge) {
+        int longEdge = Math.max(width, height);
+        int sample = 1;
+        while (maxEdge > 0 && longEdge / (sample * 2) >= maxEdge) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * 비율을 유지한 채 긴 변을 maxEdge 로 맞춘 크기 {width, height}. 확대는 하지 않습니다.
+     */
+    static int[] targetSize(int width, int height, int maxEdge) {
+        int longEdge = Math.max(width, height);
+        if (maxEdge <= 0 || longEdge <= maxEdge) {
+            return new int[]{width, height};
+        }
+        double scale = (double) maxEdge / longEdge;
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        return new int[]{targetWidth, targetHeight};
+    }
+
+    /** 반전 후 시계 방향으로 돌릴 각도 (androidx ExifInterface.getRotationDegrees 와 같은 규칙) */
+    static int rotationDegrees(int orientation) {
+        switch (orientation) {
+            case ORIENTATION_ROTATE_90:
+            case ORIENTATION_TRANSVERSE:
+                return 90;
+            case ORIENTATION_ROTATE_180:
+            case ORIENTATION_FLIP_VERTICAL:
+                return 180;
+            case ORIENTATION_ROTATE_270:
+            case ORIENTATION_TRANSPOSE:
+                return 270;
+            default:
+                return 0;
+        }
+    }
+
+    /** 회전 전에 좌우 반전이 필요한지 */
+    static boolean isFlipped(int orientation) {
+        return orientation == ORIENTATION_FLIP_HORIZONTAL
+                || orientation == ORIENTATION_FLIP_VERTICAL
+                || orientation == ORIENTATION_TRANSPOSE
+                || orientation == ORIENTATION_TRANSVERSE;
+    }
+
+    /** 회전 결과 가로/세로가 바뀌는지 */
+    static boolean swapsDimensions(int orientation) {
+        return rotationDegrees(orientation) % 180 != 0;
+    }
+
+    /**
+     * 디코딩된 width x height 비트맵을 바로 세운 뒤 긴 변이 maxEdge 가 되도록 줄이는 3x3 행렬.
+     * android.graphics.Matrix.setValues 순서(row-major)이고, 결과 좌표는 (0,0) 에서 시작합니다.
+     */
+    static float[] transform(int width, int height, int orientation, int maxEdge) {
+        int[] target = targetSize(width, height, maxEdge);
+        double scaleX = (double) target[0] / width;
+        double scaleY = (double) target[1] / height;
+        double w = target[0];
+        double h = target[1];
+
+        // 축소 → 좌우 반전 → 회전 순서로 합성 (x' = a*x + b*y + c, y' = d*x + e*y + f)
+        double a = scaleX;
+        double b = 0;
+        double c = 0;
+        double d = 0;
+        double e = scaleY;
+        double f = 0;
+        if (isFlipped(orientation)) {
+            a = -a;
+            c = w;
+        }
+        double na;
+        double nb;
+        double nc;
+        double nd;
+        double ne;
+        double nf;
+        switch (rotationDegrees(orientation)) {
+            case 90:
+                // (x, y) → (h - y, x)
+                na = -d;
+                nb = -e;
+                nc = h - f;
+                nd = a;
+                ne = b;
+                nf = c;
+                break;
+            case 180:
+                // (x, y) → (w - x, h - y)
+                na = -a;
+                nb = -b;
+                nc = w - c;
+                nd = -d;
+                ne = -e;
+                nf = h - f;
+                break;
+            case 270:
+                // (x, y) → (y, w - x)
+                na = d;
+                nb = e;
+                nc = f;
+                nd = -a;
+                ne = -b;
+                nf = w - c;
+                break;
+            default:
+                na = a;
+                nb = b;
+                nc = c;
+                nd = d;
+                ne = e;
+                nf = f;
+                break;
+        }
+        return new float[]{
+                (float) na, (float) nb, (float) nc,
+                (float) nd, (float) ne, (float) nf,
+                0f, 0f, 1f,
+        };
+    }
+
+    /** transform 결과의 크기 {width, height} */
+    static int[] outputSize(int width, int height, int orientation, int maxEdge) {
+        int[] target = targetSize(width, height, maxEdge);
+        if (swapsDimensions(orientation)) {
+            return new int[]{target[1], target[0]};
+        }
+        return target;
+    }
+}
@@ -0,0 +1,306 @@
+package com.bivunote.app;
+
+import android.app.Activity;
+import android.content.ContentResolver;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.MediaStore;
+import android.util.Log;
+
+import androidx.activity.result.ActivityResult;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.ActivityCallback;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 업로드할 이미지를 네이티브에서 줄이고 WebP 로 인코딩합니다.
+ *
+ * WebView 의 canvas 대신 백그라운드 스레드에서 inSampleSize 디코딩 → EXIF 회전 → 축소 → WebP 인코딩을 하고,
+ * 결과는 앱 캐시 디렉터리의 파일로 남겨 경로와 크기만 돌려줍니다. (base64 로 브리지를 건너지 않음)
+ */
+@CapacitorPlugin(name = "ImageProcessor")
+public class ImageProcessorPlugin extends TracedPlugin {
+
+    private static final String TAG = "ImageProcessorPlugin";
+    private static final String OUTPUT_DIR = "upload-images";
+    private static final String OUTPUT_MIME_TYPE = "image/webp";
+    private static final int DEFAULT_MAX_SIZE = 512;
+    private static final int MAX_SIZE_LIMIT = 4096;
+    private static final double DEFAULT_QUALITY = 0.82;
+    // 업로드가 끝나면 JS 가 지우지만, 도중에 앱이 죽어 남은 파일은 하루 뒤 정리
+    private static final long STALE_OUTPUT_MS = 24 * 60 * 60 * 1000L;
+
+    // 큰 사진 여러 장을 동시에 디코딩하면 메모리 사용량이 그만큼 늘어나므로 한 번에 하나씩
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private File outputDir;
+
+    public ImageProcessorPlugin() {
+        super("ImageProcessor");
+    }
+
+    @Override
+    protected void onLoad() {
+        outputDir = new File(getContext().getCacheDir(), OUTPUT_DIR);
+        executor.execute(this::deleteStaleOutputs);
+    }
+
+    /**
+     * 시스템 사진 선택기를 띄워 content URI 를 돌려줍니다. 취소하면 uri 가 없습니다.
+     * (사용자가 고르는 시간이 지연 시간에 섞이지 않도록 BridgeTracer 에는 기록하지 않음)
+     */
+    @PluginMethod
+    public void pickImage(PluginCall call) {
+        Intent intent;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            intent = new Intent(MediaStore.ACTION_PICK_IMAGES);
+        } else {
+            intent = new Intent(Intent.ACTION_GET_CONTENT).addCategory(Intent.CATEGORY_OPENABLE);
+        }
+        intent.setType("image/*");
+        startActivityForResult(call, intent, "pickImageResult");
+    }
+
+    @ActivityCallback
+    private void pickImageResult(PluginCall call, ActivityResult result) {
+        if (call == null) {
+            return;
+        }
+        JSObject response = new JSObject();
+        Intent data = result.getData();
+        if (result.getResultCode() == Activity.RESULT_OK && data != null && data.getData() != null) {
+            response.put("uri", data.getData().toString());
+        }
+        call.resolve(response);
+    }
+
+    /**
+     * uri 의 이미지를 긴 변 maxSize(기본 512px) 이하로 줄여 quality(0~1, 기본 0.82) 의 WebP 파일로 저장합니다.
+     */
+    @PluginMethod
+    public void processImage(PluginCall call) {
+        String uri = call.getString("uri");
+        if (uri == null || uri.isEmpty()) {
+            call.reject("uri is required");
+            return;
+        }
+        // pickImage 결과만 받음 (file: 이면 앱 내부 파일도 읽을 수 있으므로)
+        Uri parsed = Uri.parse(uri);
+        if (!ContentResolver.SCHEME_CONTENT.equals(parsed.getScheme())) {
+            call.reject("uri must be a content URI");
+            return;
+        }
+        int maxSize = Math.max(1, Math.min(MAX_SIZE_LIMIT, call.getInt("maxSize", DEFAULT_MAX_SIZE)));
+        Double quality = call.getDouble("quality");
+        if (quality == null) {
+            quality = DEFAULT_QUALITY;
+        }
+        int encoderQuality = (int) Math.round(Math.max(0, Math.min(1, quality)) * 100);
+
+        beginTrace(call);
+        try {
+            executor.execute(new ProcessTask(call, parsed, maxSize, encoderQuality));
+        } catch (RejectedExecutionException e) {
+            // handleOnDestroy 이후
+            reject(call, "Image processor was destroyed");
+        }
+    }
+
+    // handleOnDestroy 에서 아직 시작하지 않은 호출을 찾아 reject 할 수 있도록 Runnable 에 call 을 둠
+    private final class ProcessTask implements Runnable {
+        final PluginCall call;
+        private final Uri uri;
+        private final int maxSize;
+        private final int quality;
+
+        ProcessTask(PluginCall call, Uri uri, int maxSize, int quality) {
+            this.call = call;
+            this.uri = uri;
+            this.maxSize = maxSize;
+            this.quality = quality;
+        }
+
+        @Override
+        public void run() {
+            callStarted(call);
+            try {
+                resolve(call, process(uri, maxSize, quality));
+            } catch (IOException | RuntimeException e) {
+                // SecurityException (권한 없는 URI), 손상된 파일에서 디코더가 던지는 예외 등
+                Log.w(TAG, "Failed to process image: " + e);
+                reject(call, "Failed to process image", e);
+            } catch (OutOfMemoryError e) {
+                Log.w(TAG, "Out of memory while processing image");
+                reject(call, "Image is too large");
+            }
+        }
+    }
+
+    /**
+     * processImage 가 만든 파일을 지웁니다. 출력 디렉터리 밖의 경로는 무시합니다.
+     */
+    @PluginMethod
+    public void deleteImage(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null || path.isEmpty()) {
+            call.reject("path is required");
+            return;
+        }
+        boolean deleted = false;
+        try {
+            File file = new File(path).getCanonicalFile();
+            File parent = file.getParentFile();
+            if (parent != null && parent.equals(outputDir.getCanonicalFile())) {
+                deleted = file.delete();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to delete processed image: " + e);
+        }
+        JSObject result = new JSObject();
+        result.put("deleted", deleted);
+        call.resolve(result);
+    }
+
+    private JSObject process(Uri uri, int maxSize, int quality) throws IOException {
+        ContentResolver resolver = getContext().getContentResolver();
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(resolver, uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not a decodable image: " + bounds.outMimeType);
+        }
+        int orientation = readOrientation(resolver, uri);
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = ImageGeometry.sampleSize(bounds.outWidth, bounds.outHeight, maxSize);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, uri)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Failed to decode image");
+        }
+
+        // 남은 축소와 회전/반전을 한 번에
+        Bitmap output = decoded;
+        Matrix matrix = new Matrix();
+        matrix.setValues(ImageGeometry.transform(decoded.getWidth(), decoded.getHeight(), orientation, maxSize));
+        if (!matrix.isIdentity()) {
+            output = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(), decoded.getHeight(), matrix, true);
+            if (output != decoded) {
+                decoded.recycle();
+            }
+        }
+
+        int width = output.getWidth();
+        int height = output.getHeight();
+        File file;
+        try {
+            file = writeWebp(output, quality);
+        } finally {
+            output.recycle();
+        }
+
+        JSObject result = new JSObject();
+        result.put("path", file.getAbsolutePath());
+        result.put("size", file.length());
+        result.put("width", width);
+        result.put("height", height);
+        result.put("mimeType", OUTPUT_MIME_TYPE);
+        return result;
+    }
+
+    private File writeWebp(Bitmap bitmap, int quality) throws IOException {
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Failed to create " + outputDir);
+        }
+        String name = UUID.randomUUID().toString();
+        File tmp = new File(outputDir, name + ".tmp");
+        File file = new File(outputDir, name + ".webp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            if (!bitmap.compress(webpFormat(), quality, out)) {
+                throw new IOException("WebP encoding failed");
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Failed to rename " + tmp);
+        }
+        return file;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Bitmap.CompressFormat webpFormat() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return Bitmap.CompressFormat.WEBP_LOSSY;
+        }
+        // R 미만의 WEBP 는 quality < 100 이면 손실 압축
+        return Bitmap.CompressFormat.WEBP;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        return in;
+    }
+
+    private static int readOrientation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = open(resolver, uri)) {
+            return new ExifInterface(in).getAttributeInt(ExifInterface.TAG_ORIENTATION,
+                    ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            // EXIF 가 없거나 읽을 수 없는 형식이면 회전하지 않음
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    private void deleteStaleOutputs() {
+        File[] files = outputDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - STALE_OUTPUT_MS;
+        for (File file : files) {
+            if (file.lastModified() < cutoff) {
+                file.delete();
+            }
+        }
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        // 진행 중인 것은 끝까지 (디코딩은 interrupt 에 반응하지 않음), 대기 중인 것은 바로 reject
+        for (Runnable pending : executor.shutdownNow()) {
+            if (pending instanceof ProcessTask) {
+                reject(((ProcessTask) pending).call, "Image processor was destroyed");
+            }
+        }
+    }
+}
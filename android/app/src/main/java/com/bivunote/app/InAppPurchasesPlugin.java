@@ -2,16 +2,21 @@ package com.bivunote.app;
 
 import android.app.Activity;
 import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Base64;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.getcapacitor.JSObject;
-import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
 
+import com.bivunote.bridge.CallTrace;
+
 import com.android.billingclient.api.BillingClient;
 import com.android.billingclient.api.BillingClientStateListener;
 import com.android.billingclient.api.BillingFlowParams;
@@ -19,7 +24,6 @@ import com.android.billingclient.api.BillingResult;
 import com.android.billingclient.api.ConsumeParams;
 import com.android.billingclient.api.ConsumeResponseListener;
 import com.android.billingclient.api.ProductDetails;
-import com.android.billingclient.api.ProductDetailsResponseListener;
 import com.android.billingclient.api.Purchase;
 import com.android.billingclient.api.PurchasesResponseListener;
 import com.android.billingclient.api.PurchasesUpdatedListener;
@@ -30,79 +34,350 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @CapacitorPlugin(name = "InAppPurchases")
-public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedListener {
+public class InAppPurchasesPlugin extends TracedPlugin implements PurchasesUpdatedListener {
 
     private static final String TAG = "InAppPurchasesPlugin";
-    private BillingClient billingClient;
-    private PluginCall purchaseCall;
-    private boolean isServiceConnected = false;
+    // 상품 가격은 자주 바뀌지 않으므로 30분 동안 재사용
+    private static final long PRODUCT_CACHE_TTL_MS = 30 * 60 * 1000L;
+    private static final int PRODUCT_CACHE_MAX_ENTRIES = 64;
+    // 여러 화면이 거의 동시에 getProducts 를 호출하면 이 시간 안의 요청을 한 번에 조회
+    private static final long PRODUCT_QUERY_WINDOW_MS = 10;
+    // 연결 전에 들어온 호출은 최대 32개까지, 10초 동안 연결을 기다림
+    private static final int READY_QUEUE_CAPACITY = 32;
+    private static final long READY_QUEUE_DEADLINE_MS = 10_000;
+    private static final long RECONNECT_BASE_DELAY_MS = 1_000;
+    private static final long RECONNECT_MAX_DELAY_MS = 60_000;
+    // 결제 시트에서 결과가 오지 않은 채 남은 호출은 5분 후 실패 처리
+    private static final long PURCHASE_TIMEOUT_MS = 5 * 60 * 1000L;
+    // consume 은 50ms 동안 모아서 요청하고, 실패하면 최대 6번까지 백오프 후 재시도
+    private static final long CONSUME_BATCH_WINDOW_MS = 50;
+    private static final int CONSUME_MAX_ATTEMPTS = 6;
+    private static final long CONSUME_RETRY_BASE_DELAY_MS = 2_000;
+    private static final long CONSUME_RETRY_MAX_DELAY_MS = 5 * 60 * 1000L;
+    private static final String CONSUME_JOURNAL_FILE = "billing/consume-journal";
+    private static final String PURCHASE_LEDGER_FILE = "billing/purchase-ledger";
+    private static final String ENTITLEMENTS_FILE = "billing/entitlements";
+    private static final String CATALOG_SNAPSHOT_FILE = "billing/catalog-snapshot";
+    // JS 가 purchaseUpdated 를 구독하기 전에 도착한 구매 이벤트는 최대 50개까지 보관
+    private static final int PURCHASE_EVENT_BUFFER_CAPACITY = 50;
+
+    static final String EVENT_CONNECTION_STATE_CHANGE = "connectionStateChange";
+    static final String EVENT_CONSUME_RESULT = "consumeResult";
+    static final String EVENT_PRODUCTS_UPDATED = "productsUpdated";
+    static final String EVENT_PURCHASE_UPDATED = "purchaseUpdated";
+    static final String STATE_DISCONNECTED = "disconnected";
+    static final String STATE_CONNECTING = "connecting";
+    static final String STATE_CONNECTED = "connected";
+    // capacitor.config 의 plugins.InAppPurchases.initMode
+    // - eager: load() 에서 바로 연결 (기본값)
+    // - firstCall: 결제 관련 메서드가 처음 호출될 때 연결
+    // - idle: 첫 화면을 그린 뒤 메인 스레드가 한가해지면 연결
+    static final String INIT_MODE_EAGER = "eager";
+    static final String INIT_MODE_FIRST_CALL = "firstCall";
+    static final String INIT_MODE_IDLE = "idle";
+
+    private volatile BillingClient billingClient;
+    private String initMode = INIT_MODE_EAGER;
+    private final AtomicBoolean billingClientStarted = new AtomicBoolean();
+    // 콜드 스타트에 결제 초기화가 차지하는 시간 (elapsedRealtimeNanos 기준)
+    private volatile long clientInitStartedNanos;
+    private volatile long clientInitNanos;
+    private volatile boolean clientInitOnMainThread;
+    private volatile String clientInitTrigger;
+    private volatile long connectedNanos;
+    private volatile String connectionState = STATE_DISCONNECTED;
+    private final ProductDetailsCache<ProductDetails> productDetailsCache =
+            new ProductDetailsCache<>(PRODUCT_CACHE_TTL_MS, PRODUCT_CACHE_MAX_ENTRIES, SystemClock::elapsedRealtime);
+    private String cachedCurrencyCode;
+    private volatile Locale cachedLocale;
+    private ProductCatalogSnapshot catalogSnapshot;
+    private final ScheduledExecutorService billingExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final ProductQueryBatcher<ProductDetails> productQueryBatcher =
+            new ProductQueryBatcher<>(this::queryProductDetailsAsync, ProductDetails::getProductId,
+                    billingExecutor, PRODUCT_QUERY_WINDOW_MS);
+    private final ReadinessQueue readyQueue =
+            new ReadinessQueue(READY_QUEUE_CAPACITY, READY_QUEUE_DEADLINE_MS, billingExecutor);
+    private final ExponentialBackoff reconnectBackoff = new ExponentialBackoff(
+            RECONNECT_BASE_DELAY_MS, RECONNECT_MAX_DELAY_MS, () -> ThreadLocalRandom.current().nextDouble());
+    private final PendingPurchaseRegistry<PluginCall> pendingPurchases = new PendingPurchaseRegistry<>(
+            PURCHASE_TIMEOUT_MS, billingExecutor, call -> reject(call, "Purchase timed out"));
+    private ConsumePipeline consumePipeline;
+    private PurchaseLedger purchaseLedger;
+    private EntitlementStore entitlementStore;
+    private final EventReplayBuffer<JSObject> purchaseEventBuffer =
+            new EventReplayBuffer<>(PURCHASE_EVENT_BUFFER_CAPACITY);
+
+    public InAppPurchasesPlugin() {
+        super("InAppPurchases");
+    }
 
     @Override
-    public void load() {
-        super.load();
-        initializeBillingClient();
+    protected void onLoad() {
+        cachedLocale = getContext().getResources().getConfiguration().getLocales().get(0);
+        purchaseLedger = new PurchaseLedger(new File(getContext().getFilesDir(), PURCHASE_LEDGER_FILE));
+        catalogSnapshot = new ProductCatalogSnapshot(
+                new File(getContext().getFilesDir(), CATALOG_SNAPSHOT_FILE), PRODUCT_CACHE_MAX_ENTRIES);
+        initializeEntitlementStore();
+        initializeConsumePipeline();
+
+        initMode = getConfig().getString("initMode", INIT_MODE_EAGER);
+        switch (initMode) {
+            case INIT_MODE_FIRST_CALL:
+                // whenReady/initialize/consumeAsync 에서 ensureBillingClient 호출
+                break;
+            case INIT_MODE_IDLE:
+                scheduleIdleInitialization();
+                break;
+            default:
+                if (!INIT_MODE_EAGER.equals(initMode)) {
+                    Log.w(TAG, "Unknown initMode " + initMode + ", falling back to " + INIT_MODE_EAGER);
+                    initMode = INIT_MODE_EAGER;
+                }
+                ensureBillingClient("load");
+                break;
+        }
     }
 
-    private void initializeBillingClient() {
+    /**
+     * 첫 프레임 이후 메인 스레드가 처음 한가해질 때 billingExecutor 에서 연결을 시작합니다.
+     */
+    private void scheduleIdleInitialization() {
         Activity activity = getActivity();
         if (activity == null) {
-            Log.e(TAG, "Activity is null, cannot initialize billing client");
             return;
         }
+        // decorView.post 는 첫 레이아웃 패스에서 실행되고, 그 뒤의 IdleHandler 는 첫 프레임을 그린 다음에 호출됨
+        activity.getWindow().getDecorView().post(() -> Looper.myQueue().addIdleHandler(() -> {
+            if (!billingExecutor.isShutdown()) {
+                billingExecutor.execute(() -> ensureBillingClient(INIT_MODE_IDLE));
+            }
+            return false;
+        }));
+    }
+
+    /**
+     * 아직 만들지 않았으면 BillingClient 를 만들고 연결을 시작합니다. (만드는 데 성공할 때까지 한 번만 실행)
+     */
+    private void ensureBillingClient(String trigger) {
+        if (!billingClientStarted.compareAndSet(false, true)) {
+            return;
+        }
+        long startedNanos = SystemClock.elapsedRealtimeNanos();
+        clientInitStartedNanos = startedNanos;
+        clientInitTrigger = trigger;
+        clientInitOnMainThread = Looper.myLooper() == Looper.getMainLooper();
+        if (!initializeBillingClient()) {
+            // Activity 가 아직 없음 → 다음 호출이 다시 시도할 수 있도록
+            billingClientStarted.set(false);
+            return;
+        }
+        clientInitNanos = SystemClock.elapsedRealtimeNanos() - startedNanos;
+    }
+
+    private void initializeEntitlementStore() {
+        String licenseKey = getContext().getString(R.string.play_license_key);
+        if (licenseKey.isEmpty()) {
+            // 키 없이 검증을 건너뛰면 위조된 구매도 권한이 되므로 저장소 자체를 사용하지 않음
+            Log.w(TAG, "play_license_key is not set (PLAY_LICENSE_KEY gradle property), entitlement store is disabled");
+            return;
+        }
+        try {
+            PurchaseVerifier verifier = PurchaseVerifier.fromBase64Key(licenseKey,
+                    value -> Base64.decode(value, Base64.DEFAULT));
+            entitlementStore = new EntitlementStore(
+                    new File(getContext().getFilesDir(), ENTITLEMENTS_FILE), verifier);
+        } catch (GeneralSecurityException e) {
+            Log.e(TAG, "Invalid play_license_key, entitlement store is disabled", e);
+            return;
+        }
+
+        billingExecutor.execute(() -> {
+            try {
+                entitlementStore.load();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to read entitlements", e);
+            }
+        });
+    }
+
+    private void initializeConsumePipeline() {
+        ConsumeJournal journal = new ConsumeJournal(new File(getContext().getFilesDir(), CONSUME_JOURNAL_FILE));
+        consumePipeline = new ConsumePipeline(journal, this::consumeAsync, this::notifyConsumeResult,
+                billingExecutor, CONSUME_BATCH_WINDOW_MS, CONSUME_MAX_ATTEMPTS,
+                () -> new ExponentialBackoff(CONSUME_RETRY_BASE_DELAY_MS, CONSUME_RETRY_MAX_DELAY_MS,
+                        () -> ThreadLocalRandom.current().nextDouble()),
+                SystemClock::elapsedRealtime);
+
+        // 지난 실행에서 소비하지 못한 구매를 다시 처리 (연결될 때까지 readyQueue 에서 대기)
+        billingExecutor.execute(() -> {
+            try {
+                int replayed = consumePipeline.replay();
+                if (replayed > 0) {
+                    Log.d(TAG, "Replaying " + replayed + " unconsumed purchases");
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to read consume journal", e);
+            }
+        });
+    }
+
+    /**
+     * @return Activity 가 없어 만들지 못했으면 false
+     */
+    private boolean initializeBillingClient() {
+        Activity activity = getActivity();
+        if (activity == null) {
+            Log.e(TAG, "Activity is null, cannot initialize billing client");
+            return false;
+        }
 
         billingClient = BillingClient.newBuilder(activity)
                 .setListener(this)
                 .enablePendingPurchases()
                 .build();
 
-        billingClient.startConnection(new BillingClientStateListener() {
-            @Override
-            public void onBillingSetupFinished(BillingResult billingResult) {
-                if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
-                    isServiceConnected = true;
-                    Log.d(TAG, "Billing client connected");
-                } else {
-                    Log.e(TAG, "Billing client connection failed: " + billingResult.getResponseCode());
+        startConnection();
+        return true;
+    }
+
+    private final BillingClientStateListener billingStateListener = new BillingClientStateListener() {
+        @Override
+        public void onBillingSetupFinished(BillingResult billingResult) {
+            if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
+                Log.d(TAG, "Billing client connected");
+                if (connectedNanos == 0) {
+                    connectedNanos = SystemClock.elapsedRealtimeNanos();
+                    Log.i(TAG, "Billing startup timing: " + startupTiming());
                 }
+                reconnectBackoff.reset();
+                setConnectionState(STATE_CONNECTED, billingResult.getResponseCode());
+                // 연결을 기다리던 호출을 순서대로 처리
+                readyQueue.setReady(true);
+                retryStrandedConsumes();
+            } else {
+                Log.e(TAG, "Billing client connection failed: " + billingResult.getResponseCode());
+                setConnectionState(STATE_DISCONNECTED, billingResult.getResponseCode());
+                scheduleReconnect();
             }
+        }
+
+        @Override
+        public void onBillingServiceDisconnected() {
+            readyQueue.setReady(false);
+            clearProductDetailsCache();
+            Log.d(TAG, "Billing client disconnected");
+            setConnectionState(STATE_DISCONNECTED, BillingClient.BillingResponseCode.SERVICE_DISCONNECTED);
+            scheduleReconnect();
+        }
+    };
+
+    private void startConnection() {
+        setConnectionState(STATE_CONNECTING, BillingClient.BillingResponseCode.OK);
+        billingClient.startConnection(billingStateListener);
+    }
+
+    /**
+     * 바로 재연결하지 않고 지수 백오프(+jitter) 후에 재연결을 시도합니다
+     */
+    private void scheduleReconnect() {
+        if (billingExecutor.isShutdown()) {
+            return;
+        }
+        long delay = reconnectBackoff.nextDelayMillis();
+        Log.d(TAG, "Reconnecting billing client in " + delay + "ms (attempt " + reconnectBackoff.getAttempt() + ")");
+        billingExecutor.schedule(this::startConnection, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void setConnectionState(String state, int responseCode) {
+        connectionState = state;
+        JSObject data = new JSObject();
+        data.put("state", state);
+        data.put("responseCode", responseCode);
+        notifyListeners(EVENT_CONNECTION_STATE_CHANGE, data);
+    }
 
+    /**
+     * 연결되어 있으면 바로, 아니면 연결될 때까지 기다렸다가 action 을 실행합니다.
+     */
+    private void whenReady(PluginCall call, Runnable action) {
+        ensureBillingClient("call");
+        readyQueue.submit(new ReadinessQueue.Task() {
             @Override
-            public void onBillingServiceDisconnected() {
-                isServiceConnected = false;
-                Log.d(TAG, "Billing client disconnected");
-                // 재연결 시도
-                billingClient.startConnection(this);
+            public void run() {
+                callStarted(call);
+                action.run();
+            }
+
+            @Override
+            public void fail(String reason) {
+                reject(call, reason);
             }
         });
     }
 
+    /**
+     * 호출 추적 시작. 연결을 기다렸다가 같은 메서드를 다시 부르면 처음 도착한 호출을 그대로 이어갑니다.
+     * needsConnection 이면 연결될 때까지를 queue 시간으로 봅니다.
+     */
+    private void beginCall(PluginCall call, boolean needsConnection) {
+        if (findTrace(call) != null) {
+            return;
+        }
+        CallTrace trace = beginTrace(call);
+        if (!needsConnection || readyQueue.isReady()) {
+            trace.started();
+        }
+    }
+
     @PluginMethod
     public void initialize(PluginCall call) {
-        if (isServiceConnected) {
-            JSObject result = new JSObject();
-            result.put("success", true);
-            call.resolve(result);
-        } else {
-            JSObject result = new JSObject();
-            result.put("success", false);
-            call.resolve(result);
-        }
+        beginCall(call, true);
+        // 연결될 때까지 기다렸다가 응답하므로 JS 에서 반복 호출(polling)할 필요가 없습니다
+        ensureBillingClient("call");
+        readyQueue.submit(new ReadinessQueue.Task() {
+            @Override
+            public void run() {
+                callStarted(call);
+                resolveInitialize(call, true);
+            }
+
+            @Override
+            public void fail(String reason) {
+                callStarted(call);
+                resolveInitialize(call, false);
+            }
+        });
+    }
+
+    private void resolveInitialize(PluginCall call, boolean success) {
+        JSObject result = new JSObject();
+        result.put("success", success);
+        result.put("state", connectionState);
+        resolve(call, result);
     }
 
     @PluginMethod
     public void getProducts(PluginCall call) {
-        if (!isServiceConnected) {
-            call.reject("Billing client is not connected");
-            return;
-        }
-
+        beginCall(call, true);
         JSObject data = call.getData();
         if (data == null) {
-            call.reject("productIds is required");
+            reject(call, "productIds is required");
             return;
         }
 
@@ -111,7 +386,7 @@ public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedList
             // data는 { productIds: [...] } 형태입니다
             JSONArray productIdsArray = data.getJSONArray("productIds");
             if (productIdsArray == null) {
-                call.reject("productIds is required");
+                reject(call, "productIds is required");
                 return;
             }
 
@@ -120,72 +395,77 @@ public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedList
                 productIds.add(productIdsArray.getString(i));
             }
 
-            List<QueryProductDetailsParams.Product> productList = new ArrayList<>();
+            // 캐시에 없는 상품만 Play 에 조회합니다
+            List<String> missingIds = new ArrayList<>();
             for (String productId : productIds) {
-                productList.add(QueryProductDetailsParams.Product.newBuilder()
-                        .setProductId(productId)
-                        .setProductType(BillingClient.ProductType.INAPP)
-                        .build());
+                if (productDetailsCache.get(productId, BillingClient.ProductType.INAPP) == null) {
+                    missingIds.add(productId);
+                }
             }
 
-            QueryProductDetailsParams params = QueryProductDetailsParams.newBuilder()
-                    .setProductList(productList)
-                    .build();
+            if (missingIds.isEmpty()) {
+                resolveProducts(call, productIds, new ArrayList<>());
+                return;
+            }
 
-            billingClient.queryProductDetailsAsync(params, new ProductDetailsResponseListener() {
-                @Override
-                public void onProductDetailsResponse(@NonNull BillingResult billingResult,
-                                                      @NonNull List<ProductDetails> productDetailsList) {
-                    if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
-                        try {
-                            JSONArray products = new JSONArray();
-                            for (ProductDetails productDetails : productDetailsList) {
-                                JSONObject product = new JSONObject();
-                                product.put("productId", productDetails.getProductId());
-                                product.put("title", productDetails.getTitle());
-                                product.put("description", productDetails.getDescription());
-                                
-                                ProductDetails.OneTimePurchaseOfferDetails offerDetails = 
-                                    productDetails.getOneTimePurchaseOfferDetails();
-                                if (offerDetails != null) {
-                                    product.put("price", offerDetails.getFormattedPrice());
-                                    product.put("priceAmountMicros", offerDetails.getPriceAmountMicros());
-                                    product.put("priceCurrencyCode", offerDetails.getPriceCurrencyCode());
-                                } else {
-                                    product.put("price", "");
-                                    product.put("priceAmountMicros", 0);
-                                    product.put("priceCurrencyCode", "");
-                                }
-                                
-                                products.put(product);
-                            }
-
-                            JSObject result = new JSObject();
-                            result.put("products", products);
-                            call.resolve(result);
-                        } catch (JSONException e) {
-                            call.reject("Failed to parse product details", e);
-                        }
-                    } else {
-                        call.reject("Failed to query products: " + billingResult.getResponseCode());
+            // 지난 실행에서 저장한 상품 정보가 있으면 먼저 응답하고, 최신 정보는 productsUpdated 로 전달
+            Map<String, ProductCatalogSnapshot.Entry> snapshot =
+                    catalogSnapshot.get(missingIds, cachedLocale.toLanguageTag());
+            if (snapshot != null) {
+                resolveStaleProducts(call, productIds, snapshot);
+                refreshProducts(missingIds);
+                return;
+            }
+
+            if (!readyQueue.isReady()) {
+                whenReady(call, () -> getProducts(call));
+                return;
+            }
+
+            productQueryBatcher.request(missingIds, (responseCode, products) -> {
+                if (responseCode != BillingClient.BillingResponseCode.OK) {
+                    reject(call, "Failed to query products: " + responseCode);
+                    return;
+                }
+                // 통화가 바뀌면 cacheProductDetails 가 캐시를 비우므로, 캐시로 응답하려던 상품은 새 통화로 다시 조회
+                List<String> evictedIds = new ArrayList<>();
+                for (String productId : productIds) {
+                    if (!products.containsKey(productId)
+                            && productDetailsCache.get(productId, BillingClient.ProductType.INAPP) == null
+                            && !missingIds.contains(productId)) {
+                        evictedIds.add(productId);
                     }
                 }
+                if (evictedIds.isEmpty()) {
+                    resolveProducts(call, productIds, products.values());
+                    return;
+                }
+                Map<String, ProductDetails> fetched = new HashMap<>(products);
+                productQueryBatcher.request(evictedIds, (retryCode, evicted) -> {
+                    if (retryCode != BillingClient.BillingResponseCode.OK) {
+                        reject(call, "Failed to query products: " + retryCode);
+                        return;
+                    }
+                    fetched.putAll(evicted);
+                    resolveProducts(call, productIds, fetched.values());
+                });
             });
         } catch (JSONException e) {
-            call.reject("Invalid productIds format", e);
+            reject(call, "Invalid productIds format", e);
         }
     }
 
     @PluginMethod
     public void purchase(PluginCall call) {
-        if (!isServiceConnected) {
-            call.reject("Billing client is not connected");
+        beginCall(call, true);
+        if (!readyQueue.isReady()) {
+            whenReady(call, () -> purchase(call));
             return;
         }
 
         JSObject data = call.getData();
         if (data == null) {
-            call.reject("productId is required");
+            reject(call, "productId is required");
             return;
         }
 
@@ -193,70 +473,307 @@ public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedList
         // data는 { productId: "..." } 형태입니다
         String productId = data.getString("productId");
         if (productId == null) {
-            call.reject("productId is required");
+            reject(call, "productId is required");
+            return;
+        }
+
+        // 여러 구매가 동시에 진행될 수 있으므로 productId 별로 호출을 보관
+        pendingPurchases.add(productId, call);
+
+        ProductDetails cached = productDetailsCache.get(productId, BillingClient.ProductType.INAPP);
+        if (cached != null) {
+            // 캐시 적중 시 Play 왕복 없이 바로 결제 시트를 띄웁니다
+            getActivity().runOnUiThread(() -> launchBillingFlow(call, cached));
             return;
         }
 
-        purchaseCall = call;
+        List<String> productIds = new ArrayList<>();
+        productIds.add(productId);
+
+        productQueryBatcher.request(productIds, (responseCode, products) -> {
+            ProductDetails productDetails = products.get(productId);
+            if (responseCode == BillingClient.BillingResponseCode.OK && productDetails != null) {
+                getActivity().runOnUiThread(() -> launchBillingFlow(call, productDetails));
+            } else {
+                failPurchase(call, "Product not found or query failed");
+            }
+        });
+    }
+
+    private void launchBillingFlow(PluginCall call, ProductDetails productDetails) {
+        ProductDetails.OneTimePurchaseOfferDetails offerDetails = 
+            productDetails.getOneTimePurchaseOfferDetails();
+        
+        if (offerDetails != null) {
+            List<BillingFlowParams.ProductDetailsParams> productDetailsParamsList = new ArrayList<>();
+            productDetailsParamsList.add(
+                BillingFlowParams.ProductDetailsParams.newBuilder()
+                    .setProductDetails(productDetails)
+                    .build()
+            );
+            
+            BillingFlowParams flowParams = BillingFlowParams.newBuilder()
+                    .setProductDetailsParamsList(productDetailsParamsList)
+                    .build();
+
+            BillingResult result = billingClient.launchBillingFlow(getActivity(), flowParams);
+            if (result.getResponseCode() == BillingClient.BillingResponseCode.OK) {
+                // 이제 이 호출이 취소/오류 응답을 받을 대상
+                pendingPurchases.markLaunched(call);
+            } else {
+                failPurchase(call, "Failed to launch billing flow: " + result.getResponseCode());
+            }
+        } else {
+            failPurchase(call, "Product does not have purchase offer details");
+        }
+    }
+
+    /**
+     * 결제 흐름을 띄우기 전에 실패한 호출을 등록에서 빼고 reject
+     */
+    private void failPurchase(PluginCall call, String message) {
+        if (pendingPurchases.remove(call)) {
+            reject(call, message);
+        }
+    }
 
+    /**
+     * Play 에 상품 정보를 조회하고, 성공한 결과를 캐시에 저장한 뒤 listener 를 호출
+     * (ProductQueryBatcher 가 모아서 호출합니다)
+     */
+    private void queryProductDetailsAsync(List<String> productIds,
+                                          ProductQueryBatcher.Listener<ProductDetails> listener) {
         List<QueryProductDetailsParams.Product> productList = new ArrayList<>();
-        productList.add(QueryProductDetailsParams.Product.newBuilder()
-                .setProductId(productId)
-                .setProductType(BillingClient.ProductType.INAPP)
-                .build());
+        for (String productId : productIds) {
+            productList.add(QueryProductDetailsParams.Product.newBuilder()
+                    .setProductId(productId)
+                    .setProductType(BillingClient.ProductType.INAPP)
+                    .build());
+        }
 
         QueryProductDetailsParams params = QueryProductDetailsParams.newBuilder()
                 .setProductList(productList)
                 .build();
 
-        billingClient.queryProductDetailsAsync(params, new ProductDetailsResponseListener() {
+        billingClient.queryProductDetailsAsync(params, (billingResult, productDetailsList) -> {
+            if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
+                cacheProductDetails(productDetailsList);
+                saveCatalogSnapshot(productDetailsList);
+            }
+            listener.onResponse(billingResult.getResponseCode(), productDetailsList);
+        });
+    }
+
+    private void cacheProductDetails(List<ProductDetails> productDetailsList) {
+        for (ProductDetails productDetails : productDetailsList) {
+            ProductDetails.OneTimePurchaseOfferDetails offerDetails =
+                productDetails.getOneTimePurchaseOfferDetails();
+            if (offerDetails != null) {
+                String currencyCode = offerDetails.getPriceCurrencyCode();
+                // 결제 국가(통화)가 바뀌면 기존 가격은 모두 무효
+                if (cachedCurrencyCode != null && !cachedCurrencyCode.equals(currencyCode)) {
+                    Log.d(TAG, "Currency changed to " + currencyCode + ", clearing product cache");
+                    productDetailsCache.clear();
+                }
+                cachedCurrencyCode = currencyCode;
+            }
+            productDetailsCache.put(productDetails.getProductId(), productDetails.getProductType(), productDetails);
+        }
+    }
+
+    private void saveCatalogSnapshot(List<ProductDetails> productDetailsList) {
+        List<ProductCatalogSnapshot.Entry> entries = new ArrayList<>();
+        for (ProductDetails productDetails : productDetailsList) {
+            ProductDetails.OneTimePurchaseOfferDetails offerDetails =
+                productDetails.getOneTimePurchaseOfferDetails();
+            if (offerDetails == null) {
+                continue;
+            }
+            entries.add(new ProductCatalogSnapshot.Entry(productDetails.getProductId(), productDetails.getTitle(),
+                    productDetails.getDescription(), offerDetails.getFormattedPrice(),
+                    offerDetails.getPriceAmountMicros(), offerDetails.getPriceCurrencyCode()));
+        }
+        String localeTag = cachedLocale.toLanguageTag();
+        billingExecutor.execute(() -> {
+            try {
+                catalogSnapshot.save(entries, localeTag);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to save product catalog snapshot", e);
+            }
+        });
+    }
+
+    /**
+     * 스냅샷으로 응답한 상품을 Play 에서 다시 조회해 productsUpdated 이벤트로 알립니다.
+     */
+    private void refreshProducts(List<String> productIds) {
+        ensureBillingClient("call");
+        readyQueue.submit(new ReadinessQueue.Task() {
             @Override
-            public void onProductDetailsResponse(@NonNull BillingResult billingResult,
-                                                  @NonNull List<ProductDetails> productDetailsList) {
-                if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK 
-                        && !productDetailsList.isEmpty()) {
-                    ProductDetails productDetails = productDetailsList.get(0);
-                    ProductDetails.OneTimePurchaseOfferDetails offerDetails = 
-                        productDetails.getOneTimePurchaseOfferDetails();
-                    
-                    if (offerDetails != null) {
-                        List<BillingFlowParams.ProductDetailsParams> productDetailsParamsList = new ArrayList<>();
-                        productDetailsParamsList.add(
-                            BillingFlowParams.ProductDetailsParams.newBuilder()
-                                .setProductDetails(productDetails)
-                                .build()
-                        );
-                        
-                        BillingFlowParams flowParams = BillingFlowParams.newBuilder()
-                                .setProductDetailsParamsList(productDetailsParamsList)
-                                .build();
-
-                        BillingResult result = billingClient.launchBillingFlow(getActivity(), flowParams);
-                        if (result.getResponseCode() != BillingClient.BillingResponseCode.OK) {
-                            purchaseCall.reject("Failed to launch billing flow: " + result.getResponseCode());
-                            purchaseCall = null;
-                        }
-                    } else {
-                        purchaseCall.reject("Product does not have purchase offer details");
-                        purchaseCall = null;
+            public void run() {
+                productQueryBatcher.request(productIds, (responseCode, products) -> {
+                    if (responseCode != BillingClient.BillingResponseCode.OK) {
+                        Log.w(TAG, "Failed to refresh products: " + responseCode);
+                        return;
                     }
-                } else {
-                    purchaseCall.reject("Product not found or query failed");
-                    purchaseCall = null;
+                    notifyProductsUpdated(products.values());
+                });
+            }
+
+            @Override
+            public void fail(String reason) {
+                Log.w(TAG, "Skipped product refresh: " + reason);
+            }
+        });
+    }
+
+    private void notifyProductsUpdated(Collection<ProductDetails> fetched) {
+        try {
+            JSONArray products = new JSONArray();
+            for (ProductDetails productDetails : fetched) {
+                products.put(toProductJson(productDetails));
+            }
+            JSObject data = new JSObject();
+            data.put("products", products);
+            notifyListeners(EVENT_PRODUCTS_UPDATED, data);
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to build productsUpdated event", e);
+        }
+    }
+
+    private void clearProductDetailsCache() {
+        productDetailsCache.clear();
+        cachedCurrencyCode = null;
+    }
+
+    /**
+     * 요청한 순서대로 방금 조회한 결과 또는 캐시에서 상품 정보를 꺼내 응답합니다. (Play 에 없는 상품은 제외)
+     */
+    private void resolveProducts(PluginCall call, List<String> productIds, Collection<ProductDetails> fetched) {
+        Map<String, ProductDetails> fetchedById = new HashMap<>();
+        for (ProductDetails productDetails : fetched) {
+            fetchedById.put(productDetails.getProductId(), productDetails);
+        }
+
+        try {
+            JSONArray products = new JSONArray();
+            for (String productId : productIds) {
+                ProductDetails productDetails = fetchedById.get(productId);
+                if (productDetails == null) {
+                    productDetails = productDetailsCache.get(productId, BillingClient.ProductType.INAPP);
+                }
+                if (productDetails != null) {
+                    products.put(toProductJson(productDetails));
+                }
+            }
+
+            JSObject result = new JSObject();
+            result.put("products", products);
+            resolve(call, result);
+        } catch (JSONException e) {
+            reject(call, "Failed to parse product details", e);
+        }
+    }
+
+    /**
+     * 메모리 캐시에 있는 상품은 그대로, 나머지는 스냅샷 값에 stale: true 를 붙여 응답합니다.
+     */
+    private void resolveStaleProducts(PluginCall call, List<String> productIds,
+                                      Map<String, ProductCatalogSnapshot.Entry> snapshot) {
+        try {
+            JSONArray products = new JSONArray();
+            for (String productId : productIds) {
+                ProductDetails productDetails = productDetailsCache.get(productId, BillingClient.ProductType.INAPP);
+                if (productDetails != null) {
+                    products.put(toProductJson(productDetails));
+                    continue;
                 }
+                products.put(BillingJson.staleProduct(snapshot.get(productId)));
+            }
+
+            JSObject result = new JSObject();
+            result.put("products", products);
+            result.put("stale", true);
+            resolve(call, result);
+        } catch (JSONException e) {
+            reject(call, "Failed to parse product details", e);
+        }
+    }
+
+    private static JSONObject toProductJson(ProductDetails productDetails) throws JSONException {
+        ProductDetails.OneTimePurchaseOfferDetails offerDetails =
+            productDetails.getOneTimePurchaseOfferDetails();
+        if (offerDetails == null) {
+            return BillingJson.product(productDetails.getProductId(), productDetails.getTitle(),
+                    productDetails.getDescription(), "", 0, "");
+        }
+        return BillingJson.product(productDetails.getProductId(), productDetails.getTitle(),
+                productDetails.getDescription(), offerDetails.getFormattedPrice(),
+                offerDetails.getPriceAmountMicros(), offerDetails.getPriceCurrencyCode());
+    }
+
+    @Override
+    protected void handleOnResume() {
+        super.handleOnResume();
+        retryStrandedConsumes();
+    }
+
+    /**
+     * 재시도를 다 써서 journal 에만 남은 consume 을 다시 시도 (연결될 때, 포그라운드로 돌아올 때)
+     */
+    private void retryStrandedConsumes() {
+        billingExecutor.execute(() -> {
+            int retried = consumePipeline.retryStranded();
+            if (retried > 0) {
+                Log.d(TAG, "Retrying " + retried + " stranded consumes");
             }
         });
     }
 
     @Override
-    public void onPurchasesUpdated(@NonNull BillingResult billingResult, 
-                                   List<Purchase> purchases) {
-        if (purchaseCall == null) {
-            return;
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        readyQueue.failAll("Billing client is not connected");
+        for (PluginCall call : pendingPurchases.takeAll()) {
+            reject(call, "Purchase was interrupted");
+        }
+        billingExecutor.shutdownNow();
+        if (billingClient != null) {
+            billingClient.endConnection();
+        }
+    }
+
+    @Override
+    protected void handleOnConfigurationChanged(Configuration newConfig) {
+        super.handleOnConfigurationChanged(newConfig);
+        // 언어가 바뀌면 상품 제목/설명/가격 표기가 달라지므로 캐시를 비웁니다
+        Locale locale = newConfig.getLocales().get(0);
+        if (cachedLocale != null && !cachedLocale.equals(locale)) {
+            Log.d(TAG, "Locale changed to " + locale + ", clearing product cache");
+            clearProductDetailsCache();
         }
+        cachedLocale = locale;
+    }
 
+    @Override
+    public void onPurchasesUpdated(@NonNull BillingResult billingResult, 
+                                   List<Purchase> purchases) {
         if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK && purchases != null) {
+            recordPurchases(purchases);
+
+            // 한 번에 여러 구매 결과가 올 수 있으므로 상품별로 해당 호출에 전달
             for (Purchase purchase : purchases) {
+                PluginCall purchaseCall = pendingPurchases.take(purchase.getProducts());
+                emitPurchaseUpdated(purchase, purchaseCall != null);
+                if (purchaseCall == null) {
+                    // purchase() 호출 없이 도착한 구매 (나중에 완료된 보류 결제, 앱 밖 구매, 프로모션 코드)
+                    // → purchaseUpdated 이벤트로만 전달하고 소비 처리는 동일하게
+                    if (purchase.getPurchaseState() == Purchase.PurchaseState.PURCHASED) {
+                        enqueueConsume(purchase, null);
+                    }
+                    continue;
+                }
+
                 if (purchase.getPurchaseState() == Purchase.PurchaseState.PURCHASED) {
                     try {
                         JSONObject transaction = new JSONObject();
@@ -268,46 +785,170 @@ public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedList
 
                         JSObject result = new JSObject();
                         result.put("transaction", transaction);
-                        purchaseCall.resolve(result);
-
                         // 구매 완료 후 소비 처리 (소비 가능한 상품인 경우)
-                        ConsumeParams consumeParams = ConsumeParams.newBuilder()
-                                .setPurchaseToken(purchase.getPurchaseToken())
-                                .build();
-
-                        billingClient.consumeAsync(consumeParams, new ConsumeResponseListener() {
-                            @Override
-                            public void onConsumeResponse(@NonNull BillingResult billingResult,
-                                                          @NonNull String purchaseToken) {
-                                if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
-                                    Log.d(TAG, "Purchase consumed successfully");
-                                } else {
-                                    Log.e(TAG, "Failed to consume purchase: " + billingResult.getResponseCode());
-                                }
-                            }
-                        });
+                        // 토큰을 journal 에 쓴 뒤에 resolve (그 사이 앱이 죽어도 다음 실행에서 소비)
+                        enqueueConsume(purchase, () -> resolve(purchaseCall, result));
                     } catch (JSONException e) {
-                        purchaseCall.reject("Failed to create transaction object", e);
+                        reject(purchaseCall, "Failed to create transaction object", e);
                     }
                 } else if (purchase.getPurchaseState() == Purchase.PurchaseState.PENDING) {
-                    purchaseCall.reject("Purchase is pending");
+                    reject(purchaseCall, "Purchase is pending");
                 } else {
-                    purchaseCall.reject("Purchase failed");
+                    reject(purchaseCall, "Purchase failed");
                 }
             }
-        } else if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.USER_CANCELED) {
-            purchaseCall.reject("User canceled the purchase");
         } else {
-            purchaseCall.reject("Purchase failed: " + billingResult.getResponseCode());
+            // 취소/오류 응답에는 상품 정보가 없으므로 결제 화면을 띄운 호출에 전달
+            // (상품 정보를 조회 중인 호출은 그대로 두고 자기 결과를 기다림)
+            PluginCall purchaseCall = pendingPurchases.takeLaunched();
+            if (purchaseCall == null) {
+                return;
+            }
+            if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.USER_CANCELED) {
+                reject(purchaseCall, "User canceled the purchase");
+            } else {
+                reject(purchaseCall, "Purchase failed: " + billingResult.getResponseCode());
+            }
         }
+    }
 
-        purchaseCall = null;
+    /**
+     * 모든 구매 상태 변경을 purchaseUpdated 로 알립니다. 구독 전이면 버퍼에 두었다가 addListener 때 전달.
+     */
+    private void emitPurchaseUpdated(Purchase purchase, boolean solicited) {
+        JSObject event = new JSObject();
+        event.put("productId", purchase.getProducts().get(0));
+        event.put("transactionId", purchase.getOrderId());
+        event.put("purchaseTime", purchase.getPurchaseTime());
+        event.put("purchaseToken", purchase.getPurchaseToken());
+        event.put("purchaseState", toPurchaseStateName(purchase.getPurchaseState()));
+        event.put("receipt", purchase.getOriginalJson());
+        // true 면 같은 결과가 purchase() 응답으로도 전달됨
+        event.put("solicited", solicited);
+
+        // 버퍼 확인과 전달을 같은 lock 안에서 해야 addListener 의 재전달과 순서가 섞이지 않음
+        synchronized (purchaseEventBuffer) {
+            if (!hasListeners(EVENT_PURCHASE_UPDATED)) {
+                purchaseEventBuffer.add(event);
+                return;
+            }
+            notifyListeners(EVENT_PURCHASE_UPDATED, event);
+        }
+    }
+
+    private static String toPurchaseStateName(int purchaseState) {
+        switch (purchaseState) {
+            case Purchase.PurchaseState.PURCHASED:
+                return "purchased";
+            case Purchase.PurchaseState.PENDING:
+                return "pending";
+            default:
+                return "unspecified";
+        }
+    }
+
+    @Override
+    @PluginMethod(returnType = PluginMethod.RETURN_CALLBACK)
+    public void addListener(PluginCall call) {
+        if (!EVENT_PURCHASE_UPDATED.equals(call.getString("eventName"))) {
+            super.addListener(call);
+            return;
+        }
+        synchronized (purchaseEventBuffer) {
+            super.addListener(call);
+            int dropped = purchaseEventBuffer.dropped();
+            List<JSObject> buffered = purchaseEventBuffer.drain();
+            if (dropped > 0) {
+                Log.w(TAG, "Dropped " + dropped + " purchase events before a listener was added");
+            }
+            for (JSObject event : buffered) {
+                event.put("replayed", true);
+                notifyListeners(EVENT_PURCHASE_UPDATED, event);
+            }
+        }
+    }
+
+    /**
+     * @param afterJournaled journal 에 기록한 뒤 billingExecutor 에서 실행 (null 가능)
+     */
+    private void enqueueConsume(Purchase purchase, Runnable afterJournaled) {
+        String purchaseToken = purchase.getPurchaseToken();
+        String productId = purchase.getProducts().get(0);
+        // journal 기록(fsync)은 메인 스레드가 아닌 billingExecutor 에서
+        billingExecutor.execute(() -> {
+            try {
+                consumePipeline.enqueue(purchaseToken, productId);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to journal purchase token", e);
+            }
+            if (afterJournaled != null) {
+                afterJournaled.run();
+            }
+        });
+    }
+
+    private void consumeAsync(String purchaseToken, ConsumePipeline.ResultCallback callback) {
+        // 지난 실행에서 남은 consume 이 있으면 lazy 모드여도 바로 연결
+        ensureBillingClient("consume");
+        readyQueue.submit(new ReadinessQueue.Task() {
+            @Override
+            public void run() {
+                ConsumeParams consumeParams = ConsumeParams.newBuilder()
+                        .setPurchaseToken(purchaseToken)
+                        .build();
+
+                billingClient.consumeAsync(consumeParams, new ConsumeResponseListener() {
+                    @Override
+                    public void onConsumeResponse(@NonNull BillingResult billingResult,
+                                                  @NonNull String purchaseToken) {
+                        callback.onResult(billingResult.getResponseCode());
+                    }
+                });
+            }
+
+            @Override
+            public void fail(String reason) {
+                callback.onResult(BillingClient.BillingResponseCode.SERVICE_DISCONNECTED);
+            }
+        });
+    }
+
+    private void notifyConsumeResult(String purchaseToken, String productId, int responseCode,
+                                     int attempts, long latencyMillis, boolean willRetry) {
+        boolean success = responseCode == BillingClient.BillingResponseCode.OK;
+        if (success) {
+            Log.d(TAG, "Purchase consumed successfully (" + latencyMillis + "ms, attempts " + attempts + ")");
+            markEntitlementConsumed(purchaseToken);
+        } else {
+            Log.e(TAG, "Failed to consume purchase: " + responseCode + (willRetry ? ", will retry" : ""));
+        }
+
+        JSObject data = new JSObject();
+        data.put("purchaseToken", purchaseToken);
+        data.put("productId", productId);
+        data.put("success", success);
+        data.put("responseCode", responseCode);
+        data.put("attempts", attempts);
+        data.put("latencyMs", latencyMillis);
+        data.put("willRetry", willRetry);
+        // 재시도를 다 썼지만 journal 에 남아 다음 연결/포그라운드 복귀 때 다시 시도함
+        data.put("retryLater", !willRetry && !ConsumePipeline.isFinal(responseCode));
+        notifyListeners(EVENT_CONSUME_RESULT, data);
     }
 
     @PluginMethod
     public void restorePurchases(PluginCall call) {
-        if (!isServiceConnected) {
-            call.reject("Billing client is not connected");
+        beginCall(call, true);
+        if (!readyQueue.isReady()) {
+            whenReady(call, () -> restorePurchases(call));
+            return;
+        }
+
+        // syncToken 이후의 변경만, limit 개씩 돌려줍니다 (syncToken 이 없으면 전체 목록)
+        long syncToken = parseSyncToken(call.getString("syncToken"));
+        int limit = call.getInt("limit", Integer.MAX_VALUE);
+        if (syncToken < 0 || limit <= 0) {
+            reject(call, "Invalid syncToken or limit");
             return;
         }
 
@@ -319,28 +960,184 @@ public class InAppPurchasesPlugin extends Plugin implements PurchasesUpdatedList
             @Override
             public void onQueryPurchasesResponse(@NonNull BillingResult billingResult,
                                                  @NonNull List<Purchase> purchases) {
-                if (billingResult.getResponseCode() == BillingClient.BillingResponseCode.OK) {
+                if (billingResult.getResponseCode() != BillingClient.BillingResponseCode.OK) {
+                    reject(call, "Failed to query purchases: " + billingResult.getResponseCode());
+                    return;
+                }
+
+                // 원장 파일 I/O 는 billingExecutor 에서
+                billingExecutor.execute(() -> {
                     try {
-                        JSONArray products = new JSONArray();
-                        for (Purchase purchase : purchases) {
-                            JSONObject product = new JSONObject();
-                            product.put("productId", purchase.getProducts().get(0));
-                            product.put("transactionId", purchase.getOrderId());
-                            product.put("purchaseTime", purchase.getPurchaseTime());
-                            products.put(product);
-                        }
+                        // 전체 구매 목록이므로 여기 없는 구매(소비/환불/취소)는 원장에서 removed 로
+                        purchaseLedger.reconcile(toLedgerRecords(purchases));
+                        recordEntitlements(purchases, true);
+                        PurchaseLedger.Page page = purchaseLedger.changesSince(syncToken, limit);
 
                         JSObject result = new JSObject();
-                        result.put("products", products);
-                        call.resolve(result);
+                        result.put("products", BillingJson.purchases(page.records));
+                        result.put("syncToken", String.valueOf(page.syncToken));
+                        result.put("hasMore", page.hasMore);
+                        result.put("reset", page.reset);
+                        resolve(call, result);
+                    } catch (IOException e) {
+                        reject(call, "Failed to update purchase ledger", e);
                     } catch (JSONException e) {
-                        call.reject("Failed to parse purchases", e);
+                        reject(call, "Failed to parse purchases", e);
                     }
-                } else {
-                    call.reject("Failed to query purchases: " + billingResult.getResponseCode());
+                });
+            }
+        });
+    }
+
+    private static long parseSyncToken(String syncToken) {
+        if (syncToken == null || syncToken.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(syncToken);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static List<PurchaseLedger.Record> toLedgerRecords(List<Purchase> purchases) {
+        List<PurchaseLedger.Record> records = new ArrayList<>();
+        for (Purchase purchase : purchases) {
+            records.add(new PurchaseLedger.Record(purchase.getPurchaseToken(), purchase.getProducts().get(0),
+                    purchase.getOrderId(), purchase.getPurchaseTime(), purchase.getPurchaseState()));
+        }
+        return records;
+    }
+
+    /**
+     * 결제 결과로 받은 구매도 원장에 기록해 다음 restorePurchases 의 변경분에 포함시킵니다
+     */
+    private void recordPurchases(List<Purchase> purchases) {
+        List<PurchaseLedger.Record> records = toLedgerRecords(purchases);
+        billingExecutor.execute(() -> {
+            try {
+                purchaseLedger.upsert(records);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to update purchase ledger", e);
+            }
+            recordEntitlements(purchases, false);
+        });
+    }
+
+    /**
+     * 서명을 기기에서 검증한 구매만 권한 저장소에 기록 (billingExecutor 에서 호출)
+     *
+     * @param fullList queryPurchasesAsync 의 전체 목록이면 true → 소비하지 않았는데 목록에 없는 구매(환불/취소)의 권한 회수
+     */
+    private void recordEntitlements(List<Purchase> purchases, boolean fullList) {
+        if (entitlementStore == null) {
+            return;
+        }
+        List<EntitlementStore.SignedPurchase> signedPurchases = new ArrayList<>();
+        for (Purchase purchase : purchases) {
+            signedPurchases.add(new EntitlementStore.SignedPurchase(purchase.getOriginalJson(),
+                    purchase.getSignature(), purchase.getProducts().get(0), purchase.getPurchaseToken(),
+                    purchase.getOrderId(), purchase.getPurchaseTime(), purchase.getPurchaseState()));
+        }
+        try {
+            if (fullList) {
+                int revoked = entitlementStore.reconcile(signedPurchases);
+                if (revoked > 0) {
+                    Log.d(TAG, "Revoked " + revoked + " refunded or cancelled entitlements");
                 }
+                return;
+            }
+            int added = entitlementStore.record(signedPurchases);
+            if (added > 0) {
+                Log.d(TAG, "Recorded " + added + " verified entitlements");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to persist entitlements", e);
+        }
+    }
+
+    /**
+     * consume 된 구매는 Play 의 구매 목록에서 빠지므로 권한 저장소에 표시해 두어 다음 restorePurchases 에서 회수되지 않게 함
+     */
+    private void markEntitlementConsumed(String purchaseToken) {
+        if (entitlementStore == null) {
+            return;
+        }
+        billingExecutor.execute(() -> {
+            try {
+                entitlementStore.markConsumed(purchaseToken);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to persist entitlements", e);
             }
         });
     }
-}
 
+    /**
+     * 기기에서 서명 검증을 마친 구매 목록을 메모리에서 바로 돌려줍니다 (Play/서버 왕복 없음)
+     */
+    @PluginMethod
+    public void getEntitlements(PluginCall call) {
+        beginCall(call, false);
+        if (entitlementStore != null && !entitlementStore.isLoaded()) {
+            // 콜드 스타트 직후: billingExecutor 의 load() 뒤에 이어서 읽음 (빈 목록을 검증됐다고 돌려주지 않도록)
+            billingExecutor.execute(() -> resolveEntitlements(call));
+            return;
+        }
+        resolveEntitlements(call);
+    }
+
+    private void resolveEntitlements(PluginCall call) {
+        JSObject result = new JSObject();
+        JSONArray entitlements = new JSONArray();
+        if (entitlementStore != null) {
+            try {
+                for (EntitlementStore.Entitlement entitlement : entitlementStore.getEntitlements()) {
+                    JSONObject item = new JSONObject();
+                    item.put("productId", entitlement.productId);
+                    item.put("purchaseToken", entitlement.purchaseToken);
+                    item.put("transactionId", entitlement.orderId);
+                    item.put("purchaseTime", entitlement.purchaseTime);
+                    item.put("consumed", entitlement.consumed);
+                    entitlements.put(item);
+                }
+            } catch (JSONException e) {
+                reject(call, "Failed to build entitlements", e);
+                return;
+            }
+        }
+        result.put("entitlements", entitlements);
+        result.put("verified", entitlementStore != null);
+        resolve(call, result);
+    }
+
+    /**
+     * 결제 초기화가 콜드 스타트에 더한 시간. initMode 별로 비교하기 위한 값입니다.
+     */
+    @PluginMethod
+    public void getStartupTiming(PluginCall call) {
+        beginCall(call, false);
+        resolve(call, startupTiming());
+    }
+
+    private JSObject startupTiming() {
+        JSObject timing = new JSObject();
+        timing.put("initMode", initMode);
+        // load() 가 메인 스레드(브리지 시작 경로)에서 쓴 시간
+        timing.put("loadMs", nanosToMillis(loadNanos()));
+        timing.put("clientInitTrigger", clientInitTrigger);
+        timing.put("clientInitOnMainThread", clientInitOnMainThread);
+        if (clientInitStartedNanos != 0) {
+            timing.put("clientInitStartedAtMs", nanosToMillis(clientInitStartedNanos - loadStartedNanos()));
+            timing.put("clientInitMs", nanosToMillis(clientInitNanos));
+        }
+        if (connectedNanos != 0) {
+            timing.put("connectedAtMs", nanosToMillis(connectedNanos - loadStartedNanos()));
+        }
+        return timing;
+    }
+
+    // JSObject 에는 put(String, double) 이 없으므로 Double 로 넘김 (소수점 셋째 자리 = 1µs)
+    private static Double nanosToMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -14,6 +14,7 @@ import androidx.activity.EdgeToEdge;
 
 import com.getcapacitor.BridgeActivity;
 import com.getcapacitor.Bridge;
+import com.getcapacitor.WebViewListener;
 
 import android.webkit.WebSettings;
 import android.webkit.WebView;
@@ -29,14 +30,25 @@ public class MainActivity extends BridgeActivity {
 
     @Override
     public void onCreate(Bundle savedInstanceState) {
+        StartupTimeline timeline = StartupTimeline.get();
+        timeline.recordProcessStart();
+        timeline.begin("onCreate");
+
         // Bridge가 초기화되기 전에 플러그인을 등록합니다.
         registerPlugin(InAppPurchasesPlugin.class);
+        registerPlugin(DiagnosticsPlugin.class);
+        registerPlugin(ImageProcessorPlugin.class);
+        registerPlugin(NoteSearchPlugin.class);
+        registerPlugin(DraftStorePlugin.class);
 
         setTheme(R.style.AppTheme_NoActionBar); // SplashScreen 테마 설정
         // Android 15+ Edge-to-Edge 지원 활성화
         EdgeToEdge.enable(this);
 
         super.onCreate(savedInstanceState);
+        timeline.mark("bridgeReady");
+        installWebViewClient();
+        observeFirstPage(timeline);
 
         // 시스템 바 설정 (Edge-to-Edge + Insets 대응)
         // Android 15(API 35)에서 지원 중단된 setStatusBarColor/setNavigationBarColor를 사용하지 않음
@@ -55,6 +67,73 @@ public class MainActivity extends BridgeActivity {
         // if (isFirstRun()) {
         // requestAllPermissions();
         // }
+
+        timeline.end("onCreate");
+    }
+
+    /**
+     * 네이티브 blob 은 BlobRegistry 에서, 웹 번들은 asset pack 에서, Storage 이미지는 디스크 캐시에서
+     * Capacitor 보다 먼저 응답하도록 WebViewClient 교체
+     * (첫 요청은 WebView 가 loadUrl 을 처리한 뒤에 오므로 onCreate 에서 바꿔도 빠지지 않음)
+     */
+    private void installWebViewClient() {
+        Bridge bridge = getBridge();
+        if (bridge == null)
+            return;
+
+        List<WebRequestInterceptor> interceptors = new ArrayList<>();
+        interceptors.add(new BlobChannelInterceptor(bridge.getLocalUrl(), BlobRegistry.get()));
+        interceptors.add(new AssetPackInterceptor(this, bridge.getLocalUrl()));
+        interceptors.add(new ImageCacheInterceptor(this));
+        AppWebViewClient client = new AppWebViewClient(bridge, interceptors);
+        bridge.setWebViewClient(client);
+        client.installForServiceWorkers();
+    }
+
+    /**
+     * 첫 페이지의 시작/완료/첫 화면 표시 시점을 StartupTimeline 에 기록 (프로세스당 한 번)
+     */
+    private void observeFirstPage(StartupTimeline timeline) {
+        Bridge bridge = getBridge();
+        if (bridge == null)
+            return;
+
+        bridge.addWebViewListener(new WebViewListener() {
+            private boolean started;
+            private boolean loaded;
+            private boolean committed;
+
+            @Override
+            public void onPageStarted(WebView webView) {
+                if (started)
+                    return;
+                started = true;
+                timeline.begin("pageLoad");
+                // 첫 프레임이 화면에 그려질 준비가 된 시점
+                webView.postVisualStateCallback(0, new WebView.VisualStateCallback() {
+                    @Override
+                    public void onComplete(long requestId) {
+                        timeline.mark("firstVisualState");
+                    }
+                });
+            }
+
+            @Override
+            public void onPageLoaded(WebView webView) {
+                if (!started || loaded)
+                    return;
+                loaded = true;
+                timeline.end("pageLoad");
+            }
+
+            @Override
+            public void onPageCommitVisible(WebView view, String url) {
+                if (committed)
+                    return;
+                committed = true;
+                timeline.mark("pageCommitVisible");
+            }
+        });
     }
 
     @Override
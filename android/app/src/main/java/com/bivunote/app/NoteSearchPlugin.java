@@ -0,0 +1,306 @@
+package com.bivunote.app;
+
+import android.util.Log;
+
+import com.bivunote.search.SearchDocument;
+import com.bivunote.search.SearchHit;
+import com.bivunote.search.SearchIndex;
+import com.getcapacitor.JSArray;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.annotation.CapacitorPlugin;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 글/노트 전문 검색. 앱이 글을 받아 오거나 쓸 때 index 로 넣고, 검색은 기기 안의 색인(note-search 모듈)에서 합니다.
+ *
+ * 색인 변경은 쓰기 스레드 하나에서 하고 잠시 뒤(또는 앱이 백그라운드로 갈 때) 파일로 flush 합니다.
+ * 검색은 별도 스레드라서 flush/병합 중에도 기다리지 않습니다. 색인은 다시 만들 수 있으므로 파일이 깨졌으면 지우고 새로 시작합니다.
+ */
+@CapacitorPlugin(name = "NoteSearch")
+public class NoteSearchPlugin extends TracedPlugin {
+
+    private static final String TAG = "NoteSearchPlugin";
+    private static final String INDEX_DIR = "search-index";
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 200;
+    // 글 목록을 넘기며 연달아 들어오는 index 호출을 한 번의 flush 로
+    private static final long FLUSH_DELAY_MS = 2_000;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService reader = Executors.newSingleThreadExecutor();
+    private File indexDir;
+    // writer 스레드에서 열고 바꿈
+    private volatile SearchIndex index;
+    private ScheduledFuture<?> pendingFlush;
+
+    public NoteSearchPlugin() {
+        super("NoteSearch");
+    }
+
+    @Override
+    protected void onLoad() {
+        indexDir = new File(getContext().getFilesDir(), INDEX_DIR);
+        writer.execute(this::openIndex);
+    }
+
+    /**
+     * documents: [{ id, title, body, tags }] 를 넣거나 바꿉니다. id 는 "post:..." / "note:..." 처럼 종류를 앞에 붙입니다.
+     * 내용이 그대로인 문서는 건너뛰고, 바뀐 수를 indexed 로 돌려줍니다.
+     */
+    @PluginMethod
+    public void index(PluginCall call) {
+        List<SearchDocument> documents;
+        try {
+            documents = readDocuments(call.getArray("documents"));
+        } catch (JSONException | IllegalArgumentException e) {
+            call.reject("Invalid documents", e);
+            return;
+        }
+
+        beginTrace(call);
+        writer.execute(() -> {
+            callStarted(call);
+            SearchIndex current = index;
+            if (current == null) {
+                reject(call, "Search index is not available");
+                return;
+            }
+            try {
+                int indexed = 0;
+                for (SearchDocument document : documents) {
+                    if (current.upsert(document)) {
+                        indexed++;
+                    }
+                }
+                if (indexed > 0) {
+                    scheduleFlush();
+                }
+                JSObject result = new JSObject();
+                result.put("indexed", indexed);
+                resolve(call, result);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to index documents: " + e);
+                reject(call, "Failed to index documents", e);
+            }
+        });
+    }
+
+    @PluginMethod
+    public void remove(PluginCall call) {
+        List<String> ids = new ArrayList<>();
+        try {
+            JSArray array = call.getArray("ids");
+            for (int i = 0; array != null && i < array.length(); i++) {
+                ids.add(array.getString(i));
+            }
+        } catch (JSONException e) {
+            call.reject("Invalid ids", e);
+            return;
+        }
+
+        beginTrace(call);
+        writer.execute(() -> {
+            callStarted(call);
+            SearchIndex current = index;
+            if (current == null) {
+                reject(call, "Search index is not available");
+                return;
+            }
+            int removed = 0;
+            for (String id : ids) {
+                if (current.delete(id)) {
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                scheduleFlush();
+            }
+            JSObject result = new JSObject();
+            result.put("removed", removed);
+            resolve(call, result);
+        });
+    }
+
+    /**
+     * query 의 모든 글자 조각이 들어 있는 문서를 점수 순으로 limit 개. kind 가 있으면 그 종류만 ("post", "note")
+     */
+    @PluginMethod
+    public void search(PluginCall call) {
+        String query = call.getString("query", "");
+        int limit = Math.max(1, Math.min(MAX_LIMIT, call.getInt("limit", DEFAULT_LIMIT)));
+        String kind = call.getString("kind");
+        String idPrefix = kind == null || kind.isEmpty() ? null : kind + ":";
+
+        beginTrace(call);
+        reader.execute(() -> {
+            callStarted(call);
+            SearchIndex current = index;
+            if (current == null) {
+                reject(call, "Search index is not available");
+                return;
+            }
+            long startedNanos = System.nanoTime();
+            List<SearchHit> hits = current.search(query, limit, idPrefix);
+            double tookMs = (System.nanoTime() - startedNanos) / 1_000_000.0;
+
+            JSArray array = new JSArray();
+            for (SearchHit hit : hits) {
+                JSObject item = new JSObject();
+                item.put("id", hit.id);
+                item.put("score", (Double) (double) hit.score);
+                array.put(item);
+            }
+            JSObject result = new JSObject();
+            result.put("hits", array);
+            result.put("tookMs", (Double) tookMs);
+            resolve(call, result);
+        });
+    }
+
+    @PluginMethod
+    public void getStats(PluginCall call) {
+        SearchIndex current = index;
+        JSObject result = new JSObject();
+        result.put("ready", current != null);
+        if (current != null) {
+            SearchIndex.Stats stats = current.stats();
+            result.put("documents", stats.documents);
+            result.put("deletedDocuments", stats.deletedDocuments);
+            result.put("segments", stats.segments);
+            result.put("bufferedDocuments", stats.bufferedDocuments);
+            result.put("terms", stats.terms);
+            result.put("indexBytes", stats.indexBytes);
+        }
+        call.resolve(result);
+    }
+
+    /**
+     * 색인을 모두 지웁니다. (로그아웃 때, 다른 계정의 노트가 검색되지 않도록)
+     */
+    @PluginMethod
+    public void clear(PluginCall call) {
+        writer.execute(() -> {
+            cancelPendingFlush();
+            index = null;
+            deleteRecursively(indexDir);
+            openIndex();
+            call.resolve();
+        });
+    }
+
+    private static List<SearchDocument> readDocuments(JSArray array) throws JSONException {
+        List<SearchDocument> documents = new ArrayList<>();
+        if (array == null) {
+            return documents;
+        }
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            List<String> tags = new ArrayList<>();
+            JSONArray tagArray = item.optJSONArray("tags");
+            for (int t = 0; tagArray != null && t < tagArray.length(); t++) {
+                tags.add(tagArray.optString(t));
+            }
+            documents.add(new SearchDocument(item.optString("id"), item.optString("title"),
+                    item.optString("body"), tags));
+        }
+        return documents;
+    }
+
+    // writer 스레드에서
+    private void openIndex() {
+        try {
+            index = SearchIndex.open(indexDir);
+        } catch (IOException e) {
+            Log.w(TAG, "Search index is corrupt, rebuilding: " + e);
+            deleteRecursively(indexDir);
+            try {
+                index = SearchIndex.open(indexDir);
+            } catch (IOException retry) {
+                Log.e(TAG, "Cannot open search index", retry);
+            }
+        }
+    }
+
+    // writer 스레드에서
+    private void scheduleFlush() {
+        cancelPendingFlush();
+        pendingFlush = writer.schedule(this::flushAndMerge, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelPendingFlush() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+    }
+
+    private void flushAndMerge() {
+        pendingFlush = null;
+        SearchIndex current = index;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.flush();
+            while (current.maybeMerge()) {
+                // 조각 수가 한도 안으로 들어올 때까지
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to flush search index: " + e);
+        }
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Override
+    protected void handleOnPause() {
+        super.handleOnPause();
+        // 백그라운드에서 프로세스가 정리되기 전에 쌓인 변경을 파일로
+        writer.execute(() -> {
+            cancelPendingFlush();
+            flushAndMerge();
+        });
+    }
+
+    @Override
+    protected void handleOnDestroy() {
+        super.handleOnDestroy();
+        reader.shutdownNow();
+        // 병합은 다음 실행으로 미룸
+        writer.execute(() -> {
+            cancelPendingFlush();
+            SearchIndex current = index;
+            if (current != null) {
+                try {
+                    current.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "Failed to flush search index: " + e);
+                }
+            }
+        });
+        writer.shutdown();
+    }
+}
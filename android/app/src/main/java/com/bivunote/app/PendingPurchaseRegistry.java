@@ -0,0 +1,168 @@
+package com.bivunote.app;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 결제 흐름이 진행 중인 호출을 productId 별로 보관합니다.
+ *
+ * 같은 상품에 여러 호출이 있으면 결제 화면을 띄운 호출이 먼저, 그 안에서는 먼저 등록된 호출부터 결과를 받습니다(FIFO).
+ * timeout 안에 결과가 오지 않은 호출은 등록에서 빠지고 onTimeout 으로 전달됩니다.
+ */
+final class PendingPurchaseRegistry<C> {
+
+    private final long timeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Consumer<C> onTimeout;
+
+    private final Map<String, ArrayDeque<Entry<C>>> byProduct = new HashMap<>();
+    // 전체 등록 순서 (결과에 상품 정보가 없는 취소/오류 응답은 이 중 결제 화면을 띄운 호출로)
+    private final ArrayDeque<Entry<C>> order = new ArrayDeque<>();
+    private long launches;
+
+    PendingPurchaseRegistry(long timeoutMillis, ScheduledExecutorService scheduler, Consumer<C> onTimeout) {
+        this.timeoutMillis = timeoutMillis;
+        this.scheduler = scheduler;
+        this.onTimeout = onTimeout;
+    }
+
+    void add(String productId, C call) {
+        Entry<C> entry = new Entry<>(productId, call);
+        synchronized (this) {
+            byProduct.computeIfAbsent(productId, id -> new ArrayDeque<>()).addLast(entry);
+            order.addLast(entry);
+            entry.timeout = scheduler.schedule(() -> expire(entry), timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * launchBillingFlow 가 성공한 호출로 표시합니다. 이미 빠진 호출이면 false
+     */
+    synchronized boolean markLaunched(C call) {
+        for (Entry<C> entry : order) {
+            if (entry.call == call) {
+                entry.launchedAt = ++launches;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * productIds 중 대기 중인 호출이 있는 첫 상품의 호출을 꺼냅니다.
+     * 아직 상품 정보를 조회 중인 호출보다 결제 화면을 띄운 호출을 먼저 고릅니다.
+     */
+    synchronized C take(List<String> productIds) {
+        for (String productId : productIds) {
+            ArrayDeque<Entry<C>> entries = byProduct.get(productId);
+            if (entries != null && !entries.isEmpty()) {
+                Entry<C> entry = null;
+                for (Entry<C> candidate : entries) {
+                    if (candidate.launchedAt != 0) {
+                        entry = candidate;
+                        break;
+                    }
+                }
+                if (entry == null) {
+                    entry = entries.peekFirst();
+                }
+                entries.remove(entry);
+                detach(entry);
+                return entry.call;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 결제 화면을 띄운 호출 중 가장 먼저 띄운 것을 꺼냅니다. 없으면 null
+     * (상품 정보를 조회 중인 호출은 아직 결과를 받을 화면이 없으므로 건드리지 않음)
+     */
+    synchronized C takeLaunched() {
+        Entry<C> entry = null;
+        for (Entry<C> candidate : order) {
+            if (candidate.launchedAt != 0 && (entry == null || candidate.launchedAt < entry.launchedAt)) {
+                entry = candidate;
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        byProduct.get(entry.productId).remove(entry);
+        detach(entry);
+        return entry.call;
+    }
+
+    /**
+     * 특정 호출을 등록에서 뺍니다. (결제 흐름을 띄우지 못한 경우)
+     */
+    synchronized boolean remove(C call) {
+        for (Iterator<Entry<C>> it = order.iterator(); it.hasNext(); ) {
+            Entry<C> entry = it.next();
+            if (entry.call == call) {
+                byProduct.get(entry.productId).remove(entry);
+                detach(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<C> takeAll() {
+        List<C> calls = new ArrayList<>();
+        synchronized (this) {
+            for (Entry<C> entry : order) {
+                entry.timeout.cancel(false);
+                calls.add(entry.call);
+            }
+            order.clear();
+            byProduct.clear();
+        }
+        return calls;
+    }
+
+    synchronized int size() {
+        return order.size();
+    }
+
+    private void detach(Entry<C> entry) {
+        order.remove(entry);
+        ArrayDeque<Entry<C>> entries = byProduct.get(entry.productId);
+        if (entries != null && entries.isEmpty()) {
+            byProduct.remove(entry.productId);
+        }
+        entry.timeout.cancel(false);
+    }
+
+    private void expire(Entry<C> entry) {
+        synchronized (this) {
+            ArrayDeque<Entry<C>> entries = byProduct.get(entry.productId);
+            if (entries == null || !entries.remove(entry)) {
+                return;
+            }
+            detach(entry);
+        }
+        onTimeout.accept(entry.call);
+    }
+
+    private static final class Entry<C> {
+        final String productId;
+        final C call;
+        ScheduledFuture<?> timeout;
+        // markLaunched 순서 (0 이면 아직 결제 화면을 띄우지 않음)
+        long launchedAt;
+
+        Entry(String productId, C call) {
+            this.productId = productId;
+            this.call = call;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bivunote.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 마지막으로 Play 에서 받은 상품 정보를 앱 전용 저장소에 보관합니다.
+ *
+ * 프로세스가 새로 시작된 직후 Play 응답을 기다리지 않고 상점 화면을 그리기 위한 것으로,
+ * 여기서 돌려준 값은 항상 오래된(stale) 값으로 취급하고 백그라운드에서 다시 조회해야 합니다.
+ * 언어가 다르면 제목/가격 표기가 달라지므로 저장할 때의 locale 과 같을 때만 돌려줍니다.
+ */
+final class ProductCatalogSnapshot {
+
+    static final class Entry {
+        final String productId;
+        final String title;
+        final String description;
+        final String formattedPrice;
+        final long priceAmountMicros;
+        final String currencyCode;
+
+        Entry(String productId, String title, String description, String formattedPrice,
+              long priceAmountMicros, String currencyCode) {
+            this.productId = productId;
+            this.title = title;
+            this.description = description;
+            this.formattedPrice = formattedPrice;
+            this.priceAmountMicros = priceAmountMicros;
+            this.currencyCode = currencyCode;
+        }
+    }
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final File file;
+    private final int maxEntries;
+    // productId → Entry, 최근에 저장된 순서
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private String localeTag;
+    private boolean loaded;
+
+    ProductCatalogSnapshot(File file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * productIds 가 모두 있을 때만 돌려줍니다. 하나라도 없으면 어차피 Play 응답을 기다려야 하므로 null.
+     */
+    synchronized Map<String, Entry> get(Collection<String> productIds, String localeTag) {
+        ensureLoaded();
+        if (!localeTag.equals(this.localeTag)) {
+            return null;
+        }
+        Map<String, Entry> found = new LinkedHashMap<>();
+        for (String productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry == null) {
+                return null;
+            }
+            found.put(productId, entry);
+        }
+        return found;
+    }
+
+    /**
+     * 새로 조회한 상품을 기존 스냅샷에 합쳐서 저장합니다.
+     */
+    synchronized void save(Collection<Entry> updated, String localeTag) throws IOException {
+        if (updated.isEmpty()) {
+            return;
+        }
+        ensureLoaded();
+        String currencyCode = updated.iterator().next().currencyCode;
+        if (!localeTag.equals(this.localeTag) || currencyChanged(currencyCode)) {
+            // 다른 언어/통화로 저장된 상품이 섞이지 않도록 전부 교체
+            entries.clear();
+            this.localeTag = localeTag;
+        }
+        for (Entry entry : updated) {
+            entries.remove(entry.productId);
+            entries.put(entry.productId, entry);
+        }
+        for (Iterator<String> it = entries.keySet().iterator(); entries.size() > maxEntries; ) {
+            it.next();
+            it.remove();
+        }
+        write();
+    }
+
+    private boolean currencyChanged(String currencyCode) {
+        if (entries.isEmpty() || currencyCode.isEmpty()) {
+            return false;
+        }
+        String previous = entries.values().iterator().next().currencyCode;
+        return !previous.isEmpty() && !previous.equals(currencyCode);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            String tag = in.readUTF();
+            int count = in.readInt();
+            LinkedHashMap<String, Entry> read = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readLong(), in.readUTF());
+                read.put(entry.productId, entry);
+            }
+            localeTag = tag;
+            entries.putAll(read);
+        } catch (EOFException e) {
+            // 쓰는 도중 종료된 파일 → 스냅샷 없이 시작
+        } catch (IOException e) {
+            // 읽을 수 없으면 Play 응답을 기다리는 기존 경로로
+        }
+    }
+
+    // version, locale, count, (productId, title, description, price, micros, currency) * count
+    private void write() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            data.writeInt(FORMAT_VERSION);
+            data.writeUTF(localeTag);
+            data.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                data.writeUTF(entry.productId);
+                data.writeUTF(entry.title);
+                data.writeUTF(entry.description);
+                data.writeUTF(entry.formattedPrice);
+                data.writeLong(entry.priceAmountMicros);
+                data.writeUTF(entry.currencyCode);
+            }
+            data.flush();
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bivunote.app;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * productId + productType 를 키로 상품 정보를 보관하는 메모리 캐시.
+ * 항목은 TTL 이 지나면 만료되고, 최대 개수를 넘으면 가장 오래 사용하지 않은 항목부터 제거됩니다.
+ */
+final class ProductDetailsCache<V> {
+
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, CacheEntry<V>> entries;
+
+    ProductDetailsCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        // accessOrder = true: get() 할 때마다 순서가 갱신되어 LRU 로 동작
+        this.entries = new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                return size() > ProductDetailsCache.this.maxEntries;
+            }
+        };
+    }
+
+    synchronized V get(String productId, String productType) {
+        String key = key(productId, productType);
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt >= ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    synchronized void put(String productId, String productType, V value) {
+        entries.put(key(productId, productType), new CacheEntry<>(value, clock.getAsLong()));
+    }
+
+    synchronized void clear() {
+        entries.clear();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static String key(String productId, String productType) {
+        return productType + ":" + productId;
+    }
+
+    private static final class CacheEntry<V> {
+        final V value;
+        final long storedAt;
+
+        CacheEntry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
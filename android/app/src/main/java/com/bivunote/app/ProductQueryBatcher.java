@@ -0,0 +1,160 @@
+package com.bivunote.app;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 짧은 시간 안에 들어온 상품 조회 요청을 모아 한 번의 Play 조회로 처리합니다.
+ *
+ * - window 동안 들어온 요청의 productId 를 중복 없이 합쳐 한 번에 조회
+ * - 이미 조회 중인 productId 는 다시 조회하지 않고 진행 중인 결과를 기다림 (single-flight)
+ * - 각 요청자는 자신이 요청한 상품만 돌려받음
+ */
+final class ProductQueryBatcher<V> {
+
+    /** 실제 조회를 수행하는 쪽 (BillingClient.queryProductDetailsAsync) */
+    interface Source<V> {
+        void query(List<String> productIds, Listener<V> listener);
+    }
+
+    interface Listener<V> {
+        /** responseCode 는 BillingResponseCode 값 (0 = OK) */
+        void onResponse(int responseCode, List<V> products);
+    }
+
+    interface Callback<V> {
+        void onComplete(int responseCode, Map<String, V> products);
+    }
+
+    private static final int RESPONSE_OK = 0;
+
+    private final Source<V> source;
+    private final Function<V, String> idOf;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+
+    private final Object lock = new Object();
+    private Batch pending;
+    private final Map<String, Batch> inFlight = new HashMap<>();
+
+    ProductQueryBatcher(Source<V> source, Function<V, String> idOf,
+                        ScheduledExecutorService scheduler, long windowMillis) {
+        this.source = source;
+        this.idOf = idOf;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+    }
+
+    void request(List<String> productIds, Callback<V> callback) {
+        Waiter waiter = new Waiter(new LinkedHashSet<>(productIds), callback);
+        if (waiter.ids.isEmpty()) {
+            callback.onComplete(RESPONSE_OK, new HashMap<>());
+            return;
+        }
+
+        synchronized (lock) {
+            Set<Batch> attached = new LinkedHashSet<>();
+            for (String productId : waiter.ids) {
+                Batch batch = inFlight.get(productId);
+                if (batch == null) {
+                    if (pending == null) {
+                        pending = new Batch();
+                        scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                    }
+                    pending.ids.add(productId);
+                    batch = pending;
+                }
+                attached.add(batch);
+            }
+            waiter.outstanding = attached.size();
+            for (Batch batch : attached) {
+                batch.waiters.add(waiter);
+            }
+        }
+    }
+
+    private void flush() {
+        final Batch batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = null;
+            if (batch == null) {
+                return;
+            }
+            for (String productId : batch.ids) {
+                inFlight.put(productId, batch);
+            }
+        }
+
+        try {
+            source.query(new ArrayList<>(batch.ids), (responseCode, products) -> complete(batch, responseCode, products));
+        } catch (RuntimeException e) {
+            complete(batch, -1, new ArrayList<>());
+        }
+    }
+
+    private void complete(Batch batch, int responseCode, List<V> products) {
+        Map<String, V> byId = new HashMap<>();
+        for (V product : products) {
+            byId.put(idOf.apply(product), product);
+        }
+
+        List<Waiter> finished = new ArrayList<>();
+        synchronized (lock) {
+            for (String productId : batch.ids) {
+                inFlight.remove(productId, batch);
+            }
+            for (Waiter waiter : batch.waiters) {
+                if (waiter.done) {
+                    continue;
+                }
+                for (String productId : waiter.ids) {
+                    V product = byId.get(productId);
+                    if (product != null) {
+                        waiter.found.put(productId, product);
+                    }
+                }
+                if (responseCode != RESPONSE_OK) {
+                    waiter.responseCode = responseCode;
+                    waiter.done = true;
+                } else if (--waiter.outstanding == 0) {
+                    waiter.done = true;
+                }
+                if (waiter.done) {
+                    finished.add(waiter);
+                }
+            }
+        }
+
+        // 콜백은 lock 밖에서 호출
+        for (Waiter waiter : finished) {
+            waiter.callback.onComplete(waiter.responseCode, waiter.found);
+        }
+    }
+
+    private final class Batch {
+        final Set<String> ids = new LinkedHashSet<>();
+        final List<Waiter> waiters = new ArrayList<>();
+    }
+
+    private final class Waiter {
+        final Set<String> ids;
+        final Callback<V> callback;
+        final Map<String, V> found = new HashMap<>();
+        int outstanding;
+        int responseCode = RESPONSE_OK;
+        boolean done;
+
+        Waiter(Set<String> ids, Callback<V> callback) {
+            this.ids = ids;
+            this.callback = callback;
+        }
+    }
+}
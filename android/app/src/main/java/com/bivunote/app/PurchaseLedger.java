@@ -0,0 +1,321 @@
+package com.bivunote.app;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * purchaseToken 별 구매 기록을 보관하는 로컬 원장(ledger).
+ *
+ * 새 구매나 상태가 바뀐 구매에는 단조 증가하는 seq 가 붙습니다. 호출자는 마지막으로 받은 seq 를
+ * sync token 으로 넘겨 그 이후의 변경만 받을 수 있습니다.
+ * Play 의 구매 목록에서 사라진 구매(소비, 환불, 취소)는 reconcile() 때 removed 레코드(tombstone)가 되어
+ * 변경분으로 한 번 전달되고 전체 목록에서는 빠집니다. tombstone 은 최근 MAX_TOMBSTONES 개만 남기고,
+ * 그보다 오래된 sync token 은 처음부터 다시 동기화(reset)합니다.
+ * 파일은 한 줄에 한 레코드인 append-only 형식이고, 오래된 레코드가 쌓이면 최신 상태만 남기고 다시 씁니다.
+ */
+final class PurchaseLedger {
+
+    static final class Record {
+        final String purchaseToken;
+        final String productId;
+        final String orderId;
+        final long purchaseTime;
+        final int purchaseState;
+        final long seq;
+        // Play 의 구매 목록에서 사라짐
+        final boolean removed;
+
+        Record(String purchaseToken, String productId, String orderId, long purchaseTime, int purchaseState) {
+            this(purchaseToken, productId, orderId, purchaseTime, purchaseState, 0, false);
+        }
+
+        private Record(String purchaseToken, String productId, String orderId, long purchaseTime,
+                       int purchaseState, long seq, boolean removed) {
+            this.purchaseToken = purchaseToken;
+            this.productId = productId;
+            this.orderId = orderId;
+            this.purchaseTime = purchaseTime;
+            this.purchaseState = purchaseState;
+            this.seq = seq;
+            this.removed = removed;
+        }
+
+        Record withSeq(long seq) {
+            return new Record(purchaseToken, productId, orderId, purchaseTime, purchaseState, seq, removed);
+        }
+
+        Record asRemoved(long seq) {
+            return new Record(purchaseToken, productId, orderId, purchaseTime, purchaseState, seq, true);
+        }
+
+        boolean sameAs(Record other) {
+            return removed == other.removed
+                    && purchaseState == other.purchaseState
+                    && purchaseTime == other.purchaseTime
+                    && Objects.equals(productId, other.productId)
+                    && Objects.equals(orderId, other.orderId);
+        }
+    }
+
+    static final class Page {
+        final List<Record> records;
+        final long syncToken;
+        final boolean hasMore;
+        // 넘겨받은 sync token 으로는 변경분을 알 수 없어 전체 목록을 돌려줌 (호출자는 갖고 있던 목록을 버림)
+        final boolean reset;
+
+        Page(List<Record> records, long syncToken, boolean hasMore, boolean reset) {
+            this.records = records;
+            this.syncToken = syncToken;
+            this.hasMore = hasMore;
+            this.reset = reset;
+        }
+    }
+
+    static final int MAX_TOMBSTONES = 256;
+    private static final String FLOOR_PREFIX = "#floor\t";
+
+    private final File file;
+    private final Map<String, Record> byToken = new HashMap<>();
+    private final TreeMap<Long, Record> bySeq = new TreeMap<>();
+    private long lastSeq;
+    // 이 seq 까지의 tombstone 은 버렸으므로 더 오래된 sync token 은 reset
+    private long floorSeq;
+    private int tombstones;
+    private int fileRecords;
+    private boolean loaded;
+
+    PurchaseLedger(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 현재 구매 목록을 반영하고 새로 추가되거나 바뀐 레코드 수를 돌려줍니다.
+     */
+    synchronized int upsert(Collection<Record> records) throws IOException {
+        ensureLoaded();
+        List<Record> changed = new ArrayList<>();
+        for (Record record : records) {
+            Record existing = byToken.get(record.purchaseToken);
+            if (existing != null && existing.sameAs(record)) {
+                continue;
+            }
+            changed.add(put(record.withSeq(++lastSeq)));
+        }
+        return write(changed);
+    }
+
+    /**
+     * Play 가 돌려준 전체 구매 목록을 반영합니다. upsert 와 같고, 목록에 없는 구매는 removed 로 표시합니다.
+     */
+    synchronized int reconcile(Collection<Record> current) throws IOException {
+        ensureLoaded();
+        Map<String, Record> latest = new HashMap<>();
+        for (Record record : current) {
+            latest.put(record.purchaseToken, record);
+        }
+        List<Record> changed = new ArrayList<>();
+        // bySeq 를 고치므로 먼저 복사
+        for (Record existing : new ArrayList<>(bySeq.values())) {
+            if (!existing.removed && !latest.containsKey(existing.purchaseToken)) {
+                changed.add(put(existing.asRemoved(++lastSeq)));
+            }
+        }
+        for (Record record : latest.values()) {
+            Record existing = byToken.get(record.purchaseToken);
+            if (existing != null && existing.sameAs(record)) {
+                continue;
+            }
+            changed.add(put(record.withSeq(++lastSeq)));
+        }
+        return write(changed);
+    }
+
+    /**
+     * syncToken 이후에 바뀐 레코드를 seq 순서로 최대 limit 개 돌려줍니다.
+     * syncToken 0 은 전체 목록이며 removed 레코드는 넣지 않습니다.
+     */
+    synchronized Page changesSince(long syncToken, int limit) throws IOException {
+        ensureLoaded();
+        boolean reset = false;
+        if (syncToken > lastSeq || (syncToken > 0 && syncToken < floorSeq)) {
+            // 원장 파일이 지워진 뒤의 token 이거나, 그 사이의 tombstone 을 이미 버림 → 처음부터 다시 동기화
+            syncToken = 0;
+            reset = true;
+        }
+        List<Record> records = new ArrayList<>();
+        long nextToken = syncToken;
+        for (Record record : bySeq.tailMap(syncToken, false).values()) {
+            if (syncToken == 0 && record.removed) {
+                continue;
+            }
+            if (records.size() >= limit) {
+                return new Page(records, nextToken, true, reset);
+            }
+            records.add(record);
+            nextToken = record.seq;
+        }
+        if (syncToken == 0) {
+            // 뒤에 남은 tombstone 까지 건너뜀 (다음 호출이 같은 tombstone 을 받지 않도록)
+            nextToken = Math.max(nextToken, lastSeq);
+        }
+        return new Page(records, nextToken, false, reset);
+    }
+
+    /** removed 가 아닌 구매 수 */
+    synchronized int size() throws IOException {
+        ensureLoaded();
+        return byToken.size() - tombstones;
+    }
+
+    private Record put(Record record) {
+        Record existing = byToken.put(record.purchaseToken, record);
+        if (existing != null) {
+            bySeq.remove(existing.seq);
+            if (existing.removed) {
+                tombstones--;
+            }
+        }
+        if (record.removed) {
+            tombstones++;
+        }
+        bySeq.put(record.seq, record);
+        return record;
+    }
+
+    private int write(List<Record> changed) throws IOException {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        if (tombstones > MAX_TOMBSTONES) {
+            dropOldTombstones();
+            rewrite();
+        } else if (fileRecords + changed.size() > Math.max(64, byToken.size() * 2)) {
+            rewrite();
+        } else {
+            append(changed);
+        }
+        return changed.size();
+    }
+
+    private void dropOldTombstones() {
+        for (Iterator<Record> it = bySeq.values().iterator(); it.hasNext()
+                && tombstones > MAX_TOMBSTONES; ) {
+            Record record = it.next();
+            if (record.removed) {
+                it.remove();
+                byToken.remove(record.purchaseToken);
+                tombstones--;
+                floorSeq = Math.max(floorSeq, record.seq);
+            }
+        }
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(FLOOR_PREFIX)) {
+                    try {
+                        floorSeq = Long.parseLong(line.substring(FLOOR_PREFIX.length()));
+                        lastSeq = Math.max(lastSeq, floorSeq);
+                    } catch (NumberFormatException e) {
+                        // 잘린 줄
+                    }
+                    continue;
+                }
+                Record record = parse(line);
+                if (record == null) {
+                    // 기록 도중 종료되어 잘린 마지막 줄
+                    continue;
+                }
+                fileRecords++;
+                put(record);
+                lastSeq = Math.max(lastSeq, record.seq);
+            }
+        }
+    }
+
+    private void append(List<Record> records) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            for (Record record : records) {
+                writer.write(format(record));
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        fileRecords += records.size();
+    }
+
+    private void rewrite() throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp);
+             Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            if (floorSeq > 0) {
+                writer.write(FLOOR_PREFIX + floorSeq + "\n");
+            }
+            for (Record record : bySeq.values()) {
+                writer.write(format(record));
+            }
+            writer.flush();
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+        fileRecords = bySeq.size();
+    }
+
+    // seq \t token \t productId \t orderId \t purchaseTime \t state [\t removed]
+    private static String format(Record record) {
+        return record.seq + "\t" + record.purchaseToken + "\t" + record.productId + "\t"
+                + (record.orderId == null ? "" : record.orderId) + "\t"
+                + record.purchaseTime + "\t" + record.purchaseState + (record.removed ? "\tremoved" : "") + "\n";
+    }
+
+    private static Record parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6 && !(fields.length == 7 && "removed".equals(fields[6]))) {
+            return null;
+        }
+        try {
+            return new Record(fields[1], fields[2], fields[3].isEmpty() ? null : fields[3],
+                    Long.parseLong(fields[4]), Integer.parseInt(fields[5]), Long.parseLong(fields[0]),
+                    fields.length == 7);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
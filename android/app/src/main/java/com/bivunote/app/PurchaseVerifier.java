@@ -0,0 +1,56 @@
+package com.bivunote.app;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.function.Function;
+
+/**
+ * Play Console 의 라이선스 공개 키(base64, X.509)로 Purchase.getOriginalJson() 의 서명을 검증합니다.
+ */
+final class PurchaseVerifier {
+
+    private static final String KEY_ALGORITHM = "RSA";
+    private static final String SIGNATURE_ALGORITHM = "SHA1withRSA";
+
+    private final PublicKey publicKey;
+    private final Function<String, byte[]> base64Decoder;
+
+    PurchaseVerifier(PublicKey publicKey, Function<String, byte[]> base64Decoder) {
+        this.publicKey = publicKey;
+        this.base64Decoder = base64Decoder;
+    }
+
+    /**
+     * @param base64PublicKey Play Console > 수익 창출 설정 의 라이선스 키
+     * @param base64Decoder   Android 에서는 android.util.Base64, JVM 테스트에서는 java.util.Base64
+     */
+    static PurchaseVerifier fromBase64Key(String base64PublicKey, Function<String, byte[]> base64Decoder)
+            throws GeneralSecurityException {
+        byte[] encodedKey;
+        try {
+            encodedKey = base64Decoder.apply(base64PublicKey);
+        } catch (IllegalArgumentException e) {
+            throw new GeneralSecurityException("Invalid base64 public key", e);
+        }
+        PublicKey key = KeyFactory.getInstance(KEY_ALGORITHM).generatePublic(new X509EncodedKeySpec(encodedKey));
+        return new PurchaseVerifier(key, base64Decoder);
+    }
+
+    boolean verify(String signedData, String base64Signature) {
+        if (signedData == null || base64Signature == null || base64Signature.isEmpty()) {
+            return false;
+        }
+        try {
+            Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+            signature.initVerify(publicKey);
+            signature.update(signedData.getBytes(StandardCharsets.UTF_8));
+            return signature.verify(base64Decoder.apply(base64Signature));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
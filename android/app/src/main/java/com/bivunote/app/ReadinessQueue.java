@@ -0,0 +1,115 @@
+package com.bivunote.app;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 연결이 준비되기 전에 들어온 작업을 잠시 보관했다가, 준비되면 순서대로 실행합니다.
+ * 큐가 가득 차거나 deadline 안에 준비되지 않으면 작업은 실패 처리됩니다.
+ */
+final class ReadinessQueue {
+
+    interface Task {
+        void run();
+
+        void fail(String reason);
+    }
+
+    static final String REASON_QUEUE_FULL = "Billing client is not connected";
+    static final String REASON_TIMEOUT = "Timed out waiting for billing connection";
+
+    private final int capacity;
+    private final long deadlineMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+    private boolean ready;
+
+    ReadinessQueue(int capacity, long deadlineMillis, ScheduledExecutorService scheduler) {
+        this.capacity = capacity;
+        this.deadlineMillis = deadlineMillis;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 준비된 상태면 바로 실행하고, 아니면 큐에 넣습니다.
+     */
+    void submit(Task task) {
+        boolean runNow;
+        synchronized (this) {
+            runNow = ready;
+            if (!runNow && entries.size() < capacity) {
+                Entry entry = new Entry(task);
+                entries.addLast(entry);
+                entry.timeout = scheduler.schedule(() -> expire(entry), deadlineMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+        }
+        // 작업 실행/실패 처리는 lock 밖에서
+        if (runNow) {
+            task.run();
+        } else {
+            task.fail(REASON_QUEUE_FULL);
+        }
+    }
+
+    synchronized boolean isReady() {
+        return ready;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * ready 가 true 가 되면 대기 중인 작업을 모두 실행합니다.
+     */
+    void setReady(boolean ready) {
+        List<Entry> drained = new ArrayList<>();
+        synchronized (this) {
+            this.ready = ready;
+            if (ready) {
+                drained.addAll(entries);
+                entries.clear();
+            }
+        }
+        for (Entry entry : drained) {
+            entry.timeout.cancel(false);
+            entry.task.run();
+        }
+    }
+
+    void failAll(String reason) {
+        List<Entry> failed;
+        synchronized (this) {
+            failed = new ArrayList<>(entries);
+            entries.clear();
+        }
+        for (Entry entry : failed) {
+            entry.timeout.cancel(false);
+            entry.task.fail(reason);
+        }
+    }
+
+    private void expire(Entry entry) {
+        synchronized (this) {
+            if (!entries.remove(entry)) {
+                return;
+            }
+        }
+        entry.task.fail(REASON_TIMEOUT);
+    }
+
+    private static final class Entry {
+        final Task task;
+        ScheduledFuture<?> timeout;
+
+        Entry(Task task) {
+            this.task = task;
+        }
+    }
+}
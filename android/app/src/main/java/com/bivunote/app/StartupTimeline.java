@@ -0,0 +1,172 @@
+package com.bivunote.app;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * 콜드 스타트 구간을 단조 시계(elapsedRealtimeNanos)로 기록합니다.
+ *
+ * 같은 이름은 android.os.Trace 섹션으로도 남기므로 Perfetto/systrace 에서 그대로 볼 수 있습니다.
+ * 프로세스당 하나(get())를 쓰고, JS 에는 DiagnosticsPlugin.getStartupTimeline 으로 전달합니다.
+ */
+final class StartupTimeline {
+
+    static final class Entry {
+        final String name;
+        final long startNanos;
+        // 순간 기록(mark)이면 startNanos 와 같음
+        final long endNanos;
+
+        Entry(String name, long startNanos, long endNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+
+        boolean isInstant() {
+            return startNanos == endNanos;
+        }
+    }
+
+    static final String PROCESS_START = "processStart";
+    private static final String TRACE_PREFIX = "startup:";
+    private static final int MAX_ENTRIES = 256;
+
+    private static final StartupTimeline INSTANCE =
+            new StartupTimeline(SystemClock::elapsedRealtimeNanos, true);
+
+    private final LongSupplier clock;
+    private final boolean writeTrace;
+    private final List<Entry> entries = new ArrayList<>();
+    // begin() 했지만 아직 end() 하지 않은 구간 (endNanos 는 아직 의미 없음)
+    private final List<Entry> open = new ArrayList<>();
+    private long originNanos = -1;
+    private int dropped;
+
+    StartupTimeline(LongSupplier clock, boolean writeTrace) {
+        this.clock = clock;
+        this.writeTrace = writeTrace;
+    }
+
+    static StartupTimeline get() {
+        return INSTANCE;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * 프로세스 시작 시각(Process.getStartElapsedRealtime)을 원점으로 기록합니다. 프로세스당 한 번만.
+     */
+    void recordProcessStart() {
+        recordProcessStart(Process.getStartElapsedRealtime() * 1_000_000L);
+    }
+
+    synchronized void recordProcessStart(long startNanos) {
+        if (originNanos >= 0) {
+            return;
+        }
+        originNanos = startNanos;
+        add(new Entry(PROCESS_START, startNanos, startNanos));
+    }
+
+    void mark(String name) {
+        long at = now();
+        synchronized (this) {
+            add(new Entry(name, at, at));
+        }
+        if (writeTrace && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            // 순간 기록은 길이 0 인 섹션으로
+            int cookie = (int) at;
+            Trace.beginAsyncSection(TRACE_PREFIX + name, cookie);
+            Trace.endAsyncSection(TRACE_PREFIX + name, cookie);
+        }
+    }
+
+    /**
+     * 구간 시작. 다른 스레드/콜백에서 end(name) 으로 닫을 수 있습니다.
+     */
+    void begin(String name) {
+        long at = now();
+        synchronized (this) {
+            open.add(new Entry(name, at, at));
+        }
+        if (writeTrace && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(TRACE_PREFIX + name, name.hashCode());
+        }
+    }
+
+    /**
+     * 같은 이름으로 가장 최근에 begin() 한 구간을 닫습니다. 열린 구간이 없으면 무시.
+     */
+    void end(String name) {
+        long at = now();
+        boolean closed = false;
+        synchronized (this) {
+            for (int i = open.size() - 1; i >= 0; i--) {
+                Entry started = open.get(i);
+                if (started.name.equals(name)) {
+                    open.remove(i);
+                    add(new Entry(name, started.startNanos, at));
+                    closed = true;
+                    break;
+                }
+            }
+        }
+        if (closed && writeTrace && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(TRACE_PREFIX + name, name.hashCode());
+        }
+    }
+
+    /**
+     * 다른 곳에서 이미 잰 구간 (예: 플러그인 load() 시간). Trace 는 호출한 쪽에서.
+     */
+    synchronized void span(String name, long startNanos, long endNanos) {
+        add(new Entry(name, startNanos, endNanos));
+    }
+
+    // synchronized (this) 안에서만
+    private void add(Entry entry) {
+        if (entries.size() >= MAX_ENTRIES) {
+            dropped++;
+            return;
+        }
+        entries.add(entry);
+    }
+
+    /**
+     * 시작 시각 순서로 정렬한 복사본
+     */
+    synchronized List<Entry> entries() {
+        List<Entry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, Comparator.comparingLong(entry -> entry.startNanos));
+        return sorted;
+    }
+
+    /**
+     * 시각을 표시할 때의 원점. 프로세스 시작을 모르면 첫 기록.
+     */
+    synchronized long originNanos() {
+        if (originNanos >= 0) {
+            return originNanos;
+        }
+        long first = Long.MAX_VALUE;
+        for (Entry entry : entries) {
+            first = Math.min(first, entry.startNanos);
+        }
+        return first == Long.MAX_VALUE ? 0 : first;
+    }
+
+    synchronized int dropped() {
+        return dropped;
+    }
+}
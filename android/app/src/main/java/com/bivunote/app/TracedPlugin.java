@@ -0,0 +1,90 @@
+package com.bivunote.app;
+
+import com.bivunote.bridge.BridgeTracer;
+import com.bivunote.bridge.CallOutcome;
+import com.bivunote.bridge.CallTrace;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+
+/**
+ * 앱 플러그인의 공통 바탕: load() 시간을 StartupTimeline 에 "plugin:<이름>.load" 로 남기고,
+ * 호출 시작/응답을 BridgeTracer 에 기록하는 헬퍼를 둡니다.
+ * 하위 클래스는 load() 대신 onLoad() 를 쓰고, 응답은 call.resolve/reject 대신 아래 resolve/reject 로 보냅니다.
+ */
+public abstract class TracedPlugin extends Plugin {
+
+    // BridgeTracer/StartupTimeline 에 기록할 플러그인 이름 (@CapacitorPlugin name 과 같게)
+    private final String pluginName;
+    private long loadStartedNanos;
+    private long loadNanos;
+
+    protected TracedPlugin(String pluginName) {
+        this.pluginName = pluginName;
+    }
+
+    @Override
+    public final void load() {
+        StartupTimeline timeline = StartupTimeline.get();
+        loadStartedNanos = timeline.now();
+        super.load();
+        onLoad();
+        long loadEndedNanos = timeline.now();
+        loadNanos = loadEndedNanos - loadStartedNanos;
+        timeline.span("plugin:" + pluginName + ".load", loadStartedNanos, loadEndedNanos);
+    }
+
+    /**
+     * 플러그인 초기화. 메인 스레드(브리지 시작 경로)에서 불리므로 무거운 일은 작업 스레드로 넘깁니다.
+     */
+    protected void onLoad() {
+    }
+
+    /** load() 시작 시각 (SystemClock.elapsedRealtimeNanos 기준) */
+    protected final long loadStartedNanos() {
+        return loadStartedNanos;
+    }
+
+    /** load() 가 메인 스레드에서 쓴 시간 */
+    protected final long loadNanos() {
+        return loadNanos;
+    }
+
+    protected final CallTrace beginTrace(PluginCall call) {
+        return BridgeTracer.get().begin(pluginName, call.getMethodName(), call.getCallbackId());
+    }
+
+    protected final CallTrace findTrace(PluginCall call) {
+        return BridgeTracer.get().find(pluginName, call.getCallbackId());
+    }
+
+    /**
+     * 작업 스레드에서 실제로 처리를 시작한 시점 (여기까지가 queue 시간)
+     */
+    protected final void callStarted(PluginCall call) {
+        CallTrace trace = findTrace(call);
+        if (trace != null) {
+            trace.started();
+        }
+    }
+
+    protected final void resolve(PluginCall call, JSObject result) {
+        call.resolve(result);
+        BridgeTracer.get().finish(pluginName, call.getCallbackId(), CallOutcome.RESOLVED);
+    }
+
+    protected final void reject(PluginCall call, String message) {
+        call.reject(message);
+        BridgeTracer.get().finish(pluginName, call.getCallbackId(), CallOutcome.REJECTED);
+    }
+
+    protected final void reject(PluginCall call, String message, String code) {
+        call.reject(message, code);
+        BridgeTracer.get().finish(pluginName, call.getCallbackId(), CallOutcome.REJECTED);
+    }
+
+    protected final void reject(PluginCall call, String message, Exception e) {
+        call.reject(message, e);
+        BridgeTracer.get().finish(pluginName, call.getCallbackId(), CallOutcome.ERROR);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bivunote.app;
+
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import java.util.Map;
+
+/**
+ * AppWebViewClient 가 Capacitor 의 기본 처리보다 먼저 묻는 요청 처리기.
+ * WebView 의 IO 스레드에서 호출됩니다.
+ */
+interface WebRequestInterceptor {
+
+    /**
+     * @return 직접 응답하면 응답, 다음 처리기(마지막은 Capacitor)에 넘기려면 null
+     */
+    WebResourceResponse intercept(WebResourceRequest request);
+
+    /**
+     * 요청 헤더를 대소문자 구분 없이 찾습니다. (WebView 가 넘기는 이름의 대소문자가 일정하지 않음)
+     */
+    static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (name.equalsIgnoreCase(header.getKey())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,160 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class BlobRegistryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long nowMillis;
+    private BlobRegistry registry;
+
+    @Before
+    public void setUp() {
+        nowMillis = 1_000_000L;
+        registry = new BlobRegistry(() -> nowMillis, 4, 1024);
+    }
+
+    @Test
+    public void bufferIsServedOnceWithoutCopy() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap("xx{\"orderId\":\"GPA.1\"}".getBytes(StandardCharsets.UTF_8));
+        buffer.position(2);
+        BlobRegistry.Blob blob = registry.registerBuffer(buffer, "application/json");
+
+        assertEquals(19, blob.size);
+        assertEquals(BlobRegistry.PATH_PREFIX + blob.handle, blob.path());
+        BlobRegistry.Opened opened = registry.open(blob.handle);
+        assertNotNull(opened);
+        assertEquals("application/json", opened.mimeType);
+        assertEquals("{\"orderId\":\"GPA.1\"}", read(opened.stream));
+        // 원래 buffer 의 position 은 그대로
+        assertEquals(2, buffer.position());
+        assertNull(registry.open(blob.handle));
+        assertEquals(0, registry.bufferBytes());
+    }
+
+    @Test
+    public void handlesAreUnguessable() {
+        BlobRegistry.Blob first = registry.registerBuffer(ByteBuffer.allocate(1), null);
+        BlobRegistry.Blob second = registry.registerBuffer(ByteBuffer.allocate(1), null);
+        assertEquals(32, first.handle.length());
+        assertTrue(first.handle.matches("[0-9a-f]+"));
+        assertNotEquals(first.handle, second.handle);
+        assertEquals("application/octet-stream", first.mimeType);
+    }
+
+    @Test
+    public void unreadBlobsExpire() throws IOException {
+        BlobRegistry.Blob blob = registry.registerBuffer(ByteBuffer.allocate(100), null);
+        nowMillis += BlobRegistry.DEFAULT_TTL_MS;
+        assertNull(registry.open(blob.handle));
+        assertEquals(1, registry.dropped());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void fileIsDeletedAfterStreamIsClosed() throws IOException {
+        File file = write("receipt.json", "{\"purchaseToken\":\"t\"}");
+        BlobRegistry.Blob blob = registry.registerFile(file, "application/json", true);
+        assertEquals(file.length(), blob.size);
+
+        BlobRegistry.Opened opened = registry.open(blob.handle);
+        assertNotNull(opened);
+        // 읽는 동안에는 남아 있어야 함
+        assertTrue(file.exists());
+        assertEquals("{\"purchaseToken\":\"t\"}", read(opened.stream));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void releaseDropsEntryAndKeepsFileWhenNotOwned() throws IOException {
+        File file = write("export.bin", "data");
+        BlobRegistry.Blob blob = registry.registerFile(file, null, false);
+
+        assertTrue(registry.release(blob.handle));
+        assertFalse(registry.release(blob.handle));
+        assertNull(registry.open(blob.handle));
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void oldestBuffersAreDroppedOverBudget() throws IOException {
+        File file = write("image.webp", "webp");
+        BlobRegistry.Blob fileBlob = registry.registerFile(file, "image/webp", false);
+        BlobRegistry.Blob first = registry.registerBuffer(ByteBuffer.allocate(600), null);
+        BlobRegistry.Blob second = registry.registerBuffer(ByteBuffer.allocate(600), null);
+
+        // 버퍼 합계(1024)를 넘었으므로 가장 오래된 버퍼만 버림. 파일은 메모리를 쓰지 않으므로 남음
+        assertNull(registry.open(first.handle));
+        assertEquals(600, registry.bufferBytes());
+        assertNotNull(registry.open(second.handle));
+        assertNotNull(registry.open(fileBlob.handle));
+        assertEquals(1, registry.dropped());
+    }
+
+    @Test
+    public void entryCountIsBounded() {
+        BlobRegistry.Blob first = null;
+        for (int i = 0; i < 6; i++) {
+            BlobRegistry.Blob blob = registry.registerBuffer(ByteBuffer.allocate(1), null);
+            if (first == null) {
+                first = blob;
+            }
+        }
+        assertEquals(4, registry.size());
+        assertEquals(2, registry.dropped());
+        assertFalse(registry.release(first.handle));
+    }
+
+    @Test
+    public void reusableSourceCanBeReadRepeatedly() throws IOException {
+        byte[] bytes = "export".getBytes(StandardCharsets.UTF_8);
+        BlobRegistry.Blob blob = registry.register(() -> new ByteArrayInputStream(bytes), bytes.length, bytes.length,
+                "text/plain", 5_000, false);
+
+        assertEquals("export", read(registry.open(blob.handle).stream));
+        assertEquals("export", read(registry.open(blob.handle).stream));
+        nowMillis += 5_000;
+        assertNull(registry.open(blob.handle));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[7];
+            int n;
+            while ((n = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ConsumeJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "billing/consume-journal");
+    }
+
+    @Test
+    public void pendingTokensSurviveReload() throws Exception {
+        ConsumeJournal journal = new ConsumeJournal(file);
+        assertTrue(journal.load().isEmpty());
+        assertTrue(journal.add("token-1", "sages_bell"));
+        assertTrue(journal.add("token-2", "sages_bell"));
+        assertFalse(journal.add("token-1", "sages_bell"));
+        journal.remove("token-1");
+
+        List<ConsumeJournal.Entry> entries = new ConsumeJournal(file).load();
+        assertEquals(1, entries.size());
+        assertEquals("token-2", entries.get(0).purchaseToken);
+        assertEquals("sages_bell", entries.get(0).productId);
+    }
+
+    @Test
+    public void tornLastLineIsIgnored() throws Exception {
+        ConsumeJournal journal = new ConsumeJournal(file);
+        journal.load();
+        journal.add("token-1", "sages_bell");
+        // 기록을 쓰다가 죽은 것처럼 탭 없이 끊긴 줄
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("+token-2".getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<ConsumeJournal.Entry> entries = new ConsumeJournal(file).load();
+        assertEquals(1, entries.size());
+        assertEquals("token-1", entries.get(0).purchaseToken);
+    }
+
+    @Test
+    public void completedRecordsAreCompactedAway() throws Exception {
+        ConsumeJournal journal = new ConsumeJournal(file);
+        journal.load();
+        journal.add("kept", "theme_midnight");
+        for (int i = 0; i < 100; i++) {
+            journal.add("token-" + i, "sages_bell");
+            journal.remove("token-" + i);
+        }
+
+        // 완료된 토큰이 쌓이지 않고 남은 토큰 + 몇 줄만
+        assertTrue(Files.readAllLines(file.toPath()).size() < 70);
+        List<String> tokens = new ArrayList<>();
+        for (ConsumeJournal.Entry entry : new ConsumeJournal(file).load()) {
+            tokens.add(entry.purchaseToken);
+        }
+        assertEquals(Arrays.asList("kept"), tokens);
+    }
+}
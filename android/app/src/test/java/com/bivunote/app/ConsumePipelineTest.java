@@ -0,0 +1,208 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class ConsumePipelineTest {
+
+    private static final int OK = 0;
+    private static final int SERVICE_UNAVAILABLE = 2;
+    private static final int ITEM_NOT_OWNED = 8;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ScheduledExecutorService scheduler;
+    private File journalFile;
+    private ConsumeJournal journal;
+    private FakeBillingClient billingClient;
+    private Results results;
+
+    @Before
+    public void setUp() throws Exception {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        journalFile = new File(folder.getRoot(), "consume-journal");
+        journal = new ConsumeJournal(journalFile);
+        journal.load();
+        billingClient = new FakeBillingClient();
+        results = new Results();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void tokensEnqueuedTogetherShareOneBatch() throws Exception {
+        ConsumePipeline pipeline = pipeline(journal);
+        results.expect(3);
+        pipeline.enqueue("token-1", "sages_bell");
+        pipeline.enqueue("token-2", "sages_bell");
+        pipeline.enqueue("token-3", "sages_bell");
+
+        assertTrue(results.await());
+        assertEquals(1, billingClient.flushes());
+        assertTrue(journal.pending().isEmpty());
+        assertEquals(0, pipeline.inFlight());
+    }
+
+    @Test
+    public void tokenIsJournaledBeforeConsume() throws Exception {
+        ConsumePipeline pipeline = pipeline(journal);
+        billingClient.respond("token-1", SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE);
+        results.expect(MAX_ATTEMPTS);
+        pipeline.enqueue("token-1", "sages_bell");
+
+        // 다음 실행이 볼 journal 에 남아 있음
+        assertEquals(1, new ConsumeJournal(journalFile).load().size());
+        assertTrue(results.await());
+    }
+
+    @Test
+    public void failuresAreRetriedUntilConsumed() throws Exception {
+        ConsumePipeline pipeline = pipeline(journal);
+        billingClient.respond("token-1", SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE, OK);
+        results.expect(3);
+        pipeline.enqueue("token-1", "sages_bell");
+
+        assertTrue(results.await());
+        assertEquals(3, billingClient.attempts("token-1"));
+        assertTrue(results.willRetry.get(0));
+        assertTrue(results.willRetry.get(1));
+        assertFalse(results.willRetry.get(2));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    public void alreadyConsumedTokenIsNotRetried() throws Exception {
+        ConsumePipeline pipeline = pipeline(journal);
+        billingClient.respond("token-1", ITEM_NOT_OWNED);
+        results.expect(1);
+        pipeline.enqueue("token-1", "sages_bell");
+
+        assertTrue(results.await());
+        assertEquals(1, billingClient.attempts("token-1"));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    public void exhaustedTokenStaysJournaledAndIsRetriedLater() throws Exception {
+        ConsumePipeline pipeline = pipeline(journal);
+        billingClient.respond("token-1", SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE, SERVICE_UNAVAILABLE);
+        results.expect(MAX_ATTEMPTS);
+        pipeline.enqueue("token-1", "sages_bell");
+
+        assertTrue(results.await());
+        assertFalse(results.willRetry.get(MAX_ATTEMPTS - 1));
+        assertEquals(0, pipeline.inFlight());
+        assertEquals(1, journal.pending().size());
+
+        // 다시 연결됐을 때
+        results.expect(1);
+        assertEquals(1, pipeline.retryStranded());
+        assertEquals(0, pipeline.retryStranded());
+        assertTrue(results.await());
+        assertEquals(MAX_ATTEMPTS + 1, billingClient.attempts("token-1"));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    @Test
+    public void replayConsumesTokensLeftByPreviousRun() throws Exception {
+        journal.add("token-1", "sages_bell");
+        journal.add("token-2", "sages_bell");
+
+        ConsumeJournal reopened = new ConsumeJournal(journalFile);
+        ConsumePipeline pipeline = pipeline(reopened);
+        results.expect(2);
+        assertEquals(2, pipeline.replay());
+
+        assertTrue(results.await());
+        assertTrue(new ConsumeJournal(journalFile).load().isEmpty());
+    }
+
+    private ConsumePipeline pipeline(ConsumeJournal journal) {
+        return new ConsumePipeline(journal, billingClient, results, scheduler, 20, MAX_ATTEMPTS,
+                () -> new ExponentialBackoff(1, 5, () -> 0.5), System::currentTimeMillis);
+    }
+
+    /** 토큰별로 정해 둔 응답을 차례로 돌려주는 consumeAsync 대역 (정해 두지 않으면 OK) */
+    private static final class FakeBillingClient implements ConsumePipeline.Consumer {
+        private final Map<String, List<Integer>> responses = new ConcurrentHashMap<>();
+        private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        private final List<Long> consumeTimes = Collections.synchronizedList(new ArrayList<>());
+
+        void respond(String purchaseToken, Integer... codes) {
+            List<Integer> list = Collections.synchronizedList(new ArrayList<>());
+            Collections.addAll(list, codes);
+            responses.put(purchaseToken, list);
+        }
+
+        @Override
+        public void consume(String purchaseToken, ConsumePipeline.ResultCallback callback) {
+            attempts.merge(purchaseToken, 1, Integer::sum);
+            consumeTimes.add(System.nanoTime());
+            List<Integer> codes = responses.get(purchaseToken);
+            callback.onResult(codes == null || codes.isEmpty() ? OK : codes.remove(0));
+        }
+
+        int attempts(String purchaseToken) {
+            return attempts.getOrDefault(purchaseToken, 0);
+        }
+
+        /** batch 간격(20ms)의 절반 안에 이어진 consume 은 같은 batch 로 봄 */
+        int flushes() {
+            int flushes = 0;
+            Long previous = null;
+            synchronized (consumeTimes) {
+                for (long time : consumeTimes) {
+                    if (previous == null || time - previous > TimeUnit.MILLISECONDS.toNanos(10)) {
+                        flushes++;
+                    }
+                    previous = time;
+                }
+            }
+            return flushes;
+        }
+    }
+
+    private static final class Results implements ConsumePipeline.Listener {
+        final List<Boolean> willRetry = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch latch = new CountDownLatch(0);
+
+        void expect(int count) {
+            willRetry.clear();
+            latch = new CountDownLatch(count);
+        }
+
+        boolean await() throws InterruptedException {
+            return latch.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void onConsumeResult(String purchaseToken, String productId, int responseCode,
+                                    int attempts, long latencyMillis, boolean willRetry) {
+            this.willRetry.add(willRetry);
+            latch.countDown();
+        }
+    }
+}
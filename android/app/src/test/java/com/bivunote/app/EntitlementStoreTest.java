@@ -0,0 +1,232 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+public class EntitlementStoreTest {
+
+    private static final int PURCHASED = 1;
+    private static final int PENDING = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeBillingClient billingClient;
+    private PurchaseVerifier verifier;
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair playKey = generator.generateKeyPair();
+
+        billingClient = new FakeBillingClient(playKey.getPrivate());
+        String licenseKey = Base64.getEncoder().encodeToString(playKey.getPublic().getEncoded());
+        verifier = PurchaseVerifier.fromBase64Key(licenseKey, value -> Base64.getDecoder().decode(value));
+        file = new File(folder.getRoot(), "billing/entitlements");
+    }
+
+    @Test
+    public void storesOnlyVerifiedCompletedPurchases() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+
+        EntitlementStore.SignedPurchase valid = billingClient.purchase("theme_midnight", "token-1", PURCHASED);
+        EntitlementStore.SignedPurchase pending = billingClient.purchase("theme_e_ink", "token-2", PENDING);
+        EntitlementStore.SignedPurchase forged = billingClient.forge("sages_bell", "token-3");
+
+        assertEquals(1, store.record(Arrays.asList(valid, pending, forged)));
+
+        assertTrue(store.isEntitled("theme_midnight"));
+        assertFalse(store.isEntitled("theme_e_ink"));
+        assertFalse(store.isEntitled("sages_bell"));
+        assertEquals(1, store.getEntitlements().size());
+    }
+
+    @Test
+    public void recordingTheSamePurchaseTwiceIsANoOp() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        EntitlementStore.SignedPurchase purchase = billingClient.purchase("theme_sketchbook", "token-1", PURCHASED);
+
+        assertEquals(1, store.record(Collections.singletonList(purchase)));
+        long modified = file.lastModified();
+        assertEquals(0, store.record(Collections.singletonList(purchase)));
+        assertEquals(modified, file.lastModified());
+    }
+
+    @Test
+    public void entitlementsSurviveRestart() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        store.record(Arrays.asList(
+                billingClient.purchase("theme_midnight", "token-1", PURCHASED),
+                billingClient.purchase("title_1", "token-2", PURCHASED)));
+
+        EntitlementStore restarted = new EntitlementStore(file, verifier);
+        restarted.load();
+
+        assertEquals(2, restarted.getEntitlements().size());
+        assertTrue(restarted.isEntitled("theme_midnight"));
+        assertTrue(restarted.isEntitled("title_1"));
+    }
+
+    @Test
+    public void purchasesMissingFromFullQueryAreRevoked() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        EntitlementStore.SignedPurchase kept = billingClient.purchase("theme_midnight", "token-1", PURCHASED);
+        EntitlementStore.SignedPurchase refunded = billingClient.purchase("title_1", "token-2", PURCHASED);
+        store.record(Arrays.asList(kept, refunded));
+
+        // 환불된 구매는 Play 의 구매 목록에서 빠짐
+        assertEquals(1, store.reconcile(Collections.singletonList(kept)));
+        assertTrue(store.isEntitled("theme_midnight"));
+        assertFalse(store.isEntitled("title_1"));
+        assertEquals(0, store.reconcile(Collections.singletonList(kept)));
+
+        EntitlementStore restarted = new EntitlementStore(file, verifier);
+        restarted.load();
+        assertEquals(1, restarted.getEntitlements().size());
+        assertFalse(restarted.isEntitled("title_1"));
+    }
+
+    @Test
+    public void consumedPurchasesAreKeptWhenMissingFromFullQuery() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        EntitlementStore.SignedPurchase consumed = billingClient.purchase("sages_bell", "token-1", PURCHASED);
+        EntitlementStore.SignedPurchase refunded = billingClient.purchase("title_1", "token-2", PURCHASED);
+        store.record(Arrays.asList(consumed, refunded));
+
+        assertTrue(store.markConsumed("token-1"));
+        assertFalse(store.markConsumed("token-1"));
+        assertFalse(store.markConsumed("unknown"));
+
+        // 소비한 구매와 환불된 구매 모두 Play 의 구매 목록에서 빠짐
+        assertEquals(1, store.reconcile(Collections.emptyList()));
+        assertTrue(store.isEntitled("sages_bell"));
+        assertFalse(store.isEntitled("title_1"));
+
+        EntitlementStore restarted = new EntitlementStore(file, verifier);
+        restarted.load();
+        assertEquals(0, restarted.reconcile(Collections.emptyList()));
+        assertTrue(restarted.isEntitled("sages_bell"));
+        assertTrue(restarted.getEntitlements().iterator().next().consumed);
+    }
+
+    @Test
+    public void readsEntriesWrittenBeforeTheConsumedColumn() throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "theme_midnight\ttoken-1\tGPA.1\t1000\n".getBytes(StandardCharsets.UTF_8));
+
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        store.load();
+
+        assertTrue(store.isEntitled("theme_midnight"));
+        assertFalse(store.getEntitlements().iterator().next().consumed);
+    }
+
+    @Test
+    public void fullQueryAddsNewAndRevokesNoLongerPurchased() throws Exception {
+        EntitlementStore store = new EntitlementStore(file, verifier);
+        store.record(Collections.singletonList(billingClient.purchase("theme_midnight", "token-1", PURCHASED)));
+
+        // 같은 토큰이 완료 상태가 아니게 됨 + 새 구매
+        assertEquals(1, store.reconcile(Arrays.asList(
+                billingClient.purchase("theme_midnight", "token-1", PENDING),
+                billingClient.purchase("sages_bell", "token-2", PURCHASED))));
+        assertFalse(store.isEntitled("theme_midnight"));
+        assertTrue(store.isEntitled("sages_bell"));
+    }
+
+    @Test
+    public void isLoadedOnlyAfterLoad() throws Exception {
+        new EntitlementStore(file, verifier).record(Collections.singletonList(
+                billingClient.purchase("theme_midnight", "token-1", PURCHASED)));
+
+        EntitlementStore restarted = new EntitlementStore(file, verifier);
+        assertFalse(restarted.isLoaded());
+        assertTrue(restarted.getEntitlements().isEmpty());
+        restarted.load();
+        assertTrue(restarted.isLoaded());
+        assertTrue(restarted.isEntitled("theme_midnight"));
+    }
+
+    @Test
+    public void signatureFromAnotherKeyIsRejected() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        FakeBillingClient otherApp = new FakeBillingClient(generator.generateKeyPair().getPrivate());
+        EntitlementStore store = new EntitlementStore(file, verifier);
+
+        assertEquals(0, store.record(Collections.singletonList(
+                otherApp.purchase("theme_midnight", "token-1", PURCHASED))));
+        assertFalse(file.exists());
+    }
+
+    @Test(expected = GeneralSecurityException.class)
+    public void invalidLicenseKeyIsRejected() throws Exception {
+        PurchaseVerifier.fromBase64Key("not a key", value -> Base64.getDecoder().decode(value));
+    }
+
+    /**
+     * Play 대신 테스트 키로 originalJson 에 서명해 주는 BillingClient 대역.
+     */
+    private static final class FakeBillingClient {
+        private final PrivateKey signingKey;
+        private final List<String> issuedOrders = new ArrayList<>();
+
+        FakeBillingClient(PrivateKey signingKey) {
+            this.signingKey = signingKey;
+        }
+
+        EntitlementStore.SignedPurchase purchase(String productId, String purchaseToken, int purchaseState)
+                throws GeneralSecurityException {
+            String orderId = "GPA.0000-" + issuedOrders.size();
+            issuedOrders.add(orderId);
+            String json = originalJson(productId, purchaseToken, orderId, purchaseState);
+            return new EntitlementStore.SignedPurchase(json, sign(json), productId, purchaseToken,
+                    orderId, 1_700_000_000_000L, purchaseState);
+        }
+
+        /** 다른 구매의 서명을 붙인 위조 구매 */
+        EntitlementStore.SignedPurchase forge(String productId, String purchaseToken)
+                throws GeneralSecurityException {
+            String signature = sign(originalJson("theme_midnight", "other-token", "GPA.other", PURCHASED));
+            String json = originalJson(productId, purchaseToken, "GPA.forged", PURCHASED);
+            return new EntitlementStore.SignedPurchase(json, signature, productId, purchaseToken,
+                    "GPA.forged", 1_700_000_000_000L, PURCHASED);
+        }
+
+        private String sign(String data) throws GeneralSecurityException {
+            Signature signature = Signature.getInstance("SHA1withRSA");
+            signature.initSign(signingKey);
+            signature.update(data.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(signature.sign());
+        }
+
+        private static String originalJson(String productId, String purchaseToken, String orderId,
+                                           int purchaseState) {
+            return "{\"orderId\":\"" + orderId + "\",\"packageName\":\"com.bivunote.app\","
+                    + "\"productId\":\"" + productId + "\",\"purchaseState\":" + (purchaseState == PURCHASED ? 0 : 4)
+                    + ",\"purchaseToken\":\"" + purchaseToken + "\"}";
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ImageDiskCacheTest {
+
+    private static final String AVATAR =
+            "https://firebasestorage.googleapis.com/v0/b/app/o/avatars%2Fu1_200x200.jpg?alt=media&token=t1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeServer server;
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeServer();
+        dir = folder.newFolder("image-cache");
+    }
+
+    @Test
+    public void secondRequestIsServedFromDisk() throws IOException {
+        server.put(AVATAR, "avatar-1", "\"e1\"");
+        ImageDiskCache cache = new ImageDiskCache(dir, 1 << 20, server);
+
+        ImageDiskCache.Result first = cache.get(AVATAR + "&v=1");
+        ImageDiskCache.Result second = cache.get(AVATAR + "&v=1");
+
+        assertFalse(first.fromCache);
+        assertTrue(second.fromCache);
+        assertEquals("avatar-1", read(first));
+        assertEquals("avatar-1", read(second));
+        assertEquals("image/jpeg", second.mimeType);
+        assertEquals(1, server.requests.get());
+        ImageDiskCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(1, stats.entries);
+    }
+
+    @Test
+    public void changedVersionRevalidatesWithEtag() throws IOException {
+        server.put(AVATAR, "avatar-1", "\"e1\"");
+        ImageDiskCache cache = new ImageDiskCache(dir, 1 << 20, server);
+        cache.get(AVATAR + "&v=1");
+
+        // 같은 내용 → 304, 본문은 캐시에서
+        ImageDiskCache.Result revalidated = cache.get(AVATAR + "&v=2");
+        assertTrue(revalidated.fromCache);
+        assertEquals("avatar-1", read(revalidated));
+        assertEquals("\"e1\"", server.lastEtag);
+
+        // 새 사진 업로드 → 200 으로 교체
+        server.put(AVATAR, "avatar-2", "\"e2\"");
+        ImageDiskCache.Result replaced = cache.get(AVATAR + "&v=3");
+        assertFalse(replaced.fromCache);
+        assertEquals("avatar-2", read(replaced));
+        assertEquals("avatar-2", read(cache.get(AVATAR + "&v=3")));
+
+        ImageDiskCache.Stats stats = cache.stats();
+        assertEquals(1, stats.revalidated);
+        assertEquals(1, stats.entries);
+        assertEquals(1, dir.listFiles().length);
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws IOException {
+        for (int i = 0; i < 9; i++) {
+            server.put(url(i), repeat('a', 100), "\"" + i + "\"");
+        }
+        ImageDiskCache probe = new ImageDiskCache(folder.newFolder("probe"), 1 << 20, server);
+        probe.get(url(0));
+        long entryBytes = probe.stats().bytes;
+
+        // 항목 8개 반 크기 → 9번째가 들어오면 가장 오래 안 쓴 것 하나가 밀려남
+        long maxBytes = entryBytes * 8 + entryBytes / 2;
+        ImageDiskCache cache = new ImageDiskCache(dir, maxBytes, server);
+        for (int i = 0; i < 8; i++) {
+            cache.get(url(i));
+        }
+        cache.get(url(0));
+        cache.get(url(8));
+
+        assertEquals(1, cache.stats().evictions);
+        assertEquals(8, cache.stats().entries);
+        assertTrue(cache.get(url(0)).fromCache);
+        assertTrue(cache.get(url(8)).fromCache);
+        assertFalse(cache.get(url(1)).fromCache);
+        assertTrue(cache.stats().bytes <= maxBytes);
+    }
+
+    @Test
+    public void indexIsRebuiltFromDisk() throws IOException {
+        server.put(AVATAR, "avatar-1", "\"e1\"");
+        new ImageDiskCache(dir, 1 << 20, server).get(AVATAR + "&v=1");
+
+        ImageDiskCache reopened = new ImageDiskCache(dir, 1 << 20, server);
+        ImageDiskCache.Result result = reopened.get(AVATAR + "&v=1");
+
+        assertTrue(result.fromCache);
+        assertEquals("avatar-1", read(result));
+        assertEquals(1, server.requests.get());
+    }
+
+    @Test
+    public void errorsAndOversizedImagesAreNotCached() throws IOException {
+        String missing = url(404);
+        String large = url(1);
+        server.put(large, repeat('x', 2000), "\"big\"");
+        ImageDiskCache cache = new ImageDiskCache(dir, 8000, server);
+
+        assertEquals(404, cache.get(missing).status);
+        // 받은 오류 응답을 그대로 돌려줄 수 있게 (WebView 가 다시 받지 않도록)
+        ImageDiskCache.Result error = cache.get(missing);
+        assertEquals(404, error.status);
+        assertEquals("Not Found", error.reasonPhrase);
+        assertEquals("no-cache", error.headers.get("Cache-Control"));
+        assertEquals("{\"error\":\"not found\"}", read(error));
+        ImageDiskCache.Result result = cache.get(large);
+        assertEquals(2000, read(result).length());
+        cache.get(large);
+
+        assertEquals(4, server.requests.get());
+        assertEquals(0, cache.stats().entries);
+    }
+
+    @Test
+    public void concurrentRequestsShareOneDownload() throws Exception {
+        server.put(AVATAR, "avatar-1", "\"e1\"");
+        server.gate = new CountDownLatch(1);
+        ImageDiskCache cache = new ImageDiskCache(dir, 1 << 20, server);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ImageDiskCache.Result>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(AVATAR)));
+            }
+            Thread.sleep(50);
+            server.gate.countDown();
+            for (Future<ImageDiskCache.Result> result : results) {
+                assertEquals("avatar-1", read(result.get(5, TimeUnit.SECONDS)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, server.requests.get());
+    }
+
+    @Test
+    public void keyIgnoresOnlyTheVersionParameter() {
+        assertEquals("https://h/a.jpg?alt=media&token=t",
+                ImageDiskCache.keyOf("https://h/a.jpg?alt=media&v=12&token=t"));
+        assertEquals("https://h/a.jpg", ImageDiskCache.keyOf("https://h/a.jpg?v=3#frag"));
+        assertEquals("https://h/a.jpg?view=1", ImageDiskCache.keyOf("https://h/a.jpg?view=1"));
+        assertEquals("12", ImageDiskCache.versionOf("https://h/a.jpg?alt=media&v=12&token=t"));
+        assertEquals("", ImageDiskCache.versionOf("https://h/a.jpg?view=1"));
+    }
+
+    private static String url(int i) {
+        return "https://firebasestorage.googleapis.com/v0/b/app/o/img" + i + ".jpg?alt=media";
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static String read(ImageDiskCache.Result result) throws IOException {
+        try (InputStream in = result.openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[256];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void missForwardsRequestHeaders() throws IOException {
+        server.put(AVATAR, "avatar-1", "\"e1\"");
+        ImageDiskCache cache = new ImageDiskCache(dir, 1 << 20, server);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Origin", "https://localhost");
+        headers.put("Accept", "image/webp,image/*");
+
+        ImageDiskCache.Result first = cache.get(AVATAR + "&v=1", headers);
+        assertEquals("https://localhost", server.lastHeaders.get("Origin"));
+        assertEquals("https://localhost", first.allowOrigin);
+        // 캐시에서 응답할 때도 받을 때의 Access-Control-Allow-Origin
+        ImageDiskCache.Result second = cache.get(AVATAR + "&v=1", headers);
+        assertTrue(second.fromCache);
+        assertEquals("https://localhost", second.allowOrigin);
+        assertEquals(1, server.requests.get());
+    }
+
+    // 키(v 제외)별 본문과 ETag. If-None-Match 가 같으면 304, 없는 URL 은 404
+    private static final class FakeServer implements ImageDiskCache.Fetcher {
+        final Map<String, String[]> resources = new HashMap<>();
+        final AtomicInteger requests = new AtomicInteger();
+        volatile String lastEtag;
+        volatile Map<String, String> lastHeaders;
+        volatile CountDownLatch gate;
+
+        void put(String url, String body, String etag) {
+            resources.put(ImageDiskCache.keyOf(url), new String[]{body, etag});
+        }
+
+        @Override
+        public ImageDiskCache.Fetched fetch(String url, String etag, Map<String, String> requestHeaders)
+                throws IOException {
+            requests.incrementAndGet();
+            lastEtag = etag;
+            lastHeaders = requestHeaders;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            String[] resource = resources.get(ImageDiskCache.keyOf(url));
+            if (resource == null) {
+                return new ImageDiskCache.Fetched(404, "Not Found", "application/json", "", "",
+                        Collections.singletonMap("Cache-Control", "no-cache"),
+                        "{\"error\":\"not found\"}".getBytes(StandardCharsets.UTF_8));
+            }
+            if (resource[1].equals(etag)) {
+                return new ImageDiskCache.Fetched(304, "image/jpeg", resource[1], "", new byte[0]);
+            }
+            // Storage 처럼 Origin 이 있으면 그 값을 허용
+            String origin = requestHeaders.get("Origin");
+            return new ImageDiskCache.Fetched(200, "image/jpeg", resource[1], origin != null ? origin : "*",
+                    resource[0].getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
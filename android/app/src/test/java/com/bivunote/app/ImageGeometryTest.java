@@ -0,0 +1,111 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ImageGeometryTest {
+
+    @Test
+    public void sampleSizeKeepsDecodedImageAtLeastTarget() {
+        assertEquals(1, ImageGeometry.sampleSize(400, 300, 512));
+        assertEquals(1, ImageGeometry.sampleSize(1000, 800, 512));
+        assertEquals(2, ImageGeometry.sampleSize(1024, 768, 512));
+        // 12MP 사진 → 4032/4 = 1008 (8 이면 504 로 목표보다 작아짐)
+        assertEquals(4, ImageGeometry.sampleSize(4032, 3024, 512));
+        assertEquals(4, ImageGeometry.sampleSize(3024, 4032, 512));
+        assertEquals(1, ImageGeometry.sampleSize(4032, 3024, 0));
+    }
+
+    @Test
+    public void targetSizeKeepsAspectRatioWithoutUpscaling() {
+        assertArrayEquals(new int[]{512, 384}, ImageGeometry.targetSize(1008, 756, 512));
+        assertArrayEquals(new int[]{384, 512}, ImageGeometry.targetSize(756, 1008, 512));
+        assertArrayEquals(new int[]{300, 200}, ImageGeometry.targetSize(300, 200, 512));
+        // 아주 긴 파노라마도 짧은 변이 0 이 되지 않음
+        assertArrayEquals(new int[]{512, 1}, ImageGeometry.targetSize(20000, 10, 512));
+    }
+
+    @Test
+    public void orientationRotationAndFlip() {
+        int[] rotations = {0, 0, 180, 180, 270, 90, 90, 270};
+        boolean[] flips = {false, true, false, true, true, false, true, false};
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            assertEquals("orientation " + orientation,
+                    rotations[orientation - 1], ImageGeometry.rotationDegrees(orientation));
+            assertEquals("orientation " + orientation,
+                    flips[orientation - 1], ImageGeometry.isFlipped(orientation));
+        }
+        // 알 수 없는 값(0 = UNDEFINED)은 그대로
+        assertEquals(0, ImageGeometry.rotationDegrees(0));
+        assertFalse(ImageGeometry.isFlipped(0));
+        assertTrue(ImageGeometry.swapsDimensions(ImageGeometry.ORIENTATION_ROTATE_90));
+        assertFalse(ImageGeometry.swapsDimensions(ImageGeometry.ORIENTATION_FLIP_VERTICAL));
+    }
+
+    @Test
+    public void outputSizeSwapsForQuarterTurns() {
+        assertArrayEquals(new int[]{384, 512},
+                ImageGeometry.outputSize(1008, 756, ImageGeometry.ORIENTATION_ROTATE_90, 512));
+        assertArrayEquals(new int[]{512, 384},
+                ImageGeometry.outputSize(1008, 756, ImageGeometry.ORIENTATION_ROTATE_180, 512));
+    }
+
+    @Test
+    public void transformPlacesSourceTopLeftCorner() {
+        // 200x100 원본의 왼쪽 위 모서리가 EXIF 방향마다 결과 이미지의 어디로 가는지
+        int w = 200;
+        int h = 100;
+        assertCorner(ImageGeometry.ORIENTATION_NORMAL, 0, 0, 0, 0);
+        assertCorner(ImageGeometry.ORIENTATION_FLIP_HORIZONTAL, 0, 0, w, 0);
+        assertCorner(ImageGeometry.ORIENTATION_ROTATE_180, 0, 0, w, h);
+        assertCorner(ImageGeometry.ORIENTATION_FLIP_VERTICAL, 0, 0, 0, h);
+        assertCorner(ImageGeometry.ORIENTATION_TRANSPOSE, 0, 0, 0, 0);
+        assertCorner(ImageGeometry.ORIENTATION_ROTATE_90, 0, 0, h, 0);
+        assertCorner(ImageGeometry.ORIENTATION_TRANSVERSE, 0, 0, h, w);
+        assertCorner(ImageGeometry.ORIENTATION_ROTATE_270, 0, 0, 0, w);
+        // 원본 오른쪽 위 모서리
+        assertCorner(ImageGeometry.ORIENTATION_ROTATE_90, w, 0, h, w);
+        assertCorner(ImageGeometry.ORIENTATION_TRANSPOSE, w, 0, 0, w);
+    }
+
+    @Test
+    public void transformScalesAndKeepsResultInBounds() {
+        int w = 1008;
+        int h = 756;
+        for (int orientation = 1; orientation <= 8; orientation++) {
+            float[] m = ImageGeometry.transform(w, h, orientation, 512);
+            int[] size = ImageGeometry.outputSize(w, h, orientation, 512);
+            float minX = Float.MAX_VALUE;
+            float minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE;
+            float maxY = -Float.MAX_VALUE;
+            for (int[] corner : new int[][]{{0, 0}, {w, 0}, {0, h}, {w, h}}) {
+                float[] p = map(m, corner[0], corner[1]);
+                minX = Math.min(minX, p[0]);
+                minY = Math.min(minY, p[1]);
+                maxX = Math.max(maxX, p[0]);
+                maxY = Math.max(maxY, p[1]);
+            }
+            String message = "orientation " + orientation;
+            assertEquals(message, 0f, minX, 0.01f);
+            assertEquals(message, 0f, minY, 0.01f);
+            assertEquals(message, size[0], maxX, 0.01f);
+            assertEquals(message, size[1], maxY, 0.01f);
+        }
+    }
+
+    private static void assertCorner(int orientation, int x, int y, float expectedX, float expectedY) {
+        float[] p = map(ImageGeometry.transform(200, 100, orientation, 0), x, y);
+        String message = "orientation " + orientation + " (" + x + "," + y + ")";
+        assertEquals(message, expectedX, p[0], 0.001f);
+        assertEquals(message, expectedY, p[1], 0.001f);
+    }
+
+    private static float[] map(float[] m, float x, float y) {
+        return new float[]{m[0] * x + m[1] * y + m[2], m[3] * x + m[4] * y + m[5]};
+    }
+}
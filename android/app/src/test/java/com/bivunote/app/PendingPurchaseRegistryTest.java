@@ -0,0 +1,211 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PendingPurchaseRegistryTest {
+
+    private ScheduledExecutorService scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void takeMatchesProductInRegistrationOrder() {
+        PendingPurchaseRegistry<String> registry = new PendingPurchaseRegistry<>(60_000, scheduler, call -> { });
+        registry.add("theme_midnight", "first");
+        registry.add("sages_bell", "second");
+        registry.add("theme_midnight", "third");
+
+        assertEquals("second", registry.take(Collections.singletonList("sages_bell")));
+        assertEquals("first", registry.take(Arrays.asList("unknown", "theme_midnight")));
+        assertNull(registry.takeLaunched());
+        assertTrue(registry.markLaunched("third"));
+        assertEquals("third", registry.takeLaunched());
+        assertNull(registry.take(Collections.singletonList("theme_midnight")));
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    public void danglingCallsTimeOut() throws Exception {
+        CountDownLatch timedOut = new CountDownLatch(1);
+        List<String> expired = Collections.synchronizedList(new ArrayList<>());
+        PendingPurchaseRegistry<String> registry = new PendingPurchaseRegistry<>(20, scheduler, call -> {
+            expired.add(call);
+            timedOut.countDown();
+        });
+
+        registry.add("theme_sketchbook", "call");
+        registry.markLaunched("call");
+
+        assertTrue(timedOut.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("call"), expired);
+        assertNull(registry.takeLaunched());
+    }
+
+    @Test
+    public void cancelGoesToLaunchedCallNotOneStillQuerying() {
+        PendingPurchaseRegistry<String> registry = new PendingPurchaseRegistry<>(60_000, scheduler, call -> { });
+        // querying 은 먼저 등록됐지만 아직 상품 정보를 조회 중
+        registry.add("theme_midnight", "querying");
+        registry.add("sages_bell", "shown");
+        registry.add("theme_midnight", "shownLater");
+        registry.markLaunched("shown");
+        registry.markLaunched("shownLater");
+
+        assertEquals("shown", registry.takeLaunched());
+        // 같은 상품이면 화면을 띄운 호출이 구매 결과를 받음
+        assertEquals("shownLater", registry.take(Collections.singletonList("theme_midnight")));
+        assertNull(registry.takeLaunched());
+        assertFalse(registry.markLaunched("shown"));
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void removeOnlyRemovesThatCall() {
+        PendingPurchaseRegistry<String> registry = new PendingPurchaseRegistry<>(60_000, scheduler, call -> { });
+        registry.add("theme_e_ink", "a");
+        registry.add("theme_e_ink", "b");
+
+        assertTrue(registry.remove("a"));
+        assertSame("b", registry.take(Collections.singletonList("theme_e_ink")));
+    }
+
+    @Test
+    public void overlappingPurchasesAreNeverLost() throws Exception {
+        int purchases = 500;
+        AtomicInteger timeouts = new AtomicInteger();
+        PendingPurchaseRegistry<PurchaseCall> registry =
+                new PendingPurchaseRegistry<>(60_000, scheduler, call -> timeouts.incrementAndGet());
+        FakeBillingClient billingClient = new FakeBillingClient(registry);
+        ExecutorService callers = Executors.newFixedThreadPool(16);
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<PurchaseCall> calls = new ArrayList<>();
+        for (int i = 0; i < purchases; i++) {
+            PurchaseCall call = new PurchaseCall("title_" + (i % 20));
+            calls.add(call);
+            callers.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                registry.add(call.productId, call);
+                billingClient.launchBillingFlow(call.productId);
+            });
+        }
+
+        start.countDown();
+        assertTrue(billingClient.awaitAllDelivered(purchases, 10, TimeUnit.SECONDS));
+        callers.shutdown();
+
+        assertEquals(0, timeouts.get());
+        assertEquals(0, registry.size());
+        for (PurchaseCall call : calls) {
+            assertEquals(1, call.results.get());
+            // 구매 결과는 반드시 같은 상품을 요청한 호출로 전달
+            assertEquals(call.productId, call.resolvedProductId);
+        }
+    }
+
+    private static final class PurchaseCall {
+        final String productId;
+        final AtomicInteger results = new AtomicInteger();
+        volatile String resolvedProductId;
+
+        PurchaseCall(String productId) {
+            this.productId = productId;
+        }
+    }
+
+    /**
+     * launchBillingFlow 결과를 비동기로, 여러 건씩 묶어서 onPurchasesUpdated 로 돌려주는 BillingClient 대역.
+     */
+    private static final class FakeBillingClient {
+        private final PendingPurchaseRegistry<PurchaseCall> registry;
+        private final ScheduledExecutorService playThreads = Executors.newScheduledThreadPool(4);
+        private final List<String> launched = new ArrayList<>();
+        private final AtomicInteger deliveredCount = new AtomicInteger();
+
+        FakeBillingClient(PendingPurchaseRegistry<PurchaseCall> registry) {
+            this.registry = registry;
+        }
+
+        void launchBillingFlow(String productId) {
+            List<String> batch = null;
+            synchronized (launched) {
+                launched.add(productId);
+                if (launched.size() >= 1 + ThreadLocalRandom.current().nextInt(8)) {
+                    batch = new ArrayList<>(launched);
+                    launched.clear();
+                }
+            }
+            if (batch != null) {
+                List<String> purchases = batch;
+                playThreads.schedule(() -> onPurchasesUpdated(purchases),
+                        ThreadLocalRandom.current().nextInt(5), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /** InAppPurchasesPlugin.onPurchasesUpdated 와 같은 방식으로 결과를 전달 */
+        private void onPurchasesUpdated(List<String> purchases) {
+            for (String productId : purchases) {
+                PurchaseCall call = registry.take(Collections.singletonList(productId));
+                if (call != null) {
+                    call.resolvedProductId = productId;
+                    call.results.incrementAndGet();
+                    deliveredCount.incrementAndGet();
+                }
+            }
+        }
+
+        boolean awaitAllDelivered(int expected, long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (deliveredCount.get() < expected) {
+                // 마지막 묶음이 남아 있으면 내보냄
+                List<String> rest;
+                synchronized (launched) {
+                    rest = new ArrayList<>(launched);
+                    launched.clear();
+                }
+                if (!rest.isEmpty()) {
+                    playThreads.execute(() -> onPurchasesUpdated(rest));
+                }
+                if (System.nanoTime() > deadline) {
+                    playThreads.shutdownNow();
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+            playThreads.shutdownNow();
+            return true;
+        }
+    }
+}
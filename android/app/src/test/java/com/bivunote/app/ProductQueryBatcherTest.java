@@ -0,0 +1,161 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProductQueryBatcherTest {
+
+    private static final long WINDOW_MS = 50;
+
+    private ScheduledExecutorService scheduler;
+    private FakeBillingClient billingClient;
+    private ProductQueryBatcher<String> batcher;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        billingClient = new FakeBillingClient();
+        batcher = new ProductQueryBatcher<>(billingClient, product -> product, scheduler, WINDOW_MS);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCallersShareOneQuery() throws Exception {
+        int callers = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(callers);
+        Map<Integer, Map<String, String>> results = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < callers; i++) {
+            final int caller = i;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // 겹치는 id 목록: 모든 호출자가 theme_e_ink 를 요청
+                List<String> ids = Arrays.asList("theme_e_ink", "title_" + (caller % 4));
+                batcher.request(ids, (responseCode, products) -> {
+                    results.put(caller, products);
+                    done.countDown();
+                });
+            }).start();
+        }
+
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, billingClient.queryCount.get());
+        assertEquals(5, billingClient.lastQuery.size());
+        assertEquals(new HashSet<>(billingClient.lastQuery), new HashSet<>(Arrays.asList(
+                "theme_e_ink", "title_0", "title_1", "title_2", "title_3")));
+        for (int i = 0; i < callers; i++) {
+            Map<String, String> products = results.get(i);
+            assertEquals(2, products.size());
+            assertTrue(products.containsKey("theme_e_ink"));
+            assertTrue(products.containsKey("title_" + (i % 4)));
+        }
+    }
+
+    @Test
+    public void requestDuringInFlightQueryDoesNotQueryAgain() throws Exception {
+        billingClient.holdResponses = true;
+        CountDownLatch done = new CountDownLatch(2);
+
+        batcher.request(Collections.singletonList("sages_bell"), (responseCode, products) -> done.countDown());
+        assertTrue(billingClient.queried.await(5, TimeUnit.SECONDS));
+
+        batcher.request(Collections.singletonList("sages_bell"), (responseCode, products) -> {
+            assertEquals("sages_bell", products.get("sages_bell"));
+            done.countDown();
+        });
+        Thread.sleep(WINDOW_MS * 2);
+        billingClient.releaseResponses();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, billingClient.queryCount.get());
+    }
+
+    @Test
+    public void failedQueryIsReportedToEveryCaller() throws Exception {
+        billingClient.responseCode = 6;
+        CountDownLatch done = new CountDownLatch(3);
+        AtomicInteger failures = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            batcher.request(Collections.singletonList("theme_midnight"), (responseCode, products) -> {
+                if (responseCode == 6) {
+                    failures.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(3, failures.get());
+        assertEquals(1, billingClient.queryCount.get());
+    }
+
+    /**
+     * queryProductDetailsAsync 만 흉내내는 BillingClient 대역. 요청한 id 를 그대로 상품으로 돌려줍니다.
+     */
+    private static final class FakeBillingClient implements ProductQueryBatcher.Source<String> {
+        final AtomicInteger queryCount = new AtomicInteger();
+        final CountDownLatch queried = new CountDownLatch(1);
+        volatile List<String> lastQuery;
+        volatile int responseCode = 0;
+        volatile boolean holdResponses;
+        private final List<Runnable> held = new ArrayList<>();
+
+        @Override
+        public void query(List<String> productIds, ProductQueryBatcher.Listener<String> listener) {
+            queryCount.incrementAndGet();
+            lastQuery = productIds;
+            Runnable respond = () -> listener.onResponse(responseCode,
+                    responseCode == 0 ? productIds : Collections.emptyList());
+            synchronized (held) {
+                if (holdResponses) {
+                    held.add(respond);
+                    queried.countDown();
+                    return;
+                }
+            }
+            queried.countDown();
+            respond.run();
+        }
+
+        void releaseResponses() {
+            List<Runnable> toRun;
+            synchronized (held) {
+                holdResponses = false;
+                toRun = new ArrayList<>(held);
+                held.clear();
+            }
+            for (Runnable respond : toRun) {
+                respond.run();
+            }
+        }
+    }
+}
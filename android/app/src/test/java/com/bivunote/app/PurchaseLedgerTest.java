@@ -0,0 +1,153 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class PurchaseLedgerTest {
+
+    private static final int PURCHASED = 1;
+    private static final int PENDING = 2;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private PurchaseLedger ledger;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "billing/purchase-ledger");
+        ledger = new PurchaseLedger(file);
+    }
+
+    @Test
+    public void syncTokenReturnsOnlyLaterChanges() throws Exception {
+        assertEquals(2, ledger.upsert(Arrays.asList(record("token-1", PENDING), record("token-2", PURCHASED))));
+        PurchaseLedger.Page first = ledger.changesSince(0, 100);
+        assertEquals(Arrays.asList("token-1", "token-2"), tokens(first));
+
+        // 같은 내용은 변경이 아님
+        assertEquals(0, ledger.upsert(Collections.singletonList(record("token-2", PURCHASED))));
+        assertEquals(1, ledger.upsert(Collections.singletonList(record("token-1", PURCHASED))));
+
+        PurchaseLedger.Page next = ledger.changesSince(first.syncToken, 100);
+        assertEquals(Collections.singletonList("token-1"), tokens(next));
+        assertFalse(next.hasMore);
+        assertFalse(next.reset);
+    }
+
+    @Test
+    public void pagesFollowSeqOrder() throws Exception {
+        List<PurchaseLedger.Record> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(record("token-" + i, PURCHASED));
+        }
+        ledger.upsert(records);
+
+        PurchaseLedger.Page page = ledger.changesSince(0, 2);
+        List<String> all = new ArrayList<>(tokens(page));
+        while (page.hasMore) {
+            page = ledger.changesSince(page.syncToken, 2);
+            all.addAll(tokens(page));
+        }
+        assertEquals(Arrays.asList("token-0", "token-1", "token-2", "token-3", "token-4"), all);
+    }
+
+    @Test
+    public void purchasesMissingFromQueryAreMarkedRemoved() throws Exception {
+        ledger.reconcile(Arrays.asList(record("consumed", PURCHASED), record("kept", PURCHASED)));
+        long syncToken = ledger.changesSince(0, 100).syncToken;
+
+        // 소비/환불되어 Play 목록에서 사라짐
+        assertEquals(1, ledger.reconcile(Collections.singletonList(record("kept", PURCHASED))));
+        assertEquals(1, ledger.size());
+
+        PurchaseLedger.Page delta = ledger.changesSince(syncToken, 100);
+        assertEquals(Collections.singletonList("consumed"), tokens(delta));
+        assertTrue(delta.records.get(0).removed);
+        // 전체 목록에는 없음
+        assertEquals(Collections.singletonList("kept"), tokens(ledger.changesSince(0, 100)));
+        // tombstone 은 한 번만
+        assertEquals(0, ledger.reconcile(Collections.singletonList(record("kept", PURCHASED))));
+        assertTrue(ledger.changesSince(delta.syncToken, 100).records.isEmpty());
+    }
+
+    @Test
+    public void removedStateSurvivesReopen() throws Exception {
+        ledger.reconcile(Arrays.asList(record("refunded", PURCHASED), record("kept", PURCHASED)));
+        ledger.reconcile(Collections.singletonList(record("kept", PURCHASED)));
+        long syncToken = ledger.changesSince(0, 100).syncToken;
+
+        PurchaseLedger reopened = new PurchaseLedger(file);
+        assertEquals(Collections.singletonList("kept"), tokens(reopened.changesSince(0, 100)));
+        assertEquals(syncToken, reopened.changesSince(0, 100).syncToken);
+        assertEquals(0, reopened.reconcile(Collections.singletonList(record("kept", PURCHASED))));
+        // 다시 나타난 구매는 새 변경
+        assertEquals(1, reopened.reconcile(Arrays.asList(record("refunded", PURCHASED), record("kept", PURCHASED))));
+        PurchaseLedger.Page delta = reopened.changesSince(syncToken, 100);
+        assertEquals(Collections.singletonList("refunded"), tokens(delta));
+        assertFalse(delta.records.get(0).removed);
+    }
+
+    @Test
+    public void tokenOlderThanDroppedTombstonesResets() throws Exception {
+        ledger.reconcile(Collections.singletonList(record("kept", PURCHASED)));
+        long oldToken = ledger.changesSince(0, 100).syncToken;
+        // 소비형 상품을 여러 번 사고 소비
+        for (int i = 0; i <= PurchaseLedger.MAX_TOMBSTONES; i++) {
+            ledger.reconcile(Arrays.asList(record("kept", PURCHASED), record("consumed-" + i, PURCHASED)));
+        }
+        ledger.reconcile(Collections.singletonList(record("kept", PURCHASED)));
+
+        for (PurchaseLedger candidate : Arrays.asList(ledger, new PurchaseLedger(file))) {
+            PurchaseLedger.Page page = candidate.changesSince(oldToken, 1_000);
+            assertTrue(page.reset);
+            assertEquals(Collections.singletonList("kept"), tokens(page));
+        }
+    }
+
+    @Test
+    public void staleTokenFromDeletedLedgerResets() throws Exception {
+        ledger.upsert(Collections.singletonList(record("token-1", PURCHASED)));
+        PurchaseLedger.Page page = ledger.changesSince(999, 100);
+        assertTrue(page.reset);
+        assertEquals(Collections.singletonList("token-1"), tokens(page));
+    }
+
+    @Test
+    public void tornLastLineIsIgnored() throws Exception {
+        ledger.upsert(Collections.singletonList(record("token-1", PURCHASED)));
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("2\ttoken-2\tsages".getBytes(StandardCharsets.UTF_8));
+        }
+
+        PurchaseLedger reopened = new PurchaseLedger(file);
+        assertEquals(Collections.singletonList("token-1"), tokens(reopened.changesSince(0, 100)));
+    }
+
+    private static PurchaseLedger.Record record(String token, int state) {
+        return new PurchaseLedger.Record(token, "sages_bell", "GPA." + token, 1_700_000_000_000L, state);
+    }
+
+    private static List<String> tokens(PurchaseLedger.Page page) {
+        List<String> tokens = new ArrayList<>();
+        for (PurchaseLedger.Record record : page.records) {
+            tokens.add(record.purchaseToken);
+        }
+        return tokens;
+    }
+}
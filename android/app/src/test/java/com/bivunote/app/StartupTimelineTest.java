@@ -0,0 +1,113 @@
+package com.bivunote.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class StartupTimelineTest {
+
+    private long nowNanos;
+    private StartupTimeline timeline;
+
+    @Before
+    public void setUp() {
+        nowNanos = 1_000_000_000L;
+        // Trace 는 기기에서만 의미가 있으므로 끔
+        timeline = new StartupTimeline(() -> nowNanos, false);
+    }
+
+    @Test
+    public void entriesAreOrderedByStartTime() {
+        timeline.begin("onCreate");
+        nowNanos += 5_000_000L;
+        timeline.mark("bridgeReady");
+        nowNanos += 1_000_000L;
+        timeline.end("onCreate");
+        // 더 일찍 시작했지만 나중에 보고된 구간
+        timeline.span("plugin:Test.load", 1_002_000_000L, 1_003_000_000L);
+
+        List<StartupTimeline.Entry> entries = timeline.entries();
+        assertEquals(3, entries.size());
+        assertEquals("onCreate", entries.get(0).name);
+        assertEquals("plugin:Test.load", entries.get(1).name);
+        assertEquals("bridgeReady", entries.get(2).name);
+    }
+
+    @Test
+    public void spanMeasuresBeginToEnd() {
+        timeline.begin("pageLoad");
+        nowNanos += 42_000_000L;
+        timeline.end("pageLoad");
+
+        StartupTimeline.Entry entry = timeline.entries().get(0);
+        assertEquals(42_000_000L, entry.endNanos - entry.startNanos);
+        assertFalse(entry.isInstant());
+    }
+
+    @Test
+    public void markIsInstant() {
+        timeline.mark("firstVisualState");
+
+        StartupTimeline.Entry entry = timeline.entries().get(0);
+        assertTrue(entry.isInstant());
+        assertEquals(nowNanos, entry.startNanos);
+    }
+
+    @Test
+    public void unmatchedEndIsIgnored() {
+        timeline.end("pageLoad");
+        assertTrue(timeline.entries().isEmpty());
+
+        // 닫히지 않은 구간도 기록되지 않음
+        timeline.begin("onCreate");
+        assertTrue(timeline.entries().isEmpty());
+    }
+
+    @Test
+    public void nestedSpansWithSameNameCloseInnermostFirst() {
+        timeline.begin("load");
+        nowNanos += 10;
+        timeline.begin("load");
+        nowNanos += 10;
+        timeline.end("load");
+        nowNanos += 10;
+        timeline.end("load");
+
+        List<StartupTimeline.Entry> entries = timeline.entries();
+        assertEquals(2, entries.size());
+        assertEquals(30, entries.get(0).endNanos - entries.get(0).startNanos);
+        assertEquals(10, entries.get(1).endNanos - entries.get(1).startNanos);
+    }
+
+    @Test
+    public void processStartIsRecordedOnceAndBecomesOrigin() {
+        timeline.mark("bridgeReady");
+        assertEquals(nowNanos, timeline.originNanos());
+
+        timeline.recordProcessStart(400_000_000L);
+        // Activity 재생성 등으로 다시 불려도 처음 값 유지
+        timeline.recordProcessStart(900_000_000L);
+
+        List<StartupTimeline.Entry> entries = timeline.entries();
+        assertEquals(2, entries.size());
+        assertEquals(StartupTimeline.PROCESS_START, entries.get(0).name);
+        assertEquals(400_000_000L, timeline.originNanos());
+    }
+
+    @Test
+    public void entriesBeyondCapacityAreCountedAsDropped() {
+        for (int i = 0; i < 300; i++) {
+            timeline.mark("mark" + i);
+            nowNanos++;
+        }
+
+        assertEquals(256, timeline.entries().size());
+        assertEquals(44, timeline.dropped());
+        assertEquals("mark0", timeline.entries().get(0).name);
+    }
+}
@@ -0,0 +1,77 @@
+package by.chemerisuk.cordova.firebase;
+
+import android.net.Uri;
+
+import com.google.firebase.auth.FirebaseUser;
+
+import org.apache.cordova.PluginResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getCurrentUser / auth state payload: JSONObject building plus the PluginResult encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserProfilesBenchmark {
+
+    private FirebaseUser user;
+
+    @Setup
+    public void setUp() {
+        user = new FirebaseUser() {
+            @Override
+            public String getUid() {
+                return "kX3vQ9mZt2WbR7yLpN4aHc8sJd61";
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "비부노트 사용자";
+            }
+
+            @Override
+            public String getEmail() {
+                return "user@example.com";
+            }
+
+            @Override
+            public String getPhoneNumber() {
+                return "+821012345678";
+            }
+
+            @Override
+            public Uri getPhotoUrl() {
+                return Uri.parse("https://lh3.googleusercontent.com/a/photo.jpg");
+            }
+
+            @Override
+            public String getProviderId() {
+                return "firebase";
+            }
+
+            @Override
+            public boolean isEmailVerified() {
+                return true;
+            }
+        };
+    }
+
+    @Benchmark
+    public PluginResult signedIn() {
+        return UserProfiles.getProfileResult(user);
+    }
+
+    @Benchmark
+    public PluginResult signedOut() {
+        return UserProfiles.getProfileResult(null);
+    }
+}
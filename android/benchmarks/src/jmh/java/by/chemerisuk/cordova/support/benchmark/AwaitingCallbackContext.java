@@ -0,0 +1,31 @@
+package by.chemerisuk.cordova.support.benchmark;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+
+/** Lets a benchmark wait until an action on another thread has sent its result. */
+final class AwaitingCallbackContext extends CallbackContext {
+    private volatile boolean done;
+
+    AwaitingCallbackContext(String callbackId, CordovaWebView webView) {
+        super(callbackId, webView);
+    }
+
+    @Override
+    public void sendPluginResult(PluginResult pluginResult) {
+        super.sendPluginResult(pluginResult);
+        done = true;
+    }
+
+    void reset() {
+        done = false;
+    }
+
+    PluginResult await() {
+        while (!done) {
+            Thread.onSpinWait();
+        }
+        return getLastResult();
+    }
+}
@@ -0,0 +1,89 @@
+package by.chemerisuk.cordova.support.benchmark;
+
+import by.chemerisuk.cordova.support.CordovaMethod;
+import by.chemerisuk.cordova.support.ExecutionThread;
+import by.chemerisuk.cordova.support.ReflectiveCordovaPlugin;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaArgs;
+import org.json.JSONException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The same plugin twice: package-private methods get a generated dispatcher,
+ * private methods can only be called through reflection.
+ * {@link ThreadPlugin} has one action per {@link ExecutionThread}.
+ */
+final class BenchmarkPlugins {
+
+    private BenchmarkPlugins() {
+    }
+
+    public static class GeneratedPlugin extends ReflectiveCordovaPlugin {
+        @CordovaMethod
+        void echo(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+            callbackContext.success(args.getString(0));
+        }
+
+        @CordovaMethod
+        void ping(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(action = "getCurrentUser")
+        void currentUser(CallbackContext callbackContext) {
+            callbackContext.success((String) null);
+        }
+    }
+
+    public static class ReflectivePlugin extends ReflectiveCordovaPlugin {
+        @CordovaMethod
+        private void echo(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+            callbackContext.success(args.getString(0));
+        }
+
+        @CordovaMethod
+        private void ping(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(action = "getCurrentUser")
+        private void currentUser(CallbackContext callbackContext) {
+            callbackContext.success((String) null);
+        }
+    }
+
+    public static class ThreadPlugin extends ReflectiveCordovaPlugin {
+        @CordovaMethod(ExecutionThread.MAIN)
+        void main(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(ExecutionThread.UI)
+        void ui(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(ExecutionThread.WORKER)
+        void worker(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(ExecutionThread.SERIAL)
+        void serial(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        @CordovaMethod(ExecutionThread.BOUNDED_WORKER)
+        void boundedWorker(CallbackContext callbackContext) {
+            callbackContext.success();
+        }
+
+        // completed through the Task/CompletionStage result listener
+        @CordovaMethod(ExecutionThread.MAIN)
+        CompletableFuture<String> future(CallbackContext callbackContext) {
+            return CompletableFuture.completedFuture("pong");
+        }
+    }
+}
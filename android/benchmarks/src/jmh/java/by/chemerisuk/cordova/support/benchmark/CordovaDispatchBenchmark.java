@@ -0,0 +1,84 @@
+package by.chemerisuk.cordova.support.benchmark;
+
+import by.chemerisuk.cordova.support.ReflectiveCordovaPlugin;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaArgs;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generated dispatcher vs. reflective dispatch of @CordovaMethod actions (ExecutionThread.MAIN, so
+ * the command runs inline and only the dispatch itself is measured).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CordovaDispatchBenchmark {
+
+    private StubCordova cordova;
+    private ReflectiveCordovaPlugin generated;
+    private ReflectiveCordovaPlugin reflective;
+    private CordovaArgs args;
+    private CallbackContext callbackContext;
+
+    @Setup
+    public void setUp() {
+        cordova = new StubCordova();
+        generated = new BenchmarkPlugins.GeneratedPlugin();
+        generated.privateInitialize(cordova, cordova);
+        reflective = new BenchmarkPlugins.ReflectivePlugin();
+        reflective.privateInitialize(cordova, cordova);
+        args = new CordovaArgs(new JSONArray().put("hello"));
+        callbackContext = new CallbackContext("benchmark", cordova);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cordova.shutdown();
+    }
+
+    @Benchmark
+    public boolean executeGenerated() {
+        return generated.execute("echo", args, callbackContext);
+    }
+
+    @Benchmark
+    public boolean executeReflective() {
+        return reflective.execute("echo", args, callbackContext);
+    }
+
+    @Benchmark
+    public boolean executeWithoutArgsGenerated() {
+        return generated.execute("ping", args, callbackContext);
+    }
+
+    @Benchmark
+    public boolean executeWithoutArgsReflective() {
+        return reflective.execute("ping", args, callbackContext);
+    }
+
+    // plugin startup: one instance per WebView load
+    @Benchmark
+    public ReflectiveCordovaPlugin initializeGenerated() {
+        ReflectiveCordovaPlugin plugin = new BenchmarkPlugins.GeneratedPlugin();
+        plugin.privateInitialize(cordova, cordova);
+        return plugin;
+    }
+
+    @Benchmark
+    public ReflectiveCordovaPlugin initializeReflective() {
+        ReflectiveCordovaPlugin plugin = new BenchmarkPlugins.ReflectivePlugin();
+        plugin.privateInitialize(cordova, cordova);
+        return plugin;
+    }
+}
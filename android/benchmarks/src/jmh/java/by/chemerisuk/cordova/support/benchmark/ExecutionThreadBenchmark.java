@@ -0,0 +1,59 @@
+package by.chemerisuk.cordova.support.benchmark;
+
+import by.chemerisuk.cordova.support.ReflectiveCordovaPlugin;
+
+import org.apache.cordova.CordovaArgs;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * execute() until the callback is sent, for each ExecutionThread: the thread hand-off is
+ * part of the number. UI runs inline here (there is no Looper on the JVM), so it only
+ * differs from MAIN on a device.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExecutionThreadBenchmark {
+
+    @Param({"main", "ui", "worker", "serial", "boundedWorker", "future"})
+    public String action;
+
+    private StubCordova cordova;
+    private ReflectiveCordovaPlugin plugin;
+    private CordovaArgs args;
+    private AwaitingCallbackContext callbackContext;
+
+    @Setup
+    public void setUp() {
+        cordova = new StubCordova();
+        plugin = new BenchmarkPlugins.ThreadPlugin();
+        plugin.privateInitialize(cordova, cordova);
+        args = new CordovaArgs(new JSONArray());
+        callbackContext = new AwaitingCallbackContext("benchmark", cordova);
+    }
+
+    @TearDown
+    public void tearDown() {
+        plugin.onDestroy();
+        cordova.shutdown();
+    }
+
+    @Benchmark
+    public PluginResult executeAndAwait() {
+        callbackContext.reset();
+        plugin.execute(action, args, callbackContext);
+        return callbackContext.await();
+    }
+}
@@ -0,0 +1,29 @@
+package by.chemerisuk.cordova.support.benchmark;
+
+import android.app.Activity;
+
+import org.apache.cordova.CordovaInterface;
+import org.apache.cordova.CordovaWebView;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/** CordovaInterface whose UI thread is the calling thread. */
+final class StubCordova implements CordovaInterface, CordovaWebView {
+    private final Activity activity = new Activity();
+    private final ExecutorService threadPool = Executors.newCachedThreadPool();
+
+    @Override
+    public Activity getActivity() {
+        return activity;
+    }
+
+    @Override
+    public ExecutorService getThreadPool() {
+        return threadPool;
+    }
+
+    void shutdown() {
+        threadPool.shutdownNow();
+    }
+}
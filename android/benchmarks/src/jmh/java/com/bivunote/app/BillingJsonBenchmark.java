@@ -0,0 +1,86 @@
+package com.bivunote.app;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * getProducts / restorePurchases 응답을 만들고 call.resolve() 에서 문자열로 직렬화하기까지.
+ * JVM 의 org.json 으로 측정하므로 기기 값과 절대치는 다르고, 같은 기계에서의 변화만 비교합니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BillingJsonBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private List<ProductCatalogSnapshot.Entry> products;
+    private List<PurchaseLedger.Record> purchases;
+    private PluginCall call;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(size);
+        purchases = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String productId = "note_pack_" + i;
+            products.add(new ProductCatalogSnapshot.Entry(productId, "노트 팩 " + i + " (비부노트)",
+                    "추가 노트 " + (i % 50 + 1) + "개", "₩" + (1_100 + i * 100), (1_100L + i * 100) * 1_000_000, "KRW"));
+            purchases.add(new PurchaseLedger.Record("token-" + i + "-aGVsbG8gd29ybGQgcHVyY2hhc2UgdG9rZW4", productId,
+                    "GPA.3345-1234-5678-" + i, 1_700_000_000_000L + i * 60_000L, 1));
+        }
+        call = new PluginCall("benchmark");
+    }
+
+    @Benchmark
+    public String products() throws JSONException {
+        JSONArray array = new JSONArray();
+        for (ProductCatalogSnapshot.Entry entry : products) {
+            array.put(BillingJson.product(entry.productId, entry.title, entry.description, entry.formattedPrice,
+                    entry.priceAmountMicros, entry.currencyCode));
+        }
+        JSObject result = new JSObject();
+        result.put("products", array);
+        call.resolve(result);
+        return call.getLastResult();
+    }
+
+    @Benchmark
+    public String staleProducts() throws JSONException {
+        JSONArray array = new JSONArray();
+        for (ProductCatalogSnapshot.Entry entry : products) {
+            array.put(BillingJson.staleProduct(entry));
+        }
+        JSObject result = new JSObject();
+        result.put("products", array);
+        result.put("stale", true);
+        call.resolve(result);
+        return call.getLastResult();
+    }
+
+    @Benchmark
+    public String purchases() throws JSONException {
+        JSObject result = new JSObject();
+        result.put("products", BillingJson.purchases(purchases));
+        result.put("syncToken", String.valueOf(size));
+        result.put("hasMore", false);
+        call.resolve(result);
+        return call.getLastResult();
+    }
+}
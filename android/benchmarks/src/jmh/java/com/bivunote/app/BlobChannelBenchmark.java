@@ -0,0 +1,79 @@
+package com.bivunote.app;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 바이너리를 WebView 로 넘기는 네이티브 쪽 비용: JSON(base64 문자열 + call.resolve 직렬화) 과
+ * blob 채널(BlobRegistry 등록 + WebView 가 읽는 것처럼 스트림을 끝까지 읽기).
+ * 네이티브 쪽만 잽니다. WebView 의 JSON 파싱/base64 디코딩과 fetch 는 포함하지 않고, 기기에서의 전체 비교도 따로 없습니다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BlobChannelBenchmark {
+
+    // 1KB, 64KB, 1MB, 20MB
+    @Param({"1024", "65536", "1048576", "20971520"})
+    public int size;
+
+    private byte[] payload;
+    private PluginCall call;
+    private BlobRegistry registry;
+    // WebView 가 응답 본문을 읽는 단위와 비슷하게
+    private final byte[] readBuffer = new byte[64 * 1024];
+
+    @Setup
+    public void setUp() {
+        payload = new byte[size];
+        new Random(size).nextBytes(payload);
+        call = new PluginCall("benchmark");
+        registry = new BlobRegistry(System::currentTimeMillis, 256, 64L * 1024 * 1024);
+    }
+
+    @Benchmark
+    public String json() {
+        // 기기에서는 android.util.Base64 (NO_WRAP), 출력은 같음
+        JSObject result = new JSObject();
+        result.put("data", Base64.getEncoder().encodeToString(payload));
+        call.resolve(result);
+        return call.getLastResult();
+    }
+
+    @Benchmark
+    public long blob() throws IOException {
+        BlobRegistry.Blob blob = registry.registerBuffer(ByteBuffer.wrap(payload), "application/octet-stream");
+        JSObject ref = new JSObject();
+        ref.put("handle", blob.handle);
+        ref.put("path", blob.path());
+        ref.put("size", blob.size);
+        JSObject result = new JSObject();
+        result.put("blob", ref);
+        call.resolve(result);
+
+        long read = 0;
+        try (InputStream in = registry.open(blob.handle).stream) {
+            int n;
+            while ((n = in.read(readBuffer)) != -1) {
+                read += n;
+            }
+        }
+        return read;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bivunote.draft;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 글 길이(1천/10만 자)별 자동 저장 한 번의 지연 시간. fsync 까지 포함하므로 디스크에 따라 크게 다릅니다.
+ * autosaveFullText 는 예전 localStorage 처럼 매번 글 전체를 쓰는 경우 (비교용)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DraftJournalBenchmark {
+
+    @Param({"1000", "100000"})
+    public int chars;
+
+    private static final String KEY = "post";
+    private static final String FIELD = "content";
+    private static final String SYLLABLES = "가나다라마바사아자차카타파하 글을쓰는중입니다\n";
+
+    private File dir;
+    private DraftJournal drafts;
+    private final Random random = new Random(9);
+    private StringBuilder content;
+    private long time;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("drafts").toFile();
+        drafts = DraftJournal.open(dir);
+        content = new StringBuilder(chars);
+        for (int i = 0; i < chars; i++) {
+            content.append(SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+        }
+        drafts.set(KEY, FIELD, content.toString(), time);
+        drafts.compact();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        drafts.close();
+        try (Stream<java.nio.file.Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    /** 몇 글자 고치고 저장 (splice + fsync, 가끔 compact). 길이는 그대로 유지 */
+    @Benchmark
+    public long autosaveDelta() throws IOException {
+        long sequence = typeSomething(true);
+        drafts.sync();
+        if (drafts.needsCompaction()) {
+            drafts.compact();
+        }
+        return sequence;
+    }
+
+    /** fsync 없이 적용만 (write 호출이 다음 입력을 받기까지) */
+    @Benchmark
+    public long applyDelta() throws IOException {
+        long sequence = typeSomething(true);
+        if (time % 256 == 0) {
+            drafts.sync();
+            if (drafts.needsCompaction()) {
+                drafts.compact();
+            }
+        }
+        return sequence;
+    }
+
+    @Benchmark
+    public long autosaveFullText() throws IOException {
+        typeSomething(false);
+        long sequence = drafts.set(KEY, FIELD, content.toString(), time);
+        drafts.sync();
+        if (drafts.needsCompaction()) {
+            drafts.compact();
+        }
+        return sequence;
+    }
+
+    /** @param journal false 면 content 만 고침 (전체를 따로 저장) */
+    private long typeSomething(boolean journal) {
+        int start = random.nextInt(content.length() - 4);
+        int deleteCount = random.nextInt(3);
+        String text = SYLLABLES.substring(random.nextInt(5), 5 + random.nextInt(3));
+        content.replace(start, start + deleteCount, text);
+        // 길이가 계속 늘지 않도록 끝에서 같은 만큼 지움
+        int excess = content.length() - chars;
+        time++;
+        if (excess > 0) {
+            content.setLength(chars);
+        }
+        if (!journal) {
+            return 0;
+        }
+        long sequence = drafts.splice(KEY, FIELD, start, deleteCount, text, time);
+        if (excess > 0) {
+            sequence = drafts.splice(KEY, FIELD, chars, excess, "", time);
+        }
+        return sequence;
+    }
+}
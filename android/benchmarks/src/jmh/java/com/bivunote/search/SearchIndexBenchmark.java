@@ -0,0 +1,106 @@
+package com.bivunote.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 합성 코퍼스(SyntheticCorpus, note-search 테스트 소스)로 만든 색인의 top-k 검색과 한 문서 고쳐 쓰기.
+ * 색인 크기는 setup 에서 출력합니다. (원문 UTF-8 대비)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    public int docs;
+
+    private static final int QUERY_COUNT = 256;
+
+    private File dir;
+    private SyntheticCorpus corpus;
+    private SearchIndex index;
+    private String[] queries;
+    private int next;
+    private final Random random = new Random(5);
+    private int version;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("search-index").toFile();
+        corpus = new SyntheticCorpus(7, 20_000);
+        index = SearchIndex.open(dir);
+        long rawBytes = 0;
+        for (int i = 0; i < docs; i++) {
+            SearchDocument document = corpus.document(i, 0);
+            rawBytes += (document.title + document.body + String.join(" ", document.tags)).getBytes("UTF-8").length;
+            index.upsert(document);
+        }
+        index.flush();
+        while (index.maybeMerge()) {
+            // 기기에서 오래 쓴 색인처럼 조각 수를 한도 안으로
+        }
+        SearchIndex.Stats stats = index.stats();
+        System.out.printf("%n%d docs: index %d bytes (%.2fx of %d bytes text), %d segments, %d terms%n",
+                stats.documents, stats.indexBytes, (double) stats.indexBytes / rawBytes, rawBytes,
+                stats.segments, stats.terms);
+
+        Random queryRandom = new Random(3);
+        queries = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = corpus.query(queryRandom);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        index.close();
+        try (Stream<java.nio.file.Path> files = Files.walk(dir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> searchTop20() {
+        return index.search(nextQuery(), 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> searchTop20ByKind() {
+        return index.search(nextQuery(), 20, "note:");
+    }
+
+    /** 글을 보거나 고칠 때마다 하는 일. flush 는 앱처럼 가끔 */
+    @Benchmark
+    public boolean upsertChanged() throws IOException {
+        boolean changed = index.upsert(corpus.document(random.nextInt(docs), ++version));
+        if (version % 500 == 0) {
+            index.flush();
+            index.maybeMerge();
+        }
+        return changed;
+    }
+
+    private String nextQuery() {
+        String query = queries[next];
+        next = (next + 1) % QUERY_COUNT;
+        return query;
+    }
+}
@@ -0,0 +1,8 @@
+package android.app;
+
+/** JVM stub: only what the Cordova support code uses. */
+public class Activity {
+    public void runOnUiThread(Runnable action) {
+        action.run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.getcapacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/** JVM stub of the Capacitor class: put() without checked exceptions, like the real one. */
+public class JSObject extends JSONObject {
+
+    public JSObject put(String key, boolean value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    public JSObject put(String key, int value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    public JSObject put(String key, long value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    public JSObject put(String key, Object value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+
+    public JSObject put(String key, String value) {
+        try {
+            super.put(key, value);
+        } catch (JSONException ignored) {
+        }
+        return this;
+    }
+}
@@ -0,0 +1,38 @@
+package com.getcapacitor;
+
+/**
+ * JVM stub of the Capacitor class. resolve() serializes the data the way the bridge does
+ * before posting it to the WebView, and keeps the string instead of sending it.
+ */
+public class PluginCall {
+    private final String callbackId;
+    private volatile String lastResult;
+
+    public PluginCall(String callbackId) {
+        this.callbackId = callbackId;
+    }
+
+    public String getCallbackId() {
+        return callbackId;
+    }
+
+    public String getLastResult() {
+        return lastResult;
+    }
+
+    public void resolve(JSObject data) {
+        lastResult = data.toString();
+    }
+
+    public void resolve() {
+        lastResult = "{}";
+    }
+
+    public void reject(String msg, Exception ex) {
+        lastResult = msg;
+    }
+
+    public void reject(String msg) {
+        lastResult = msg;
+    }
+}
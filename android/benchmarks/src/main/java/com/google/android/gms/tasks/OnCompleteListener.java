@@ -0,0 +1,6 @@
+package com.google.android.gms.tasks;
+
+/** JVM stub of the Play services class. */
+public interface OnCompleteListener<TResult> {
+    void onComplete(Task<TResult> task);
+}
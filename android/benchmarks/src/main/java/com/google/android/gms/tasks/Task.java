@@ -0,0 +1,18 @@
+package com.google.android.gms.tasks;
+
+import java.util.concurrent.Executor;
+
+/** JVM stub of the Play services class (only what the Cordova support layer uses). */
+public abstract class Task<TResult> {
+    public abstract boolean isComplete();
+
+    public abstract boolean isSuccessful();
+
+    public abstract boolean isCanceled();
+
+    public abstract TResult getResult();
+
+    public abstract Exception getException();
+
+    public abstract Task<TResult> addOnCompleteListener(Executor executor, OnCompleteListener<TResult> listener);
+}
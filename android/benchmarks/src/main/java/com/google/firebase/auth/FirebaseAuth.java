@@ -0,0 +1,38 @@
+package com.google.firebase.auth;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** JVM stub of the Firebase class (only the ID token listeners AuthStateRegistry uses). */
+public class FirebaseAuth {
+    public interface IdTokenListener {
+        void onIdTokenChanged(FirebaseAuth auth);
+    }
+
+    private final List<IdTokenListener> idTokenListeners = new CopyOnWriteArrayList<>();
+    private volatile FirebaseUser currentUser;
+
+    public FirebaseUser getCurrentUser() {
+        return currentUser;
+    }
+
+    public void addIdTokenListener(IdTokenListener listener) {
+        idTokenListeners.add(listener);
+    }
+
+    public void removeIdTokenListener(IdTokenListener listener) {
+        idTokenListeners.remove(listener);
+    }
+
+    /** Test hook: signs in/out and notifies the listeners like a token change would. */
+    public void setCurrentUser(FirebaseUser user) {
+        currentUser = user;
+        for (IdTokenListener listener : idTokenListeners) {
+            listener.onIdTokenChanged(this);
+        }
+    }
+
+    public int getIdTokenListenerCount() {
+        return idTokenListeners.size();
+    }
+}
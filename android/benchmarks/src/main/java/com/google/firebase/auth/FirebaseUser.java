@@ -0,0 +1,20 @@
+package com.google.firebase.auth;
+
+import android.net.Uri;
+
+/** JVM stub of the Firebase class (only what UserProfiles reads). */
+public abstract class FirebaseUser {
+    public abstract String getUid();
+
+    public abstract String getDisplayName();
+
+    public abstract String getEmail();
+
+    public abstract String getPhoneNumber();
+
+    public abstract Uri getPhotoUrl();
+
+    public abstract String getProviderId();
+
+    public abstract boolean isEmailVerified();
+}
@@ -0,0 +1,52 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/** JVM stub of the Cordova class. Keeps the last result instead of sending it to a WebView. */
+public class CallbackContext {
+    private final String callbackId;
+    private volatile PluginResult lastResult;
+    private volatile boolean finished;
+
+    public CallbackContext(String callbackId, CordovaWebView webView) {
+        this.callbackId = callbackId;
+    }
+
+    public String getCallbackId() {
+        return callbackId;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public PluginResult getLastResult() {
+        return lastResult;
+    }
+
+    public void sendPluginResult(PluginResult pluginResult) {
+        lastResult = pluginResult;
+        finished = !pluginResult.getKeepCallback();
+    }
+
+    public void success() {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK));
+    }
+
+    public void success(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONObject message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void success(JSONArray message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+    }
+
+    public void error(String message) {
+        sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+    }
+}
@@ -0,0 +1,12 @@
+package org.apache.cordova;
+
+import android.app.Activity;
+
+import java.util.concurrent.ExecutorService;
+
+/** JVM stub of the Cordova interface. */
+public interface CordovaInterface {
+    Activity getActivity();
+
+    ExecutorService getThreadPool();
+}
@@ -0,0 +1,29 @@
+package org.apache.cordova;
+
+import org.json.JSONException;
+
+/** JVM stub of the Cordova class. */
+public class CordovaPlugin {
+    public CordovaInterface cordova;
+    public CordovaWebView webView;
+
+    public final void privateInitialize(CordovaInterface cordova, CordovaWebView webView) {
+        this.cordova = cordova;
+        this.webView = webView;
+        initialize(cordova, webView);
+        pluginInitialize();
+    }
+
+    public void initialize(CordovaInterface cordova, CordovaWebView webView) {
+    }
+
+    protected void pluginInitialize() {
+    }
+
+    public boolean execute(String action, CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        return false;
+    }
+
+    public void onDestroy() {
+    }
+}
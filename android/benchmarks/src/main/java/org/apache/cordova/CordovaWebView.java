@@ -0,0 +1,5 @@
+package org.apache.cordova;
+
+/** JVM stub of the Cordova interface. */
+public interface CordovaWebView {
+}
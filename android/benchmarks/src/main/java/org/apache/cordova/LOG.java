@@ -0,0 +1,16 @@
+package org.apache.cordova;
+
+/** JVM stub of the Cordova class. */
+public class LOG {
+    public static void d(String tag, String message) {
+    }
+
+    public static void w(String tag, String message) {
+    }
+
+    public static void e(String tag, String message) {
+    }
+
+    public static void e(String tag, String message, Throwable e) {
+    }
+}
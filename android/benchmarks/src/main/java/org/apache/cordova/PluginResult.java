@@ -0,0 +1,50 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/** JVM stub of the Cordova class. */
+public class PluginResult {
+    public enum Status {
+        NO_RESULT, OK, ERROR
+    }
+
+    private final Status status;
+    private final String encodedMessage;
+    private boolean keepCallback;
+
+    public PluginResult(Status status) {
+        this(status, (String) null);
+    }
+
+    public PluginResult(Status status, String message) {
+        this.status = status;
+        this.encodedMessage = message == null ? "null" : JSONObject.quote(message);
+    }
+
+    public PluginResult(Status status, JSONObject message) {
+        this.status = status;
+        this.encodedMessage = message.toString();
+    }
+
+    public PluginResult(Status status, JSONArray message) {
+        this.status = status;
+        this.encodedMessage = message.toString();
+    }
+
+    public void setKeepCallback(boolean keepCallback) {
+        this.keepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback() {
+        return keepCallback;
+    }
+
+    public int getStatus() {
+        return status.ordinal();
+    }
+
+    public String getMessage() {
+        return encodedMessage;
+    }
+}
@@ -0,0 +1,140 @@
+package by.chemerisuk.cordova.firebase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.net.Uri;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AuthStateRegistryTest {
+
+    private FirebaseAuth auth;
+    private AuthStateRegistry registry;
+
+    @Before
+    public void setUp() {
+        auth = new FirebaseAuth();
+        registry = new AuthStateRegistry();
+        registry.attach(auth);
+    }
+
+    @Test
+    public void subscriberBeforeAttachGetsTheRestoredUser() throws JSONException {
+        AuthStateRegistry starting = new AuthStateRegistry();
+        CallbackContext subscriber = new CallbackContext("1", null);
+        starting.subscribe("a", subscriber);
+        assertNull(subscriber.getLastResult());
+
+        FirebaseAuth restored = new FirebaseAuth();
+        restored.setCurrentUser(user("uid-1"));
+        starting.attach(restored);
+        assertEquals("uid-1", uid(subscriber));
+        assertEquals(1, restored.getIdTokenListenerCount());
+    }
+
+    @Test
+    public void attachWithoutSubscribersDoesNotListen() throws JSONException {
+        AuthStateRegistry starting = new AuthStateRegistry();
+        FirebaseAuth restored = new FirebaseAuth();
+        starting.attach(restored);
+        assertEquals(0, restored.getIdTokenListenerCount());
+
+        CallbackContext subscriber = new CallbackContext("1", null);
+        starting.subscribe("a", subscriber);
+        assertNull(uid(subscriber));
+        assertEquals(1, restored.getIdTokenListenerCount());
+    }
+
+    @Test
+    public void subscribersWithIdsAreIndependent() throws JSONException {
+        CallbackContext first = new CallbackContext("1", null);
+        CallbackContext second = new CallbackContext("2", null);
+        registry.subscribe("a", first);
+        registry.subscribe("b", second);
+
+        registry.unsubscribe("a");
+        assertNoResult(first);
+        auth.setCurrentUser(user("uid-1"));
+        assertEquals("uid-1", uid(second));
+        assertFalse(second.isFinished());
+    }
+
+    @Test
+    public void sameIdReplacesAndReleasesThePreviousCallback() throws JSONException {
+        CallbackContext old = new CallbackContext("1", null);
+        CallbackContext current = new CallbackContext("2", null);
+        registry.subscribe("", old);
+        registry.subscribe("", current);
+
+        // the replaced callback is released instead of piling up
+        assertNoResult(old);
+        auth.setCurrentUser(user("uid-1"));
+        assertEquals("uid-1", uid(current));
+        assertEquals(1, auth.getIdTokenListenerCount());
+
+        registry.unsubscribe(null);
+        assertNoResult(current);
+        assertEquals(0, auth.getIdTokenListenerCount());
+    }
+
+    static FirebaseUser user(final String uid) {
+        return new FirebaseUser() {
+            @Override
+            public String getUid() {
+                return uid;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "name of " + uid;
+            }
+
+            @Override
+            public String getEmail() {
+                return null;
+            }
+
+            @Override
+            public String getPhoneNumber() {
+                return null;
+            }
+
+            @Override
+            public Uri getPhotoUrl() {
+                return null;
+            }
+
+            @Override
+            public String getProviderId() {
+                return "firebase";
+            }
+
+            @Override
+            public boolean isEmailVerified() {
+                return false;
+            }
+        };
+    }
+
+    static String uid(CallbackContext callbackContext) throws JSONException {
+        PluginResult result = callbackContext.getLastResult();
+        assertEquals(PluginResult.Status.OK.ordinal(), result.getStatus());
+        assertTrue(result.getKeepCallback());
+        return "null".equals(result.getMessage()) ? null : new JSONObject(result.getMessage()).optString("uid", null);
+    }
+
+    static void assertNoResult(CallbackContext callbackContext) {
+        assertEquals(PluginResult.Status.NO_RESULT.ordinal(), callbackContext.getLastResult().getStatus());
+    }
+}
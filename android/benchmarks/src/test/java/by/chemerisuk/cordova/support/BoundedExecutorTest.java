@@ -0,0 +1,140 @@
+package by.chemerisuk.cordova.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.bivunote.bridge.BridgeTracer;
+import com.bivunote.bridge.ExecutorStats;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class BoundedExecutorTest {
+
+    private final List<BoundedExecutor> executors = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        for (BoundedExecutor executor : executors) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void fullQueueRejectsWithoutBlocking() throws InterruptedException {
+        BoundedExecutor executor = create("Full-serial", 1, new WorkerPoolConfig(1, 2));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(executor.execute(() -> {
+                await(release);
+                done.countDown();
+            }));
+        }
+
+        // on the bridge thread: no room means false right away, no waiting
+        long startedAt = System.nanoTime();
+        assertFalse(executor.execute(done::countDown));
+        assertTrue(System.nanoTime() - startedAt < TimeUnit.MILLISECONDS.toNanos(100));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        ExecutorStats stats = awaitCompleted(executor, 3);
+        assertEquals(3, stats.submitted);
+        assertEquals(1, stats.rejected);
+        // accepted again once there is room
+        assertTrue(executor.execute(() -> { }));
+    }
+
+    @Test
+    public void serialRunsInSubmissionOrder() throws InterruptedException {
+        BoundedExecutor executor = create("Order-serial", 1, WorkerPoolConfig.SERIAL_DEFAULT);
+        List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        CountDownLatch done = new CountDownLatch(50);
+        for (int i = 0; i < 50; i++) {
+            final int n = i;
+            assertTrue(executor.execute(() -> {
+                order.add(n);
+                done.countDown();
+            }));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+    }
+
+    @Test
+    public void failingCommandReleasesItsPermit() throws InterruptedException {
+        BoundedExecutor executor = create("Throwing-serial", 1, new WorkerPoolConfig(1, 0));
+        Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> { });
+        try {
+            assertTrue(executor.execute(() -> {
+                throw new IllegalStateException("boom");
+            }));
+            awaitCompleted(executor, 1);
+            CountDownLatch ran = new CountDownLatch(1);
+            assertTrue(executor.execute(ran::countDown));
+            assertTrue(ran.await(5, TimeUnit.SECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void statsAreVisibleThroughTheTracerUntilShutdown() throws InterruptedException {
+        BoundedExecutor executor = create("Stats-worker", 2, WorkerPoolConfig.WORKER_DEFAULT);
+        assertTrue(executor.execute(() -> { }));
+        awaitCompleted(executor, 1);
+        assertEquals(1, find("Stats-worker").completed);
+
+        executor.shutdown();
+        assertEquals(null, find("Stats-worker"));
+        // rejected after shutdown
+        assertFalse(executor.execute(() -> { }));
+        assertEquals(1, executor.getStats().rejected);
+    }
+
+    private BoundedExecutor create(String name, int poolSize, WorkerPoolConfig config) {
+        BoundedExecutor executor = new BoundedExecutor(name, poolSize, config, BridgeTracer.get());
+        executors.add(executor);
+        return executor;
+    }
+
+    private static ExecutorStats find(String name) {
+        for (ExecutorStats stats : BridgeTracer.get().executorStats()) {
+            if (stats.name.equals(name)) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    // completed is counted in a finally block after the command returns, so poll for it
+    private static ExecutorStats awaitCompleted(BoundedExecutor executor, long completed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ExecutorStats stats = executor.getStats();
+        while (stats.completed < completed && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stats = executor.getStats();
+        }
+        assertEquals(completed, stats.completed);
+        return stats;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.bivunote.bridge;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Capacitor 와 Cordova 플러그인 호출을 함께 추적합니다. (프로세스당 하나, get())
+ *
+ * 호출마다 CallTrace 를 만들어 plugin.method 별로 queue/run/total 지연 시간과 reject/error 수를 모으고,
+ * 최근에 끝난 호출은 고정 크기 링 버퍼에 남깁니다. 기록 경로에는 락이 없습니다.
+ * 플러그인 전용 executor 는 registerExecutor 로 등록해 두면 executorStats() 로 함께 볼 수 있습니다.
+ */
+public final class BridgeTracer {
+
+    private static final int RECENT_CALLS = 128;
+    // 응답하지 않는 호출(이벤트 콜백 등)이 쌓여도 메모리가 늘지 않도록
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private static final BridgeTracer INSTANCE = new BridgeTracer(System::nanoTime, RECENT_CALLS);
+
+    private final LongSupplier clock;
+    private final AtomicLong nextId = new AtomicLong();
+    // "plugin.method" → 지표
+    private final ConcurrentHashMap<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    // "plugin#callbackId" → 진행 중인 호출. CallTrace 를 들고 있을 수 없는 쪽(Capacitor PluginCall)에서 찾기 위한 것
+    private final ConcurrentHashMap<String, CallTrace> inFlight = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<CallTrace> recent;
+    private final AtomicLong recentCursor = new AtomicLong();
+    // executor 이름 → 현재 통계
+    private final ConcurrentHashMap<String, Supplier<ExecutorStats>> executors = new ConcurrentHashMap<>();
+
+    BridgeTracer(LongSupplier clock, int recentCalls) {
+        this.clock = clock;
+        this.recent = new AtomicReferenceArray<>(recentCalls);
+    }
+
+    public static BridgeTracer get() {
+        return INSTANCE;
+    }
+
+    /**
+     * JS 호출이 네이티브에 도착했을 때. 바로 실행하는 경우에도 실행 직전에 CallTrace.started() 를 불러야 합니다.
+     *
+     * @param callbackId 있으면 finish(plugin, callbackId, ...) 로 찾을 수 있습니다
+     */
+    public CallTrace begin(String plugin, String method, String callbackId) {
+        MethodMetrics methodMetrics = metrics.get(plugin + '.' + method);
+        if (methodMetrics == null) {
+            methodMetrics = metrics.computeIfAbsent(plugin + '.' + method, key -> new MethodMetrics(plugin, method));
+        }
+        methodMetrics.began();
+        CallTrace trace = new CallTrace(this, methodMetrics, nextId.incrementAndGet(), callbackId, now());
+        if (callbackId != null && inFlight.size() < MAX_IN_FLIGHT) {
+            inFlight.put(plugin + '#' + callbackId, trace);
+        }
+        return trace;
+    }
+
+    /**
+     * @return 진행 중인 호출, 이미 끝났거나 begin 하지 않았으면 null
+     */
+    public CallTrace find(String plugin, String callbackId) {
+        return callbackId == null ? null : inFlight.get(plugin + '#' + callbackId);
+    }
+
+    public void finish(String plugin, String callbackId, CallOutcome outcome) {
+        CallTrace trace = find(plugin, callbackId);
+        if (trace != null) {
+            trace.finish(outcome);
+        }
+    }
+
+    void finished(CallTrace trace) {
+        if (trace.callbackId != null) {
+            inFlight.remove(trace.plugin + '#' + trace.callbackId, trace);
+        }
+        trace.metrics.finished(trace);
+        long slot = recentCursor.getAndIncrement();
+        recent.set((int) (slot % recent.length()), trace);
+    }
+
+    /**
+     * @return plugin, method 순으로 정렬한 지표
+     */
+    public List<MethodMetrics.Snapshot> snapshot() {
+        List<MethodMetrics.Snapshot> snapshots = new ArrayList<>(metrics.size());
+        for (MethodMetrics methodMetrics : metrics.values()) {
+            snapshots.add(methodMetrics.snapshot());
+        }
+        Collections.sort(snapshots, new Comparator<MethodMetrics.Snapshot>() {
+            @Override
+            public int compare(MethodMetrics.Snapshot a, MethodMetrics.Snapshot b) {
+                int byPlugin = a.plugin.compareTo(b.plugin);
+                return byPlugin != 0 ? byPlugin : a.method.compareTo(b.method);
+            }
+        });
+        return snapshots;
+    }
+
+    /**
+     * @return 최근에 끝난 호출, 먼저 끝난 것부터
+     */
+    public List<CallTrace> recentCalls() {
+        long end = recentCursor.get();
+        long start = Math.max(0, end - recent.length());
+        List<CallTrace> calls = new ArrayList<>((int) (end - start));
+        for (long slot = start; slot < end; slot++) {
+            CallTrace trace = recent.get((int) (slot % recent.length()));
+            if (trace != null) {
+                calls.add(trace);
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * 같은 이름으로 다시 등록하면 (플러그인을 새로 만든 경우) 새 것으로 바뀝니다.
+     */
+    public void registerExecutor(String name, Supplier<ExecutorStats> stats) {
+        executors.put(name, stats);
+    }
+
+    /**
+     * @param stats registerExecutor 에 넘긴 것. 그 사이 같은 이름으로 새로 등록된 것은 지우지 않습니다
+     */
+    public void unregisterExecutor(String name, Supplier<ExecutorStats> stats) {
+        executors.remove(name, stats);
+    }
+
+    /**
+     * @return 등록된 executor 의 통계, 이름 순
+     */
+    public List<ExecutorStats> executorStats() {
+        List<ExecutorStats> stats = new ArrayList<>(executors.size());
+        for (Supplier<ExecutorStats> supplier : executors.values()) {
+            stats.add(supplier.get());
+        }
+        Collections.sort(stats, new Comparator<ExecutorStats>() {
+            @Override
+            public int compare(ExecutorStats a, ExecutorStats b) {
+                return a.name.compareTo(b.name);
+            }
+        });
+        return stats;
+    }
+
+    long now() {
+        return clock.getAsLong();
+    }
+}
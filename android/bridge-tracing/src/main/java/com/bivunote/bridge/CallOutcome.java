@@ -0,0 +1,10 @@
+package com.bivunote.bridge;
+
+public enum CallOutcome {
+    /** resolve / success (값 없이 콜백을 닫은 경우 포함) */
+    RESOLVED,
+    /** 플러그인이 reject / error 로 응답 (큐가 가득 차서 거절된 호출 포함) */
+    REJECTED,
+    /** 플러그인 메서드나 비동기 결과에서 예외 발생 */
+    ERROR
+}
@@ -0,0 +1,91 @@
+package com.bivunote.bridge;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 플러그인 호출 하나. JS 호출이 네이티브에 도착한 시점(begin)부터 응답을 보낸 시점(finish)까지를 잽니다.
+ *
+ * queue: 도착 → 실행 시작 (스레드/연결 대기), run: 실행 시작 → 응답, total: 도착 → 응답
+ */
+public final class CallTrace {
+    /** 로그와 JS 쪽 기록을 이어 붙이기 위한 프로세스 내 고유 번호 */
+    public final long id;
+    public final String plugin;
+    public final String method;
+    public final String callbackId;
+    public final long beganNanos;
+
+    private final BridgeTracer tracer;
+    final MethodMetrics metrics;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private final AtomicReference<CallOutcome> outcome = new AtomicReference<>();
+
+    CallTrace(BridgeTracer tracer, MethodMetrics metrics, long id, String callbackId, long beganNanos) {
+        this.tracer = tracer;
+        this.metrics = metrics;
+        this.id = id;
+        this.plugin = metrics.plugin;
+        this.method = metrics.method;
+        this.callbackId = callbackId;
+        this.beganNanos = beganNanos;
+    }
+
+    /**
+     * 실제 실행이 시작된 시점. 처음 호출만 반영됩니다.
+     */
+    public void started() {
+        if (startedNanos == 0) {
+            startedNanos = tracer.now();
+        }
+    }
+
+    /**
+     * 응답을 보낸 시점. 처음 호출만 반영되므로 예외 처리 경로에서 ERROR 를 먼저 기록하면
+     * 이어서 보내는 error 응답은 REJECTED 로 다시 세지 않습니다.
+     */
+    public void finish(CallOutcome result) {
+        if (outcome.compareAndSet(null, result)) {
+            finishedNanos = tracer.now();
+            tracer.finished(this);
+        }
+    }
+
+    public boolean isFinished() {
+        return outcome.get() != null;
+    }
+
+    public CallOutcome getOutcome() {
+        return outcome.get();
+    }
+
+    /** 실행을 시작하지 못하고 끝났으면(대기 중 거절) 전체가 대기 시간 */
+    public long getQueueNanos() {
+        long started = startedNanos;
+        return (started == 0 ? finishedNanos : started) - beganNanos;
+    }
+
+    public long getRunNanos() {
+        long started = startedNanos;
+        return started == 0 ? 0 : finishedNanos - started;
+    }
+
+    public long getTotalNanos() {
+        return finishedNanos - beganNanos;
+    }
+
+    boolean wasStarted() {
+        return startedNanos != 0;
+    }
+
+    @Override
+    public String toString() {
+        CallOutcome result = outcome.get();
+        if (result == null) {
+            return String.format(Locale.US, "#%d %s.%s in flight", id, plugin, method);
+        }
+        return String.format(Locale.US, "#%d %s.%s %s queue=%.2fms run=%.2fms total=%.2fms",
+                id, plugin, method, result, getQueueNanos() / 1e6, getRunNanos() / 1e6, getTotalNanos() / 1e6);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bivunote.bridge;
+
+import java.util.Locale;
+
+/**
+ * 플러그인 전용 executor(Cordova SERIAL/BOUNDED_WORKER) 하나의 스냅샷.
+ * 대기 시간(호출 → 시작)과 실행 시간을 따로 세므로 실제 값을 보고 pool 크기를 정할 수 있습니다.
+ */
+public final class ExecutorStats {
+    public final String name;
+    public final long submitted;
+    /** queue 가 가득 차서(또는 종료 후) 바로 거절한 호출 */
+    public final long rejected;
+    public final long completed;
+    public final int queued;
+    public final long queueWaitTotalNanos;
+    public final long queueWaitMaxNanos;
+    public final long runTotalNanos;
+    public final long runMaxNanos;
+
+    public ExecutorStats(String name, long submitted, long rejected, long completed, int queued,
+                         long queueWaitTotalNanos, long queueWaitMaxNanos, long runTotalNanos, long runMaxNanos) {
+        this.name = name;
+        this.submitted = submitted;
+        this.rejected = rejected;
+        this.completed = completed;
+        this.queued = queued;
+        this.queueWaitTotalNanos = queueWaitTotalNanos;
+        this.queueWaitMaxNanos = queueWaitMaxNanos;
+        this.runTotalNanos = runTotalNanos;
+        this.runMaxNanos = runMaxNanos;
+    }
+
+    public double getAverageQueueWaitMillis() {
+        return completed == 0 ? 0 : queueWaitTotalNanos / 1e6 / completed;
+    }
+
+    public double getAverageRunMillis() {
+        return completed == 0 ? 0 : runTotalNanos / 1e6 / completed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: submitted=%d rejected=%d completed=%d queued=%d wait(avg=%.2fms max=%.2fms) run(avg=%.2fms max=%.2fms)",
+                name, submitted, rejected, completed, queued,
+                getAverageQueueWaitMillis(), queueWaitMaxNanos / 1e6,
+                getAverageRunMillis(), runMaxNanos / 1e6);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bivunote.bridge;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 플러그인 메서드 하나의 누적 지표. 모든 필드는 락 없이 갱신됩니다.
+ */
+public final class MethodMetrics {
+    public final String plugin;
+    public final String method;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong resolved = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final LatencyHistogram queue = new LatencyHistogram();
+    private final LatencyHistogram run = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    MethodMetrics(String plugin, String method) {
+        this.plugin = plugin;
+        this.method = method;
+    }
+
+    void began() {
+        calls.incrementAndGet();
+    }
+
+    void finished(CallTrace trace) {
+        switch (trace.getOutcome()) {
+            case RESOLVED:
+                resolved.incrementAndGet();
+                break;
+            case REJECTED:
+                rejected.incrementAndGet();
+                break;
+            default:
+                errors.incrementAndGet();
+                break;
+        }
+        queue.record(trace.getQueueNanos());
+        if (trace.wasStarted()) {
+            run.record(trace.getRunNanos());
+        }
+        total.record(trace.getTotalNanos());
+    }
+
+    public Snapshot snapshot() {
+        long resolvedCount = resolved.get();
+        long rejectedCount = rejected.get();
+        long errorCount = errors.get();
+        // 완료 수를 먼저 읽었으므로 calls 가 더 작게 보이는 일은 없음
+        long callCount = Math.max(calls.get(), resolvedCount + rejectedCount + errorCount);
+        return new Snapshot(plugin, method, callCount, resolvedCount, rejectedCount, errorCount,
+                queue.snapshot(), run.snapshot(), total.snapshot());
+    }
+
+    public static final class Snapshot {
+        public final String plugin;
+        public final String method;
+        public final long calls;
+        public final long resolved;
+        public final long rejected;
+        public final long errors;
+        public final LatencyHistogram.Snapshot queue;
+        public final LatencyHistogram.Snapshot run;
+        public final LatencyHistogram.Snapshot total;
+
+        Snapshot(String plugin, String method, long calls, long resolved, long rejected, long errors,
+                 LatencyHistogram.Snapshot queue, LatencyHistogram.Snapshot run, LatencyHistogram.Snapshot total) {
+            this.plugin = plugin;
+            this.method = method;
+            this.calls = calls;
+            this.resolved = resolved;
+            this.rejected = rejected;
+            this.errors = errors;
+            this.queue = queue;
+            this.run = run;
+            this.total = total;
+        }
+
+        /** 아직 응답하지 않은 호출 수 */
+        public long getInFlight() {
+            return calls - resolved - rejected - errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%s.%s: calls=%d rejected=%d errors=%d queue(p50=%.2fms p99=%.2fms) run(p50=%.2fms p99=%.2fms) total(p50=%.2fms p99=%.2fms max=%.2fms)",
+                    plugin, method, calls, rejected, errors,
+                    queue.percentileNanos(0.5) / 1e6, queue.percentileNanos(0.99) / 1e6,
+                    run.percentileNanos(0.5) / 1e6, run.percentileNanos(0.99) / 1e6,
+                    total.percentileNanos(0.5) / 1e6, total.percentileNanos(0.99) / 1e6, total.maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bivunote.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public class BridgeTracerTest {
+
+    private long nowNanos;
+    private BridgeTracer tracer;
+
+    @Before
+    public void setUp() {
+        nowNanos = 1_000_000_000L;
+        tracer = new BridgeTracer(() -> nowNanos, 4);
+    }
+
+    @Test
+    public void splitsQueueAndRunTime() {
+        CallTrace trace = tracer.begin("Auth", "getIdToken", "1");
+        nowNanos += 3_000_000L;
+        trace.started();
+        nowNanos += 7_000_000L;
+        trace.finish(CallOutcome.RESOLVED);
+
+        assertEquals(3_000_000L, trace.getQueueNanos());
+        assertEquals(7_000_000L, trace.getRunNanos());
+        assertEquals(10_000_000L, trace.getTotalNanos());
+
+        MethodMetrics.Snapshot metrics = tracer.snapshot().get(0);
+        assertEquals("Auth", metrics.plugin);
+        assertEquals("getIdToken", metrics.method);
+        assertEquals(1, metrics.calls);
+        assertEquals(1, metrics.resolved);
+        assertEquals(0, metrics.getInFlight());
+        assertEquals(10_000_000L, metrics.total.maxNanos);
+    }
+
+    @Test
+    public void firstOutcomeWins() {
+        CallTrace trace = tracer.begin("Auth", "signOut", "1");
+        trace.started();
+        // 예외 처리 경로에서 ERROR 를 기록한 뒤 error 응답이 REJECTED 로 다시 들어오는 경우
+        trace.finish(CallOutcome.ERROR);
+        trace.finish(CallOutcome.REJECTED);
+
+        MethodMetrics.Snapshot metrics = tracer.snapshot().get(0);
+        assertEquals(1, metrics.errors);
+        assertEquals(0, metrics.rejected);
+        assertEquals(1, metrics.total.count);
+    }
+
+    @Test
+    public void callRejectedWhileQueuedHasNoRunTime() {
+        CallTrace trace = tracer.begin("Auth", "signIn", null);
+        nowNanos += 5_000_000L;
+        trace.finish(CallOutcome.REJECTED);
+
+        assertEquals(5_000_000L, trace.getQueueNanos());
+        assertEquals(0, trace.getRunNanos());
+        MethodMetrics.Snapshot metrics = tracer.snapshot().get(0);
+        assertEquals(1, metrics.rejected);
+        assertEquals(0, metrics.run.count);
+        assertEquals(1, metrics.queue.count);
+    }
+
+    @Test
+    public void finishByCallbackId() {
+        CallTrace trace = tracer.begin("InAppPurchases", "getProducts", "42");
+        assertSame(trace, tracer.find("InAppPurchases", "42"));
+        assertNull(tracer.find("Other", "42"));
+
+        tracer.finish("InAppPurchases", "42", CallOutcome.RESOLVED);
+
+        assertTrue(trace.isFinished());
+        assertNull(tracer.find("InAppPurchases", "42"));
+        // 이미 끝난 호출은 무시
+        tracer.finish("InAppPurchases", "42", CallOutcome.ERROR);
+        assertEquals(CallOutcome.RESOLVED, trace.getOutcome());
+    }
+
+    @Test
+    public void inFlightCallsAreCounted() {
+        tracer.begin("Auth", "setAuthStateChanged", "1").started();
+
+        MethodMetrics.Snapshot metrics = tracer.snapshot().get(0);
+        assertEquals(1, metrics.calls);
+        assertEquals(1, metrics.getInFlight());
+        assertEquals(0, metrics.total.count);
+    }
+
+    @Test
+    public void recentCallsKeepTheLastFinished() {
+        for (int i = 0; i < 6; i++) {
+            CallTrace trace = tracer.begin("Auth", "call" + i, null);
+            trace.started();
+            trace.finish(CallOutcome.RESOLVED);
+        }
+
+        List<CallTrace> recent = tracer.recentCalls();
+        assertEquals(4, recent.size());
+        assertEquals("call2", recent.get(0).method);
+        assertEquals("call5", recent.get(3).method);
+    }
+
+    @Test
+    public void snapshotIsSortedByPluginAndMethod() {
+        tracer.begin("B", "a", null);
+        tracer.begin("A", "b", null);
+        tracer.begin("A", "a", null);
+
+        List<MethodMetrics.Snapshot> snapshots = tracer.snapshot();
+        assertEquals("A.a", snapshots.get(0).plugin + "." + snapshots.get(0).method);
+        assertEquals("A.b", snapshots.get(1).plugin + "." + snapshots.get(1).method);
+        assertEquals("B.a", snapshots.get(2).plugin + "." + snapshots.get(2).method);
+    }
+
+    @Test
+    public void unregisterKeepsNewerExecutorWithTheSameName() {
+        Supplier<ExecutorStats> old = () -> stats("Auth-serial", 1);
+        Supplier<ExecutorStats> recreated = () -> stats("Auth-serial", 2);
+        tracer.registerExecutor("Auth-serial", old);
+        tracer.registerExecutor("Auth-serial", recreated);
+        tracer.registerExecutor("A-worker", () -> stats("A-worker", 3));
+
+        // 예전 플러그인의 onDestroy 가 나중에 불려도 새 것은 남음
+        tracer.unregisterExecutor("Auth-serial", old);
+        List<ExecutorStats> executors = tracer.executorStats();
+        assertEquals(2, executors.size());
+        assertEquals("A-worker", executors.get(0).name);
+        assertEquals(2, executors.get(1).submitted);
+
+        tracer.unregisterExecutor("Auth-serial", recreated);
+        assertEquals(1, tracer.executorStats().size());
+    }
+
+    private static ExecutorStats stats(String name, long submitted) {
+        return new ExecutorStats(name, submitted, 0, submitted, 0, 0, 0, 0, 0);
+    }
+}
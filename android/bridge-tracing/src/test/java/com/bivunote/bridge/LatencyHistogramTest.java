@@ -0,0 +1,91 @@
+package com.bivunote.bridge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsAreContiguous() {
+        int previous = -1;
+        for (long micros = 0; micros < 1 << 16; micros++) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            assertTrue(bucket == previous || bucket == previous + 1);
+            previous = bucket;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE / 1_000));
+    }
+
+    @Test
+    public void bucketValueStaysWithinRelativeError() {
+        for (long micros = 1; micros < 1L << 30; micros = micros * 3 + 1) {
+            long value = LatencyHistogram.valueOf(LatencyHistogram.bucketOf(micros));
+            assertTrue(micros + " -> " + value, Math.abs(value - micros) <= micros / 8.0 + 1);
+        }
+    }
+
+    @Test
+    public void percentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1ms ~ 100ms
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count);
+        assertEquals(100_000_000L, snapshot.maxNanos);
+        assertEquals(50.5, snapshot.getMeanMillis(), 0.001);
+        assertWithin(50_000_000L, snapshot.percentileNanos(0.5));
+        assertWithin(99_000_000L, snapshot.percentileNanos(0.99));
+        assertEquals(100_000_000L, snapshot.percentileNanos(1.0));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.percentileNanos(0.99));
+        assertEquals(0, snapshot.getMeanMillis(), 0);
+    }
+
+    @Test
+    public void concurrentRecordsAreNotLost() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(ThreadLocalRandom.current().nextLong(10_000_000L));
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, histogram.snapshot().count);
+    }
+
+    // 버킷 대표값의 상대 오차(12.5%) 이내
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(expected + " vs " + actual, Math.abs(actual - expected) <= expected / 8);
+    }
+}
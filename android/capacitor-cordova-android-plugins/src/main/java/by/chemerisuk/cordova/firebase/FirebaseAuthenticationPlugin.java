@@ -1,19 +1,20 @@
 package by.chemerisuk.cordova.firebase;
 
-import static com.google.android.gms.tasks.Tasks.await;
-
 import android.net.Uri;
+import android.os.SystemClock;
 import android.util.Log;
 
 import by.chemerisuk.cordova.support.CordovaMethod;
 import by.chemerisuk.cordova.support.ReflectiveCordovaPlugin;
 
-import com.google.firebase.auth.AuthCredential;
+import com.google.android.gms.tasks.SuccessContinuation;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FacebookAuthProvider;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.auth.FirebaseAuth.AuthStateListener;
-import com.google.firebase.auth.GetTokenResult;
 import com.google.firebase.auth.GoogleAuthProvider;
 import com.google.firebase.auth.PhoneAuthCredential;
 import com.google.firebase.auth.PhoneAuthOptions;
@@ -29,236 +30,289 @@ import org.apache.cordova.PluginResult;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 import androidx.annotation.NonNull;
 
 
-public class FirebaseAuthenticationPlugin extends ReflectiveCordovaPlugin implements AuthStateListener {
+public class FirebaseAuthenticationPlugin extends ReflectiveCordovaPlugin {
     private static final String TAG = "FirebaseAuthentication";
-
-    private FirebaseAuth firebaseAuth;
-    private CallbackContext authStateCallback;
+    // profile copy (email, phone number) written by an earlier version of this fork; only deleted now
+    private static final String STALE_LAST_USER_FILE = "firebase-auth-last-user.json";
+    // subscriber of setAuthStateChanged calls without an id (ids from www/ are never empty)
+    private static final String DEFAULT_SUBSCRIBER = "";
+
+    // FirebaseAuth.getInstance() is called only from this thread
+    private final ExecutorService authExecutor = Executors.newSingleThreadExecutor();
+    private final TaskCompletionSource<FirebaseAuth> authReady = new TaskCompletionSource<>();
+    private final AuthStateRegistry authStateRegistry = new AuthStateRegistry();
+    private volatile FirebaseAuth firebaseAuth;
+    private volatile IdTokenCache idTokenCache;
 
     @Override
     protected void pluginInitialize() {
         Log.d(TAG, "Starting Firebase Authentication plugin");
-        firebaseAuth = FirebaseAuth.getInstance();
+        final File staleLastUser = new File(cordova.getActivity().getFilesDir(), STALE_LAST_USER_FILE);
+        // restoring the signed in user reads from disk: keep it off the main thread while the bridge starts
+        authExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (staleLastUser.exists() && !staleLastUser.delete()) {
+                    Log.w(TAG, "Failed to delete " + staleLastUser);
+                }
+                try {
+                    initializeAuth();
+                } catch (RuntimeException e) {
+                    // e.g. FirebaseApp is not initialized: fail waiting calls instead of leaving them pending
+                    Log.e(TAG, "Failed to initialize FirebaseAuth", e);
+                    authReady.trySetException(e);
+                }
+            }
+        });
+    }
+
+    private void initializeAuth() {
+        long startedAt = SystemClock.elapsedRealtime();
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        idTokenCache = new IdTokenCache(auth);
+        firebaseAuth = auth;
+        authStateRegistry.attach(auth);
+        authReady.setResult(auth);
+        Log.d(TAG, "FirebaseAuth ready in " + (SystemClock.elapsedRealtime() - startedAt) + "ms");
+    }
+
+    /**
+     * Runs action with FirebaseAuth: directly when it is initialized, otherwise once it is.
+     */
+    private <T> Task<T> whenReady(SuccessContinuation<FirebaseAuth, T> action) {
+        FirebaseAuth auth = firebaseAuth;
+        if (auth == null) {
+            return authReady.getTask().onSuccessTask(action);
+        }
+        try {
+            return action.then(auth);
+        } catch (Exception e) {
+            return Tasks.forException(e);
+        }
     }
 
+    @Override
+    public void onPause(boolean multitasking) {
+        IdTokenCache cache = idTokenCache;
+        if (cache != null) {
+            cache.setPaused(true);
+        }
+    }
+
+    @Override
+    public void onResume(boolean multitasking) {
+        IdTokenCache cache = idTokenCache;
+        if (cache != null) {
+            cache.setPaused(false);
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        authExecutor.shutdown();
+        authStateRegistry.unsubscribe(null);
+        FirebaseAuth auth = firebaseAuth;
+        if (auth != null) {
+            idTokenCache.close();
+        }
+    }
+
+    /**
+     * args: disable, optional subscriber id. Without an id there is one shared subscriber that each
+     * call replaces, and disable removes every subscriber (what the single-callback version did).
+     */
     @CordovaMethod
-    private void setAuthStateChanged(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+    void setAuthStateChanged(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         boolean disable = args.getBoolean(0);
-        if (authStateCallback != null) {
-            authStateCallback = null;
-            firebaseAuth.removeAuthStateListener(this);
-        }
-        if (!disable) {
-            authStateCallback = callbackContext;
-            firebaseAuth.addAuthStateListener(this);
+        String subscriberId = args.isNull(1) ? null : args.getString(1);
+        if (disable) {
+            authStateRegistry.unsubscribe(subscriberId);
+        } else {
+            authStateRegistry.subscribe(subscriberId != null ? subscriberId : DEFAULT_SUBSCRIBER, callbackContext);
         }
     }
 
+    /**
+     * Waits for the background FirebaseAuth initialization when called right after startup.
+     */
     @CordovaMethod
-    private void getCurrentUser(CallbackContext callbackContext) {
-        PluginResult pluginResult = getProfileResult(firebaseAuth.getCurrentUser());
-        callbackContext.sendPluginResult(pluginResult);
+    Task<PluginResult> getCurrentUser(CallbackContext callbackContext) {
+        return whenReady(auth -> Tasks.forResult(UserProfiles.getProfileResult(auth.getCurrentUser())));
     }
 
     @CordovaMethod
-    private void getIdToken(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<String> getIdToken(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         boolean forceRefresh = args.getBoolean(0);
-        FirebaseUser user = firebaseAuth.getCurrentUser();
-        if (user == null) {
-            callbackContext.error("User is not authorized");
-        } else {
-            GetTokenResult result = await(user.getIdToken(forceRefresh));
-            callbackContext.success(result.getToken());
-        }
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return idTokenCache.getToken(user, forceRefresh);
+        });
     }
 
     @CordovaMethod
-    private void createUserWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> createUserWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String email = args.getString(0);
         String password = args.getString(1);
-        await(firebaseAuth.createUserWithEmailAndPassword(email, password));
-        callbackContext.success();
+        return whenReady(auth -> auth.createUserWithEmailAndPassword(email, password));
     }
 
     @CordovaMethod
-    private void sendEmailVerification(CallbackContext callbackContext) throws Exception {
-        FirebaseUser user = firebaseAuth.getCurrentUser();
-        if (user == null) {
-            callbackContext.error("User is not authorized");
-        } else {
-            await(user.sendEmailVerification());
-            callbackContext.success();
-        }
+    Task<Void> sendEmailVerification(CallbackContext callbackContext) {
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return user.sendEmailVerification();
+        });
     }
 
     @CordovaMethod
-    private void sendPasswordResetEmail(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<Void> sendPasswordResetEmail(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String email = args.getString(0);
-        await(firebaseAuth.sendPasswordResetEmail(email));
-        callbackContext.success();
+        return whenReady(auth -> auth.sendPasswordResetEmail(email));
     }
 
     @CordovaMethod
-    private void signInAnonymously(CallbackContext callbackContext) throws Exception {
-        await(firebaseAuth.signInAnonymously());
-        callbackContext.success();
+    Task<AuthResult> signInAnonymously(CallbackContext callbackContext) {
+        return whenReady(auth -> auth.signInAnonymously());
     }
 
     @CordovaMethod
-    private void signInWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String email = args.getString(0);
         String password = args.getString(1);
-        await(firebaseAuth.signInWithEmailAndPassword(email, password));
-        callbackContext.success();
+        return whenReady(auth -> auth.signInWithEmailAndPassword(email, password));
     }
 
     @CordovaMethod
-    private void signInWithGoogle(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithGoogle(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String idToken = args.getString(0);
         String accessToken = args.getString(1);
-        signInWithCredential(GoogleAuthProvider.getCredential(idToken, accessToken), callbackContext);
+        return whenReady(auth -> auth.signInWithCredential(GoogleAuthProvider.getCredential(idToken, accessToken)));
     }
 
     @CordovaMethod
-    private void signInWithFacebook(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithFacebook(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String accessToken = args.getString(0);
-        signInWithCredential(FacebookAuthProvider.getCredential(accessToken), callbackContext);
+        return whenReady(auth -> auth.signInWithCredential(FacebookAuthProvider.getCredential(accessToken)));
     }
 
     @CordovaMethod
-    private void signInWithTwitter(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithTwitter(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String token = args.getString(0);
         String secret = args.getString(1);
-        signInWithCredential(TwitterAuthProvider.getCredential(token, secret), callbackContext);
+        return whenReady(auth -> auth.signInWithCredential(TwitterAuthProvider.getCredential(token, secret)));
     }
 
     @CordovaMethod
-    private void signInWithVerificationId(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithVerificationId(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String verificationId = args.getString(0);
         String code = args.getString(1);
-        await(firebaseAuth.signInWithCredential(PhoneAuthProvider.getCredential(verificationId, code)));
-        callbackContext.success();
+        return whenReady(auth -> auth.signInWithCredential(PhoneAuthProvider.getCredential(verificationId, code)));
     }
 
     @CordovaMethod
-    private void verifyPhoneNumber(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+    void verifyPhoneNumber(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String phoneNumber = args.getString(0);
         long timeoutMillis = args.optLong(1);
-        PhoneAuthOptions.Builder options = PhoneAuthOptions.newBuilder(firebaseAuth)
-                .setActivity(cordova.getActivity())
-                .setPhoneNumber(phoneNumber)
-                .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
-                    @Override
-                    public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
-                        FirebaseUser user = firebaseAuth.getCurrentUser();
-                        if (user != null) {
-                            user.updatePhoneNumber(credential);
+        // results come through the verification callbacks, not through a Task
+        authReady.getTask().addOnSuccessListener(auth -> {
+            PhoneAuthOptions.Builder options = PhoneAuthOptions.newBuilder(auth)
+                    .setActivity(cordova.getActivity())
+                    .setPhoneNumber(phoneNumber)
+                    .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
+                        @Override
+                        public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
+                            FirebaseUser user = auth.getCurrentUser();
+                            if (user != null) {
+                                user.updatePhoneNumber(credential);
+                            }
                         }
-                    }
 
-                    @Override
-                    public void onCodeSent(@NonNull String verificationId, @NonNull PhoneAuthProvider.ForceResendingToken forceResendingToken) {
-                        callbackContext.success(verificationId);
-                    }
+                        @Override
+                        public void onCodeSent(@NonNull String verificationId, @NonNull PhoneAuthProvider.ForceResendingToken forceResendingToken) {
+                            callbackContext.success(verificationId);
+                        }
 
-                    @Override
-                    public void onVerificationFailed(@NonNull FirebaseException e) {
-                        callbackContext.error(e.getMessage());
-                    }
-                });
+                        @Override
+                        public void onVerificationFailed(@NonNull FirebaseException e) {
+                            callbackContext.error(e.getMessage());
+                        }
+                    });
 
-        if (timeoutMillis > 0) {
-            options.setTimeout(timeoutMillis, MILLISECONDS);
-        }
-        PhoneAuthProvider.verifyPhoneNumber(options.build());
+            if (timeoutMillis > 0) {
+                options.setTimeout(timeoutMillis, MILLISECONDS);
+            }
+            PhoneAuthProvider.verifyPhoneNumber(options.build());
+        }).addOnFailureListener(e -> callbackContext.error(e.getMessage()));
     }
 
     @CordovaMethod
-    private void signInWithCustomToken(CordovaArgs args, CallbackContext callbackContext) throws Exception {
+    Task<AuthResult> signInWithCustomToken(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String idToken = args.getString(0);
-        await(firebaseAuth.signInWithCustomToken(idToken));
-        callbackContext.success();
+        return whenReady(auth -> auth.signInWithCustomToken(idToken));
     }
 
     @CordovaMethod
-    private void signOut(CallbackContext callbackContext) {
-        firebaseAuth.signOut();
-        callbackContext.success();
+    Task<Void> signOut(CallbackContext callbackContext) {
+        return whenReady(auth -> {
+            auth.signOut();
+            return Tasks.forResult(null);
+        });
     }
 
     @CordovaMethod
-    private void setLanguageCode(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+    Task<Void> setLanguageCode(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String languageCode = args.getString(0);
-        if (languageCode == null) {
-            firebaseAuth.useAppLanguage();
-        } else {
-            firebaseAuth.setLanguageCode(languageCode);
-        }
-        callbackContext.success();
+        return whenReady(auth -> {
+            if (languageCode == null) {
+                auth.useAppLanguage();
+            } else {
+                auth.setLanguageCode(languageCode);
+            }
+            return Tasks.forResult(null);
+        });
     }
 
     @CordovaMethod
-    private void updateProfile(CordovaArgs args, CallbackContext callbackContext) throws Exception {
-        FirebaseUser user = firebaseAuth.getCurrentUser();
-        if (user == null) {
-            callbackContext.error("User is not authorized");
-        } else {
-            JSONObject params = args.getJSONObject(0);
-            UserProfileChangeRequest request = createProfileChangeRequest(params);
-            await(user.updateProfile(request));
-            callbackContext.success();
-        }
+    Task<Void> updateProfile(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        JSONObject params = args.getJSONObject(0);
+        UserProfileChangeRequest request = createProfileChangeRequest(params);
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return user.updateProfile(request);
+        });
     }
 
     @CordovaMethod
-    private void useEmulator(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+    Task<Void> useEmulator(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
         String host = args.getString(0);
         int port = args.getInt(1);
-        firebaseAuth.useEmulator(host, port);
-        callbackContext.success();
+        return whenReady(auth -> {
+            auth.useEmulator(host, port);
+            return Tasks.forResult(null);
+        });
     }
 
-    private void signInWithCredential(AuthCredential credential, CallbackContext callbackContext) throws Exception {
-        await(firebaseAuth.signInWithCredential(credential));
-        callbackContext.success();
-    }
-
-    @Override
-    public void onAuthStateChanged(@NonNull FirebaseAuth auth) {
-        if (authStateCallback != null) {
-            PluginResult pluginResult = getProfileResult(firebaseAuth.getCurrentUser());
-            pluginResult.setKeepCallback(true);
-            authStateCallback.sendPluginResult(pluginResult);
-        }
-    }
-
-    private static PluginResult getProfileResult(FirebaseUser user) {
-        if (user == null) {
-            return new PluginResult(PluginResult.Status.OK, (String)null);
-        }
-
-        JSONObject result = new JSONObject();
-
-        try {
-            result.put("uid", user.getUid());
-            result.put("displayName", user.getDisplayName());
-            result.put("email", user.getEmail());
-            result.put("phoneNumber", user.getPhoneNumber());
-            result.put("photoURL", user.getPhotoUrl());
-            result.put("providerId", user.getProviderId());
-            result.put("emailVerified", user.isEmailVerified());
-
-            return new PluginResult(PluginResult.Status.OK, result);
-        } catch (JSONException e) {
-            Log.e(TAG, "Fail to process getProfileData", e);
-
-            return new PluginResult(PluginResult.Status.ERROR, e.getMessage());
-        }
+    private static <T> Task<T> notAuthorized() {
+        return Tasks.forException(new IllegalStateException("User is not authorized"));
     }
 
     private static UserProfileChangeRequest createProfileChangeRequest(JSONObject jsonObject) throws JSONException {
@@ -0,0 +1,178 @@
+package by.chemerisuk.cordova.firebase;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.SuccessContinuation;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.GetTokenResult;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the current user's ID token in memory so getIdToken(false) does not go through Firebase
+ * for every request. The token is refreshed on a timer shortly before it expires, and concurrent
+ * fetches for the same user share one Task.
+ */
+final class IdTokenCache implements FirebaseAuth.IdTokenListener {
+    private static final String TAG = "FirebaseAuthentication";
+    // proactive refresh this long before expiry
+    private static final long REFRESH_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // cached token is not handed out when it expires sooner than this
+    private static final long MIN_VALIDITY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final FirebaseAuth firebaseAuth;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private String uid;
+    private String token;
+    private long expiresAtMillis;
+    // bumped on sign out / user change so late results of an old fetch are dropped
+    private int generation;
+    private Task<String> pendingFetch;
+    private boolean pendingFetchForced;
+    private ScheduledFuture<?> scheduledRefresh;
+    private boolean paused;
+
+    IdTokenCache(FirebaseAuth firebaseAuth) {
+        this.firebaseAuth = firebaseAuth;
+        firebaseAuth.addIdTokenListener(this);
+    }
+
+    synchronized Task<String> getToken(FirebaseUser user, boolean forceRefresh) {
+        String userId = user.getUid();
+        if (!forceRefresh && token != null && userId.equals(uid)
+                && System.currentTimeMillis() < expiresAtMillis - MIN_VALIDITY_MILLIS) {
+            return Tasks.forResult(token);
+        }
+        if (pendingFetch != null && userId.equals(uid) && (pendingFetchForced || !forceRefresh)) {
+            return pendingFetch;
+        }
+        return fetch(user, forceRefresh);
+    }
+
+    // caller holds the lock
+    private Task<String> fetch(FirebaseUser user, boolean forceRefresh) {
+        if (!user.getUid().equals(uid)) {
+            clear();
+            uid = user.getUid();
+        }
+        final int fetchGeneration = generation;
+        final Task<String> task = user.getIdToken(forceRefresh).onSuccessTask(executor,
+                new SuccessContinuation<GetTokenResult, String>() {
+                    @NonNull
+                    @Override
+                    public Task<String> then(GetTokenResult result) {
+                        store(fetchGeneration, result);
+                        return Tasks.forResult(result.getToken());
+                    }
+                });
+        task.addOnCompleteListener(executor, new OnCompleteListener<String>() {
+            @Override
+            public void onComplete(@NonNull Task<String> completed) {
+                onFetchCompleted(fetchGeneration, task);
+            }
+        });
+        pendingFetch = task;
+        pendingFetchForced = forceRefresh;
+        return task;
+    }
+
+    private synchronized void store(int fetchGeneration, GetTokenResult result) {
+        if (fetchGeneration != generation) {
+            return;
+        }
+        token = result.getToken();
+        // expiration timestamp is in seconds
+        expiresAtMillis = TimeUnit.SECONDS.toMillis(result.getExpirationTimestamp());
+        scheduleRefresh(expiresAtMillis - REFRESH_AHEAD_MILLIS - System.currentTimeMillis());
+    }
+
+    private synchronized void onFetchCompleted(int fetchGeneration, Task<String> task) {
+        if (pendingFetch == task) {
+            pendingFetch = null;
+        }
+        if (fetchGeneration == generation && !task.isSuccessful()) {
+            Log.w(TAG, "Failed to fetch ID token", task.getException());
+            // retry in the background only while the cached token is still usable
+            if (token != null && System.currentTimeMillis() + RETRY_DELAY_MILLIS < expiresAtMillis) {
+                scheduleRefresh(RETRY_DELAY_MILLIS);
+            }
+        }
+    }
+
+    // caller holds the lock
+    private void scheduleRefresh(long delayMillis) {
+        cancelScheduledRefresh();
+        if (paused || executor.isShutdown()) {
+            return;
+        }
+        scheduledRefresh = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                refreshInBackground();
+            }
+        }, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void refreshInBackground() {
+        scheduledRefresh = null;
+        FirebaseUser user = firebaseAuth.getCurrentUser();
+        if (user != null && user.getUid().equals(uid) && pendingFetch == null) {
+            fetch(user, true);
+        }
+    }
+
+    /**
+     * No timer while the app is in background; on resume refresh right away if the token is due.
+     */
+    synchronized void setPaused(boolean paused) {
+        this.paused = paused;
+        if (paused) {
+            cancelScheduledRefresh();
+        } else if (token != null) {
+            scheduleRefresh(expiresAtMillis - REFRESH_AHEAD_MILLIS - System.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public synchronized void onIdTokenChanged(@NonNull FirebaseAuth auth) {
+        FirebaseUser user = auth.getCurrentUser();
+        if (uid != null && (user == null || !uid.equals(user.getUid()))) {
+            clear();
+        }
+    }
+
+    // caller holds the lock
+    private void clear() {
+        generation++;
+        uid = null;
+        token = null;
+        expiresAtMillis = 0;
+        pendingFetch = null;
+        cancelScheduledRefresh();
+    }
+
+    // caller holds the lock
+    private void cancelScheduledRefresh() {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
+    synchronized void close() {
+        firebaseAuth.removeIdTokenListener(this);
+        clear();
+        executor.shutdownNow();
+    }
+}
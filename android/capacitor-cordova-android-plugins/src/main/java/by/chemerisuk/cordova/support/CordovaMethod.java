@@ -7,6 +7,13 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * Marks a Cordova action. Methods are usually void and complete the {@code CallbackContext} themselves.
+ * A method may instead return a {@code Task<T>} or {@code CompletionStage<T>} (e.g. {@code CompletableFuture<T>}):
+ * the call is completed when it finishes, with T sent as String/JSONObject/JSONArray/PluginResult
+ * (other values complete without payload) and failures sent as errors. Returning null means the method
+ * completed the callback itself.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 @Keep
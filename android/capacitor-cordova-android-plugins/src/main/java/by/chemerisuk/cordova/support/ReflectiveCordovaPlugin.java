@@ -1,6 +1,10 @@
 package by.chemerisuk.cordova.support;
 
-import android.util.Pair;
+import com.bivunote.bridge.BridgeTracer;
+import com.bivunote.bridge.CallOutcome;
+import com.bivunote.bridge.ExecutorStats;
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaArgs;
@@ -8,19 +12,280 @@ import org.apache.cordova.CordovaInterface;
 import org.apache.cordova.CordovaPlugin;
 import org.apache.cordova.CordovaWebView;
 import org.apache.cordova.LOG;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONObject;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 
 public class ReflectiveCordovaPlugin extends CordovaPlugin {
     private static final String TAG = "ReflectiveCordovaPlugin";
-    private Map<String, Pair<Method, ExecutionThread>> commandFactories;
+    // generated dispatchers are stateless, so one instance per plugin class is enough
+    private static final Map<Class<?>, CordovaDispatcher<?>> DISPATCHERS = new ConcurrentHashMap<>();
+    // used when no dispatcher was generated: getExecutionThread() returning null sends every action
+    // down the reflective path, so dispatch() is never reached
+    private static final CordovaDispatcher<ReflectiveCordovaPlugin> NO_DISPATCHER =
+            new CordovaDispatcher<ReflectiveCordovaPlugin>() {
+                @Override
+                public ExecutionThread getExecutionThread(String action) {
+                    return null;
+                }
+
+                @Override
+                public Object dispatch(ReflectiveCordovaPlugin plugin, String action,
+                                       CordovaArgs args, CallbackContext callbackContext) {
+                    throw new IllegalStateException("No generated dispatcher for " + action);
+                }
+            };
+    // completes callbacks of Task/CompletionStage results; only sends plugin results, so one thread is enough
+    private static final Executor RESULT_EXECUTOR = createResultExecutor();
+
+    private CordovaDispatcher<ReflectiveCordovaPlugin> dispatcher;
+    private volatile Map<String, ReflectiveCommand> reflectiveCommands;
+    private BoundedExecutor serialExecutor;
+    private BoundedExecutor workerExecutor;
 
     public final void initialize(CordovaInterface cordova, CordovaWebView webView) {
-        commandFactories = new HashMap<>();
+        dispatcher = findDispatcher(getClass());
+        if (dispatcher == NO_DISPATCHER) {
+            // no generated code (annotation processor is not configured): scan eagerly as before
+            reflectiveCommands = scanCordovaMethods();
+        }
+    }
+
+    @Override
+    public final boolean execute(String action, CordovaArgs args, CallbackContext originalContext) {
+        Runnable command;
+        TracingCallbackContext callbackContext;
+        ExecutionThread executionThread = dispatcher.getExecutionThread(action);
+        if (executionThread != null) {
+            callbackContext = trace(action, originalContext);
+            command = createCommand(action, args, callbackContext);
+        } else {
+            // private methods can't be called from generated code
+            ReflectiveCommand reflectiveCommand = getReflectiveCommands().get(action);
+            if (reflectiveCommand == null) {
+                return false;
+            }
+            executionThread = reflectiveCommand.executionThread;
+            callbackContext = trace(action, originalContext);
+            command = createCommand(reflectiveCommand, args, callbackContext);
+        }
+
+        if (executionThread == ExecutionThread.WORKER) {
+            cordova.getThreadPool().execute(command);
+        } else if (executionThread == ExecutionThread.SERIAL || executionThread == ExecutionThread.BOUNDED_WORKER) {
+            if (!getBoundedExecutor(executionThread).execute(command)) {
+                LOG.w(TAG, "Rejected " + getClass().getSimpleName() + "#" + action + ": " + executionThread + " queue is full");
+                callbackContext.error(executionThread + " queue is full");
+            }
+        } else if (executionThread == ExecutionThread.UI) {
+            cordova.getActivity().runOnUiThread(command);
+        } else {
+            command.run();
+        }
+        return true;
+    }
+
+    // queue/run/total latency of every call goes to the shared BridgeTracer
+    private TracingCallbackContext trace(String action, CallbackContext callbackContext) {
+        return new TracingCallbackContext(callbackContext, webView,
+                BridgeTracer.get().begin(getClass().getSimpleName(), action, callbackContext.getCallbackId()));
+    }
+
+    // always create a new command to avoid concurrency conflicts
+    private Runnable createCommand(final String action, final CordovaArgs args, final TracingCallbackContext callbackContext) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                callbackContext.trace.started();
+                try {
+                    Object result = dispatcher.dispatch(ReflectiveCordovaPlugin.this, action, args, callbackContext);
+                    if (result != null) {
+                        sendResult(action, result, callbackContext);
+                    }
+                } catch (Throwable e) {
+                    handleUncaughtException(action, e, callbackContext);
+                }
+            }
+        };
+    }
+
+    private Runnable createCommand(final ReflectiveCommand command, final CordovaArgs args, final TracingCallbackContext callbackContext) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                callbackContext.trace.started();
+                try {
+                    Object result;
+                    if (command.withArgs) {
+                        result = command.method.invoke(ReflectiveCordovaPlugin.this, args, callbackContext);
+                    } else {
+                        result = command.method.invoke(ReflectiveCordovaPlugin.this, callbackContext);
+                    }
+                    if (result != null) {
+                        sendResult(command.method.getName(), result, callbackContext);
+                    }
+                } catch (Throwable e) {
+                    if (e instanceof InvocationTargetException) {
+                        e = ((InvocationTargetException)e).getTargetException();
+                    }
+                    handleUncaughtException(command.method.getName(), e, callbackContext);
+                }
+            }
+        };
+    }
+
+    /**
+     * Sends the value returned by a {@link CordovaMethod}. {@link Task} and {@link CompletionStage}
+     * results are sent from a listener when they complete, so no thread waits for them.
+     */
+    @SuppressWarnings("unchecked")
+    private void sendResult(final String name, Object result, final TracingCallbackContext callbackContext) {
+        if (result instanceof Task) {
+            ((Task<Object>) result).addOnCompleteListener(RESULT_EXECUTOR, new OnCompleteListener<Object>() {
+                @Override
+                public void onComplete(Task<Object> task) {
+                    if (task.isSuccessful()) {
+                        sendValue(task.getResult(), callbackContext);
+                    } else if (task.isCanceled()) {
+                        callbackContext.error("Cancelled");
+                    } else {
+                        handleAsyncException(name, task.getException(), callbackContext);
+                    }
+                }
+            });
+        } else if (result instanceof CompletionStage) {
+            ((CompletionStage<Object>) result).whenCompleteAsync(new BiConsumer<Object, Throwable>() {
+                @Override
+                public void accept(Object value, Throwable e) {
+                    if (e == null) {
+                        sendValue(value, callbackContext);
+                    } else {
+                        handleAsyncException(name, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e, callbackContext);
+                    }
+                }
+            }, RESULT_EXECUTOR);
+        } else {
+            sendValue(result, callbackContext);
+        }
+    }
+
+    // values without a matching PluginResult type complete the call without payload
+    private static void sendValue(Object value, CallbackContext callbackContext) {
+        if (value instanceof PluginResult) {
+            callbackContext.sendPluginResult((PluginResult) value);
+        } else if (value instanceof String) {
+            callbackContext.success((String) value);
+        } else if (value instanceof JSONObject) {
+            callbackContext.success((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            callbackContext.success((JSONArray) value);
+        } else {
+            callbackContext.success();
+        }
+    }
+
+    private void handleAsyncException(String name, Throwable e, TracingCallbackContext callbackContext) {
+        LOG.w(TAG, "Failed " + getClass().getSimpleName() + "#" + name + ": " + e);
+        callbackContext.trace.finish(CallOutcome.ERROR);
+        callbackContext.error(e.getMessage());
+    }
+
+    private void handleUncaughtException(String name, Throwable e, TracingCallbackContext callbackContext) {
+        LOG.e(TAG, "Uncaught exception at " + getClass().getSimpleName() + "#" + name, e);
+        callbackContext.trace.finish(CallOutcome.ERROR);
+        callbackContext.error(e.getMessage());
+    }
+
+    /**
+     * Limits for SERIAL and BOUNDED_WORKER actions. Called once per mode, when the first
+     * such action is executed. Pool size is ignored for SERIAL.
+     */
+    protected WorkerPoolConfig getWorkerPoolConfig(ExecutionThread executionThread) {
+        return executionThread == ExecutionThread.SERIAL ? WorkerPoolConfig.SERIAL_DEFAULT : WorkerPoolConfig.WORKER_DEFAULT;
+    }
+
+    /**
+     * @return queue wait and run times of SERIAL and BOUNDED_WORKER executors created so far
+     * (also available for all plugins from {@link BridgeTracer#executorStats()})
+     */
+    public synchronized List<ExecutorStats> getExecutorStats() {
+        List<ExecutorStats> stats = new ArrayList<>(2);
+        if (serialExecutor != null) {
+            stats.add(serialExecutor.getStats());
+        }
+        if (workerExecutor != null) {
+            stats.add(workerExecutor.getStats());
+        }
+        return stats;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        synchronized (this) {
+            for (ExecutorStats stats : getExecutorStats()) {
+                LOG.d(TAG, stats.toString());
+            }
+            if (serialExecutor != null) {
+                serialExecutor.shutdown();
+                serialExecutor = null;
+            }
+            if (workerExecutor != null) {
+                workerExecutor.shutdown();
+                workerExecutor = null;
+            }
+        }
+    }
+
+    private synchronized BoundedExecutor getBoundedExecutor(ExecutionThread executionThread) {
+        String name = getClass().getSimpleName();
+        if (executionThread == ExecutionThread.SERIAL) {
+            if (serialExecutor == null) {
+                serialExecutor = new BoundedExecutor(name + "-serial", 1, getWorkerPoolConfig(executionThread),
+                        BridgeTracer.get());
+            }
+            return serialExecutor;
+        }
+        if (workerExecutor == null) {
+            WorkerPoolConfig config = getWorkerPoolConfig(executionThread);
+            workerExecutor = new BoundedExecutor(name + "-worker", config.poolSize, config, BridgeTracer.get());
+        }
+        return workerExecutor;
+    }
+
+    private Map<String, ReflectiveCommand> getReflectiveCommands() {
+        Map<String, ReflectiveCommand> commands = reflectiveCommands;
+        if (commands == null) {
+            synchronized (this) {
+                commands = reflectiveCommands;
+                if (commands == null) {
+                    commands = scanCordovaMethods();
+                    reflectiveCommands = commands;
+                }
+            }
+        }
+        return commands;
+    }
+
+    private Map<String, ReflectiveCommand> scanCordovaMethods() {
+        Map<String, ReflectiveCommand> commands = new HashMap<>();
         for (Method method : getClass().getDeclaredMethods()) {
             CordovaMethod cordovaMethod = method.getAnnotation(CordovaMethod.class);
             if (cordovaMethod == null) continue;
@@ -41,49 +306,52 @@ public class ReflectiveCordovaPlugin extends CordovaPlugin {
                 throw new RuntimeException("Cordova method " +
                         methodAction + " does not have valid parameters");
             }
-            commandFactories.put(methodAction, new Pair<>(method, cordovaMethod.value()));
+            commands.put(methodAction, new ReflectiveCommand(method, cordovaMethod.value(), paramTypes.length == 2));
             // suppress Java language access checks to improve performance of future calls
             method.setAccessible(true);
         }
+        return commands;
     }
 
-    @Override
-    public final boolean execute(String action, CordovaArgs args, CallbackContext callbackContext) {
-        Pair<Method, ExecutionThread> pair = commandFactories.get(action);
-        if (pair != null) {
-            // always create a new command to avoid concurrency conflicts
-            Runnable command = createCommand(pair.first, args, callbackContext);
-            ExecutionThread executionThread = pair.second;
-            if (executionThread == ExecutionThread.WORKER) {
-                cordova.getThreadPool().execute(command);
-            } else if (executionThread == ExecutionThread.UI) {
-                cordova.getActivity().runOnUiThread(command);
-            } else {
-                command.run();
+    @SuppressWarnings("unchecked")
+    private static CordovaDispatcher<ReflectiveCordovaPlugin> findDispatcher(Class<?> pluginClass) {
+        CordovaDispatcher<?> dispatcher = DISPATCHERS.get(pluginClass);
+        if (dispatcher == null) {
+            try {
+                Class<?> dispatcherClass = Class.forName(pluginClass.getName() + CordovaDispatcher.CLASS_NAME_SUFFIX,
+                        true, pluginClass.getClassLoader());
+                dispatcher = (CordovaDispatcher<?>) dispatcherClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                dispatcher = NO_DISPATCHER;
             }
-            return true;
+            DISPATCHERS.put(pluginClass, dispatcher);
         }
-        return false;
+        return (CordovaDispatcher<ReflectiveCordovaPlugin>) dispatcher;
     }
 
-    private Runnable createCommand(final Method method, final CordovaArgs args, final CallbackContext callbackContext) {
-        return new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    if (CordovaArgs.class.isAssignableFrom(method.getParameterTypes()[0])) {
-                        method.invoke(ReflectiveCordovaPlugin.this, args, callbackContext);
-                    } else {
-                        method.invoke(ReflectiveCordovaPlugin.this, callbackContext);
-                    }
-                } catch (Throwable e) {
-                    if (e instanceof InvocationTargetException) {
-                        e = ((InvocationTargetException)e).getTargetException();
+    private static Executor createResultExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "CordovaResult");
+                        thread.setDaemon(true);
+                        return thread;
                     }
-                    LOG.e(TAG, "Uncaught exception at " + getClass().getSimpleName() + "#" + method.getName(), e);
-                    callbackContext.error(e.getMessage());
-                }
-            }
-        };
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class ReflectiveCommand {
+        final Method method;
+        final ExecutionThread executionThread;
+        final boolean withArgs;
+
+        ReflectiveCommand(Method method, ExecutionThread executionThread, boolean withArgs) {
+            this.method = method;
+            this.executionThread = executionThread;
+            this.withArgs = withArgs;
+        }
     }
 }
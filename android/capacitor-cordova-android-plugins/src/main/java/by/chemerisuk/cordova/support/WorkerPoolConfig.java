@@ -0,0 +1,21 @@
+package by.chemerisuk.cordova.support;
+
+public final class WorkerPoolConfig {
+    public static final WorkerPoolConfig SERIAL_DEFAULT = new WorkerPoolConfig(1, 64);
+    public static final WorkerPoolConfig WORKER_DEFAULT = new WorkerPoolConfig(2, 64);
+
+    final int poolSize;
+    final int queueCapacity;
+
+    /**
+     * @param poolSize      number of threads (ignored for SERIAL, which always uses one)
+     * @param queueCapacity calls waiting for a thread; further calls are rejected with an error
+     */
+    public WorkerPoolConfig(int poolSize, int queueCapacity) {
+        if (poolSize < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Invalid pool size or queue capacity");
+        }
+        this.poolSize = poolSize;
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,244 @@
+package by.chemerisuk.cordova.support.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates {@code <PluginClass>_CordovaDispatcher} for every class with {@code @CordovaMethod} methods.
+ * The dispatcher switches on the action name and calls the methods directly, so
+ * {@code ReflectiveCordovaPlugin} does not need {@code getDeclaredMethods()} or {@code Method.invoke}.
+ * Private methods can't be called from another class and stay on the reflective path.
+ * Each dispatcher is generated from its plugin class alone, so the processor is registered with
+ * Gradle as isolating (META-INF/gradle/incremental.annotation.processors).
+ */
+@SupportedAnnotationTypes(CordovaMethodProcessor.CORDOVA_METHOD)
+public final class CordovaMethodProcessor extends AbstractProcessor {
+    static final String SUPPORT_PACKAGE = "by.chemerisuk.cordova.support";
+    static final String CORDOVA_METHOD = SUPPORT_PACKAGE + ".CordovaMethod";
+    private static final String DISPATCHER_SUFFIX = "_CordovaDispatcher";
+    private static final String CALLBACK_CONTEXT = "org.apache.cordova.CallbackContext";
+    private static final String CORDOVA_ARGS = "org.apache.cordova.CordovaArgs";
+    private static final String DEFAULT_EXECUTION_THREAD = "MAIN";
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement cordovaMethod = elements.getTypeElement(CORDOVA_METHOD);
+        if (cordovaMethod == null) {
+            return false;
+        }
+
+        Map<TypeElement, List<Action>> actionsByPlugin = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(cordovaMethod)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            ExecutableElement method = (ExecutableElement) element;
+            TypeElement plugin = (TypeElement) method.getEnclosingElement();
+            List<Action> actions = actionsByPlugin.get(plugin);
+            if (actions == null) {
+                actions = new ArrayList<>();
+                actionsByPlugin.put(plugin, actions);
+            }
+            Action action = toAction(method, cordovaMethod);
+            if (action != null) {
+                actions.add(action);
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<Action>> entry : actionsByPlugin.entrySet()) {
+            TypeElement plugin = entry.getKey();
+            if (plugin.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.WARNING,
+                        "Private plugin class is dispatched reflectively", plugin);
+                continue;
+            }
+            List<Action> actions = new ArrayList<>();
+            Set<String> names = new HashSet<>();
+            for (Action action : entry.getValue()) {
+                if (!names.add(action.name)) {
+                    messager.printMessage(Diagnostic.Kind.ERROR,
+                            "Duplicate Cordova action " + action.name, action.method);
+                } else if (action.method.getModifiers().contains(Modifier.PRIVATE)) {
+                    messager.printMessage(Diagnostic.Kind.WARNING, "Cordova method " + action.name
+                            + " is private and will be dispatched reflectively", action.method);
+                } else {
+                    actions.add(action);
+                }
+            }
+            if (actions.isEmpty()) {
+                continue;
+            }
+            try {
+                writeDispatcher(plugin, actions);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Failed to generate Cordova dispatcher: " + e.getMessage(), plugin);
+            }
+        }
+        return true;
+    }
+
+    private Action toAction(ExecutableElement method, TypeElement cordovaMethod) {
+        String name = method.getSimpleName().toString();
+        String executionThread = DEFAULT_EXECUTION_THREAD;
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            if (!types.isSameType(mirror.getAnnotationType(), cordovaMethod.asType())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+                String key = value.getKey().getSimpleName().toString();
+                if (key.equals("action")) {
+                    String action = (String) value.getValue().getValue();
+                    if (!action.isEmpty()) {
+                        name = action;
+                    }
+                } else if (key.equals("value")) {
+                    executionThread = ((VariableElement) value.getValue().getValue()).getSimpleName().toString();
+                }
+            }
+        }
+
+        List<? extends VariableElement> params = method.getParameters();
+        boolean withArgs;
+        if (params.size() == 1 && isType(params.get(0), CALLBACK_CONTEXT)) {
+            withArgs = false;
+        } else if (params.size() == 2 && isType(params.get(0), CORDOVA_ARGS) && isType(params.get(1), CALLBACK_CONTEXT)) {
+            withArgs = true;
+        } else {
+            messager.printMessage(Diagnostic.Kind.ERROR,
+                    "Cordova method " + name + " does not have valid parameters", method);
+            return null;
+        }
+        boolean returnsValue = method.getReturnType().getKind() != TypeKind.VOID;
+        return new Action(name, method, executionThread, withArgs, returnsValue);
+    }
+
+    private boolean isType(VariableElement param, String className) {
+        return types.erasure(param.asType()).toString().equals(className);
+    }
+
+    private void writeDispatcher(TypeElement plugin, List<Action> actions) throws IOException {
+        PackageElement pkg = elements.getPackageOf(plugin);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(plugin).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                + DISPATCHER_SUFFIX;
+        String pluginType = types.erasure(plugin.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import ").append(SUPPORT_PACKAGE).append(".CordovaDispatcher;\n")
+                .append("import ").append(SUPPORT_PACKAGE).append(".ExecutionThread;\n")
+                .append("import ").append(CALLBACK_CONTEXT).append(";\n")
+                .append("import ").append(CORDOVA_ARGS).append(";\n\n")
+                .append("// Generated by ").append(CordovaMethodProcessor.class.getSimpleName())
+                .append(" from ").append(pluginType).append(". Do not edit.\n")
+                .append("public final class ").append(simpleName)
+                .append(" implements CordovaDispatcher<").append(pluginType).append("> {\n\n");
+
+        source.append("    @Override\n")
+                .append("    public ExecutionThread getExecutionThread(String action) {\n")
+                .append("        switch (action) {\n");
+        for (Action action : actions) {
+            source.append("            case ").append(elements.getConstantExpression(action.name)).append(":\n")
+                    .append("                return ExecutionThread.").append(action.executionThread).append(";\n");
+        }
+        source.append("            default:\n")
+                .append("                return null;\n")
+                .append("        }\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public Object dispatch(").append(pluginType).append(" plugin, String action, ")
+                .append("CordovaArgs args, CallbackContext callbackContext) throws Exception {\n")
+                .append("        switch (action) {\n");
+        for (Action action : actions) {
+            String call = "plugin." + action.method.getSimpleName()
+                    + (action.withArgs ? "(args, callbackContext)" : "(callbackContext)");
+            source.append("            case ").append(elements.getConstantExpression(action.name)).append(":\n");
+            if (action.returnsValue) {
+                source.append("                return ").append(call).append(";\n");
+            } else {
+                source.append("                ").append(call).append(";\n")
+                        .append("                return null;\n");
+            }
+        }
+        source.append("            default:\n")
+                .append("                throw new IllegalArgumentException(\"Unknown action \" + action);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = filer.createSourceFile(qualifiedName, plugin);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private static final class Action {
+        final String name;
+        final ExecutableElement method;
+        final String executionThread;
+        final boolean withArgs;
+        final boolean returnsValue;
+
+        Action(String name, ExecutableElement method, String executionThread, boolean withArgs, boolean returnsValue) {
+            this.name = name;
+            this.method = method;
+            this.executionThread = executionThread;
+            this.withArgs = withArgs;
+            this.returnsValue = returnsValue;
+        }
+    }
+}
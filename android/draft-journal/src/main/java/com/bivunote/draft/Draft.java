@@ -0,0 +1,36 @@
+package com.bivunote.draft;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 임시 저장된 글 하나 (get() 시점의 복사본). fields 는 "title", "content" 처럼 앱이 정한 이름 → 내용.
+ */
+public final class Draft {
+
+    public final String key;
+    public final long updatedAtMillis;
+    public final Map<String, String> fields;
+
+    Draft(String key, long updatedAtMillis, Map<String, String> fields) {
+        this.key = key;
+        this.updatedAtMillis = updatedAtMillis;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    /** 없는 필드는 "" */
+    public String field(String name) {
+        String value = fields.get(name);
+        return value == null ? "" : value;
+    }
+
+    /** 모든 필드의 글자 수 (UTF-16) 합 */
+    public long length() {
+        long length = 0;
+        for (String value : fields.values()) {
+            length += value.length();
+        }
+        return length;
+    }
+}
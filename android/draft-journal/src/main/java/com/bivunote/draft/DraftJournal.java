@@ -0,0 +1,506 @@
+package com.bivunote.draft;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 쓰던 글 임시 저장소. 디렉터리 하나에 스냅샷(drafts.snapshot)과 append-only 저널(drafts.journal)을 둡니다.
+ *
+ * set/splice/remove 는 메모리 상태를 바꾸고 기록을 메모리 버퍼에 붙이기만 하므로 디스크를 기다리지 않습니다.
+ * sync() 가 그때까지 쌓인 기록을 한 번에 쓰고 fsync 합니다. (그 사이의 변경이 fsync 한 번을 나눠 씀)
+ * sync() 가 돌려준 번호까지의 변경은 프로세스가 죽어도 남습니다.
+ *
+ * 저널이 살아 있는 내용보다 훨씬 커지면 compact() 가 스냅샷을 새로 쓰고 빈 저널로 바꿉니다.
+ * 둘 다 세대 번호가 있고, 열 때는 스냅샷과 세대가 같은 저널만 다시 적용합니다.
+ * 그래서 스냅샷을 바꾼 뒤 저널을 바꾸기 전에 죽어도 이미 스냅샷에 든 기록을 두 번 적용하지 않습니다.
+ * 저널 끝이 잘렸거나 체크섬이 맞지 않는 기록부터는 버리고 그 자리에서 이어 씁니다.
+ *
+ * 여러 스레드에서 써도 됩니다. sync/compact 가 디스크를 기다리는 동안에도 set/splice 는 막히지 않습니다.
+ */
+public final class DraftJournal implements Closeable {
+
+    static final String SNAPSHOT = "drafts.snapshot";
+    static final String JOURNAL = "drafts.journal";
+    static final int SNAPSHOT_MAGIC = 0x42564453; // "BVDS"
+    static final int JOURNAL_MAGIC = 0x4256444a; // "BVDJ"
+    static final int VERSION = 1;
+    // magic, version, generation
+    static final int JOURNAL_HEADER_BYTES = 16;
+    // 기록마다 앞에 붙는 길이(int) + crc32(int)
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+    // 저널이 이보다 작으면 compact 하지 않음
+    static final long COMPACT_MIN_BYTES = 512 * 1024;
+
+    private final File dir;
+    // sync/compact 는 한 번에 하나 (저널 파일에 쓰는 쪽)
+    private final Object syncLock = new Object();
+
+    // 아래는 this 로 보호
+    private final DraftState state = new DraftState();
+    private final Bytes body = new Bytes();
+    private final DataOutputStream bodyOut = new DataOutputStream(body);
+    private final CRC32 crc = new CRC32();
+    // 아직 파일에 쓰지 않은 기록들
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+    private long sequence;
+    private long durableSequence;
+    private long generation;
+    private long journalBytes;
+    private long snapshotBytes;
+    // 저널 쓰기나 compact 가 실패해서 파일과 메모리가 어긋남. 다음 sync 는 스냅샷부터 새로
+    private boolean needsSnapshot;
+    private boolean closed;
+    // syncLock 으로 보호 (바꿀 때는 this 도)
+    private FileChannel journal;
+
+    private DraftJournal(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * @throws IOException 스냅샷이 깨졌거나 읽을 수 없음 (저널 끝이 깨진 것은 복구하고 넘어감)
+     */
+    public static DraftJournal open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        // 쓰다 만 임시 파일
+        new File(dir, SNAPSHOT + ".tmp").delete();
+        new File(dir, JOURNAL + ".tmp").delete();
+        DraftJournal drafts = new DraftJournal(dir);
+        drafts.recover();
+        return drafts;
+    }
+
+    /**
+     * 필드 전체를 바꿉니다. (처음 저장하거나 JS 와 내용이 어긋났을 때)
+     *
+     * @return 이 변경의 번호. sync() 가 이 번호 이상을 돌려주면 디스크에 있음
+     * @throws DraftTooLargeException 기록 하나에 담을 수 없을 만큼 김 (아무것도 바뀌지 않음)
+     */
+    public synchronized long set(String key, String field, String value, long timeMillis) {
+        return append(JournalRecord.set(Objects.requireNonNull(key), Objects.requireNonNull(field),
+                Objects.requireNonNull(value), timeMillis));
+    }
+
+    /**
+     * 필드의 start 부터 deleteCount 글자를 text 로 바꿉니다. 위치는 UTF-16 index (JS 문자열과 같음)
+     *
+     * @throws IllegalArgumentException 범위가 지금 필드 밖 (아무것도 바뀌지 않음)
+     * @throws DraftTooLargeException text 가 기록 하나에 담을 수 없을 만큼 김 (아무것도 바뀌지 않음)
+     */
+    public synchronized long splice(String key, String field, int start, int deleteCount, String text,
+                                    long timeMillis) {
+        return append(JournalRecord.splice(Objects.requireNonNull(key), Objects.requireNonNull(field), start,
+                deleteCount, Objects.requireNonNull(text), timeMillis));
+    }
+
+    /** @return 글이 있었는지 */
+    public synchronized boolean remove(String key, long timeMillis) {
+        ensureOpen();
+        if (!state.contains(Objects.requireNonNull(key))) {
+            return false;
+        }
+        append(JournalRecord.remove(key, timeMillis));
+        return true;
+    }
+
+    public synchronized Draft get(String key) {
+        ensureOpen();
+        return state.get(key);
+    }
+
+    public synchronized List<String> keys() {
+        ensureOpen();
+        return state.keys();
+    }
+
+    /** 마지막 변경의 번호 */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    /** 디스크에 있는 마지막 변경의 번호 */
+    public synchronized long durableSequence() {
+        return durableSequence;
+    }
+
+    synchronized long journalBytes() {
+        return journalBytes;
+    }
+
+    synchronized long snapshotBytes() {
+        return snapshotBytes;
+    }
+
+    private long append(JournalRecord record) {
+        ensureOpen();
+        long estimate = 64 + 2L * (record.key.length()
+                + (record.field == null ? 0 : record.field.length())
+                + (record.text == null ? 0 : record.text.length()));
+        if (estimate > MAX_RECORD_BYTES) {
+            throw new DraftTooLargeException(estimate);
+        }
+        state.apply(record);
+        try {
+            body.reset();
+            record.writeTo(bodyOut);
+            crc.reset();
+            crc.update(body.array(), 0, body.size());
+            pendingOut.writeInt(body.size());
+            pendingOut.writeInt((int) crc.getValue());
+            body.writeTo(pendingOut);
+        } catch (IOException e) {
+            // 메모리 스트림이라 일어나지 않음
+            throw new UncheckedIOException(e);
+        }
+        return ++sequence;
+    }
+
+    /**
+     * 쌓인 변경을 저널에 쓰고 fsync 합니다. 쓰는 동안 들어온 변경은 다음 sync 로.
+     *
+     * @return 디스크에 있는 마지막 변경의 번호
+     */
+    public long sync() throws IOException {
+        synchronized (syncLock) {
+            byte[] bytes;
+            long syncedSequence;
+            synchronized (this) {
+                ensureOpen();
+                if (needsSnapshot) {
+                    bytes = null;
+                    syncedSequence = 0;
+                } else if (pending.size() == 0) {
+                    return durableSequence;
+                } else {
+                    bytes = pending.toByteArray();
+                    pending.reset();
+                    syncedSequence = sequence;
+                }
+            }
+            if (bytes == null) {
+                compactLocked();
+                return durableSequence();
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    journal.write(buffer);
+                }
+                journal.force(false);
+            } catch (IOException e) {
+                synchronized (this) {
+                    needsSnapshot = true;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                journalBytes += bytes.length;
+                durableSequence = syncedSequence;
+            }
+            return syncedSequence;
+        }
+    }
+
+    /** 저널이 살아 있는 내용(UTF-16)의 두 배보다 커졌는지. 작은 글이면 COMPACT_MIN_BYTES 까지는 두고 봄 */
+    public synchronized boolean needsCompaction() {
+        return needsSnapshot
+                || journalBytes + pending.size() > Math.max(COMPACT_MIN_BYTES, state.chars() * 4);
+    }
+
+    /**
+     * 지금 상태를 새 스냅샷으로 쓰고 빈 저널로 바꿉니다. 쌓인 변경도 스냅샷에 들어가므로 sync 한 것과 같습니다.
+     */
+    public void compact() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                ensureOpen();
+            }
+            compactLocked();
+        }
+    }
+
+    // syncLock 안에서
+    private void compactLocked() throws IOException {
+        List<Draft> drafts;
+        long snapshotSequence;
+        long nextGeneration;
+        synchronized (this) {
+            drafts = state.all();
+            // 스냅샷에 들어가므로 저널에는 쓰지 않음
+            pending.reset();
+            snapshotSequence = sequence;
+            nextGeneration = generation + 1;
+            // 아래가 실패하면 다음 sync 에서 다시
+            needsSnapshot = true;
+        }
+        long written = writeSnapshot(drafts, nextGeneration);
+        // 여기서 죽으면 남은 저널은 세대가 달라서 버려짐
+        FileChannel next = createJournal(nextGeneration);
+        FileChannel previous;
+        synchronized (this) {
+            previous = journal;
+            journal = next;
+            generation = nextGeneration;
+            journalBytes = JOURNAL_HEADER_BYTES;
+            snapshotBytes = written;
+            durableSequence = snapshotSequence;
+            needsSnapshot = false;
+        }
+        previous.close();
+    }
+
+    /** 쌓인 변경을 sync 하고 닫습니다 */
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                sync();
+            } finally {
+                synchronized (this) {
+                    closed = true;
+                }
+                journal.close();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Draft journal is closed");
+        }
+    }
+
+    // open 에서만
+    private void recover() throws IOException {
+        File snapshotFile = new File(dir, SNAPSHOT);
+        if (snapshotFile.exists()) {
+            readSnapshot(snapshotFile);
+        }
+        File journalFile = new File(dir, JOURNAL);
+        FileChannel channel = null;
+        if (journalFile.exists()) {
+            channel = openChannel(journalFile);
+            try {
+                long end = replay(channel);
+                if (end < 0) {
+                    channel.close();
+                    channel = null;
+                } else {
+                    if (end < channel.size()) {
+                        // 잘렸거나 깨진 끝부분
+                        channel.truncate(end);
+                        channel.force(false);
+                    }
+                    channel.position(end);
+                    journalBytes = end;
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        if (channel == null) {
+            channel = createJournal(generation);
+            journalBytes = JOURNAL_HEADER_BYTES;
+        }
+        journal = channel;
+    }
+
+    /**
+     * @return 다시 적용한 마지막 온전한 기록의 끝, 스냅샷과 세대가 다른 저널이면 -1
+     */
+    private long replay(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < JOURNAL_HEADER_BYTES || size > Integer.MAX_VALUE) {
+            return -1;
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) size);
+        while (data.hasRemaining()) {
+            if (channel.read(data, data.position()) < 0) {
+                break;
+            }
+        }
+        data.flip();
+        if (data.remaining() < JOURNAL_HEADER_BYTES || data.getInt() != JOURNAL_MAGIC
+                || data.getInt() != VERSION || data.getLong() != generation) {
+            return -1;
+        }
+        CRC32 check = new CRC32();
+        while (data.remaining() >= RECORD_HEADER_BYTES) {
+            int recordStart = data.position();
+            int length = data.getInt();
+            int expected = data.getInt();
+            if (length <= 0 || length > data.remaining()) {
+                data.position(recordStart);
+                break;
+            }
+            check.reset();
+            check.update(data.array(), data.position(), length);
+            if ((int) check.getValue() != expected) {
+                data.position(recordStart);
+                break;
+            }
+            try {
+                state.apply(JournalRecord.readFrom(
+                        new DataInputStream(new ByteArrayInputStream(data.array(), data.position(), length))));
+            } catch (IOException | IllegalArgumentException e) {
+                data.position(recordStart);
+                break;
+            }
+            data.position(data.position() + length);
+            sequence++;
+        }
+        durableSequence = sequence;
+        return data.position();
+    }
+
+    private void readSnapshot(File file) throws IOException {
+        byte[] bytes = readFully(file);
+        if (bytes.length < 4) {
+            throw new IOException("Corrupt draft snapshot " + file);
+        }
+        CRC32 check = new CRC32();
+        check.update(bytes, 0, bytes.length - 4);
+        if ((int) check.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Corrupt draft snapshot " + file);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown draft snapshot format " + file);
+        }
+        generation = in.readLong();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            String key = JournalRecord.readString(in);
+            long updatedAtMillis = in.readLong();
+            int fieldCount = in.readInt();
+            Map<String, String> fields = new LinkedHashMap<>();
+            for (int f = 0; f < fieldCount; f++) {
+                String name = JournalRecord.readString(in);
+                fields.put(name, JournalRecord.readString(in));
+            }
+            state.put(new Draft(key, updatedAtMillis, fields));
+        }
+        snapshotBytes = bytes.length;
+    }
+
+    /** @return 쓴 파일 크기 */
+    private long writeSnapshot(List<Draft> drafts, long snapshotGeneration) throws IOException {
+        File file = new File(dir, SNAPSHOT);
+        File tmp = new File(dir, SNAPSHOT + ".tmp");
+        long written;
+        try (FileOutputStream fileOut = new FileOutputStream(tmp)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(snapshotGeneration);
+            out.writeInt(drafts.size());
+            for (Draft draft : drafts) {
+                JournalRecord.writeString(out, draft.key);
+                out.writeLong(draft.updatedAtMillis);
+                out.writeInt(draft.fields.size());
+                for (Map.Entry<String, String> field : draft.fields.entrySet()) {
+                    JournalRecord.writeString(out, field.getKey());
+                    JournalRecord.writeString(out, field.getValue());
+                }
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            fileOut.getFD().sync();
+            written = out.size();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+        return written;
+    }
+
+    /** 헤더만 있는 저널로 바꾸고, 끝에 이어 쓸 수 있게 엽니다 */
+    private FileChannel createJournal(long journalGeneration) throws IOException {
+        File file = new File(dir, JOURNAL);
+        File tmp = new File(dir, JOURNAL + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(tmp)) {
+            DataOutputStream out = new DataOutputStream(fileOut);
+            out.writeInt(JOURNAL_MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalGeneration);
+            out.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + file);
+        }
+        FileChannel channel = openChannel(file);
+        channel.position(JOURNAL_HEADER_BYTES);
+        return channel;
+    }
+
+    // FileChannel.open(Path) 와 Files 는 API 26 부터라서 (minSdk 24) RandomAccessFile 로 엶
+    private static FileChannel openChannel(File file) throws IOException {
+        return new RandomAccessFile(file, "rw").getChannel();
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        long length = file.length();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Draft snapshot is too large: " + file);
+        }
+        byte[] bytes = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) {
+                    throw new EOFException("Draft snapshot ended early: " + file);
+                }
+                read += n;
+            }
+        }
+        return bytes;
+    }
+
+    // 체크섬을 복사 없이 계산하려고 내부 배열을 꺼냄
+    private static final class Bytes extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+}
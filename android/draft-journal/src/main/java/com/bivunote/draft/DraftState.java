@@ -0,0 +1,107 @@
+package com.bivunote.draft;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메모리에 든 글들. 저널 기록을 적용하는 곳이 여기 하나라서 열 때 다시 적용한 결과와 쓰는 중의 상태가 같습니다.
+ * 동기화는 DraftJournal 이 합니다.
+ */
+final class DraftState {
+
+    private static final class Entry {
+        long updatedAtMillis;
+        final LinkedHashMap<String, StringBuilder> fields = new LinkedHashMap<>();
+    }
+
+    private final LinkedHashMap<String, Entry> drafts = new LinkedHashMap<>();
+
+    /**
+     * 바꾸기 전에 검사하므로 예외가 나면 아무것도 바뀌지 않습니다.
+     *
+     * @return REMOVE 는 글이 있었는지, 나머지는 true
+     * @throws IllegalArgumentException splice 범위가 필드 밖
+     */
+    boolean apply(JournalRecord record) {
+        if (record.type == JournalRecord.REMOVE) {
+            return drafts.remove(record.key) != null;
+        }
+        Entry entry = drafts.get(record.key);
+        StringBuilder value = entry == null ? null : entry.fields.get(record.field);
+        if (record.type == JournalRecord.SPLICE) {
+            int length = value == null ? 0 : value.length();
+            if (record.start < 0 || record.deleteCount < 0 || record.start > length
+                    || record.deleteCount > length - record.start) {
+                throw new IllegalArgumentException("Splice " + record.start + "+" + record.deleteCount
+                        + " is outside " + record.key + "." + record.field + " (" + length + " chars)");
+            }
+        }
+        if (entry == null) {
+            entry = new Entry();
+            drafts.put(record.key, entry);
+        }
+        if (value == null) {
+            value = new StringBuilder(record.text.length());
+            entry.fields.put(record.field, value);
+        }
+        if (record.type == JournalRecord.SET) {
+            value.setLength(0);
+            value.append(record.text);
+        } else {
+            value.replace(record.start, record.start + record.deleteCount, record.text);
+        }
+        entry.updatedAtMillis = record.timeMillis;
+        return true;
+    }
+
+    /** 스냅샷을 읽을 때 */
+    void put(Draft draft) {
+        Entry entry = new Entry();
+        entry.updatedAtMillis = draft.updatedAtMillis;
+        for (Map.Entry<String, String> field : draft.fields.entrySet()) {
+            entry.fields.put(field.getKey(), new StringBuilder(field.getValue()));
+        }
+        drafts.put(draft.key, entry);
+    }
+
+    boolean contains(String key) {
+        return drafts.containsKey(key);
+    }
+
+    Draft get(String key) {
+        Entry entry = drafts.get(key);
+        if (entry == null) {
+            return null;
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Map.Entry<String, StringBuilder> field : entry.fields.entrySet()) {
+            fields.put(field.getKey(), field.getValue().toString());
+        }
+        return new Draft(key, entry.updatedAtMillis, fields);
+    }
+
+    List<String> keys() {
+        return new ArrayList<>(drafts.keySet());
+    }
+
+    List<Draft> all() {
+        List<Draft> all = new ArrayList<>(drafts.size());
+        for (String key : drafts.keySet()) {
+            all.add(get(key));
+        }
+        return all;
+    }
+
+    /** 모든 필드의 글자 수 합 (스냅샷 크기 어림) */
+    long chars() {
+        long chars = 0;
+        for (Entry entry : drafts.values()) {
+            for (StringBuilder value : entry.fields.values()) {
+                chars += value.length();
+            }
+        }
+        return chars;
+    }
+}
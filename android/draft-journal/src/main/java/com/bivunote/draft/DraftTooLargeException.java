@@ -0,0 +1,13 @@
+package com.bivunote.draft;
+
+/**
+ * 기록 하나가 MAX_RECORD_BYTES 를 넘는 변경. 범위가 맞지 않는 splice 와 달리 다시 보내도 같은 결과이므로 따로 구분합니다.
+ */
+public final class DraftTooLargeException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    DraftTooLargeException(long bytes) {
+        super("Draft change is too large: " + bytes + " bytes");
+    }
+}
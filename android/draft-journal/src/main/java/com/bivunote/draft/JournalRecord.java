@@ -0,0 +1,107 @@
+package com.bivunote.draft;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 저널 기록 하나. 필드 전체를 바꾸는 SET, 일부를 바꾸는 SPLICE, 글을 지우는 REMOVE.
+ *
+ * 문자열은 글자 수(int) + UTF-16 으로 씁니다. splice 위치가 JS 문자열 index(UTF-16) 그대로이고,
+ * 한글은 UTF-8(3바이트)보다 작으며, 짝이 안 맞는 surrogate 도 그대로 남습니다.
+ */
+final class JournalRecord {
+
+    static final byte SET = 1;
+    static final byte SPLICE = 2;
+    static final byte REMOVE = 3;
+
+    final byte type;
+    final long timeMillis;
+    final String key;
+    // SET/SPLICE 만
+    final String field;
+    // SET 은 새 내용, SPLICE 는 넣을 글자
+    final String text;
+    final int start;
+    final int deleteCount;
+
+    private JournalRecord(byte type, long timeMillis, String key, String field, String text, int start,
+                          int deleteCount) {
+        this.type = type;
+        this.timeMillis = timeMillis;
+        this.key = key;
+        this.field = field;
+        this.text = text;
+        this.start = start;
+        this.deleteCount = deleteCount;
+    }
+
+    static JournalRecord set(String key, String field, String value, long timeMillis) {
+        return new JournalRecord(SET, timeMillis, key, field, value, 0, 0);
+    }
+
+    static JournalRecord splice(String key, String field, int start, int deleteCount, String text,
+                                long timeMillis) {
+        return new JournalRecord(SPLICE, timeMillis, key, field, text, start, deleteCount);
+    }
+
+    static JournalRecord remove(String key, long timeMillis) {
+        return new JournalRecord(REMOVE, timeMillis, key, null, null, 0, 0);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeByte(type);
+        out.writeLong(timeMillis);
+        writeString(out, key);
+        if (type == REMOVE) {
+            return;
+        }
+        writeString(out, field);
+        if (type == SPLICE) {
+            out.writeInt(start);
+            out.writeInt(deleteCount);
+        }
+        writeString(out, text);
+    }
+
+    /**
+     * @throws IOException 알 수 없는 종류나 길이 (체크섬이 맞았는데 이렇다면 다른 버전이 쓴 저널)
+     */
+    static JournalRecord readFrom(DataInput in) throws IOException {
+        byte type = in.readByte();
+        long timeMillis = in.readLong();
+        String key = readString(in);
+        switch (type) {
+            case REMOVE:
+                return remove(key, timeMillis);
+            case SET:
+                String field = readString(in);
+                return set(key, field, readString(in), timeMillis);
+            case SPLICE:
+                String spliceField = readString(in);
+                int start = in.readInt();
+                int deleteCount = in.readInt();
+                return splice(key, spliceField, start, deleteCount, readString(in), timeMillis);
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeInt(value.length());
+        out.writeChars(value);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > DraftJournal.MAX_RECORD_BYTES / 2) {
+            throw new IOException("Bad string length " + length);
+        }
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,299 @@
+package com.bivunote.draft;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class DraftJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private DraftJournal drafts;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = new File(folder.getRoot(), "drafts");
+        drafts = DraftJournal.open(dir);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        drafts.close();
+    }
+
+    @Test
+    public void syncedChangesSurviveReopen() throws IOException {
+        drafts.set("post", "title", "미적분 정리", 1);
+        drafts.set("post", "content", "극한과 연속", 2);
+        drafts.splice("post", "content", 2, 0, " 그리고", 3);
+        drafts.splice("post", "title", 0, 1, "", 4);
+        assertEquals(4, drafts.sync());
+
+        DraftJournal reopened = DraftJournal.open(dir);
+        Draft draft = reopened.get("post");
+        assertEquals("적분 정리", draft.field("title"));
+        assertEquals("극한 그리고과 연속", draft.field("content"));
+        assertEquals(4, draft.updatedAtMillis);
+        assertEquals(4, reopened.durableSequence());
+        reopened.close();
+    }
+
+    @Test
+    public void unsyncedChangesAreNotOnDisk() throws IOException {
+        drafts.set("post", "content", "첫 문장", 1);
+        drafts.sync();
+        drafts.splice("post", "content", 4, 0, ". 둘째 문장", 2);
+        assertEquals(2, drafts.sequence());
+        assertEquals(1, drafts.durableSequence());
+
+        // 프로세스가 죽은 것처럼 닫지 않고 다시 엶
+        DraftJournal reopened = DraftJournal.open(dir);
+        assertEquals("첫 문장", reopened.get("post").field("content"));
+        reopened.close();
+    }
+
+    @Test
+    public void changesBetweenSyncsShareOneWrite() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            drafts.splice("post", "content", i, 0, "가", i);
+        }
+        long before = drafts.journalBytes();
+        assertEquals(100, drafts.sync());
+        assertTrue(drafts.journalBytes() > before);
+        assertEquals(100, drafts.sync());
+        assertEquals(100, drafts.get("post").field("content").length());
+    }
+
+    @Test
+    public void spliceOutsideFieldIsRejectedWithoutChange() throws IOException {
+        drafts.set("post", "content", "abc", 1);
+        try {
+            drafts.splice("post", "content", 2, 2, "x", 2);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // JS 가 전체 내용을 다시 보냄
+        }
+        try {
+            drafts.splice("post", "content", 4, 0, "x", 2);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // 범위 밖
+        }
+        assertEquals(1, drafts.sequence());
+        assertEquals("abc", drafts.get("post").field("content"));
+        // 없는 필드는 빈 문자열
+        drafts.splice("post", "title", 0, 0, "제목", 3);
+        assertEquals("제목", drafts.get("post").field("title"));
+    }
+
+    @Test
+    public void tooLargeChangeIsRejectedWithoutChange() throws IOException {
+        drafts.set("post", "content", "abc", 1);
+        String huge = "x".repeat(DraftJournal.MAX_RECORD_BYTES / 2);
+        try {
+            drafts.set("post", "content", huge, 2);
+            fail();
+        } catch (DraftTooLargeException expected) {
+            // 다시 보내도 같으므로 OUT_OF_SYNC 와 구분
+        }
+        try {
+            drafts.splice("post", "content", 0, 0, huge, 2);
+            fail();
+        } catch (DraftTooLargeException expected) {
+            // splice 도 같음
+        }
+        assertEquals(1, drafts.sequence());
+        assertEquals("abc", drafts.get("post").field("content"));
+    }
+
+    @Test
+    public void removeSurvivesReopen() throws IOException {
+        drafts.set("post", "content", "지울 글", 1);
+        drafts.set("question", "content", "남길 글", 1);
+        assertTrue(drafts.remove("post", 2));
+        assertFalse(drafts.remove("post", 3));
+        drafts.sync();
+
+        DraftJournal reopened = DraftJournal.open(dir);
+        assertNull(reopened.get("post"));
+        assertEquals(Arrays.asList("question"), reopened.keys());
+        reopened.close();
+    }
+
+    @Test
+    public void tornTailIsDroppedAndWritingContinues() throws IOException {
+        drafts.set("post", "content", "처음", 1);
+        drafts.sync();
+        long goodEnd = drafts.journalBytes();
+        drafts.splice("post", "content", 2, 0, " 이어서 쓰는 긴 문장", 2);
+        drafts.sync();
+        // 마지막 기록을 쓰다가 죽음
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, DraftJournal.JOURNAL), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        DraftJournal reopened = DraftJournal.open(dir);
+        assertEquals("처음", reopened.get("post").field("content"));
+        assertEquals(goodEnd, new File(dir, DraftJournal.JOURNAL).length());
+        reopened.splice("post", "content", 2, 0, " 다시", 3);
+        reopened.sync();
+        reopened.close();
+
+        reopened = DraftJournal.open(dir);
+        assertEquals("처음 다시", reopened.get("post").field("content"));
+        reopened.close();
+    }
+
+    @Test
+    public void corruptRecordStopsReplay() throws IOException {
+        drafts.set("post", "content", "하나", 1);
+        drafts.sync();
+        long secondRecord = drafts.journalBytes();
+        drafts.splice("post", "content", 2, 0, " 둘", 2);
+        drafts.splice("post", "content", 4, 0, " 셋", 3);
+        drafts.sync();
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, DraftJournal.JOURNAL), "rw")) {
+            file.seek(secondRecord + DraftJournal.RECORD_HEADER_BYTES + 3);
+            int b = file.read();
+            file.seek(secondRecord + DraftJournal.RECORD_HEADER_BYTES + 3);
+            file.write(b ^ 0xff);
+        }
+
+        DraftJournal reopened = DraftJournal.open(dir);
+        assertEquals("하나", reopened.get("post").field("content"));
+        assertEquals(1, reopened.durableSequence());
+        reopened.close();
+    }
+
+    @Test
+    public void compactionKeepsContentAndEmptiesJournal() throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            drafts.splice("post", "content", expected.length(), 0, "문장 " + i + ". ", i);
+            expected.append("문장 ").append(i).append(". ");
+            if (i % 100 == 0) {
+                drafts.sync();
+            }
+        }
+        drafts.set("post", "title", "긴 글", 2_000);
+        drafts.compact();
+        assertEquals(DraftJournal.JOURNAL_HEADER_BYTES, drafts.journalBytes());
+        assertEquals(drafts.sequence(), drafts.durableSequence());
+        assertFalse(drafts.needsCompaction());
+        drafts.splice("post", "title", 0, 0, "아주 ", 2_001);
+        drafts.sync();
+
+        DraftJournal reopened = DraftJournal.open(dir);
+        assertEquals(expected.toString(), reopened.get("post").field("content"));
+        assertEquals("아주 긴 글", reopened.get("post").field("title"));
+        assertEquals(2_001, reopened.get("post").updatedAtMillis);
+        reopened.close();
+    }
+
+    @Test
+    public void journalFromBeforeCompactionIsNotReplayedTwice() throws IOException {
+        drafts.set("post", "content", "abc", 1);
+        drafts.splice("post", "content", 3, 0, "d", 2);
+        drafts.sync();
+        File journal = new File(dir, DraftJournal.JOURNAL);
+        File saved = folder.newFile("old.journal");
+        Files.copy(journal.toPath(), saved.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        drafts.compact();
+        drafts.close();
+        // 스냅샷은 바꿨는데 저널을 바꾸기 전에 죽은 것처럼
+        Files.copy(saved.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        drafts = DraftJournal.open(dir);
+        assertEquals("abcd", drafts.get("post").field("content"));
+        assertEquals(DraftJournal.JOURNAL_HEADER_BYTES, journal.length());
+    }
+
+    @Test
+    public void corruptSnapshotFailsOpen() throws IOException {
+        drafts.set("post", "content", "abc", 1);
+        drafts.compact();
+        drafts.close();
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, DraftJournal.SNAPSHOT), "rw")) {
+            file.seek(20);
+            file.write(0x7f);
+        }
+        try {
+            drafts = DraftJournal.open(dir);
+            fail();
+        } catch (IOException expected) {
+            // 앱은 디렉터리를 옆으로 옮기고 새로 시작
+            drafts = DraftJournal.open(folder.newFolder("fresh"));
+        }
+    }
+
+    @Test
+    public void randomEditsMatchModel() throws IOException {
+        Random random = new Random(17);
+        Map<String, String> model = new HashMap<>();
+        String[] fields = {"title", "content", "meta"};
+        for (int step = 0; step < 5_000; step++) {
+            String field = fields[random.nextInt(fields.length)];
+            String current = model.getOrDefault(field, "");
+            if (random.nextInt(20) == 0) {
+                String value = text(random, random.nextInt(200));
+                drafts.set("post", field, value, step);
+                model.put(field, value);
+            } else {
+                int start = random.nextInt(current.length() + 1);
+                int deleteCount = random.nextInt(Math.min(10, current.length() - start) + 1);
+                String inserted = text(random, random.nextInt(12));
+                drafts.splice("post", field, start, deleteCount, inserted, step);
+                model.put(field, current.substring(0, start) + inserted + current.substring(start + deleteCount));
+            }
+            if (random.nextInt(10) == 0) {
+                drafts.sync();
+            }
+            if (random.nextInt(400) == 0) {
+                drafts.compact();
+            }
+            if (random.nextInt(500) == 0) {
+                drafts.close();
+                drafts = DraftJournal.open(dir);
+            }
+        }
+        drafts.close();
+        drafts = DraftJournal.open(dir);
+        for (Map.Entry<String, String> field : model.entrySet()) {
+            assertEquals(field.getValue(), drafts.get("post").field(field.getKey()));
+        }
+    }
+
+    private static String text(Random random, int length) {
+        // 한글, 영문, 줄바꿈, 이모지(surrogate 쌍)
+        String alphabet = "가나다라마바사 abc\n";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(30) == 0) {
+                text.append("😀");
+            } else {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+        }
+        return text.toString();
+    }
+}
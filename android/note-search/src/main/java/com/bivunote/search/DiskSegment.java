@@ -0,0 +1,231 @@
+package com.bivunote.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SegmentWriter 가 쓴 파일을 mmap 해서 읽습니다. 힙에는 header 값만 두고,
+ * term 찾기는 term 표에서 이진 탐색, postings 는 매핑한 버퍼에서 바로 풉니다.
+ */
+final class DiskSegment implements Segment {
+
+    final File file;
+    private final int docBase;
+    private final ByteBuffer buffer;
+    private final int docCount;
+    private final int termCount;
+    private final int lengthsOffset;
+    private final int hashesOffset;
+    private final int idOffsetsOffset;
+    private final int idBytesOffset;
+    private final int idTableOffset;
+    private final int postingsOffset;
+    private final int termTableOffset;
+    private final int termBytesOffset;
+
+    private DiskSegment(File file, int docBase, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.docBase = docBase;
+        this.buffer = buffer;
+        if (buffer.limit() < SegmentWriter.HEADER_BYTES || buffer.getInt(0) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a search segment: " + file);
+        }
+        int version = buffer.getInt(4);
+        if (version != SegmentWriter.VERSION) {
+            throw new IOException("Unsupported search segment version " + version);
+        }
+        docCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        lengthsOffset = buffer.getInt(16);
+        idTableOffset = buffer.getInt(20);
+        postingsOffset = buffer.getInt(24);
+        termTableOffset = buffer.getInt(28);
+        termBytesOffset = buffer.getInt(32);
+        if (buffer.getInt(36) != buffer.limit() || termBytesOffset > buffer.limit()) {
+            throw new IOException("Truncated search segment: " + file);
+        }
+        hashesOffset = lengthsOffset + docCount * 4;
+        idOffsetsOffset = hashesOffset + docCount * 8;
+        idBytesOffset = idOffsetsOffset + (docCount + 1) * 4;
+    }
+
+    static DiskSegment open(File file, int docBase) throws IOException {
+        try (RandomAccessFile access = new RandomAccessFile(file, "r")) {
+            FileChannel channel = access.getChannel();
+            // 매핑은 채널을 닫아도 유지됨
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new DiskSegment(file, docBase, buffer);
+        }
+    }
+
+    @Override
+    public int docBase() {
+        return docBase;
+    }
+
+    @Override
+    public int docCount() {
+        return docCount;
+    }
+
+    int termCount() {
+        return termCount;
+    }
+
+    long sizeBytes() {
+        return buffer.limit();
+    }
+
+    @Override
+    public int df(String term) {
+        int index = findTerm(term.getBytes(StandardCharsets.UTF_8));
+        return index < 0 ? 0 : dfAt(index);
+    }
+
+    @Override
+    public PostingsCursor postings(String term) {
+        int index = findTerm(term.getBytes(StandardCharsets.UTF_8));
+        return index < 0 ? null : postingsAt(index);
+    }
+
+    @Override
+    public String id(int localDoc) {
+        int start = buffer.getInt(idOffsetsOffset + localDoc * 4);
+        int end = buffer.getInt(idOffsetsOffset + localDoc * 4 + 4);
+        return string(idBytesOffset + start, end - start);
+    }
+
+    @Override
+    public int length(int localDoc) {
+        return buffer.getInt(lengthsOffset + localDoc * 4);
+    }
+
+    @Override
+    public long hash(int localDoc) {
+        return buffer.getLong(hashesOffset + localDoc * 8);
+    }
+
+    @Override
+    public int find(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        // 같은 id 중 마지막(가장 큰 번호)을 찾음
+        int low = 0;
+        int high = docCount - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int doc = buffer.getInt(idTableOffset + mid * 4);
+            int start = buffer.getInt(idOffsetsOffset + doc * 4);
+            int end = buffer.getInt(idOffsetsOffset + doc * 4 + 4);
+            int c = compare(idBytesOffset + start, end - start, key);
+            if (c > 0) {
+                high = mid - 1;
+            } else {
+                if (c == 0) {
+                    found = doc;
+                }
+                low = mid + 1;
+            }
+        }
+        return found;
+    }
+
+    // --- 병합에서 term 을 순서대로 훑을 때 ---
+
+    byte[] termAt(int index) {
+        int start = buffer.getInt(termTableOffset + index * SegmentWriter.TERM_ENTRY_BYTES);
+        // 다음 항목(마지막이면 끝 표시)의 termOffset
+        int end = buffer.getInt(termTableOffset + (index + 1) * SegmentWriter.TERM_ENTRY_BYTES);
+        byte[] term = new byte[end - start];
+        ByteBuffer source = buffer.duplicate();
+        source.position(termBytesOffset + start);
+        source.get(term);
+        return term;
+    }
+
+    int dfAt(int index) {
+        return buffer.getInt(termTableOffset + index * SegmentWriter.TERM_ENTRY_BYTES + 8);
+    }
+
+    PostingsCursor postingsAt(int index) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(postingsOffset + buffer.getInt(termTableOffset + index * SegmentWriter.TERM_ENTRY_BYTES + 4));
+        return new Cursor(in, dfAt(index));
+    }
+
+    private int findTerm(byte[] key) {
+        int low = 0;
+        int high = termCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int start = buffer.getInt(termTableOffset + mid * SegmentWriter.TERM_ENTRY_BYTES);
+            int end = buffer.getInt(termTableOffset + (mid + 1) * SegmentWriter.TERM_ENTRY_BYTES);
+            int c = compare(termBytesOffset + start, end - start, key);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int offset, int length, byte[] key) {
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int c = (buffer.get(offset + i) & 0xff) - (key[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String string(int offset, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Cursor implements PostingsCursor {
+        private final ByteBuffer in;
+        private int remaining;
+        private int doc = -1;
+        private int tf;
+
+        Cursor(ByteBuffer in, int count) {
+            this.in = in;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean next() {
+            if (remaining == 0) {
+                doc = Integer.MAX_VALUE;
+                return false;
+            }
+            remaining--;
+            doc += PostingsBuffer.readVarInt(in) + 1;
+            tf = PostingsBuffer.readVarInt(in);
+            return true;
+        }
+
+        @Override
+        public int doc() {
+            return doc;
+        }
+
+        @Override
+        public int tf() {
+            return tf;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.bivunote.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 형태소 분석 없이 부분 문자열 검색이 되도록 n-gram 으로 자릅니다.
+ *
+ * 한글(과 한자/가나) 구간: 색인은 한 글자(unigram) + 이웃한 두 글자(bigram), 검색어는 bigram 만
+ * (한 글자짜리 검색어는 unigram). "수학공부" 는 "학공" 도 색인하므로 "학공부" 처럼 어절 경계와 상관없이 찾습니다.
+ * 라틴 문자/숫자 단어: 세 글자 이상이면 trigram, 짧으면 단어 그대로.
+ * 조합 중인 자모(ㅎ, ㅏ)는 버립니다. 입력 중인 검색어 끝의 "수핳" 같은 상태는 앞쪽 음절로만 찾습니다.
+ */
+public final class HangulTokenizer {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int TAG_WEIGHT = 2;
+    static final int BODY_WEIGHT = 1;
+
+    // URL 같은 긴 토큰이 trigram 을 너무 많이 만들지 않도록
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private static final int OTHER = 0;
+    private static final int HANGUL = 1;
+    private static final int CJK = 2;
+    private static final int WORD = 3;
+    private static final int JAMO = 4;
+
+    private HangulTokenizer() {
+    }
+
+    /**
+     * 색인할 term 을 나온 순서대로 (중복 포함) 넘깁니다.
+     */
+    static void indexTerms(String text, Consumer<String> out) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        int[] cps = normalize(text).codePoints().toArray();
+        int start = 0;
+        while (start < cps.length) {
+            int type = classOf(cps[start]);
+            int end = runEnd(cps, start, type);
+            if (type == HANGUL || type == CJK) {
+                for (int i = start; i < end; i++) {
+                    out.accept(new String(cps, i, 1));
+                    if (i + 1 < end) {
+                        out.accept(new String(cps, i, 2));
+                    }
+                }
+            } else if (type == WORD) {
+                emitWord(cps, start, end, out);
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * 검색어의 term (중복 제거, 나온 순서). 비어 있으면 찾을 것이 없는 검색어입니다.
+     */
+    public static List<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null || query.isEmpty()) {
+            return new ArrayList<>(terms);
+        }
+        int[] cps = normalize(query).codePoints().toArray();
+        int start = 0;
+        while (start < cps.length) {
+            int type = classOf(cps[start]);
+            int end = runEnd(cps, start, type);
+            if (type == HANGUL || type == CJK) {
+                if (end - start == 1) {
+                    terms.add(new String(cps, start, 1));
+                }
+                for (int i = start; i + 1 < end; i++) {
+                    terms.add(new String(cps, i, 2));
+                }
+            } else if (type == WORD) {
+                emitWord(cps, start, end, terms::add);
+            }
+            start = end;
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static void emitWord(int[] cps, int start, int end, Consumer<String> out) {
+        int length = Math.min(end - start, MAX_WORD_LENGTH);
+        if (length < 3) {
+            out.accept(new String(cps, start, length));
+            return;
+        }
+        for (int i = start; i + 3 <= start + length; i++) {
+            out.accept(new String(cps, i, 3));
+        }
+    }
+
+    private static int runEnd(int[] cps, int start, int type) {
+        int end = start + 1;
+        while (end < cps.length && classOf(cps[end]) == type) {
+            end++;
+        }
+        return end;
+    }
+
+    // NFKC: macOS 에서 붙여 넣은 NFD 한글(초성+중성+종성)을 음절로 합치고 전각 영숫자를 반각으로
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    private static int classOf(int cp) {
+        if (cp >= 0xAC00 && cp <= 0xD7A3) {
+            return HANGUL;
+        }
+        if ((cp >= 0x1100 && cp <= 0x11FF) || (cp >= 0x3130 && cp <= 0x318F)
+                || (cp >= 0xA960 && cp <= 0xA97F) || (cp >= 0xD7B0 && cp <= 0xD7FF)) {
+            return JAMO;
+        }
+        if (Character.isIdeographic(cp)) {
+            return CJK;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        if (script == Character.UnicodeScript.HIRAGANA || script == Character.UnicodeScript.KATAKANA) {
+            return CJK;
+        }
+        if (Character.isLetterOrDigit(cp)) {
+            return WORD;
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,167 @@
+package com.bivunote.search;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 아직 파일로 쓰지 않은 문서. SearchIndex.flush() 때 SegmentWriter 로 내보내고 새것으로 바뀝니다.
+ */
+final class MemorySegment implements Segment {
+
+    private final int docBase;
+    private final List<String> ids = new ArrayList<>();
+    private int[] lengths = new int[16];
+    private long[] hashes = new long[16];
+    // id → 마지막으로 넣은 local 번호
+    private final Map<String, Integer> latest = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int postingCount;
+
+    // (local 번호, tf) 를 이어 붙인 것
+    private static final class Postings {
+        int[] list = new int[4];
+        int size;
+    }
+
+    MemorySegment(int docBase) {
+        this.docBase = docBase;
+    }
+
+    /**
+     * @param termFreqs term → 필드 가중치를 곱한 tf
+     * @return local 번호
+     */
+    int add(String id, long hash, Map<String, Integer> termFreqs, int length) {
+        int doc = ids.size();
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            hashes = Arrays.copyOf(hashes, doc * 2);
+        }
+        ids.add(id);
+        lengths[doc] = length;
+        hashes[doc] = hash;
+        latest.put(id, doc);
+        for (Map.Entry<String, Integer> entry : termFreqs.entrySet()) {
+            Postings list = postings.computeIfAbsent(entry.getKey(), term -> new Postings());
+            if (list.size + 2 > list.list.length) {
+                list.list = Arrays.copyOf(list.list, list.list.length * 2);
+            }
+            list.list[list.size++] = doc;
+            list.list[list.size++] = entry.getValue();
+        }
+        postingCount += termFreqs.size();
+        return doc;
+    }
+
+    /** 버퍼를 비울 때를 정하는 대략적인 크기 */
+    int postingCount() {
+        return postingCount;
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    @Override
+    public int docBase() {
+        return docBase;
+    }
+
+    @Override
+    public int docCount() {
+        return ids.size();
+    }
+
+    @Override
+    public int df(String term) {
+        Postings list = postings.get(term);
+        return list == null ? 0 : list.size / 2;
+    }
+
+    @Override
+    public PostingsCursor postings(String term) {
+        Postings postings = this.postings.get(term);
+        if (postings == null) {
+            return null;
+        }
+        int[] list = postings.list;
+        int size = postings.size;
+        return new PostingsCursor() {
+            private int position = -2;
+
+            @Override
+            public boolean next() {
+                position += 2;
+                return position < size;
+            }
+
+            @Override
+            public int doc() {
+                if (position < 0) {
+                    return -1;
+                }
+                return position < size ? list[position] : Integer.MAX_VALUE;
+            }
+
+            @Override
+            public int tf() {
+                return list[position + 1];
+            }
+        };
+    }
+
+    @Override
+    public String id(int localDoc) {
+        return ids.get(localDoc);
+    }
+
+    @Override
+    public int length(int localDoc) {
+        return lengths[localDoc];
+    }
+
+    @Override
+    public long hash(int localDoc) {
+        return hashes[localDoc];
+    }
+
+    @Override
+    public int find(String id) {
+        Integer doc = latest.get(id);
+        return doc == null ? -1 : doc;
+    }
+
+    void writeTo(SegmentWriter writer) throws IOException {
+        for (int doc = 0; doc < ids.size(); doc++) {
+            writer.addDoc(ids.get(doc), lengths[doc], hashes[doc]);
+        }
+        byte[][] terms = new byte[postings.size()][];
+        String[] names = new String[terms.length];
+        int i = 0;
+        for (String term : postings.keySet()) {
+            names[i] = term;
+            terms[i] = term.getBytes(StandardCharsets.UTF_8);
+            i++;
+        }
+        Integer[] order = new Integer[terms.length];
+        for (i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> SegmentWriter.compare(terms[a], terms[b]));
+
+        PostingsBuffer buffer = new PostingsBuffer();
+        for (int index : order) {
+            Postings list = postings.get(names[index]);
+            buffer.reset();
+            for (int p = 0; p < list.size; p += 2) {
+                buffer.add(list.list[p], list.list[p + 1]);
+            }
+            writer.addTerm(terms[index], buffer);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bivunote.search;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * postings 인코딩: (이전 문서와의 차이, tf) 를 varint 로. 한 term 씩 채운 뒤 writeTo 로 내보냅니다.
+ */
+final class PostingsBuffer {
+
+    private byte[] bytes = new byte[256];
+    private int size;
+    private int count;
+    private int lastDoc = -1;
+
+    void add(int doc, int tf) {
+        writeVarInt(doc - lastDoc - 1);
+        writeVarInt(tf);
+        lastDoc = doc;
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+        count = 0;
+        lastDoc = -1;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    private void writeVarInt(int value) {
+        if (size + 5 > bytes.length) {
+            byte[] grown = new byte[bytes.length * 2];
+            System.arraycopy(bytes, 0, grown, 0, size);
+            bytes = grown;
+        }
+        while ((value & ~0x7f) != 0) {
+            bytes[size++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+
+    static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bivunote.search;
+
+/**
+ * 한 term 의 (local 문서 번호, tf) 목록을 번호 순서대로 읽습니다. 처음에는 첫 문서 앞에 있습니다.
+ */
+interface PostingsCursor {
+
+    boolean next();
+
+    int doc();
+
+    int tf();
+
+    /** target 이상인 첫 문서로 이동. 현재 문서가 이미 target 이상이면 그대로 */
+    default boolean advance(int target) {
+        while (doc() < target) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
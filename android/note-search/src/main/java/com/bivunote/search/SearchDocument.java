@@ -0,0 +1,47 @@
+package com.bivunote.search;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 색인할 문서. id 는 종류를 앞에 붙여 씁니다 (예: "post:abc", "note:42"). SearchIndex.search 의 idPrefix 로 거릅니다.
+ */
+public final class SearchDocument {
+
+    public final String id;
+    public final String title;
+    public final String body;
+    public final List<String> tags;
+
+    public SearchDocument(String id, String title, String body, List<String> tags) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Document id is required");
+        }
+        this.id = id;
+        this.title = title != null ? title : "";
+        this.body = body != null ? body : "";
+        this.tags = tags != null ? tags : Collections.emptyList();
+    }
+
+    // 내용이 그대로면 다시 색인하지 않도록 (FNV-1a 64)
+    long contentHash() {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, title);
+        hash = mix(hash, "\u0000");
+        hash = mix(hash, body);
+        for (String tag : tags) {
+            hash = mix(hash, "\u0001");
+            hash = mix(hash, tag);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+            hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
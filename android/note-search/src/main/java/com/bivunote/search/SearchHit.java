@@ -0,0 +1,18 @@
+package com.bivunote.search;
+
+public final class SearchHit {
+
+    public final String id;
+    /** BM25 점수 (필드 가중치 포함). 같은 검색 결과 안에서만 비교할 수 있습니다 */
+    public final float score;
+
+    SearchHit(String id, float score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    @Override
+    public String toString() {
+        return id + " (" + score + ")";
+    }
+}
@@ -0,0 +1,637 @@
+package com.bivunote.search;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 글/노트 전문 검색 색인. 디렉터리 하나에 mmap 하는 조각(DiskSegment) 파일들과 manifest 를 둡니다.
+ *
+ * 새 문서와 바뀐 문서는 메모리 조각에 쌓였다가 flush() 때 새 조각 파일이 되고, 이전 판은 삭제 표시만 합니다.
+ * 파일 쓰기는 lock 밖에서 하므로 flush 하는 동안에도 검색과 upsert 가 막히지 않습니다.
+ * 조각이 많아지거나 삭제된 문서가 많은 조각은 maybeMerge() 가 합칩니다. (검색은 병합 중에도 막히지 않음)
+ * manifest 를 rename 으로 바꾸는 순간이 커밋이므로 flush 하지 않은 변경은 프로세스가 죽으면 사라집니다.
+ * 앱이 글을 볼 때 다시 넣으므로 괜찮습니다.
+ *
+ * 검색: 검색어의 모든 n-gram 이 들어 있는 문서만 (AND), BM25 (k1 1.2, b 0.75) 로 상위 k 개.
+ * tf 는 필드 가중치(제목 3, 태그 2, 본문 1)를 곱해서 셉니다.
+ */
+public final class SearchIndex implements Closeable {
+
+    static final String MANIFEST = "index.manifest";
+    static final int MANIFEST_MAGIC = 0x4256534d; // "BVSM"
+    static final int MANIFEST_VERSION = 1;
+    static final String SEGMENT_PREFIX = "seg-";
+    static final String SEGMENT_SUFFIX = ".bvs";
+
+    static final int MAX_SEGMENTS = 8;
+    // 메모리 조각이 이만큼 (문서, term) 쌍을 들고 있으면 upsert 에서 바로 flush
+    static final int MAX_BUFFERED_POSTINGS = 200_000;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final File dir;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // 병합은 한 번에 하나만
+    private final Object mergeLock = new Object();
+    // flush (조각 파일과 manifest 쓰기) 는 한 번에 하나만. mergeLock → flushLock → lock 순서로 잡음
+    private final Object flushLock = new Object();
+
+    // 아래는 lock 으로 보호. segments 는 바꿀 때 새 리스트로 교체
+    private List<DiskSegment> segments;
+    private MemorySegment buffer;
+    // 파일로 쓰는 중인 이전 메모리 조각 (없으면 null). 더 이상 add 하지 않으므로 lock 없이 읽어도 됨
+    private MemorySegment flushing;
+    private final BitSet deleted;
+    private int generation;
+    private int liveCount;
+    private long liveLength;
+    // manifest 에 반영하지 않은 삭제가 있음
+    private boolean dirty;
+
+    private SearchIndex(File dir, List<DiskSegment> segments, BitSet deleted, int generation, int nextDocId) {
+        this.dir = dir;
+        this.segments = segments;
+        this.deleted = deleted;
+        this.generation = generation;
+        this.buffer = new MemorySegment(nextDocId);
+        for (DiskSegment segment : segments) {
+            for (int doc = 0; doc < segment.docCount(); doc++) {
+                if (!deleted.get(segment.docBase() + doc)) {
+                    liveCount++;
+                    liveLength += segment.length(doc);
+                }
+            }
+        }
+    }
+
+    /**
+     * 없으면 빈 색인을 만듭니다. 파일이 깨졌으면 IOException (색인은 다시 만들 수 있으므로 지우고 다시 열면 됨)
+     */
+    public static SearchIndex open(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        List<DiskSegment> segments = new ArrayList<>();
+        BitSet deleted = new BitSet();
+        int generation = 0;
+        int nextDocId = 0;
+        File manifest = new File(dir, MANIFEST);
+        if (manifest.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifest)))) {
+                if (in.readInt() != MANIFEST_MAGIC) {
+                    throw new IOException("Not a search index manifest: " + manifest);
+                }
+                int version = in.readInt();
+                if (version != MANIFEST_VERSION) {
+                    throw new IOException("Unsupported search index version " + version);
+                }
+                generation = in.readInt();
+                nextDocId = in.readInt();
+                int segmentCount = in.readInt();
+                for (int i = 0; i < segmentCount; i++) {
+                    String name = in.readUTF();
+                    int docBase = in.readInt();
+                    segments.add(DiskSegment.open(new File(dir, name), docBase));
+                }
+                int deletedCount = in.readInt();
+                for (int i = 0; i < deletedCount; i++) {
+                    deleted.set(in.readInt());
+                }
+            }
+        }
+        // 커밋 전에 죽어서 남은 조각/임시 파일
+        Set<String> live = new HashSet<>();
+        for (DiskSegment segment : segments) {
+            live.add(segment.file.getName());
+        }
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                if (name.endsWith(".tmp") || (name.startsWith(SEGMENT_PREFIX) && !live.contains(name))) {
+                    file.delete();
+                }
+            }
+        }
+        return new SearchIndex(dir, Collections.unmodifiableList(segments), deleted, generation, nextDocId);
+    }
+
+    /**
+     * 같은 id 의 이전 판을 바꿉니다.
+     *
+     * @return 색인이 바뀌었는지 (내용이 같으면 false)
+     */
+    public boolean upsert(SearchDocument document) throws IOException {
+        Map<String, Integer> termFreqs = new HashMap<>();
+        int[] length = {0};
+        HangulTokenizer.indexTerms(document.title, term -> count(termFreqs, length, term, HangulTokenizer.TITLE_WEIGHT));
+        for (String tag : document.tags) {
+            HangulTokenizer.indexTerms(tag, term -> count(termFreqs, length, term, HangulTokenizer.TAG_WEIGHT));
+        }
+        HangulTokenizer.indexTerms(document.body, term -> count(termFreqs, length, term, HangulTokenizer.BODY_WEIGHT));
+        long hash = document.contentHash();
+
+        lock.writeLock().lock();
+        try {
+            int current = locate(document.id);
+            if (current >= 0) {
+                Segment segment = segmentOf(current);
+                if (segment.hash(current - segment.docBase()) == hash) {
+                    return false;
+                }
+                markDeleted(current);
+            }
+            buffer.add(document.id, hash, termFreqs, length[0]);
+            liveCount++;
+            liveLength += length[0];
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        flush(MAX_BUFFERED_POSTINGS);
+        return true;
+    }
+
+    private static void count(Map<String, Integer> termFreqs, int[] length, String term, int weight) {
+        termFreqs.merge(term, weight, Integer::sum);
+        length[0] += weight;
+    }
+
+    /**
+     * @return 색인에 있던 문서인지
+     */
+    public boolean delete(String id) {
+        lock.writeLock().lock();
+        try {
+            int current = locate(id);
+            if (current < 0) {
+                return false;
+            }
+            markDeleted(current);
+            dirty = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<SearchHit> search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /**
+     * @param idPrefix null 이 아니면 id 가 이것으로 시작하는 문서만 (예: "post:")
+     * @return 점수 높은 순, 같으면 나중에 색인한 문서 먼저
+     */
+    public List<SearchHit> search(String query, int limit, String idPrefix) {
+        List<String> terms = HangulTokenizer.queryTerms(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Segment> all = allSegments();
+            int termCount = terms.size();
+            int[] df = new int[termCount];
+            for (int t = 0; t < termCount; t++) {
+                for (Segment segment : all) {
+                    df[t] += segment.df(terms.get(t));
+                }
+                if (df[t] == 0) {
+                    return Collections.emptyList();
+                }
+            }
+            // 드문 term 부터: 첫 term 의 postings 가 후보, 나머지는 건너뛰며 확인
+            Integer[] order = new Integer[termCount];
+            for (int t = 0; t < termCount; t++) {
+                order[t] = t;
+            }
+            Arrays.sort(order, (a, b) -> Integer.compare(df[a], df[b]));
+            float[] idf = new float[termCount];
+            int n = Math.max(liveCount, 1);
+            for (int t = 0; t < termCount; t++) {
+                int f = Math.min(df[order[t]], n);
+                idf[t] = (float) Math.log(1 + (n - f + 0.5) / (f + 0.5));
+            }
+            float averageLength = liveCount == 0 ? 1 : (float) liveLength / liveCount;
+
+            // 점수가 가장 낮은 것이 맨 앞
+            PriorityQueue<long[]> top = new PriorityQueue<>(limit + 1, (a, b) -> {
+                int c = Float.compare(Float.intBitsToFloat((int) a[0]), Float.intBitsToFloat((int) b[0]));
+                return c != 0 ? c : Long.compare(a[1], b[1]);
+            });
+            PostingsCursor[] cursors = new PostingsCursor[termCount];
+            for (Segment segment : all) {
+                if (!openCursors(segment, terms, order, cursors)) {
+                    continue;
+                }
+                PostingsCursor lead = cursors[0];
+                candidates:
+                while (lead.next()) {
+                    int doc = lead.doc();
+                    int global = segment.docBase() + doc;
+                    if (deleted.get(global)) {
+                        continue;
+                    }
+                    float norm = K1 * (1 - B + B * segment.length(doc) / averageLength);
+                    float score = idf[0] * bm25(lead.tf(), norm);
+                    for (int t = 1; t < termCount; t++) {
+                        PostingsCursor cursor = cursors[t];
+                        if (!cursor.advance(doc)) {
+                            break candidates;
+                        }
+                        if (cursor.doc() != doc) {
+                            continue candidates;
+                        }
+                        score += idf[t] * bm25(cursor.tf(), norm);
+                    }
+                    if (top.size() == limit && !better(score, global, top.peek())) {
+                        continue;
+                    }
+                    if (idPrefix != null && !segment.id(doc).startsWith(idPrefix)) {
+                        continue;
+                    }
+                    top.add(new long[] {Float.floatToIntBits(score), global});
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            SearchHit[] hits = new SearchHit[top.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                long[] entry = top.poll();
+                int global = (int) entry[1];
+                Segment segment = segmentOf(global);
+                hits[i] = new SearchHit(segment.id(global - segment.docBase()), Float.intBitsToFloat((int) entry[0]));
+            }
+            return Arrays.asList(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static float bm25(int tf, float norm) {
+        return tf * (K1 + 1) / (tf + norm);
+    }
+
+    private static boolean better(float score, int global, long[] lowest) {
+        float lowestScore = Float.intBitsToFloat((int) lowest[0]);
+        return score > lowestScore || (score == lowestScore && global > lowest[1]);
+    }
+
+    // term 하나라도 이 조각에 없으면 AND 결과가 없음
+    private static boolean openCursors(Segment segment, List<String> terms, Integer[] order, PostingsCursor[] cursors) {
+        for (int t = 0; t < cursors.length; t++) {
+            cursors[t] = segment.postings(terms.get(order[t]));
+            if (cursors[t] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 메모리 조각을 파일로 쓰고 manifest 를 커밋합니다. 바뀐 것이 없으면 아무것도 하지 않습니다.
+     */
+    public void flush() throws IOException {
+        flush(0);
+    }
+
+    /**
+     * 메모리 조각은 lock 안에서 새것으로 바꿔 두고, 파일과 manifest 는 lock 밖에서 씁니다.
+     * 쓰는 동안 이전 조각은 flushing 으로 남아 검색에 그대로 보입니다.
+     *
+     * @param minPostings 메모리 조각이 이보다 작으면 쓰지 않음 (upsert 에서 MAX_BUFFERED_POSTINGS)
+     */
+    private void flush(int minPostings) throws IOException {
+        synchronized (flushLock) {
+            MemorySegment pending;
+            File file = null;
+            lock.writeLock().lock();
+            try {
+                // flushing 이 남아 있으면 지난번 쓰기가 실패한 것이므로 그것부터 다시
+                if (flushing == null) {
+                    if (buffer.postingCount() < minPostings) {
+                        return;
+                    }
+                    if (buffer.docCount() > 0) {
+                        flushing = buffer;
+                        buffer = new MemorySegment(buffer.docBase() + buffer.docCount());
+                    }
+                }
+                pending = flushing;
+                if (pending == null && !dirty) {
+                    return;
+                }
+                if (pending != null) {
+                    file = new File(dir, SEGMENT_PREFIX + (generation++) + SEGMENT_SUFFIX);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            DiskSegment written = null;
+            if (pending != null) {
+                SegmentWriter writer = new SegmentWriter(file);
+                try {
+                    pending.writeTo(writer);
+                } catch (IOException | RuntimeException e) {
+                    writer.abort();
+                    throw e;
+                }
+                writer.finish();
+                written = DiskSegment.open(file, pending.docBase());
+            }
+
+            byte[] manifest;
+            lock.writeLock().lock();
+            try {
+                if (written != null) {
+                    List<DiskSegment> next = new ArrayList<>(segments);
+                    next.add(written);
+                    segments = Collections.unmodifiableList(next);
+                    flushing = null;
+                }
+                manifest = manifestBytes();
+                dirty = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            try {
+                writeManifest(manifest);
+            } catch (IOException | RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    dirty = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 조각이 MAX_SEGMENTS 보다 많으면 문서 수 합이 가장 작은 이웃 두 개를, 아니면 절반 넘게 지워진 조각 하나를
+     * 다시 씁니다. 한 번에 한 번만 합치므로 false 가 나올 때까지 부르면 됩니다. (백그라운드 스레드에서)
+     *
+     * @return 합쳤는지
+     */
+    public boolean maybeMerge() throws IOException {
+        synchronized (mergeLock) {
+            List<DiskSegment> current;
+            BitSet snapshot;
+            File file;
+            lock.writeLock().lock();
+            try {
+                current = segments;
+                snapshot = (BitSet) deleted.clone();
+                int[] range = pickMerge(current, snapshot);
+                if (range == null) {
+                    return false;
+                }
+                current = current.subList(range[0], range[1]);
+                file = new File(dir, SEGMENT_PREFIX + (generation++) + SEGMENT_SUFFIX);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // 오래 걸리는 부분은 lock 없이. 읽는 조각 파일은 바뀌지 않음
+            int[][] remap = SegmentMerger.merge(current, snapshot, file);
+            int docBase = current.get(0).docBase();
+            DiskSegment merged = DiskSegment.open(file, docBase);
+
+            lock.writeLock().lock();
+            try {
+                // 병합하는 동안 지워진 문서는 새 번호로 옮겨 표시
+                List<Integer> deletedSince = new ArrayList<>();
+                for (int s = 0; s < current.size(); s++) {
+                    DiskSegment segment = current.get(s);
+                    for (int doc = 0; doc < segment.docCount(); doc++) {
+                        int global = segment.docBase() + doc;
+                        if (remap[s][doc] >= 0 && deleted.get(global) && !snapshot.get(global)) {
+                            deletedSince.add(docBase + remap[s][doc]);
+                        }
+                    }
+                }
+                DiskSegment last = current.get(current.size() - 1);
+                deleted.clear(docBase, last.docBase() + last.docCount());
+                for (int global : deletedSince) {
+                    deleted.set(global);
+                }
+
+                // flush 는 끝에 붙이기만 하므로 병합한 조각들의 위치는 그대로
+                List<DiskSegment> next = new ArrayList<>(segments);
+                int at = next.indexOf(current.get(0));
+                next.subList(at, at + current.size()).clear();
+                if (merged.docCount() > 0) {
+                    next.add(at, merged);
+                }
+                segments = Collections.unmodifiableList(next);
+                dirty = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // manifest 에는 메모리 조각의 새 판 때문에 지운 이전 판도 들어가므로 새 판도 함께 커밋.
+            // 커밋하기 전에는 이전 조각 파일을 지우면 안 됨
+            flush();
+            for (DiskSegment segment : current) {
+                segment.file.delete();
+            }
+            if (merged.docCount() == 0) {
+                merged.file.delete();
+            }
+            return true;
+        }
+    }
+
+    static int[] pickMerge(List<DiskSegment> segments, BitSet deleted) {
+        if (segments.size() > MAX_SEGMENTS) {
+            int best = 0;
+            long bestDocs = Long.MAX_VALUE;
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                long docs = (long) segments.get(i).docCount() + segments.get(i + 1).docCount();
+                if (docs < bestDocs) {
+                    best = i;
+                    bestDocs = docs;
+                }
+            }
+            return new int[] {best, best + 2};
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            DiskSegment segment = segments.get(i);
+            int start = segment.docBase();
+            int dead = deleted.get(start, start + segment.docCount()).cardinality();
+            if (dead * 2 > segment.docCount()) {
+                return new int[] {i, i + 1};
+            }
+        }
+        return null;
+    }
+
+    public Stats stats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            long terms = buffer.termCount();
+            int buffered = buffer.docCount();
+            if (flushing != null) {
+                terms += flushing.termCount();
+                buffered += flushing.docCount();
+            }
+            int docs = buffered;
+            for (DiskSegment segment : segments) {
+                bytes += segment.sizeBytes();
+                terms += segment.termCount();
+                docs += segment.docCount();
+            }
+            return new Stats(liveCount, docs - liveCount, segments.size(), buffered, terms, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static final class Stats {
+        public final int documents;
+        /** 병합 전까지 조각에 남아 있는 이전 판/삭제된 문서 */
+        public final int deletedDocuments;
+        public final int segments;
+        /** 아직 flush 하지 않은 문서 (삭제된 것 포함) */
+        public final int bufferedDocuments;
+        /** 조각별 term 수의 합 (같은 term 이 여러 조각에 있으면 여러 번) */
+        public final long terms;
+        public final long indexBytes;
+
+        Stats(int documents, int deletedDocuments, int segments, int bufferedDocuments, long terms, long indexBytes) {
+            this.documents = documents;
+            this.deletedDocuments = deletedDocuments;
+            this.segments = segments;
+            this.bufferedDocuments = bufferedDocuments;
+            this.terms = terms;
+            this.indexBytes = indexBytes;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    // 가장 최근 판이 살아 있으면 그 전체 번호, 아니면 -1. (살아 있는 판은 항상 가장 최근 판 하나뿐)
+    private int locate(String id) {
+        int doc = buffer.find(id);
+        if (doc >= 0) {
+            return liveOrMissing(buffer.docBase() + doc);
+        }
+        if (flushing != null) {
+            doc = flushing.find(id);
+            if (doc >= 0) {
+                return liveOrMissing(flushing.docBase() + doc);
+            }
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            DiskSegment segment = segments.get(i);
+            doc = segment.find(id);
+            if (doc >= 0) {
+                return liveOrMissing(segment.docBase() + doc);
+            }
+        }
+        return -1;
+    }
+
+    private int liveOrMissing(int global) {
+        return deleted.get(global) ? -1 : global;
+    }
+
+    private void markDeleted(int global) {
+        Segment segment = segmentOf(global);
+        deleted.set(global);
+        liveCount--;
+        liveLength -= segment.length(global - segment.docBase());
+    }
+
+    private Segment segmentOf(int global) {
+        if (global >= buffer.docBase()) {
+            return buffer;
+        }
+        if (flushing != null && global >= flushing.docBase()) {
+            return flushing;
+        }
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (global >= segments.get(i).docBase()) {
+                return segments.get(i);
+            }
+        }
+        throw new IllegalArgumentException("Unknown document " + global);
+    }
+
+    private List<Segment> allSegments() {
+        List<Segment> all = new ArrayList<>(segments.size() + 2);
+        all.addAll(segments);
+        if (flushing != null) {
+            all.add(flushing);
+        }
+        if (buffer.docCount() > 0) {
+            all.add(buffer);
+        }
+        return all;
+    }
+
+    // lock 안에서 manifest 내용만 만들고 파일은 writeManifest 가 lock 밖에서 씀.
+    // flushing 이 없을 때만 부르므로 buffer.docBase() 가 파일에 있는 문서의 끝 (다음에 열 때의 첫 번호)
+    private byte[] manifestBytes() throws IOException {
+        int diskEnd = buffer.docBase();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MANIFEST_MAGIC);
+        out.writeInt(MANIFEST_VERSION);
+        out.writeInt(generation);
+        out.writeInt(diskEnd);
+        out.writeInt(segments.size());
+        for (DiskSegment segment : segments) {
+            out.writeUTF(segment.file.getName());
+            out.writeInt(segment.docBase());
+        }
+        BitSet persisted = deleted.get(0, diskEnd);
+        out.writeInt(persisted.cardinality());
+        for (int i = persisted.nextSetBit(0); i >= 0; i = persisted.nextSetBit(i + 1)) {
+            out.writeInt(i);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // flushLock 안에서만
+    private void writeManifest(byte[] contents) throws IOException {
+        File manifest = new File(dir, MANIFEST);
+        File tmp = new File(dir, MANIFEST + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(contents);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(manifest)) {
+            tmp.delete();
+            throw new IOException("Cannot rename " + tmp + " to " + manifest);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bivunote.search;
+
+/**
+ * 색인 조각. 문서 번호는 조각 안에서 0 부터 (local), 색인 전체에서는 docBase() + local 입니다.
+ * 조각 사이의 전체 번호는 만든 순서대로 커지므로 조각 안의 postings 순서가 곧 전체 순서입니다.
+ */
+interface Segment {
+
+    int docBase();
+
+    int docCount();
+
+    /** term 이 나온 문서 수 (삭제된 문서 포함) */
+    int df(String term);
+
+    /** 없으면 null */
+    PostingsCursor postings(String term);
+
+    String id(int localDoc);
+
+    /** 필드 가중치를 곱한 term 수 (BM25 의 문서 길이) */
+    int length(int localDoc);
+
+    long hash(int localDoc);
+
+    /**
+     * @return id 가 이 조각에 들어 있는 local 번호들 중 가장 큰 것, 없으면 -1
+     */
+    int find(String id);
+}
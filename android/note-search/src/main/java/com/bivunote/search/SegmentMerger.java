@@ -0,0 +1,94 @@
+package com.bivunote.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 이웃한 DiskSegment 들을 하나로 합치면서 지워진 문서를 버리고 번호를 다시 매깁니다.
+ * 각 조각의 term 표가 이미 정렬되어 있으므로 k-way 병합으로 한 term 씩 흘려 씁니다.
+ */
+final class SegmentMerger {
+
+    private SegmentMerger() {
+    }
+
+    private static final class TermStream {
+        final int segment;
+        final DiskSegment source;
+        int index;
+        byte[] term;
+
+        TermStream(int segment, DiskSegment source) {
+            this.segment = segment;
+            this.source = source;
+            this.term = source.termAt(0);
+        }
+    }
+
+    /**
+     * @param deleted 전체 번호 기준의 삭제 표시 (병합하는 동안 바뀌지 않는 복사본)
+     * @return [조각][옛 local 번호] → 새 조각의 local 번호, 버린 문서는 -1
+     */
+    static int[][] merge(List<DiskSegment> segments, BitSet deleted, File file) throws IOException {
+        SegmentWriter writer = new SegmentWriter(file);
+        try {
+            int[][] remap = new int[segments.size()][];
+            int next = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                DiskSegment segment = segments.get(s);
+                remap[s] = new int[segment.docCount()];
+                for (int doc = 0; doc < segment.docCount(); doc++) {
+                    if (deleted.get(segment.docBase() + doc)) {
+                        remap[s][doc] = -1;
+                    } else {
+                        remap[s][doc] = next++;
+                        writer.addDoc(segment.id(doc), segment.length(doc), segment.hash(doc));
+                    }
+                }
+            }
+
+            // 같은 term 이면 앞 조각부터 (새 번호가 조각 순서대로 커지므로 postings 순서가 유지됨)
+            PriorityQueue<TermStream> queue = new PriorityQueue<>((a, b) -> {
+                int c = SegmentWriter.compare(a.term, b.term);
+                return c != 0 ? c : Integer.compare(a.segment, b.segment);
+            });
+            for (int s = 0; s < segments.size(); s++) {
+                if (segments.get(s).termCount() > 0) {
+                    queue.add(new TermStream(s, segments.get(s)));
+                }
+            }
+            PostingsBuffer buffer = new PostingsBuffer();
+            while (!queue.isEmpty()) {
+                byte[] term = queue.peek().term;
+                buffer.reset();
+                while (!queue.isEmpty() && SegmentWriter.compare(queue.peek().term, term) == 0) {
+                    TermStream stream = queue.poll();
+                    int[] docs = remap[stream.segment];
+                    PostingsCursor cursor = stream.source.postingsAt(stream.index);
+                    while (cursor.next()) {
+                        int doc = docs[cursor.doc()];
+                        if (doc >= 0) {
+                            buffer.add(doc, cursor.tf());
+                        }
+                    }
+                    if (++stream.index < stream.source.termCount()) {
+                        stream.term = stream.source.termAt(stream.index);
+                        queue.add(stream);
+                    }
+                }
+                // 지워진 문서에만 있던 term 은 버림
+                if (buffer.count() > 0) {
+                    writer.addTerm(term, buffer);
+                }
+            }
+            writer.finish();
+            return remap;
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+    }
+}
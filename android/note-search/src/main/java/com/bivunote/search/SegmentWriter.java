@@ -0,0 +1,195 @@
+package com.bivunote.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DiskSegment 파일을 앞에서부터 한 번에 씁니다. 문서를 모두 addDoc 한 뒤 term 을 바이트 순서대로 addTerm.
+ * postings 는 바로 파일로 나가고 term 표만 메모리에 모았다가 끝에 씁니다.
+ * 임시 파일에 쓰고 fsync 후 rename 하므로 중간에 죽어도 반쯤 쓴 조각이 보이지 않습니다.
+ *
+ * 형식 (int 는 big-endian):
+ * header: magic, version, docCount, termCount, docsOffset, idTableOffset, postingsOffset,
+ *         termTableOffset, termBytesOffset, fileLength
+ * docs: length[docCount], hash(long)[docCount], idOffset[docCount + 1], id 바이트(UTF-8)
+ * idTable: id 바이트 순서로 정렬한 local 번호[docCount]
+ * postings: term 마다 (번호 차이, tf) varint 쌍 * df
+ * termTable: (termOffset, postingsOffset, df) * termCount, 마지막 termOffset
+ * termBytes: term 바이트(UTF-8)를 이어 붙인 것
+ */
+final class SegmentWriter {
+
+    static final int MAGIC = 0x42565358; // "BVSX"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 10 * 4;
+    static final int TERM_ENTRY_BYTES = 3 * 4;
+
+    private final File file;
+    private final File tmp;
+    private final FileOutputStream fileOut;
+    private final DataOutputStream out;
+
+    private final List<byte[]> ids = new ArrayList<>();
+    private int[] lengths = new int[64];
+    private long[] hashes = new long[64];
+
+    private boolean docsWritten;
+    private int docsOffset;
+    private int idTableOffset;
+    private int postingsOffset;
+    private int termCount;
+    private int[] termTable = new int[3 * 64];
+    private final ByteArrayOutputStream termBytes = new ByteArrayOutputStream();
+    private byte[] lastTerm;
+
+    SegmentWriter(File file) throws IOException {
+        this.file = file;
+        this.tmp = new File(file.getPath() + ".tmp");
+        this.fileOut = new FileOutputStream(tmp);
+        this.out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+        out.write(new byte[HEADER_BYTES]);
+    }
+
+    void addDoc(String id, int length, long hash) {
+        if (docsWritten) {
+            throw new IllegalStateException("Documents must be added before terms");
+        }
+        int doc = ids.size();
+        if (doc == lengths.length) {
+            lengths = Arrays.copyOf(lengths, doc * 2);
+            hashes = Arrays.copyOf(hashes, doc * 2);
+        }
+        ids.add(id.getBytes(StandardCharsets.UTF_8));
+        lengths[doc] = length;
+        hashes[doc] = hash;
+    }
+
+    int docCount() {
+        return ids.size();
+    }
+
+    /**
+     * @param term 바로 앞 term 보다 (부호 없는 바이트 순서로) 커야 합니다
+     */
+    void addTerm(byte[] term, PostingsBuffer postings) throws IOException {
+        if (!docsWritten) {
+            writeDocs();
+        }
+        if (lastTerm != null && compare(lastTerm, term) >= 0) {
+            throw new IllegalArgumentException("Terms must be added in ascending byte order");
+        }
+        lastTerm = term;
+        if (termCount * 3 + 3 > termTable.length) {
+            termTable = Arrays.copyOf(termTable, termTable.length * 2);
+        }
+        termTable[termCount * 3] = termBytes.size();
+        termTable[termCount * 3 + 1] = out.size() - postingsOffset;
+        termTable[termCount * 3 + 2] = postings.count();
+        termCount++;
+        termBytes.write(term);
+        postings.writeTo(out);
+    }
+
+    void finish() throws IOException {
+        boolean done = false;
+        try {
+            if (!docsWritten) {
+                writeDocs();
+            }
+            int termTableOffset = out.size();
+            for (int i = 0; i < termCount * 3; i++) {
+                out.writeInt(termTable[i]);
+            }
+            out.writeInt(termBytes.size());
+            int termBytesOffset = out.size();
+            termBytes.writeTo(out);
+            int fileLength = out.size();
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(ids.size()).putInt(termCount)
+                    .putInt(docsOffset).putInt(idTableOffset).putInt(postingsOffset)
+                    .putInt(termTableOffset).putInt(termBytesOffset).putInt(fileLength);
+            header.flip();
+            while (header.hasRemaining()) {
+                fileOut.getChannel().write(header, header.position());
+            }
+            fileOut.getFD().sync();
+            out.close();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Cannot rename " + tmp + " to " + file);
+            }
+            done = true;
+        } finally {
+            if (!done) {
+                abort();
+            }
+        }
+    }
+
+    void abort() {
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // 지울 파일
+        }
+        tmp.delete();
+    }
+
+    private void writeDocs() throws IOException {
+        docsWritten = true;
+        int docCount = ids.size();
+        docsOffset = out.size();
+        for (int i = 0; i < docCount; i++) {
+            out.writeInt(lengths[i]);
+        }
+        for (int i = 0; i < docCount; i++) {
+            out.writeLong(hashes[i]);
+        }
+        int offset = 0;
+        for (byte[] id : ids) {
+            out.writeInt(offset);
+            offset += id.length;
+        }
+        out.writeInt(offset);
+        for (byte[] id : ids) {
+            out.write(id);
+        }
+
+        idTableOffset = out.size();
+        Integer[] order = new Integer[docCount];
+        for (int i = 0; i < docCount; i++) {
+            order[i] = i;
+        }
+        // 같은 id 가 여러 번 있으면 (지워진 이전 판) 번호 순서로
+        Arrays.sort(order, (a, b) -> {
+            int c = compare(ids.get(a), ids.get(b));
+            return c != 0 ? c : Integer.compare(a, b);
+        });
+        for (int doc : order) {
+            out.writeInt(doc);
+        }
+        postingsOffset = out.size();
+    }
+
+    /** 부호 없는 바이트 순서 (UTF-8 이면 코드 포인트 순서와 같음) */
+    static int compare(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int c = (a[i] & 0xff) - (b[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return a.length - b.length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bivunote.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class HangulTokenizerTest {
+
+    @Test
+    public void hangulIsIndexedAsUnigramsAndBigrams() {
+        assertEquals(Arrays.asList("수", "수학", "학", "공", "공부", "부"), index("수학 공부"));
+    }
+
+    @Test
+    public void queryUsesBigramsAcrossSpacing() {
+        assertEquals(Arrays.asList("수학", "공부"), HangulTokenizer.queryTerms("수학 공부"));
+        assertEquals(Arrays.asList("수학", "학공", "공부"), HangulTokenizer.queryTerms("수학공부"));
+        assertEquals(Collections.singletonList("수"), HangulTokenizer.queryTerms("수"));
+    }
+
+    @Test
+    public void composingJamoIsIgnored() {
+        assertEquals(Collections.singletonList("수학"), HangulTokenizer.queryTerms("수학ㄱ"));
+        assertTrue(HangulTokenizer.queryTerms("ㅋㅋㅋ").isEmpty());
+        assertTrue(index("ㅋㅋㅋ").isEmpty());
+    }
+
+    @Test
+    public void latinWordsUseTrigrams() {
+        assertEquals(Arrays.asList("and", "ndr", "dro", "roi", "oid", "14"), HangulTokenizer.queryTerms("Android 14"));
+        assertEquals(Collections.singletonList("ai"), HangulTokenizer.queryTerms("AI"));
+    }
+
+    @Test
+    public void mixedRunsAreSplitByScript() {
+        assertEquals(Arrays.asList("ai", "수학"), HangulTokenizer.queryTerms("AI수학!"));
+    }
+
+    @Test
+    public void decomposedAndFullWidthTextIsNormalized() {
+        String decomposed = Normalizer.normalize("비유노트", Normalizer.Form.NFD);
+        assertEquals(HangulTokenizer.queryTerms("비유노트"), HangulTokenizer.queryTerms(decomposed));
+        assertEquals(HangulTokenizer.queryTerms("abc"), HangulTokenizer.queryTerms("ＡＢＣ"));
+    }
+
+    @Test
+    public void longTokensAreCapped() {
+        StringBuilder url = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            url.append((char) ('a' + i % 26));
+        }
+        assertEquals(30, index(url.toString()).size());
+    }
+
+    private static List<String> index(String text) {
+        List<String> terms = new ArrayList<>();
+        HangulTokenizer.indexTerms(text, terms::add);
+        return terms;
+    }
+}
@@ -0,0 +1,236 @@
+package com.bivunote.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SearchIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private SearchIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = new File(folder.getRoot(), "search-index");
+        index = SearchIndex.open(dir);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    public void findsSubstringsRegardlessOfSpacing() throws IOException {
+        index.upsert(doc("post:1", "미적분 공부법", "극한과 연속을 먼저 정리합니다", "수학"));
+        index.upsert(doc("post:2", "영어 단어", "하루 30개씩 외우기", "영어"));
+
+        assertEquals(ids("post:1"), ids(index.search("공부", 10)));
+        assertEquals(ids("post:1"), ids(index.search("적분 공부법", 10)));
+        assertEquals(ids("post:1"), ids(index.search("극한 연속", 10)));
+        assertEquals(ids(), ids(index.search("극한 단어", 10)));
+        assertEquals(ids("post:2"), ids(index.search("30개", 10)));
+    }
+
+    @Test
+    public void titleAndTagsOutrankBody() throws IOException {
+        index.upsert(doc("post:body", "오늘의 기록", "비유로 이해하는 확률 이야기", null));
+        index.upsert(doc("post:title", "확률 비유 모음", "여러 예시를 모았습니다", null));
+        index.upsert(doc("post:tag", "오늘의 기록", "여러 예시를 모았습니다", "확률"));
+
+        assertEquals(ids("post:title", "post:tag", "post:body"), ids(index.search("확률", 10)));
+        assertEquals(ids("post:title", "post:tag"), ids(index.search("확률", 2)));
+    }
+
+    @Test
+    public void upsertReplacesPreviousVersion() throws IOException {
+        assertTrue(index.upsert(doc("note:1", "초안", "삼각함수 정리", null)));
+        index.flush();
+        assertTrue(index.upsert(doc("note:1", "초안", "벡터 정리", null)));
+
+        assertEquals(ids(), ids(index.search("삼각함수", 10)));
+        assertEquals(ids("note:1"), ids(index.search("벡터", 10)));
+        assertEquals(1, index.stats().documents);
+        assertEquals(1, index.stats().deletedDocuments);
+    }
+
+    @Test
+    public void unchangedContentIsNotReindexed() throws IOException {
+        assertTrue(index.upsert(doc("post:1", "제목", "본문", "태그")));
+        index.flush();
+        assertFalse(index.upsert(doc("post:1", "제목", "본문", "태그")));
+        assertEquals(0, index.stats().bufferedDocuments);
+        assertTrue(index.upsert(doc("post:1", "제목", "본문", "다른 태그")));
+    }
+
+    @Test
+    public void deleteAndKindFilter() throws IOException {
+        index.upsert(doc("post:1", "확률과 통계", "", null));
+        index.upsert(doc("note:1", "확률 노트", "", null));
+
+        assertEquals(ids("note:1"), ids(index.search("확률", 10, "note:")));
+        assertTrue(index.delete("note:1"));
+        assertFalse(index.delete("note:1"));
+        assertEquals(ids("post:1"), ids(index.search("확률", 10)));
+    }
+
+    @Test
+    public void flushedChangesSurviveReopen() throws IOException {
+        index.upsert(doc("post:1", "확률과 통계", "", null));
+        index.upsert(doc("post:2", "확률 문제", "", null));
+        index.flush();
+        index.delete("post:2");
+        index.upsert(doc("post:3", "확률 노트", "", null));
+        index.flush();
+        // flush 하지 않은 변경은 버려짐
+        index.upsert(doc("post:4", "확률 요약", "", null));
+        index = SearchIndex.open(dir);
+
+        assertEquals(ids("post:3", "post:1"), ids(index.search("확률", 10)));
+        assertEquals(2, index.stats().documents);
+        // 번호가 다시 쓰여도 지운 표시가 새 문서에 붙지 않음
+        index.upsert(doc("post:5", "확률 정리", "", null));
+        assertEquals(ids("post:5", "post:3", "post:1"), ids(index.search("확률", 10)));
+    }
+
+    @Test
+    public void leftoverFilesAreRemovedOnOpen() throws IOException {
+        index.upsert(doc("post:1", "확률", "", null));
+        index.flush();
+        File orphan = new File(dir, "seg-99.bvs");
+        File tmp = new File(dir, "seg-100.bvs.tmp");
+        try (FileOutputStream out = new FileOutputStream(orphan)) {
+            out.write(1);
+        }
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(1);
+        }
+        index = SearchIndex.open(dir);
+        assertFalse(orphan.exists());
+        assertFalse(tmp.exists());
+        assertEquals(ids("post:1"), ids(index.search("확률", 10)));
+    }
+
+    @Test
+    public void mergeKeepsResultsAndDropsDeletedDocuments() throws IOException {
+        for (int i = 0; i < SearchIndex.MAX_SEGMENTS + 4; i++) {
+            index.upsert(doc("post:" + i, "확률 " + i, "조건부 확률과 베이즈 정리 " + i, null));
+            index.upsert(doc("note:" + i, "메모 " + i, "벡터 공간", null));
+            index.flush();
+        }
+        index.delete("post:3");
+        index.upsert(doc("note:5", "메모 5", "확률 분포", null));
+        List<String> before = ids(index.search("확률", 100));
+        long bytesBefore = index.stats().indexBytes;
+
+        int merges = 0;
+        while (index.maybeMerge()) {
+            merges++;
+        }
+        assertTrue(merges >= 4);
+        SearchIndex.Stats stats = index.stats();
+        assertTrue(stats.segments <= SearchIndex.MAX_SEGMENTS + 1);
+        assertEquals(before, ids(index.search("확률", 100)));
+        assertTrue(stats.indexBytes < bytesBefore);
+
+        index = SearchIndex.open(dir);
+        assertEquals(before, ids(index.search("확률", 100)));
+        assertEquals(ids("note:5"), ids(index.search("분포", 10)));
+        assertEquals(2 * (SearchIndex.MAX_SEGMENTS + 4) - 1, index.stats().documents);
+    }
+
+    @Test
+    public void mostlyDeletedSegmentIsRewritten() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            index.upsert(doc("post:" + i, "확률 " + i, "", null));
+        }
+        index.flush();
+        for (int i = 0; i < 6; i++) {
+            index.delete("post:" + i);
+        }
+        index.flush();
+        assertTrue(index.maybeMerge());
+        assertFalse(index.maybeMerge());
+        assertEquals(0, index.stats().deletedDocuments);
+        assertEquals(ids("post:9", "post:8", "post:7", "post:6"), ids(index.search("확률", 10)));
+        // 병합 뒤에도 id 로 찾아서 바꿀 수 있음
+        assertTrue(index.upsert(doc("post:7", "통계", "", null)));
+        assertEquals(ids("post:9", "post:8", "post:6"), ids(index.search("확률", 10)));
+    }
+
+    @Test
+    public void searchSeesEveryDocumentWhileFlushing() throws Exception {
+        int total = 200;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) {
+                    index.upsert(doc("post:" + i, "확률 " + i, "조건부 확률", null));
+                    if (i % 10 == 0) {
+                        index.flush();
+                    }
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        // 메모리 조각을 파일로 쓰는 동안에도 이미 넣은 문서가 빠지지 않음
+        int seen = 0;
+        while (writer.isAlive()) {
+            int found = index.search("확률", total).size();
+            assertTrue(found + " < " + seen, found >= seen);
+            seen = found;
+        }
+        writer.join();
+        assertNull(failure.get());
+        assertEquals(total, index.search("확률", total).size());
+
+        index.close();
+        index = SearchIndex.open(dir);
+        assertEquals(total, index.stats().documents);
+    }
+
+    @Test
+    public void emptyQueryFindsNothing() throws IOException {
+        index.upsert(doc("post:1", "확률", "", null));
+        assertEquals(ids(), ids(index.search("", 10)));
+        assertEquals(ids(), ids(index.search("!!", 10)));
+        assertEquals(ids(), ids(index.search("확률", 0)));
+    }
+
+    private static SearchDocument doc(String id, String title, String body, String tag) {
+        return new SearchDocument(id, title, body, tag == null ? null : Collections.singletonList(tag));
+    }
+
+    private static List<String> ids(String... ids) {
+        return Arrays.asList(ids);
+    }
+
+    private static List<String> ids(List<SearchHit> hits) {
+        List<String> ids = new ArrayList<>();
+        for (SearchHit hit : hits) {
+            ids.add(hit.id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,134 @@
+package com.bivunote.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 10만 개 합성 문서를 조금씩 flush/병합하며 색인하고, 고친 판과 삭제까지 섞은 뒤
+ * 검색 결과를 전수 조사와 비교합니다. 시간은 재지 않습니다 (benchmarks 의 SearchIndexBenchmark).
+ */
+public class SyntheticCorpusTest {
+
+    private static final int DOCS = 100_000;
+    private static final int QUERIES = 40;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void matchesBruteForceAndStaysCompact() throws IOException {
+        SyntheticCorpus corpus = new SyntheticCorpus(7, 20_000);
+        int[] versions = new int[DOCS];
+        boolean[] removed = new boolean[DOCS];
+        Random random = new Random(11);
+
+        SearchIndex index = SearchIndex.open(folder.newFolder("search-index"));
+        for (int i = 0; i < DOCS; i++) {
+            index.upsert(corpus.document(i, 0));
+            // 앱처럼 글을 보거나 쓸 때마다 조금씩 바뀜
+            if (i > 0 && i % 50 == 0) {
+                int target = random.nextInt(i);
+                if (random.nextInt(4) == 0) {
+                    index.delete(corpus.document(target, 0).id);
+                    removed[target] = true;
+                } else if (!removed[target]) {
+                    index.upsert(corpus.document(target, ++versions[target]));
+                }
+            }
+            if (i % 2_000 == 1_999) {
+                index.flush();
+                while (index.maybeMerge()) {
+                    // 조각 수가 한도 안으로 들어올 때까지
+                }
+            }
+        }
+        index.flush();
+
+        List<String> queries = new ArrayList<>();
+        List<List<String>> queryTerms = new ArrayList<>();
+        List<Set<String>> expected = new ArrayList<>();
+        while (queries.size() < QUERIES) {
+            String query = corpus.query(random);
+            queries.add(query);
+            queryTerms.add(HangulTokenizer.queryTerms(query));
+            expected.add(new HashSet<>());
+        }
+        long rawBytes = 0;
+        for (int i = 0; i < DOCS; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            SearchDocument document = corpus.document(i, versions[i]);
+            rawBytes += (document.title + document.body + String.join(" ", document.tags))
+                    .getBytes(StandardCharsets.UTF_8).length;
+            Set<String> terms = new HashSet<>(SyntheticCorpus.allTerms(document));
+            for (int q = 0; q < QUERIES; q++) {
+                if (terms.containsAll(queryTerms.get(q))) {
+                    expected.get(q).add(document.id);
+                }
+            }
+        }
+
+        int removedCount = 0;
+        for (boolean r : removed) {
+            removedCount += r ? 1 : 0;
+        }
+        SearchIndex.Stats stats = index.stats();
+        assertEquals(DOCS - removedCount, stats.documents);
+        assertTrue(stats.segments <= SearchIndex.MAX_SEGMENTS);
+        // n-gram 은 원문보다 term 이 훨씬 많지만 varint postings 라 원문 크기 정도 (측정 시 0.95 배)
+        assertTrue("index " + stats.indexBytes + " bytes for " + rawBytes + " bytes of text",
+                stats.indexBytes < rawBytes * 2);
+
+        int nonEmpty = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            List<SearchHit> hits = index.search(queries.get(q), DOCS);
+            Set<String> found = new HashSet<>();
+            float previous = Float.MAX_VALUE;
+            for (SearchHit hit : hits) {
+                found.add(hit.id);
+                assertTrue(hit.score <= previous);
+                previous = hit.score;
+            }
+            assertEquals(queries.get(q), expected.get(q), found);
+            assertEquals(hits.size(), found.size());
+            nonEmpty += hits.isEmpty() ? 0 : 1;
+
+            // 상위 k 는 전체 결과의 앞부분과 같음
+            List<SearchHit> top = index.search(queries.get(q), 10);
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(hits.get(i).id, top.get(i).id);
+            }
+            // 종류 필터
+            for (SearchHit hit : index.search(queries.get(q), 50, "note:")) {
+                assertTrue(hit.id.startsWith("note:"));
+            }
+        }
+        assertTrue(nonEmpty > QUERIES / 2);
+
+        // 다시 열어도 같음
+        index.close();
+        index = SearchIndex.open(folder.getRoot().toPath().resolve("search-index").toFile());
+        assertEquals(expected.get(0), ids(index.search(queries.get(0), DOCS)));
+    }
+
+    private static Set<String> ids(List<SearchHit> hits) {
+        Set<String> ids = new HashSet<>();
+        for (SearchHit hit : hits) {
+            ids.add(hit.id);
+        }
+        return ids;
+    }
+}
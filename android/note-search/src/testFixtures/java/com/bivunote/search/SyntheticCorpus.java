@@ -0,0 +1,117 @@
+package com.bivunote.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 글/노트와 비슷한 모양의 합성 문서. 같은 seed 면 같은 문서가 나오므로 문서를 들고 있지 않고 다시 만듭니다.
+ * 단어는 자주 쓰는 음절을 2~3개 이어 만들고 Zipf 분포로 고릅니다. (benchmarks 에서도 사용)
+ */
+final class SyntheticCorpus {
+
+    private static final String SYLLABLES =
+            "가각간갈감강개거건걸검게겨격견결경계고곡공과관광교구국군권귀규그극근글금기길김나난날남내너노논"
+                    + "높누는다단달담당대더도동두드등라래량려력련로록론료루류르리마만말매머면명모목문물미민바반발방배"
+                    + "번법변별보복본부분불비사산상새생서선설성세소속손수순술스습시식신실심아안알암애야약양어언업여역"
+                    + "연열영예오온요용우운원위유육은음의이인일자작장재저전절점정제조종주중지직진질차착참창책처천철청"
+                    + "체초총추축출충치친칙카코크타탄태터토통투트특파판편평포표품프피하학한할함합해행향허현형호화확환활회효후";
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final String[] words;
+    private final double[] cumulative;
+    private final long seed;
+
+    SyntheticCorpus(long seed, int vocabulary) {
+        this.seed = seed;
+        Random random = new Random(seed);
+        words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            StringBuilder word = new StringBuilder();
+            if (i % 10 == 9) {
+                // 영어 단어도 조금
+                int length = 3 + random.nextInt(6);
+                for (int c = 0; c < length; c++) {
+                    word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+                }
+            } else {
+                int length = 2 + random.nextInt(2);
+                for (int c = 0; c < length; c++) {
+                    word.append(SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+                }
+            }
+            words[i] = word.toString();
+        }
+        cumulative = new double[vocabulary];
+        double sum = 0;
+        for (int i = 0; i < vocabulary; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < vocabulary; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * @param version 같은 문서를 고쳐 쓴 판 (0 이 처음)
+     */
+    SearchDocument document(int index, int version) {
+        Random random = new Random(seed * 31 + index * 1_000_003L + version);
+        String title = words(random, 2 + random.nextInt(4));
+        String body = words(random, 15 + random.nextInt(50));
+        List<String> tags = random.nextInt(3) == 0
+                ? Collections.singletonList(word(random)) : Collections.emptyList();
+        return new SearchDocument((index % 5 == 0 ? "note:" : "post:") + index, title, body, tags);
+    }
+
+    /** 문서에 나올 법한 검색어 (단어 하나, 두 단어, 단어 일부) */
+    String query(Random random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return word(random);
+            case 1:
+                return word(random) + " " + word(random);
+            default:
+                String word = word(random);
+                return word.length() > 2 ? word.substring(1) : word;
+        }
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(i % 9 == 0 ? ". " : " ");
+            }
+            text.append(word(random));
+        }
+        return text.toString();
+    }
+
+    private String word(Random random) {
+        double target = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return words[low];
+    }
+
+    static List<String> allTerms(SearchDocument document) {
+        List<String> terms = new ArrayList<>();
+        HangulTokenizer.indexTerms(document.title, terms::add);
+        for (String tag : document.tags) {
+            HangulTokenizer.indexTerms(tag, terms::add);
+        }
+        HangulTokenizer.indexTerms(document.body, terms::add);
+        return terms;
+    }
+}
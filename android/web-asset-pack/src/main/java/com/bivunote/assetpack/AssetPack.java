@@ -0,0 +1,142 @@
+package com.bivunote.assetpack;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * AssetPackWriter 가 만든 pack 을 읽습니다. 본문은 넘겨받은 ByteBuffer 의 slice 로만 들고 있으므로
+ * mmap 한 버퍼를 넘기면 응답할 때까지 복사가 없습니다.
+ *
+ * 형식: magic, version, indexLength, index(count, entries...), data
+ * entry: path, mimeType, etag, flags, offset, length
+ * offset 은 data 영역 시작 기준입니다.
+ *
+ * 압축본은 넣지 않습니다. shouldInterceptRequest 의 요청 헤더에는 Accept-Encoding 이 없고,
+ * 본문은 같은 프로세스 안에서 mmap 버퍼로 바로 넘기므로 압축해도 전송량 이득이 없습니다.
+ */
+public final class AssetPack {
+
+    static final int MAGIC = 0x42564150; // "BVAP"
+    // 2: 압축본(variant) 없이 entry 당 본문 하나
+    static final int VERSION = 2;
+
+    static final int FLAG_IMMUTABLE = 1;
+
+    private static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "no-cache";
+
+    private final Map<String, Entry> entries;
+
+    private AssetPack(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static AssetPack read(ByteBuffer pack) throws IOException {
+        ByteBuffer header = pack.duplicate();
+        if (header.remaining() < 12 || header.getInt() != MAGIC) {
+            throw new IOException("Not an asset pack");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset pack version " + version);
+        }
+        int indexLength = header.getInt();
+        if (indexLength < 0 || indexLength > header.remaining()) {
+            throw new IOException("Truncated asset pack");
+        }
+        ByteBuffer index = header.slice();
+        index.limit(indexLength);
+        header.position(header.position() + indexLength);
+        ByteBuffer data = header.slice();
+
+        DataInputStream in = new DataInputStream(new ByteBufferInputStream(index));
+        int count = in.readInt();
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String path = in.readUTF();
+            String mimeType = in.readUTF();
+            String etag = in.readUTF();
+            int flags = in.readUnsignedByte();
+            long offset = in.readLong();
+            int length = in.readInt();
+            if (offset < 0 || length < 0 || offset + length > data.limit()) {
+                throw new IOException("Corrupt asset pack entry " + path);
+            }
+            ByteBuffer body = data.duplicate();
+            body.position((int) offset);
+            body.limit((int) offset + length);
+            entries.put(path, new Entry(path, mimeType, etag, (flags & FLAG_IMMUTABLE) != 0,
+                    body.slice().asReadOnlyBuffer()));
+        }
+        return new AssetPack(entries);
+    }
+
+    /**
+     * @param path 앞에 '/' 가 없는 상대 경로 (예: "assets/App-Cnx-z95_.js")
+     */
+    public Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public static final class Entry {
+        public final String path;
+        public final String mimeType;
+        public final String etag;
+        public final boolean immutable;
+        private final ByteBuffer body;
+
+        Entry(String path, String mimeType, String etag, boolean immutable, ByteBuffer body) {
+            this.path = path;
+            this.mimeType = mimeType;
+            this.etag = etag;
+            this.immutable = immutable;
+            this.body = body;
+        }
+
+        public Response respond() {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Cache-Control", immutable ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+            headers.put("ETag", etag);
+            headers.put("Content-Length", Integer.toString(body.remaining()));
+            return new Response(mimeType, charsetOf(mimeType), Collections.unmodifiableMap(headers), body.duplicate());
+        }
+
+        public ByteBuffer identity() {
+            return body.duplicate();
+        }
+    }
+
+    public static final class Response {
+        public final String mimeType;
+        /** 텍스트 형식이면 "utf-8", 아니면 null */
+        public final String charset;
+        public final Map<String, String> headers;
+        private final ByteBuffer body;
+
+        Response(String mimeType, String charset, Map<String, String> headers, ByteBuffer body) {
+            this.mimeType = mimeType;
+            this.charset = charset;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public InputStream openStream() {
+            return new ByteBufferInputStream(body.duplicate());
+        }
+    }
+
+    static String charsetOf(String mimeType) {
+        return mimeType.startsWith("text/") || mimeType.equals("application/json")
+                || mimeType.equals("image/svg+xml") ? "utf-8" : null;
+    }
+}
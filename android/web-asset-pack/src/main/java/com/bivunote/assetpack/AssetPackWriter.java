@@ -0,0 +1,162 @@
+package com.bivunote.assetpack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 웹 번들 디렉터리를 AssetPack 형식의 파일 하나로 묶습니다.
+ *
+ * - Vite 가 해시를 붙인 assets/ 아래 파일은 immutable 로 표시
+ * - HTML 은 Capacitor 가 스크립트를 주입해야 하므로 넣지 않음
+ *
+ * 실행: AssetPackWriter &lt;sourceDir&gt; &lt;packFile&gt; (app 의 buildWebAssetPack 태스크)
+ */
+public final class AssetPackWriter {
+
+    // 예: assets/vendor-react-BhX2aB3c.js, assets/App-DL08hcqP.css
+    private static final Pattern HASHED_NAME = Pattern.compile("^assets/.+-[A-Za-z0-9_-]{8,}\\.[A-Za-z0-9]+$");
+    private static final Map<String, String> MIME_TYPES = new HashMap<>();
+
+    static {
+        MIME_TYPES.put("js", "text/javascript");
+        MIME_TYPES.put("mjs", "text/javascript");
+        MIME_TYPES.put("css", "text/css");
+        MIME_TYPES.put("json", "application/json");
+        MIME_TYPES.put("map", "application/json");
+        MIME_TYPES.put("webmanifest", "application/manifest+json");
+        MIME_TYPES.put("txt", "text/plain");
+        MIME_TYPES.put("svg", "image/svg+xml");
+        MIME_TYPES.put("png", "image/png");
+        MIME_TYPES.put("jpg", "image/jpeg");
+        MIME_TYPES.put("jpeg", "image/jpeg");
+        MIME_TYPES.put("gif", "image/gif");
+        MIME_TYPES.put("webp", "image/webp");
+        MIME_TYPES.put("avif", "image/avif");
+        MIME_TYPES.put("ico", "image/x-icon");
+        MIME_TYPES.put("woff", "font/woff");
+        MIME_TYPES.put("woff2", "font/woff2");
+        MIME_TYPES.put("ttf", "font/ttf");
+        MIME_TYPES.put("wasm", "application/wasm");
+        MIME_TYPES.put("mp3", "audio/mpeg");
+        MIME_TYPES.put("mp4", "video/mp4");
+    }
+
+    private AssetPackWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AssetPackWriter <sourceDir> <packFile>");
+            System.exit(2);
+        }
+        int count = write(new File(args[0]), new File(args[1]));
+        System.out.println("Packed " + count + " files into " + args[1]);
+    }
+
+    /**
+     * @return pack 에 넣은 파일 수
+     */
+    public static int write(File sourceDir, File packFile) throws IOException {
+        if (!sourceDir.isDirectory()) {
+            throw new IOException("Not a directory: " + sourceDir);
+        }
+        List<String> paths = new ArrayList<>();
+        collect(sourceDir, "", paths);
+        Collections.sort(paths);
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        indexOut.writeInt(paths.size());
+        for (String path : paths) {
+            byte[] body = Files.readAllBytes(new File(sourceDir, path).toPath());
+            indexOut.writeUTF(path);
+            indexOut.writeUTF(mimeTypeOf(path));
+            indexOut.writeUTF(etagOf(body));
+            indexOut.writeByte(isImmutable(path) ? AssetPack.FLAG_IMMUTABLE : 0);
+            indexOut.writeLong(data.size());
+            indexOut.writeInt(body.length);
+            data.write(body);
+        }
+        indexOut.flush();
+
+        File parent = packFile.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(packFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(AssetPack.MAGIC);
+            header.writeInt(AssetPack.VERSION);
+            header.writeInt(index.size());
+            index.writeTo(out);
+            data.writeTo(out);
+            out.getFD().sync();
+        }
+        Files.move(tmp.toPath(), packFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return paths.size();
+    }
+
+    private static void collect(File dir, String prefix, List<String> paths) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.getName().startsWith(".")) {
+                continue;
+            }
+            if (child.isDirectory()) {
+                collect(child, path + "/", paths);
+            } else if (!isHtml(path)) {
+                paths.add(path);
+            }
+        }
+    }
+
+    static boolean isHtml(String path) {
+        String lower = path.toLowerCase(Locale.US);
+        return lower.endsWith(".html") || lower.endsWith(".htm");
+    }
+
+    static boolean isImmutable(String path) {
+        return HASHED_NAME.matcher(path).matches();
+    }
+
+    static String mimeTypeOf(String path) {
+        int dot = path.lastIndexOf('.');
+        String mimeType = dot < 0 ? null : MIME_TYPES.get(path.substring(dot + 1).toLowerCase(Locale.US));
+        return mimeType != null ? mimeType : "application/octet-stream";
+    }
+
+    // 내용 기준 strong ETag (SHA-256 앞 128비트)
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder etag = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xf, 16))
+                        .append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.bivunote.assetpack;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class AssetPackTest {
+
+    private File sourceDir;
+    private File packFile;
+    private RandomAccessFile packAccess;
+
+    @Before
+    public void setUp() throws IOException {
+        sourceDir = Files.createTempDirectory("web").toFile();
+        packFile = new File(sourceDir.getParentFile(), sourceDir.getName() + ".pack");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (packAccess != null) {
+            packAccess.close();
+        }
+        packFile.delete();
+        try (Stream<java.nio.file.Path> files = Files.walk(sourceDir.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void servedBytesMatchOriginals() throws IOException {
+        byte[] script = repeat("export const a = () => console.log('비유노트');\n", 400);
+        byte[] style = repeat(".screen { display: flex; }\n", 200);
+        byte[] image = randomBytes(5000);
+        write("assets/MainScreen-BkqyP4K4.js", script);
+        write("assets/App-DL08hcqP.css", style);
+        write("images/logo.png", image);
+        write("cordova.js", "// cordova".getBytes(StandardCharsets.UTF_8));
+
+        AssetPack pack = pack();
+
+        assertEquals(4, pack.size());
+        for (String path : new String[]{"assets/MainScreen-BkqyP4K4.js", "assets/App-DL08hcqP.css",
+                "images/logo.png", "cordova.js"}) {
+            byte[] original = Files.readAllBytes(new File(sourceDir, path).toPath());
+            assertArrayEquals(path, original, readAll(pack.get(path).respond().openStream()));
+        }
+    }
+
+    @Test
+    public void bodiesAreServedUncompressed() throws IOException {
+        // WebView 는 가로챈 응답의 Content-Encoding 을 기대할 수 없으므로 텍스트도 원본 그대로
+        byte[] script = repeat("function f() { return 1; }\n", 500);
+        write("assets/vendor-react-BhX2aB3c.js", script);
+
+        AssetPack.Response response = pack().get("assets/vendor-react-BhX2aB3c.js").respond();
+        assertNull(response.headers.get("Content-Encoding"));
+        assertNull(response.headers.get("Vary"));
+        assertEquals(Integer.toString(script.length), response.headers.get("Content-Length"));
+    }
+
+    @Test
+    public void hashedChunksAreImmutable() throws IOException {
+        write("assets/AchievementsScreen-DZ9MCCC_.js", "a".getBytes(StandardCharsets.UTF_8));
+        write("sw.js", "b".getBytes(StandardCharsets.UTF_8));
+
+        AssetPack pack = pack();
+        AssetPack.Entry chunk = pack.get("assets/AchievementsScreen-DZ9MCCC_.js");
+        assertTrue(chunk.immutable);
+        assertEquals("public, max-age=31536000, immutable", chunk.respond().headers.get("Cache-Control"));
+        AssetPack.Entry worker = pack.get("sw.js");
+        assertFalse(worker.immutable);
+        assertEquals("no-cache", worker.respond().headers.get("Cache-Control"));
+    }
+
+    @Test
+    public void etagFollowsContent() throws IOException {
+        write("a.js", repeat("same();\n", 200));
+        write("b.js", repeat("same();\n", 200));
+        write("c.js", repeat("other();\n", 200));
+
+        AssetPack pack = pack();
+        String etag = pack.get("a.js").respond().headers.get("ETag");
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, pack.get("b.js").respond().headers.get("ETag"));
+        assertNotEquals(etag, pack.get("c.js").respond().headers.get("ETag"));
+    }
+
+    @Test
+    public void htmlIsLeftToCapacitor() throws IOException {
+        write("index.html", "<html></html>".getBytes(StandardCharsets.UTF_8));
+        write("assets/index-Ab12Cd34.js", "x".getBytes(StandardCharsets.UTF_8));
+
+        AssetPack pack = pack();
+        assertNull(pack.get("index.html"));
+        assertEquals("text/javascript", pack.get("assets/index-Ab12Cd34.js").mimeType);
+        assertEquals("utf-8", pack.get("assets/index-Ab12Cd34.js").respond().charset);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        AssetPack.read(ByteBuffer.wrap("not a pack at all".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // 앱과 같은 방식으로 mmap 해서 읽음
+    private AssetPack pack() throws IOException {
+        AssetPackWriter.write(sourceDir, packFile);
+        packAccess = new RandomAccessFile(packFile, "r");
+        return AssetPack.read(packAccess.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, packAccess.length()));
+    }
+
+    private void write(String path, byte[] content) throws IOException {
+        File file = new File(sourceDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+    }
+
+    private static byte[] repeat(String text, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
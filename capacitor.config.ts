@@ -9,6 +9,10 @@ const config: CapacitorConfig = {
       providers: ['google.com'],
       skipNativeAuth: true,
     },
+    InAppPurchases: {
+      // 'firstCall' | 'idle' 로 바꾸면 결제 연결을 앱 시작 경로에서 뺌 (getStartupTiming 으로 비교)
+      initMode: 'eager',
+    },
     SplashScreen: {
       launchShowDuration: 1000, // 1초로 단축 (성능 최적화)
       launchAutoHide: true,
@@ -0,0 +1,158 @@
+package by.chemerisuk.cordova.firebase;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Auth state subscribers of the plugin. Listens to ID token changes (sign in/out, profile updates
+ * and token refreshes) but only sends a result when the uid or a profile field changed, so token
+ * refreshes alone do not wake the WebView. New subscribers get the last snapshot right away,
+ * or the first one once FirebaseAuth is attached.
+ */
+final class AuthStateRegistry implements FirebaseAuth.IdTokenListener {
+    private final Map<String, CallbackContext> subscribers = new LinkedHashMap<>();
+    private FirebaseAuth firebaseAuth;
+    private Snapshot snapshot;
+
+    void attach(FirebaseAuth auth) {
+        synchronized (this) {
+            firebaseAuth = auth;
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            auth.addIdTokenListener(this);
+        }
+        // first state for the subscribers that came before attach
+        onIdTokenChanged(auth);
+    }
+
+    /**
+     * Replaces the subscriber with the same id, if any.
+     */
+    void subscribe(String subscriberId, CallbackContext callbackContext) {
+        Snapshot current;
+        CallbackContext replaced;
+        synchronized (this) {
+            if (subscribers.isEmpty() && firebaseAuth != null) {
+                firebaseAuth.addIdTokenListener(this);
+            }
+            replaced = subscribers.put(subscriberId, callbackContext);
+            if (snapshot == null && firebaseAuth != null) {
+                snapshot = new Snapshot(firebaseAuth.getCurrentUser());
+            }
+            current = snapshot;
+        }
+        if (replaced != null && replaced != callbackContext) {
+            replaced.sendPluginResult(new PluginResult(PluginResult.Status.NO_RESULT));
+        }
+        // nothing to send before attach()
+        if (current != null) {
+            callbackContext.sendPluginResult(current.getResult());
+        }
+    }
+
+    /**
+     * @param subscriberId subscriber to remove, or null to remove all of them
+     */
+    void unsubscribe(String subscriberId) {
+        List<CallbackContext> removed = new ArrayList<>();
+        synchronized (this) {
+            if (subscriberId == null) {
+                removed.addAll(subscribers.values());
+                subscribers.clear();
+            } else {
+                CallbackContext callbackContext = subscribers.remove(subscriberId);
+                if (callbackContext != null) {
+                    removed.add(callbackContext);
+                }
+            }
+            if (!removed.isEmpty() && subscribers.isEmpty() && firebaseAuth != null) {
+                firebaseAuth.removeIdTokenListener(this);
+                // nobody keeps the snapshot up to date anymore
+                snapshot = null;
+            }
+        }
+        for (CallbackContext callbackContext : removed) {
+            // lets cordova.js release the JS callback
+            callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.NO_RESULT));
+        }
+    }
+
+    @Override
+    public void onIdTokenChanged(@NonNull FirebaseAuth auth) {
+        Snapshot changed = new Snapshot(auth.getCurrentUser());
+        List<CallbackContext> targets;
+        synchronized (this) {
+            if (subscribers.isEmpty() || changed.equals(snapshot)) {
+                return;
+            }
+            snapshot = changed;
+            targets = new ArrayList<>(subscribers.values());
+        }
+        PluginResult result = changed.getResult();
+        for (CallbackContext callbackContext : targets) {
+            callbackContext.sendPluginResult(result);
+        }
+    }
+
+    /**
+     * Profile fields of a user, compared by uid and hash before the JSON result is built.
+     */
+    private static final class Snapshot {
+        private final FirebaseUser user;
+        private final String uid;
+        private final Object[] fields;
+        private final int hash;
+        private PluginResult result;
+
+        Snapshot(FirebaseUser user) {
+            this.user = user;
+            if (user == null) {
+                uid = null;
+                fields = new Object[0];
+            } else {
+                uid = user.getUid();
+                fields = new Object[] {
+                        user.getDisplayName(), user.getEmail(), user.getPhoneNumber(),
+                        user.getPhotoUrl() == null ? null : user.getPhotoUrl().toString(),
+                        user.getProviderId(), user.isEmailVerified()
+                };
+            }
+            hash = Arrays.hashCode(fields);
+        }
+
+        synchronized PluginResult getResult() {
+            if (result == null) {
+                result = UserProfiles.getProfileResult(user);
+                result.setKeepCallback(true);
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Snapshot)) {
+                return false;
+            }
+            Snapshot other = (Snapshot) o;
+            return hash == other.hash && (uid == null ? other.uid == null : uid.equals(other.uid))
+                    && Arrays.equals(fields, other.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (uid == null ? 0 : uid.hashCode()) + hash;
+        }
+    }
+}
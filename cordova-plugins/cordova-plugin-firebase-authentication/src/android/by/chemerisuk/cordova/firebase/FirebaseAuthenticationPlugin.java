@@ -0,0 +1,330 @@
+package by.chemerisuk.cordova.firebase;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import by.chemerisuk.cordova.support.CordovaMethod;
+import by.chemerisuk.cordova.support.ReflectiveCordovaPlugin;
+
+import com.google.android.gms.tasks.SuccessContinuation;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.AuthResult;
+import com.google.firebase.auth.FacebookAuthProvider;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.auth.GoogleAuthProvider;
+import com.google.firebase.auth.PhoneAuthCredential;
+import com.google.firebase.auth.PhoneAuthOptions;
+import com.google.firebase.auth.PhoneAuthProvider;
+import com.google.firebase.auth.TwitterAuthProvider;
+import com.google.firebase.FirebaseException;
+import com.google.firebase.auth.UserProfileChangeRequest;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaArgs;
+import org.apache.cordova.PluginResult;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import androidx.annotation.NonNull;
+
+
+public class FirebaseAuthenticationPlugin extends ReflectiveCordovaPlugin {
+    private static final String TAG = "FirebaseAuthentication";
+    // profile copy (email, phone number) written by an earlier version of this fork; only deleted now
+    private static final String STALE_LAST_USER_FILE = "firebase-auth-last-user.json";
+    // subscriber of setAuthStateChanged calls without an id (ids from www/ are never empty)
+    private static final String DEFAULT_SUBSCRIBER = "";
+
+    // FirebaseAuth.getInstance() is called only from this thread
+    private final ExecutorService authExecutor = Executors.newSingleThreadExecutor();
+    private final TaskCompletionSource<FirebaseAuth> authReady = new TaskCompletionSource<>();
+    private final AuthStateRegistry authStateRegistry = new AuthStateRegistry();
+    private volatile FirebaseAuth firebaseAuth;
+    private volatile IdTokenCache idTokenCache;
+
+    @Override
+    protected void pluginInitialize() {
+        Log.d(TAG, "Starting Firebase Authentication plugin");
+        final File staleLastUser = new File(cordova.getActivity().getFilesDir(), STALE_LAST_USER_FILE);
+        // restoring the signed in user reads from disk: keep it off the main thread while the bridge starts
+        authExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (staleLastUser.exists() && !staleLastUser.delete()) {
+                    Log.w(TAG, "Failed to delete " + staleLastUser);
+                }
+                try {
+                    initializeAuth();
+                } catch (RuntimeException e) {
+                    // e.g. FirebaseApp is not initialized: fail waiting calls instead of leaving them pending
+                    Log.e(TAG, "Failed to initialize FirebaseAuth", e);
+                    authReady.trySetException(e);
+                }
+            }
+        });
+    }
+
+    private void initializeAuth() {
+        long startedAt = SystemClock.elapsedRealtime();
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        idTokenCache = new IdTokenCache(auth);
+        firebaseAuth = auth;
+        authStateRegistry.attach(auth);
+        authReady.setResult(auth);
+        Log.d(TAG, "FirebaseAuth ready in " + (SystemClock.elapsedRealtime() - startedAt) + "ms");
+    }
+
+    /**
+     * Runs action with FirebaseAuth: directly when it is initialized, otherwise once it is.
+     */
+    private <T> Task<T> whenReady(SuccessContinuation<FirebaseAuth, T> action) {
+        FirebaseAuth auth = firebaseAuth;
+        if (auth == null) {
+            return authReady.getTask().onSuccessTask(action);
+        }
+        try {
+            return action.then(auth);
+        } catch (Exception e) {
+            return Tasks.forException(e);
+        }
+    }
+
+    @Override
+    public void onPause(boolean multitasking) {
+        IdTokenCache cache = idTokenCache;
+        if (cache != null) {
+            cache.setPaused(true);
+        }
+    }
+
+    @Override
+    public void onResume(boolean multitasking) {
+        IdTokenCache cache = idTokenCache;
+        if (cache != null) {
+            cache.setPaused(false);
+        }
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        authExecutor.shutdown();
+        authStateRegistry.unsubscribe(null);
+        FirebaseAuth auth = firebaseAuth;
+        if (auth != null) {
+            idTokenCache.close();
+        }
+    }
+
+    /**
+     * args: disable, optional subscriber id. Without an id there is one shared subscriber that each
+     * call replaces, and disable removes every subscriber (what the single-callback version did).
+     */
+    @CordovaMethod
+    void setAuthStateChanged(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        boolean disable = args.getBoolean(0);
+        String subscriberId = args.isNull(1) ? null : args.getString(1);
+        if (disable) {
+            authStateRegistry.unsubscribe(subscriberId);
+        } else {
+            authStateRegistry.subscribe(subscriberId != null ? subscriberId : DEFAULT_SUBSCRIBER, callbackContext);
+        }
+    }
+
+    /**
+     * Waits for the background FirebaseAuth initialization when called right after startup.
+     */
+    @CordovaMethod
+    Task<PluginResult> getCurrentUser(CallbackContext callbackContext) {
+        return whenReady(auth -> Tasks.forResult(UserProfiles.getProfileResult(auth.getCurrentUser())));
+    }
+
+    @CordovaMethod
+    Task<String> getIdToken(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        boolean forceRefresh = args.getBoolean(0);
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return idTokenCache.getToken(user, forceRefresh);
+        });
+    }
+
+    @CordovaMethod
+    Task<AuthResult> createUserWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String email = args.getString(0);
+        String password = args.getString(1);
+        return whenReady(auth -> auth.createUserWithEmailAndPassword(email, password));
+    }
+
+    @CordovaMethod
+    Task<Void> sendEmailVerification(CallbackContext callbackContext) {
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return user.sendEmailVerification();
+        });
+    }
+
+    @CordovaMethod
+    Task<Void> sendPasswordResetEmail(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String email = args.getString(0);
+        return whenReady(auth -> auth.sendPasswordResetEmail(email));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInAnonymously(CallbackContext callbackContext) {
+        return whenReady(auth -> auth.signInAnonymously());
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithEmailAndPassword(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String email = args.getString(0);
+        String password = args.getString(1);
+        return whenReady(auth -> auth.signInWithEmailAndPassword(email, password));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithGoogle(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String idToken = args.getString(0);
+        String accessToken = args.getString(1);
+        return whenReady(auth -> auth.signInWithCredential(GoogleAuthProvider.getCredential(idToken, accessToken)));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithFacebook(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String accessToken = args.getString(0);
+        return whenReady(auth -> auth.signInWithCredential(FacebookAuthProvider.getCredential(accessToken)));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithTwitter(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String token = args.getString(0);
+        String secret = args.getString(1);
+        return whenReady(auth -> auth.signInWithCredential(TwitterAuthProvider.getCredential(token, secret)));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithVerificationId(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String verificationId = args.getString(0);
+        String code = args.getString(1);
+        return whenReady(auth -> auth.signInWithCredential(PhoneAuthProvider.getCredential(verificationId, code)));
+    }
+
+    @CordovaMethod
+    void verifyPhoneNumber(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String phoneNumber = args.getString(0);
+        long timeoutMillis = args.optLong(1);
+        // results come through the verification callbacks, not through a Task
+        authReady.getTask().addOnSuccessListener(auth -> {
+            PhoneAuthOptions.Builder options = PhoneAuthOptions.newBuilder(auth)
+                    .setActivity(cordova.getActivity())
+                    .setPhoneNumber(phoneNumber)
+                    .setCallbacks(new PhoneAuthProvider.OnVerificationStateChangedCallbacks() {
+                        @Override
+                        public void onVerificationCompleted(@NonNull PhoneAuthCredential credential) {
+                            FirebaseUser user = auth.getCurrentUser();
+                            if (user != null) {
+                                user.updatePhoneNumber(credential);
+                            }
+                        }
+
+                        @Override
+                        public void onCodeSent(@NonNull String verificationId, @NonNull PhoneAuthProvider.ForceResendingToken forceResendingToken) {
+                            callbackContext.success(verificationId);
+                        }
+
+                        @Override
+                        public void onVerificationFailed(@NonNull FirebaseException e) {
+                            callbackContext.error(e.getMessage());
+                        }
+                    });
+
+            if (timeoutMillis > 0) {
+                options.setTimeout(timeoutMillis, MILLISECONDS);
+            }
+            PhoneAuthProvider.verifyPhoneNumber(options.build());
+        }).addOnFailureListener(e -> callbackContext.error(e.getMessage()));
+    }
+
+    @CordovaMethod
+    Task<AuthResult> signInWithCustomToken(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String idToken = args.getString(0);
+        return whenReady(auth -> auth.signInWithCustomToken(idToken));
+    }
+
+    @CordovaMethod
+    Task<Void> signOut(CallbackContext callbackContext) {
+        return whenReady(auth -> {
+            auth.signOut();
+            return Tasks.forResult(null);
+        });
+    }
+
+    @CordovaMethod
+    Task<Void> setLanguageCode(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String languageCode = args.getString(0);
+        return whenReady(auth -> {
+            if (languageCode == null) {
+                auth.useAppLanguage();
+            } else {
+                auth.setLanguageCode(languageCode);
+            }
+            return Tasks.forResult(null);
+        });
+    }
+
+    @CordovaMethod
+    Task<Void> updateProfile(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        JSONObject params = args.getJSONObject(0);
+        UserProfileChangeRequest request = createProfileChangeRequest(params);
+        return whenReady(auth -> {
+            FirebaseUser user = auth.getCurrentUser();
+            if (user == null) {
+                return notAuthorized();
+            }
+            return user.updateProfile(request);
+        });
+    }
+
+    @CordovaMethod
+    Task<Void> useEmulator(CordovaArgs args, CallbackContext callbackContext) throws JSONException {
+        String host = args.getString(0);
+        int port = args.getInt(1);
+        return whenReady(auth -> {
+            auth.useEmulator(host, port);
+            return Tasks.forResult(null);
+        });
+    }
+
+    private static <T> Task<T> notAuthorized() {
+        return Tasks.forException(new IllegalStateException("User is not authorized"));
+    }
+
+    private static UserProfileChangeRequest createProfileChangeRequest(JSONObject jsonObject) throws JSONException {
+        UserProfileChangeRequest.Builder requestBuilder = new UserProfileChangeRequest.Builder();
+        if (jsonObject.has("displayName")) {
+            String displayName = jsonObject.getString("displayName");
+            requestBuilder = requestBuilder.setDisplayName(displayName);
+        }
+        if (jsonObject.has("photoURL")) {
+            String photoURL = jsonObject.getString("photoURL");
+            requestBuilder = requestBuilder.setPhotoUri(Uri.parse(photoURL));
+        }
+        return requestBuilder.build();
+    }
+}
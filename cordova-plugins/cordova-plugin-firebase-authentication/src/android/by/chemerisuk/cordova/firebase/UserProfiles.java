@@ -0,0 +1,51 @@
+package by.chemerisuk.cordova.firebase;
+
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseUser;
+
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Serializes the signed in user for getCurrentUser and auth state callbacks.
+ * Kept apart from the plugin so the JVM benchmarks can measure it without Firebase.
+ */
+final class UserProfiles {
+    private static final String TAG = "FirebaseAuthentication";
+
+    private UserProfiles() {
+    }
+
+    static PluginResult getProfileResult(FirebaseUser user) {
+        if (user == null) {
+            return new PluginResult(PluginResult.Status.OK, (String)null);
+        }
+
+        try {
+            return new PluginResult(PluginResult.Status.OK, toJson(user));
+        } catch (JSONException e) {
+            Log.e(TAG, "Fail to process getProfileData", e);
+
+            return new PluginResult(PluginResult.Status.ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * @return profile fields, or an empty object when user is null
+     */
+    static JSONObject toJson(FirebaseUser user) throws JSONException {
+        JSONObject result = new JSONObject();
+        if (user != null) {
+            result.put("uid", user.getUid());
+            result.put("displayName", user.getDisplayName());
+            result.put("email", user.getEmail());
+            result.put("phoneNumber", user.getPhoneNumber());
+            result.put("photoURL", user.getPhotoUrl() == null ? null : user.getPhotoUrl().toString());
+            result.put("providerId", user.getProviderId());
+            result.put("emailVerified", user.isEmailVerified());
+        }
+        return result;
+    }
+}
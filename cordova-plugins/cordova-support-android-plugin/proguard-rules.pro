@@ -0,0 +1,9 @@
+# ReflectiveCordovaPlugin 은 생성된 <Plugin>_CordovaDispatcher 를 이름으로 찾으므로 이름과 생성자를 유지
+-keep class * implements by.chemerisuk.cordova.support.CordovaDispatcher {
+    public <init>();
+}
+
+# private @CordovaMethod 메서드만 리플렉션으로 호출됨 (나머지는 dispatcher 가 직접 호출)
+-keepclassmembers class * extends by.chemerisuk.cordova.support.ReflectiveCordovaPlugin {
+    @by.chemerisuk.cordova.support.CordovaMethod private <methods>;
+}
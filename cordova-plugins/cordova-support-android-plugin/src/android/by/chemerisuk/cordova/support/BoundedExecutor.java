@@ -0,0 +1,112 @@
+package by.chemerisuk.cordova.support;
+
+import com.bivunote.bridge.BridgeTracer;
+import com.bivunote.bridge.ExecutorStats;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Fixed-size pool where running + queued commands are limited by a semaphore,
+ * so a full queue rejects the command right away instead of growing without bound.
+ * {@link #execute} is called on the Cordova bridge thread and never blocks it.
+ * With one thread commands run in submission order.
+ * Stats are registered with the {@link BridgeTracer} until {@link #shutdown}.
+ */
+final class BoundedExecutor {
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final String name;
+    private final Semaphore permits;
+    private final ThreadPoolExecutor executor;
+    private final BridgeTracer tracer;
+    private final Supplier<ExecutorStats> stats = this::getStats;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong queueWaitTotalNanos = new AtomicLong();
+    private final AtomicLong queueWaitMaxNanos = new AtomicLong();
+    private final AtomicLong runTotalNanos = new AtomicLong();
+    private final AtomicLong runMaxNanos = new AtomicLong();
+
+    BoundedExecutor(final String name, int poolSize, WorkerPoolConfig config, BridgeTracer tracer) {
+        this.name = name;
+        this.tracer = tracer;
+        this.permits = new Semaphore(poolSize + config.queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, name + "-" + count.incrementAndGet());
+                    }
+                });
+        // idle plugins should not keep threads around
+        this.executor.allowCoreThreadTimeOut(true);
+        tracer.registerExecutor(name, stats);
+    }
+
+    /**
+     * @return false if the command was rejected because the queue is full or the executor was shut down
+     */
+    boolean execute(final Runnable command) {
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        final long queuedAt = System.nanoTime();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long startedAt = System.nanoTime();
+                    try {
+                        command.run();
+                    } finally {
+                        long finishedAt = System.nanoTime();
+                        permits.release();
+                        record(queueWaitTotalNanos, queueWaitMaxNanos, startedAt - queuedAt);
+                        record(runTotalNanos, runMaxNanos, finishedAt - startedAt);
+                        completed.incrementAndGet();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // executor was shut down
+            permits.release();
+            submitted.decrementAndGet();
+            rejected.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private static void record(AtomicLong total, AtomicLong max, long nanos) {
+        total.addAndGet(nanos);
+        for (long current = max.get(); nanos > current; current = max.get()) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    ExecutorStats getStats() {
+        return new ExecutorStats(name, submitted.get(), rejected.get(), completed.get(),
+                executor.getQueue().size(), queueWaitTotalNanos.get(), queueWaitMaxNanos.get(),
+                runTotalNanos.get(), runMaxNanos.get());
+    }
+
+    void shutdown() {
+        tracer.unregisterExecutor(name, stats);
+        executor.shutdown();
+    }
+}
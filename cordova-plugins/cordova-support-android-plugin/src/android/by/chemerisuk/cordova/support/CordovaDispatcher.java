@@ -0,0 +1,22 @@
+package by.chemerisuk.cordova.support;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaArgs;
+
+/**
+ * Direct (non-reflective) dispatch of {@link CordovaMethod} actions.
+ * Implementations are generated at compile time as {@code <PluginClass>_CordovaDispatcher}.
+ */
+public interface CordovaDispatcher<P extends ReflectiveCordovaPlugin> {
+    String CLASS_NAME_SUFFIX = "_CordovaDispatcher";
+
+    /**
+     * @return thread to run the action on, or null if the action is not handled by this dispatcher
+     */
+    ExecutionThread getExecutionThread(String action);
+
+    /**
+     * @return value returned by the plugin method, null for void methods
+     */
+    Object dispatch(P plugin, String action, CordovaArgs args, CallbackContext callbackContext) throws Exception;
+}
@@ -0,0 +1,9 @@
+package by.chemerisuk.cordova.support;
+
+public enum ExecutionThread {
+    MAIN, UI, WORKER,
+    /** one thread per plugin, actions run in the order they were called */
+    SERIAL,
+    /** per-plugin pool limited by {@link WorkerPoolConfig} instead of the shared cordova thread pool */
+    BOUNDED_WORKER
+}
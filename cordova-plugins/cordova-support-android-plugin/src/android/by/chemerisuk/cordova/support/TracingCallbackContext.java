@@ -0,0 +1,45 @@
+package by.chemerisuk.cordova.support;
+
+import com.bivunote.bridge.CallOutcome;
+import com.bivunote.bridge.CallTrace;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+
+/**
+ * Forwards results to the original context and finishes the call trace with the first result
+ * that does not keep the callback.
+ */
+final class TracingCallbackContext extends CallbackContext {
+    private static final int STATUS_OK = PluginResult.Status.OK.ordinal();
+    private static final int STATUS_NO_RESULT = PluginResult.Status.NO_RESULT.ordinal();
+
+    private final CallbackContext delegate;
+    final CallTrace trace;
+
+    TracingCallbackContext(CallbackContext delegate, CordovaWebView webView, CallTrace trace) {
+        super(delegate.getCallbackId(), webView);
+        this.delegate = delegate;
+        this.trace = trace;
+    }
+
+    @Override
+    public String getCallbackId() {
+        return delegate.getCallbackId();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return delegate.isFinished();
+    }
+
+    @Override
+    public void sendPluginResult(PluginResult pluginResult) {
+        delegate.sendPluginResult(pluginResult);
+        if (!pluginResult.getKeepCallback()) {
+            int status = pluginResult.getStatus();
+            trace.finish(status == STATUS_OK || status == STATUS_NO_RESULT ? CallOutcome.RESOLVED : CallOutcome.REJECTED);
+        }
+    }
+}
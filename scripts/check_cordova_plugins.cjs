@@ -0,0 +1,48 @@
+// cordova-plugins/ 의 로컬 포크와 cap sync 가 만든 android/capacitor-cordova-android-plugins 가 같은지 확인
+// 포크를 고친 뒤 `npx cap sync android` 를 잊으면 (또는 생성된 모듈을 직접 고치면) 실패합니다.
+const fs = require('fs');
+const path = require('path');
+
+const root = path.resolve(__dirname, '..');
+const pluginsDir = path.join(root, 'cordova-plugins');
+const generatedJava = path.join(root, 'android/capacitor-cordova-android-plugins/src/main/java');
+
+const problems = [];
+const expected = new Set();
+
+for (const plugin of fs.readdirSync(pluginsDir)) {
+  const pluginXml = path.join(pluginsDir, plugin, 'plugin.xml');
+  if (!fs.existsSync(pluginXml)) continue;
+  const xml = fs.readFileSync(pluginXml, 'utf8');
+  for (const match of xml.matchAll(/<source-file src="([^"]+)" target-dir="([^"]+)"/g)) {
+    const [, src, targetDir] = match;
+    // Capacitor 와 같은 규칙: target-dir 의 src/ → java/
+    const target = path.join(generatedJava, targetDir.replace(/^src\//, ''), path.basename(src));
+    expected.add(target);
+    const source = path.join(pluginsDir, plugin, src);
+    if (!fs.existsSync(target)) {
+      problems.push(`missing ${path.relative(root, target)} (from ${plugin})`);
+    } else if (fs.readFileSync(source, 'utf8') !== fs.readFileSync(target, 'utf8')) {
+      problems.push(`${path.relative(root, target)} differs from ${path.relative(root, source)}`);
+    }
+  }
+}
+
+function walk(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const file = path.join(dir, entry.name);
+    if (entry.isDirectory()) walk(file);
+    else if (entry.name.endsWith('.java') && !expected.has(file)) {
+      problems.push(`${path.relative(root, file)} is not in any plugin.xml (cap sync will delete it)`);
+    }
+  }
+}
+walk(generatedJava);
+
+if (problems.length > 0) {
+  console.error('cordova-plugins and capacitor-cordova-android-plugins are out of sync:');
+  for (const problem of problems) console.error(`  ${problem}`);
+  console.error('Edit cordova-plugins/ and run `npx cap sync android` (see cordova-plugins/README.md).');
+  process.exit(1);
+}
+console.log(`cordova-plugins: ${expected.size} source files in sync`);
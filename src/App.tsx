@@ -7,6 +7,8 @@ import { useState, useEffect, useCallback, useRef } from "react";
 import {
   initAnalytics,
   trackAppOpen,
+  trackBridgeMetrics,
+  trackColdStart,
   trackScreenView,
   trackOnboardingStep,
   trackLogout,
@@ -41,7 +43,11 @@ const OfflineIndicator = lazy(() => import("./components/ui/offline-indicator").
 
 import { useOnlineStatus } from "./components/hooks/useOnlineStatus";
 import "./styles/globals.css";
-import { uploadAndUpdateProfileImage } from "./profileImageService";
+import {
+  getProfileImagePreviewUrl,
+  uploadAndUpdateProfileImage,
+  type ProfileImageSource,
+} from "./profileImageService";
 import { toast } from "./toastHelper";
 
 type AppScreen =
@@ -105,6 +111,25 @@ export default function App() {
     trackAppOpen();
   }, []);
 
+  // ✅ 첫 화면이 그려지면 콜드 스타트 타임라인 전송 (한 번)
+  useEffect(() => {
+    if (isLoading) return;
+    const frame = requestAnimationFrame(() => {
+      performance.mark("firstScreen");
+      trackColdStart();
+    });
+    return () => cancelAnimationFrame(frame);
+  }, [isLoading]);
+
+  // ✅ 백그라운드로 갈 때 네이티브 브리지 지표 전송
+  useEffect(() => {
+    const onVisibilityChange = () => {
+      if (document.visibilityState === "hidden") trackBridgeMetrics();
+    };
+    document.addEventListener("visibilitychange", onVisibilityChange);
+    return () => document.removeEventListener("visibilitychange", onVisibilityChange);
+  }, []);
+
   // initialScreen 따라 화면 이동
   // ✅ authStateVersion을 의존성에 추가하여 로그인 후 같은 화면이라도 강제 업데이트
   useEffect(() => {
@@ -207,15 +232,20 @@ export default function App() {
   }, []);
 
   // 프로필 이미지 변경
-  const handleProfileImageChange = useCallback((file: File) => {
-    const reader = new FileReader();
-    reader.onload = e => {
-      const url = e.target?.result as string;
-      if (url) setUserProfileImage(url);
-    };
-    reader.readAsDataURL(file);
+  const handleProfileImageChange = useCallback((image: ProfileImageSource) => {
+    if (image instanceof File) {
+      const reader = new FileReader();
+      reader.onload = e => {
+        const url = e.target?.result as string;
+        if (url) setUserProfileImage(url);
+      };
+      reader.readAsDataURL(image);
+    } else {
+      // 네이티브에서 처리한 파일은 base64 로 읽지 않고 로컬 서버 URL 로 바로 표시
+      setUserProfileImage(getProfileImagePreviewUrl(image));
+    }
 
-    uploadAndUpdateProfileImage(file)
+    uploadAndUpdateProfileImage(image)
       .then(finalUrl => setUserProfileImage(finalUrl))
       .catch(() => {
         toast.error("이미지 업로드에 실패했습니다.");
@@ -1,6 +1,7 @@
 import { FirebaseAuthentication } from "@capacitor-firebase/authentication";
 import { signOut } from "firebase/auth";
 import { auth } from "@/firebase";
+import { clearSearchIndex } from "@/utils/searchIndex";
 
 export async function logoutEverywhere() {
     // 네이티브(플러그인) 세션 정리: 웹에서는 실패할 수 있으니 무시
@@ -16,4 +17,7 @@ export async function logoutEverywhere() {
     } catch {
         // ignore
     }
+
+    // 기기 검색 색인의 노트/글 (다음 계정에서 보이지 않도록)
+    await clearSearchIndex();
 }
@@ -6,6 +6,7 @@ import { toast } from "@/toastHelper";
 import { AppHeader } from "@/components/ui/AppHeader";
 import { Button } from "@/components/ui/button";
 import { Card, CardContent } from "@/components/ui/card";
+import { indexNotes } from "@/utils/searchIndex";
 
 type Props = {
     onBack: () => void;
@@ -53,14 +54,17 @@ export function QuestionComposeScreen({ onBack, onGoWrite }: Props) {
         }
 
         try {
-            await addDoc(collection(db, "notes"), {
+            const noteTitle = title.trim();
+            const noteBody = buildBody();
+            const noteRef = await addDoc(collection(db, "notes"), {
                 uid,
-                title: title.trim(),
-                body: buildBody(),
+                title: noteTitle,
+                body: noteBody,
                 createdAt: serverTimestamp(),
                 updatedAt: serverTimestamp(),
                 source: "questionCompose",
             });
+            indexNotes([{ id: noteRef.id, title: noteTitle, body: noteBody }]);
 
             toast.success("노트로 저장했어요.");
         } catch {
@@ -17,6 +17,7 @@ import { toast } from "@/toastHelper";
 import { containsProfanity } from "@/components/utils/profanityFilter";
 import type { Post } from "../types";
 import type { UserActivityData } from "@/components/useAchievements";
+import { indexPosts, removePostsFromIndex } from "@/utils/searchIndex";
 
 interface UsePostManagementParams {
   posts: Post[];
@@ -141,6 +142,7 @@ export function usePostManagement({
 
         // 로컬 상태 업데이트
         setPosts((prev) => [createdPost, ...prev]);
+        indexPosts([createdPost]);
 
 
         // 사용자 통계 업데이트
@@ -202,6 +204,7 @@ export function usePostManagement({
 
         // 로컬 상태 업데이트
         setPosts((prev) => prev.filter((p) => String(p.id) !== postIdStr));
+        removePostsFromIndex([postIdStr]);
 
         toast.success("게시글이 삭제되었습니다.");
         return true;
@@ -226,6 +229,8 @@ export function usePostManagement({
       const postIdStr = String(postId);
       const post = posts.find((p) => String(p.id) === postIdStr);
       if (!post || typeof post.id !== "string") return;
+      // 본 글은 검색 색인에도 (내용이 그대로면 네이티브에서 건너뜀)
+      indexPosts([post]);
 
       const postRef = doc(db, "posts", post.id);
       const viewRef = doc(db, "postViews", `${post.id}_${uid}`); // 🔹 postViews 컬렉션
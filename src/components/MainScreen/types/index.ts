@@ -1,6 +1,8 @@
 // MainScreen/types/index.ts
 // MainScreen에서 사용하는 모든 타입 정의
 
+import type { ProfileImageSource } from "@/profileImageService";
+
 /**
  * 게시물 타입
  */
@@ -206,7 +208,7 @@ export type { QuizQuestion, WeeklyQuiz, UserQuizAnswer, QuizProgress } from "./q
 export interface MainScreenProps {
   userNickname: string;
   userProfileImage: string;
-  onProfileImageChange: (file: File) => void;
+  onProfileImageChange: (image: ProfileImageSource) => void;
   onLogout: () => void;
   isDarkMode: boolean;
   onToggleDarkMode: () => void;
@@ -33,6 +33,11 @@ import {
   UserX,
 } from "lucide-react";
 import { AppHeader } from "./layout/AppHeader";
+import {
+  isNativeImageProcessingAvailable,
+  pickProfileImage,
+  type ProfileImageSource,
+} from "@/profileImageService";
 
 
 // 신뢰도 점수에 따라 텍스트 색 클래스 결정 (Tailwind)
@@ -57,7 +62,7 @@ function getTrustDescription(score: number): string {
 interface MyPageScreenProps {
   userNickname: string;
   userProfileImage?: string;
-  onProfileImageChange?: (file: File) => void;
+  onProfileImageChange?: (image: ProfileImageSource) => void;
   onBack: () => void;
   onLogout: () => void;
   isDarkMode: boolean;
@@ -210,6 +215,22 @@ export function MyPageScreen({
     }
   }, [onProfileImageChange]);
 
+  // Android 앱에서는 네이티브 선택기로 고르고 네이티브에서 줄여서 받음 (WebView 에서 디코딩하지 않음)
+  const useNativeImagePicker = useMemo(() => isNativeImageProcessingAvailable(), []);
+
+  const handleNativeProfileImagePick = useCallback(async () => {
+    if (!onProfileImageChange) return;
+    try {
+      const image = await pickProfileImage();
+      if (!image) return;
+      onProfileImageChange(image);
+      toast.success("프로필 사진이 변경되었습니다!");
+    } catch (error) {
+      console.error("프로필 이미지 처리 실패:", error);
+      toast.error("이미지를 불러오지 못했습니다.");
+    }
+  }, [onProfileImageChange]);
+
   const getCurrentTitleName = () => {
     const title = titleData.find(t => t.id === currentTitle);
     return title?.name || "";
@@ -434,22 +455,34 @@ export function MyPageScreen({
                 />
 
                 <div className="absolute -bottom-1 -right-1">
-                  <input
-                    type="file"
-                    accept="image/*"
-                    className="hidden"
-                    id="profile-image-upload"
-                    onChange={handleProfileImageUpload}
-                  />
-                  <Button
-                    size="icon"
-                    asChild
-                    className="w-9 h-9 rounded-full cursor-pointer touch-target"
-                  >
-                    <label htmlFor="profile-image-upload">
+                  {useNativeImagePicker ? (
+                    <Button
+                      size="icon"
+                      className="w-9 h-9 rounded-full cursor-pointer touch-target"
+                      onClick={handleNativeProfileImagePick}
+                    >
                       <Camera className="w-4 h-4" />
-                    </label>
-                  </Button>
+                    </Button>
+                  ) : (
+                    <>
+                      <input
+                        type="file"
+                        accept="image/*"
+                        className="hidden"
+                        id="profile-image-upload"
+                        onChange={handleProfileImageUpload}
+                      />
+                      <Button
+                        size="icon"
+                        asChild
+                        className="w-9 h-9 rounded-full cursor-pointer touch-target"
+                      >
+                        <label htmlFor="profile-image-upload">
+                          <Camera className="w-4 h-4" />
+                        </label>
+                      </Button>
+                    </>
+                  )}
                 </div>
               </div>
               <div className="flex-1 min-h-20 flex flex-col">
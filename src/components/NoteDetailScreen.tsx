@@ -2,6 +2,7 @@
 import React from "react";
 import { doc, onSnapshot, deleteDoc, updateDoc, serverTimestamp } from "firebase/firestore";
 import { auth, db } from "@/firebase";
+import { indexNotes, removeNotesFromIndex } from "@/utils/searchIndex";
 
 type Props = {
     noteId: string;
@@ -39,6 +40,8 @@ export default function NoteDetailScreen({ noteId, onBack, onGoWrite, onOpenSour
                 }
                 const data = snap.data() as any;
                 setNote(data);
+                // 볼 때와 고친 뒤(snapshot 이 다시 옴) 검색 색인도 최신으로
+                indexNotes([{ id: noteId, title: data.title, body: data.body }]);
 
                 // ✅ 편집 상태 값 동기화
                 setEditTitle(data.title ?? "");
@@ -66,6 +69,7 @@ export default function NoteDetailScreen({ noteId, onBack, onGoWrite, onOpenSour
         }
 
         await deleteDoc(doc(db, "notes", noteId));
+        removeNotesFromIndex([noteId]);
         onBack();
     };
 
@@ -13,6 +13,7 @@ import { auth, db } from "@/firebase";
 import { EmptyStatePanel } from "@/components/ui/empty-state";
 import { NotebookText } from "lucide-react";
 import { AppHeader } from "@/components/ui/AppHeader";
+import { indexNotes } from "@/utils/searchIndex";
 
 type NoteDoc = {
     id: string;
@@ -58,6 +59,7 @@ export default function NotesScreen({ onBack, onOpenNote }: Props) {
                 ...(d.data() as any),
             }));
             setNotes(list);
+            indexNotes(list);
             setError(null);
         } catch (err: any) {
             console.error("[NotesScreen] getDocs error:", err);
@@ -1,5 +1,5 @@
 // src/components/SearchScreen.tsx
-import React, { useState, useEffect, useCallback, useMemo } from "react";
+import React, { useState, useEffect, useCallback, useMemo, useRef } from "react";
 import { useScrollIntoView } from "./hooks/useScrollIntoView";
 import { KeyboardDismissButton } from "./ui/keyboard-dismiss-button";
 import { SlowConnectionWarning } from "./ui/offline-indicator";
@@ -11,6 +11,8 @@ import { PostCardsList } from "./MainScreen/components/PostListView";
 import { useUserProfiles } from "./MainScreen/hooks/useUserProfiles";
 import type { Post } from "./MainScreen/types";
 import type { UserProfileLite } from "./MainScreen/hooks/useUserProfiles";
+import { mapPostDoc } from "./hooks/usePosts";
+import { removePostsFromIndex, searchPostIds } from "@/utils/searchIndex";
 
 // Firestore
 import { auth, db } from "../firebase";
@@ -59,6 +61,9 @@ interface SearchResultsListProps {
   onBookmarkToggle: (postId: string | number) => void;
 }
 
+// 기기 색인이 찾은 글 중 화면에 보여 줄 수 (불러오지 않은 글은 하나씩 읽으므로 너무 많지 않게)
+const NATIVE_SEARCH_LIMIT = 20;
+
 // Optimization: Constant for popular tags
 const POPULAR_TAGS = [
   "AI", "머신러닝", "수학", "물리학", "프로그래밍",
@@ -123,6 +128,8 @@ export function SearchScreen({
   const [isAutoSaveEnabled, setIsAutoSaveEnabled] = useState(true);
   const [showSettings, setShowSettings] = useState(false);
   const [settingsLoaded, setSettingsLoaded] = useState(false);
+  // 색인 검색 응답이 늦게 와서 더 최근 검색 결과를 덮지 않도록
+  const searchRequestRef = useRef(0);
 
   // Keyboard handling
   const searchInputRef = useScrollIntoView<HTMLInputElement>({ delay: 350, offset: 80 });
@@ -259,6 +266,7 @@ export function SearchScreen({
 
   // 🔹 Main Search Logic
   const executeSearch = useCallback((term: string) => {
+    const requestId = ++searchRequestRef.current;
     if (!term.trim()) {
       setSearchResults([]);
       return;
@@ -293,6 +301,36 @@ export function SearchScreen({
     });
 
     setSearchResults(results);
+
+    // 기기 색인이 있으면 불러온 글 밖의 글까지 점수 순으로 (안드로이드)
+    void (async () => {
+      const ids = await searchPostIds(term.trim(), NATIVE_SEARCH_LIMIT);
+      if (!ids || searchRequestRef.current !== requestId) return;
+
+      const loaded = new Map(posts.map((post) => [String(post.id), post]));
+      const currentUid = auth.currentUser?.uid ?? null;
+      const gone: string[] = [];
+      const found = await Promise.all(ids.map(async (id) => {
+        const cached = loaded.get(id);
+        if (cached) return cached;
+        try {
+          const snap = await getDoc(doc(db, "posts", id));
+          const post = snap.exists() ? mapPostDoc(snap, false, currentUid) : null;
+          if (!post) gone.push(id);
+          return post;
+        } catch {
+          return null;
+        }
+      }));
+      // 삭제되거나 숨겨진 글
+      removePostsFromIndex(gone);
+      if (searchRequestRef.current !== requestId) return;
+
+      const ranked = found.filter((post): post is Post => post !== null);
+      const rankedIds = new Set(ranked.map((post) => String(post.id)));
+      // 색인이 못 찾은 글(작성자 이름의 일부 등으로만 걸린 글)은 뒤에
+      setSearchResults([...ranked, ...results.filter((post) => !rankedIds.has(String(post.id)))]);
+    })();
   }, [posts]);
 
   const handleSearchSubmit = useCallback((e: React.FormEvent) => {
@@ -341,6 +379,7 @@ export function SearchScreen({
   }, [executeSearch]);
 
   const handleBackClick = useCallback(() => {
+    searchRequestRef.current++;
     setSearchTerm("");
     setSearchResults([]);
     onBack();
@@ -13,6 +13,7 @@ import { getFunctions, httpsCallable } from "firebase/functions";
 import { app } from "../firebase";
 import {
   initializeInAppPurchase,
+  onPurchaseUpdated,
   purchaseProduct,
   THEME_PRODUCT_IDS,
 } from "../utils/inAppPurchase";
@@ -35,6 +36,14 @@ interface Theme {
   productId?: string; // 인앱 구매 상품 ID
 }
 
+// 서버에서 구매 검증 (성공하면 서버가 purchasedThemes 에 추가)
+async function verifyThemePurchase(themeId: string, transactionId: string, receipt: string) {
+  const functions = getFunctions(app, "asia-northeast3");
+  const verifyPurchaseFn = httpsCallable(functions, "verifyThemePurchase");
+  const platform = Capacitor.getPlatform() === "ios" ? "ios" : "android";
+  await verifyPurchaseFn({ themeId, transactionId, receipt, platform });
+}
+
 const THEMES: Theme[] = [
   {
     id: "e-ink",
@@ -123,6 +132,22 @@ export function ThemeScreen({
     loadData();
   }, []);
 
+  // purchase() 응답 없이 완료된 구매 (보류 결제가 나중에 완료, 앱 밖 구매, 프로모션 코드)
+  useEffect(() => {
+    return onPurchaseUpdated(async (purchase) => {
+      if (purchase.solicited || purchase.purchaseState !== "purchased" || !purchase.transactionId) return;
+      const theme = THEMES.find((t) => t.productId === purchase.productId);
+      if (!theme) return;
+      try {
+        await verifyThemePurchase(theme.id, purchase.transactionId, purchase.receipt || "");
+        setPurchasedThemes((prev) => (prev.includes(theme.id) ? prev : [...prev, theme.id]));
+        toast.success(`${theme.name} 테마 구매가 완료되었습니다!`);
+      } catch (error) {
+        console.error("테마 구매 검증 실패:", error);
+      }
+    });
+  }, []);
+
   // 테마 초기화 및 적용
   useEffect(() => {
     const savedTheme = localStorage.getItem("app-theme") || "default";
@@ -204,17 +229,7 @@ export function ThemeScreen({
 
             if (purchaseResult.success && purchaseResult.transactionId) {
               // 서버에서 구매 검증
-              const functions = getFunctions(app, "asia-northeast3");
-              const verifyPurchaseFn = httpsCallable(functions, "verifyThemePurchase");
-
-              const platform = Capacitor.getPlatform() === "ios" ? "ios" : "android";
-
-              await verifyPurchaseFn({
-                themeId,
-                transactionId: purchaseResult.transactionId,
-                receipt: purchaseResult.receipt || "",
-                platform,
-              });
+              await verifyThemePurchase(themeId, purchaseResult.transactionId, purchaseResult.receipt || "");
 
               // 구매 성공 시 로컬 상태 업데이트
               setPurchasedThemes((prev) => [...prev, themeId]);
@@ -24,6 +24,7 @@ import {
 } from "lucide-react";
 import { toast } from "@/toastHelper";
 import { containsProfanity } from "./utils/profanityFilter";
+import { DraftAutosaver, loadDraft, type DraftFields } from "@/utils/draftStore";
 
 // Safe localStorage helper
 const safeLocalStorage = {
@@ -53,6 +54,46 @@ const safeLocalStorage = {
 
 // 임시저장 만료 시간: 1시간 (밀리초)
 const DRAFT_EXPIRE_MS = 60 * 60 * 1000;
+// 바뀐 부분만 보내고 기다리지 않으므로 자주 저장해도 입력이 끊기지 않음
+const AUTOSAVE_DELAY_MS = 1000;
+// DraftStore 에 저장하는 글 이름
+const DRAFT_KEY = "post";
+// 예전 버전이 localStorage 에 남긴 임시저장
+const LEGACY_DRAFT_STORAGE_KEY = "draftPost";
+
+interface SavedPostDraft {
+  title?: string;
+  content?: string;
+  postType?: "question" | "guide";
+  category?: string;
+  subCategory?: string;
+  tags?: string[];
+  savedAt?: string;
+}
+
+// 제목/본문은 따로 (바뀐 부분만 저장), 나머지는 한 필드에 JSON 으로
+function toDraftFields(draft: SavedPostDraft): DraftFields {
+  return {
+    title: draft.title ?? "",
+    content: draft.content ?? "",
+    meta: JSON.stringify({
+      postType: draft.postType,
+      category: draft.category,
+      subCategory: draft.subCategory,
+      tags: draft.tags,
+    }),
+  };
+}
+
+function fromDraftFields(fields: DraftFields, updatedAt: number): SavedPostDraft {
+  const meta = fields.meta ? JSON.parse(fields.meta) : {};
+  return {
+    ...meta,
+    title: fields.title,
+    content: fields.content,
+    savedAt: new Date(updatedAt).toISOString(),
+  };
+}
 
 interface WriteScreenProps {
   onBack: () => void;
@@ -86,6 +127,7 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
   const [autoSaveEnabled, setAutoSaveEnabled] = useState(true);
   const autoSaveTimerRef = useRef<ReturnType<typeof setTimeout> | null>(null);
   const hasUnsavedChanges = useRef(false);
+  const [autosaver] = useState(() => new DraftAutosaver(DRAFT_KEY));
 
   // Keyboard handling
   const keyboard = useKeyboard();
@@ -122,11 +164,29 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
     // ✅ 노트/질문정리에서 넘어온 초안이 있으면, 임시저장은 로드하지 않음
     if (writeDraft) return;
 
-    const savedDraft = safeLocalStorage.getItem("draftPost");
-    if (!savedDraft) return;
+    let cancelled = false;
+    const removeSavedDraft = () => {
+      autosaver.remove().catch((error) => console.error("Failed to remove draft:", error));
+    };
 
-    try {
-      const draft = JSON.parse(savedDraft);
+    (async () => {
+      let draft: SavedPostDraft | null = null;
+      try {
+        const stored = await loadDraft(DRAFT_KEY);
+        if (stored) {
+          draft = fromDraftFields(stored.fields, stored.updatedAt);
+          autosaver.reset(stored.fields);
+        } else {
+          // 예전 임시저장은 한 번 불러오고, 다음 자동 저장부터 DraftStore 에
+          const legacy = safeLocalStorage.getItem(LEGACY_DRAFT_STORAGE_KEY);
+          draft = legacy ? JSON.parse(legacy) : null;
+        }
+      } catch (error) {
+        console.error("Failed to load draft:", error);
+        return;
+      }
+      if (cancelled || !draft) return;
+      safeLocalStorage.removeItem(LEGACY_DRAFT_STORAGE_KEY);
 
       // ⏰ 1시간 이상 지난 임시저장은 자동 삭제
       if (draft.savedAt) {
@@ -134,14 +194,14 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
 
         // savedAt이 이상한 값이면 그냥 삭제
         if (!savedTime || Number.isNaN(savedTime)) {
-          safeLocalStorage.removeItem("draftPost");
+          removeSavedDraft();
           return;
         }
 
         const diff = Date.now() - savedTime;
         if (diff > DRAFT_EXPIRE_MS) {
           // 1시간 지났으니 임시저장 삭제
-          safeLocalStorage.removeItem("draftPost");
+          removeSavedDraft();
           return;
         }
       }
@@ -155,10 +215,12 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
       setTags(draft.tags || []);
       setLastSaved(draft.savedAt ? new Date(draft.savedAt) : null);
       toast.success("임시 저장된 글을 불러왔습니다.");
-    } catch (error) {
-      console.error("Failed to load draft:", error);
-    }
-  }, [writeDraft]);
+    })();
+
+    return () => {
+      cancelled = true;
+    };
+  }, [writeDraft, autosaver]);
   // ✅ store hook 이름은 프로젝트 기준에 맞추세요.
   // (너 프로젝트는 useNavigationStore가 표준이면 그걸 쓰는 게 안전)
 
@@ -187,20 +249,26 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
       return;
     }
 
-    const draft = {
+    const fields = toDraftFields({
       title,
       content,
       postType,
       category: selectedCategory,
       subCategory: selectedSubCategory,
       tags,
-      savedAt: new Date().toISOString(),
-    };
+    });
 
-    safeLocalStorage.setItem("draftPost", JSON.stringify(draft));
-    setLastSaved(new Date());
+    // 바뀐 부분만 보내고 기다리지 않음. 디스크에 쓰이면 저장 시각 표시
     hasUnsavedChanges.current = false;
-  }, [title, content, postType, selectedCategory, selectedSubCategory, tags]);
+    autosaver.save(fields)
+      .then((savedAt) => {
+        if (savedAt) setLastSaved(new Date(savedAt));
+      })
+      .catch((error) => {
+        console.error("Failed to save draft:", error);
+        hasUnsavedChanges.current = true;
+      });
+  }, [autosaver, title, content, postType, selectedCategory, selectedSubCategory, tags]);
 
   // 자동 임시저장 (디바운스)
   useEffect(() => {
@@ -221,10 +289,10 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
         clearTimeout(autoSaveTimerRef.current);
       }
 
-      // 3초 후 자동 저장
+      // 입력이 잠시 멈추면 자동 저장
       autoSaveTimerRef.current = setTimeout(() => {
         saveDraft();
-      }, 3000);
+      }, AUTOSAVE_DELAY_MS);
     }
 
     return () => {
@@ -291,9 +359,9 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
 
   // 임시저장 삭제 함수
   const clearDraft = useCallback(() => {
-    safeLocalStorage.removeItem("draftPost");
+    autosaver.remove().catch((error) => console.error("Failed to remove draft:", error));
     hasUnsavedChanges.current = false;
-  }, []);  // 의존성 없음
+  }, [autosaver]);
 
   // 카테고리가 변경되면 서브카테고리를 "전체"로 리셋
   useEffect(() => {
@@ -374,10 +442,13 @@ export function WriteScreen({ onBack, onSubmit, categories }: WriteScreenProps)
     // 안내 문구대로 임시 저장된 글을 지워준다.
     if (!autoSaveEnabled) {
       clearDraft();
+    } else if (hasUnsavedChanges.current) {
+      // 자동 저장 타이머가 돌기 전에 나가도 마지막 입력까지
+      saveDraft();
     }
 
     onBack();
-  }, [onBack, autoSaveEnabled, clearDraft]);
+  }, [onBack, autoSaveEnabled, clearDraft, saveDraft]);
 
   const handleAddTag = useCallback(() => {
     const trimmedTag = tagInput.trim();
@@ -8,8 +8,12 @@ import {
     orderBy,
     query,
     limit,
+    type DocumentData,
+    type DocumentSnapshot,
+    type QueryDocumentSnapshot,
 } from "firebase/firestore";
 import type { Post, Reply } from "../MainScreen/types";
+import { indexPosts } from "@/utils/searchIndex";
 
 interface UsePostsOptions {
     includeHidden?: boolean;
@@ -17,6 +21,94 @@ interface UsePostsOptions {
 
 const INITIAL_POST_LIMIT = 12; // 초기 진입 시 가져올 게시글 개수 (데이터 절약을 위해 24→12로 축소)
 
+/**
+ * posts 문서를 Post 로 바꿉니다. 숨김 글은 includeHidden 이 아니면 null
+ * (검색 화면에서 색인이 찾은 글을 하나씩 읽을 때도 사용)
+ */
+export function mapPostDoc(
+    docSnap: QueryDocumentSnapshot<DocumentData> | DocumentSnapshot<DocumentData>,
+    includeHidden: boolean,
+    currentUid: string | null,
+): Post | null {
+    const data = docSnap.data();
+    if (!data) {
+        return null;
+    }
+
+    // 1. 숨김 처리된 게시글 필터링
+    const isHidden = data.hidden === true;
+    if (isHidden && !includeHidden) {
+        return null;
+    }
+
+    // 2. 날짜 변환 로직
+    const createdAt: Date =
+        data.createdAt && typeof data.createdAt.toDate === "function"
+            ? data.createdAt.toDate()
+            : data.createdAt instanceof Date
+                ? data.createdAt
+                : new Date();
+
+    // 3. 댓글 데이터 변환
+    let replies: Reply[] = [];
+    if (Array.isArray(data.replies)) {
+        replies = data.replies
+            .filter((r: any) => {
+                if (!r || typeof r !== 'object') return false;
+                const isHiddenReply = r.hidden === true;
+                if (isHiddenReply && !includeHidden) return false;
+                return true;
+            })
+            .map((r: any): Reply => {
+                return {
+                    id: r.id ?? Date.now(),
+                    content: r.content ?? "",
+                    author: r.author ?? "알 수 없음",
+                    authorUid: r.authorUid ?? null,
+                    authorAvatar: r.authorAvatar ?? null,
+                    timeAgo: r.timeAgo ?? "",
+                    lanterns: r.lanterns ?? 0,
+                    isGuide: !!r.isGuide,
+                    createdAt: typeof r.createdAt?.toDate === 'function'
+                        ? r.createdAt.toDate()
+                        : (r.createdAt instanceof Date ? r.createdAt : new Date()),
+                    authorTitleId: r.authorTitleId ?? null,
+                    isAi: r.isAi === true || typeof r.aiLabel === "string",
+                    aiLabel: r.aiLabel,
+                    aiSummary: r.aiSummary,
+                    aiSource: r.aiSource,
+                };
+            });
+    }
+
+    // 4. Post 객체 생성
+    const post: Post = {
+        id: docSnap.id,
+        title: data.title ?? "",
+        content: data.content ?? "",
+        category: data.category ?? "기타",
+        subCategory: data.subCategory ?? "기타",
+        type: data.type ?? "question",
+        tags: Array.isArray(data.tags) ? data.tags : [],
+        author: data.author ?? "알 수 없음",
+        authorUid: data.authorUid ?? null,
+        authorAvatar: data.authorAvatar ?? "",
+        createdAt,
+        lanterns: data.lanterns ?? 0,
+        replies,
+        replyCount: data.replyCount ?? replies.length,
+        comments: data.comments ?? replies.length,
+        views: data.views ?? 0,
+        isBookmarked: false,
+        isOwner: !!currentUid && !!data.authorUid && currentUid === data.authorUid,
+        authorTitleId: null,
+        authorTitleName: null,
+        hidden: isHidden,
+        reportCount: data.reportCount,
+    };
+    return post;
+}
+
 export function usePosts(options?: UsePostsOptions) {
     const { includeHidden = false } = options ?? {};
 
@@ -37,86 +129,13 @@ export function usePosts(options?: UsePostsOptions) {
 
             const currentUid = auth.currentUser?.uid ?? null;
 
-            const fetchedPosts = snapshot.docs.map((docSnap) => {
-                const data = docSnap.data();
-
-                // 1. 숨김 처리된 게시글 필터링
-                const isHidden = data.hidden === true;
-                if (isHidden && !includeHidden) {
-                    return null;
-                }
-
-                // 2. 날짜 변환 로직
-                const createdAt: Date =
-                    data.createdAt && typeof data.createdAt.toDate === "function"
-                        ? data.createdAt.toDate()
-                        : data.createdAt instanceof Date
-                            ? data.createdAt
-                            : new Date();
-
-                // 3. 댓글 데이터 변환
-                let replies: Reply[] = [];
-                if (Array.isArray(data.replies)) {
-                    replies = data.replies
-                        .filter((r: any) => {
-                            if (!r || typeof r !== 'object') return false;
-                            const isHiddenReply = r.hidden === true;
-                            if (isHiddenReply && !includeHidden) return false;
-                            return true;
-                        })
-                        .map((r: any): Reply => {
-                            return {
-                                id: r.id ?? Date.now(),
-                                content: r.content ?? "",
-                                author: r.author ?? "알 수 없음",
-                                authorUid: r.authorUid ?? null,
-                                authorAvatar: r.authorAvatar ?? null,
-                                timeAgo: r.timeAgo ?? "",
-                                lanterns: r.lanterns ?? 0,
-                                isGuide: !!r.isGuide,
-                                createdAt: typeof r.createdAt?.toDate === 'function'
-                                    ? r.createdAt.toDate()
-                                    : (r.createdAt instanceof Date ? r.createdAt : new Date()),
-                                authorTitleId: r.authorTitleId ?? null,
-                                isAi: r.isAi === true || typeof r.aiLabel === "string",
-                                aiLabel: r.aiLabel,
-                                aiSummary: r.aiSummary,
-                                aiSource: r.aiSource,
-                            };
-                        });
-                }
-
-                // 4. Post 객체 생성
-                const post: Post = {
-                    id: docSnap.id,
-                    title: data.title ?? "",
-                    content: data.content ?? "",
-                    category: data.category ?? "기타",
-                    subCategory: data.subCategory ?? "기타",
-                    type: data.type ?? "question",
-                    tags: Array.isArray(data.tags) ? data.tags : [],
-                    author: data.author ?? "알 수 없음",
-                    authorUid: data.authorUid ?? null,
-                    authorAvatar: data.authorAvatar ?? "",
-                    createdAt,
-                    lanterns: data.lanterns ?? 0,
-                    replies,
-                    replyCount: data.replyCount ?? replies.length,
-                    comments: data.comments ?? replies.length,
-                    views: data.views ?? 0,
-                    isBookmarked: false,
-                    isOwner: !!currentUid && !!data.authorUid && currentUid === data.authorUid,
-                    authorTitleId: null,
-                    authorTitleName: null,
-                    hidden: isHidden,
-                    reportCount: data.reportCount,
-                };
-                return post;
-            });
+            const fetchedPosts = snapshot.docs.map((docSnap) => mapPostDoc(docSnap, includeHidden, currentUid));
 
             // null 제거
             const visiblePosts = fetchedPosts.filter((p): p is Post => p !== null);
             setPosts(visiblePosts);
+            // 검색 화면이 기기 안에서 찾을 수 있도록
+            indexPosts(visiblePosts);
 
         } catch (error) {
             // usePosts Fetch Error (로그 제거)
@@ -1,5 +1,66 @@
+import type { PluginListenerHandle } from "@capacitor/core";
+
+/**
+ * 네이티브 blob 채널 참조. path 를 fetch 하면 본문을 스트리밍으로 받습니다 (JSON/base64 를 거치지 않음).
+ * 한 번 읽으면 사라지고, 읽지 않아도 1분 뒤 정리됩니다.
+ */
+export interface NativeBlobRef {
+    handle: string;
+    path: string;
+    size: number;
+    mimeType: string;
+}
+
+export type InAppPurchaseConnectionState = "disconnected" | "connecting" | "connected";
+
+/**
+ * capacitor.config 의 plugins.InAppPurchases.initMode
+ * - eager: 앱 시작 시 바로 연결 (기본값)
+ * - firstCall: 결제 관련 메서드를 처음 호출할 때 연결
+ * - idle: 첫 화면을 그린 뒤 메인 스레드가 한가할 때 연결
+ */
+export type InAppPurchaseInitMode = "eager" | "firstCall" | "idle";
+
+export interface InAppPurchasesPluginConfig {
+    initMode?: InAppPurchaseInitMode;
+}
+
+/** 결제 초기화가 콜드 스타트에 더한 시간 (ms, 네이티브 측정) */
+export interface InAppPurchaseStartupTiming {
+    initMode: InAppPurchaseInitMode;
+    /** 플러그인 load() 가 메인 스레드에서 쓴 시간 */
+    loadMs: number;
+    /** BillingClient 를 만든 계기: "load" | "idle" | "call" | "consume" */
+    clientInitTrigger?: string;
+    clientInitOnMainThread: boolean;
+    /** load() 시작부터 BillingClient 생성 시작까지 */
+    clientInitStartedAtMs?: number;
+    /** BillingClient 생성 + startConnection 호출에 걸린 시간 */
+    clientInitMs?: number;
+    /** load() 시작부터 첫 연결 완료까지 */
+    connectedAtMs?: number;
+}
+
 export interface InAppPurchaseInitializeResult {
     success: boolean;
+    state?: InAppPurchaseConnectionState;
+}
+
+export interface InAppPurchaseConnectionStateChange {
+    state: InAppPurchaseConnectionState;
+    responseCode: number;
+}
+
+export interface InAppPurchaseConsumeResult {
+    purchaseToken: string;
+    productId: string;
+    success: boolean;
+    responseCode: number;
+    attempts: number;
+    latencyMs: number;
+    willRetry: boolean;
+    /** 재시도를 다 썼지만 저장돼 있어 다음 연결/앱 복귀 때 다시 시도함 */
+    retryLater: boolean;
 }
 
 export interface InAppPurchaseProduct {
@@ -9,6 +70,8 @@ export interface InAppPurchaseProduct {
     price?: string;
     priceAmountMicros?: number;
     priceCurrencyCode?: string;
+    /** 지난 실행에서 저장한 값. 최신 값은 productsUpdated 이벤트로 전달됩니다. */
+    stale?: boolean;
 }
 
 export interface InAppPurchaseGetProductsOptions {
@@ -17,6 +80,12 @@ export interface InAppPurchaseGetProductsOptions {
 
 export interface InAppPurchaseGetProductsResult {
     products: InAppPurchaseProduct[];
+    /** 하나라도 저장된 값으로 응답했으면 true */
+    stale?: boolean;
+}
+
+export interface InAppPurchaseProductsUpdated {
+    products: InAppPurchaseProduct[];
 }
 
 export interface InAppPurchasePurchaseOptions {
@@ -35,17 +104,301 @@ export interface InAppPurchasePurchaseResult {
     transaction: InAppPurchaseTransaction;
 }
 
+export interface InAppPurchaseRestorePurchasesOptions {
+    /** 이전 응답의 syncToken. 지정하면 그 이후에 바뀐 구매만 돌려줍니다. */
+    syncToken?: string;
+    /** 한 번에 돌려줄 최대 개수. hasMore 가 true 면 syncToken 으로 이어서 조회합니다. */
+    limit?: number;
+}
+
 export interface InAppPurchaseRestorePurchasesResult {
     products: Array<{
         productId: string;
         transactionId?: string;
         purchaseTime?: number;
+        purchaseToken?: string;
+        purchaseState?: number;
+        /** 소비/환불/취소되어 Play 구매 목록에서 사라짐 (syncToken 으로 받은 변경분에만 옴) */
+        removed?: boolean;
     }>;
+    syncToken?: string;
+    hasMore?: boolean;
+    /** true 면 syncToken 이 너무 오래돼 전체 목록을 돌려줌 (갖고 있던 목록을 버리고 이걸로 바꿈) */
+    reset?: boolean;
+}
+
+export interface InAppPurchaseUpdate {
+    productId: string;
+    transactionId?: string;
+    purchaseTime: number;
+    purchaseToken: string;
+    purchaseState: "purchased" | "pending" | "unspecified";
+    receipt: string;
+    /** true 면 같은 결과가 purchase() 응답으로도 전달됨 */
+    solicited: boolean;
+    /** 리스너 등록 전에 도착해 보관했다가 전달된 이벤트 */
+    replayed?: boolean;
+}
+
+export interface InAppPurchaseEntitlement {
+    productId: string;
+    purchaseToken: string;
+    transactionId?: string;
+    purchaseTime: number;
+    /** consume 된 구매 (Play 의 구매 목록에서는 빠졌지만 권한은 유지) */
+    consumed: boolean;
+}
+
+export interface InAppPurchaseGetEntitlementsResult {
+    /** 기기에서 서명 검증을 통과한 구매 */
+    entitlements: InAppPurchaseEntitlement[];
+    /** 라이선스 키가 설정되어 검증이 동작 중인지 여부 */
+    verified: boolean;
 }
 
 export interface InAppPurchasesPlugin {
     initialize(): Promise<InAppPurchaseInitializeResult>;
     getProducts(options: InAppPurchaseGetProductsOptions): Promise<InAppPurchaseGetProductsResult>;
     purchase(options: InAppPurchasePurchaseOptions): Promise<InAppPurchasePurchaseResult>;
-    restorePurchases(): Promise<InAppPurchaseRestorePurchasesResult>;
+    restorePurchases(options?: InAppPurchaseRestorePurchasesOptions): Promise<InAppPurchaseRestorePurchasesResult>;
+    getEntitlements(): Promise<InAppPurchaseGetEntitlementsResult>;
+    getStartupTiming(): Promise<InAppPurchaseStartupTiming>;
+    addListener(
+        eventName: "connectionStateChange",
+        listenerFunc: (event: InAppPurchaseConnectionStateChange) => void,
+    ): Promise<PluginListenerHandle>;
+    addListener(
+        eventName: "consumeResult",
+        listenerFunc: (event: InAppPurchaseConsumeResult) => void,
+    ): Promise<PluginListenerHandle>;
+    addListener(
+        eventName: "purchaseUpdated",
+        listenerFunc: (event: InAppPurchaseUpdate) => void,
+    ): Promise<PluginListenerHandle>;
+    addListener(
+        eventName: "productsUpdated",
+        listenerFunc: (event: InAppPurchaseProductsUpdated) => void,
+    ): Promise<PluginListenerHandle>;
+}
+
+/** 네이티브 콜드 스타트 타임라인의 한 구간. 시각은 프로세스 시작 기준 ms */
+export interface StartupTimelineEntry {
+    /** 예: "processStart", "onCreate", "bridgeReady", "pageLoad", "firstVisualState", "plugin:InAppPurchases.load" */
+    name: string;
+    startMs: number;
+    /** 순간 기록(mark)이면 없음 */
+    endMs?: number;
+    durationMs?: number;
+}
+
+export interface StartupTimelineResult {
+    /** 호출을 처리한 시점 (프로세스 시작 기준 ms). performance.now() 와 시계를 맞출 때 사용 */
+    nowMs: number;
+    entries: StartupTimelineEntry[];
+    /** 버퍼가 가득 차서 버린 기록 수 */
+    dropped: number;
+}
+
+/** 지연 시간 분포 (ms). 백분위는 최대 12.5% 오차의 근사값 */
+export interface BridgeLatency {
+    count: number;
+    meanMs: number;
+    p50Ms: number;
+    p90Ms: number;
+    p99Ms: number;
+    maxMs: number;
+}
+
+/** 네이티브 플러그인 메서드 하나의 누적 지표 (프로세스 시작 이후) */
+export interface BridgeMethodMetrics {
+    plugin: string;
+    method: string;
+    calls: number;
+    resolved: number;
+    rejected: number;
+    errors: number;
+    /** 아직 응답하지 않은 호출 (이벤트 콜백 포함) */
+    inFlight: number;
+    /** 네이티브 도착 → 실행 시작 (스레드/결제 연결 대기) */
+    queue: BridgeLatency;
+    /** 실행 시작 → 응답 */
+    run: BridgeLatency;
+    /** 네이티브 도착 → 응답 */
+    total: BridgeLatency;
+}
+
+export interface BridgeCallRecord {
+    id: number;
+    plugin: string;
+    method: string;
+    outcome: "RESOLVED" | "REJECTED" | "ERROR";
+    queueMs: number;
+    runMs: number;
+    totalMs: number;
+}
+
+export interface BridgeMetricsOptions {
+    /** 최근에 끝난 호출 목록(최대 128개)도 받을지 여부 */
+    includeRecent?: boolean;
+}
+
+/** Cordova 플러그인 전용 executor (SERIAL/BOUNDED_WORKER) 하나의 누적 지표 */
+export interface BridgeExecutorStats {
+    /** "플러그인-serial" 또는 "플러그인-worker" */
+    name: string;
+    submitted: number;
+    /** queue 가 가득 차서 바로 error 로 돌려준 호출 */
+    rejected: number;
+    completed: number;
+    /** 지금 스레드를 기다리는 호출 */
+    queued: number;
+    queueWaitMeanMs: number;
+    queueWaitMaxMs: number;
+    runMeanMs: number;
+    runMaxMs: number;
+}
+
+export interface BridgeMetricsResult {
+    methods: BridgeMethodMetrics[];
+    executors: BridgeExecutorStats[];
+    recent?: BridgeCallRecord[];
+}
+
+/** Storage 이미지 네이티브 디스크 캐시 통계 (프로세스 시작 이후) */
+export interface ImageCacheStats {
+    /** 네이티브 캐시가 설치되어 있는지 (웹이면 false) */
+    installed: boolean;
+    hits?: number;
+    misses?: number;
+    /** v 가 바뀌었지만 304 로 본문을 재사용한 수 */
+    revalidated?: number;
+    evictions?: number;
+    entries?: number;
+    bytes?: number;
+    maxBytes?: number;
+}
+
+export interface DiagnosticsPlugin {
+    getStartupTimeline(): Promise<StartupTimelineResult>;
+    getBridgeMetrics(options?: BridgeMetricsOptions): Promise<BridgeMetricsResult>;
+    getImageCacheStats(): Promise<ImageCacheStats>;
+}
+
+export interface PickImageResult {
+    /** 선택한 이미지의 content URI. 취소하면 없음 */
+    uri?: string;
+}
+
+export interface ProcessImageOptions {
+    /** pickImage 가 돌려준 content URI (다른 scheme 은 reject) */
+    uri: string;
+    /** 결과 이미지의 긴 변 (px, 기본 512). 원본보다 크게 만들지는 않음 */
+    maxSize?: number;
+    /** WebP 품질 0~1 (기본 0.82) */
+    quality?: number;
+}
+
+/** 네이티브에서 줄이고 인코딩한 이미지. 파일은 앱 캐시에 있고 deleteImage 로 지움 */
+export interface ProcessedImage {
+    path: string;
+    /** 파일 크기 (bytes) */
+    size: number;
+    width: number;
+    height: number;
+    mimeType: string;
+}
+
+export interface ImageProcessorPlugin {
+    pickImage(): Promise<PickImageResult>;
+    processImage(options: ProcessImageOptions): Promise<ProcessedImage>;
+    deleteImage(options: { path: string }): Promise<{ deleted: boolean }>;
+}
+
+/** NoteSearch 색인에 넣을 문서. id 는 "post:<글 id>" / "note:<노트 id>" */
+export interface SearchIndexDocument {
+    id: string;
+    title: string;
+    body: string;
+    tags?: string[];
+}
+
+export interface NoteSearchOptions {
+    query: string;
+    /** 기본 20, 최대 200 */
+    limit?: number;
+    /** 이 종류만 ("post", "note") */
+    kind?: string;
+}
+
+export interface NoteSearchHit {
+    id: string;
+    score: number;
+}
+
+export interface NoteSearchResult {
+    /** 점수 높은 순 */
+    hits: NoteSearchHit[];
+    /** 네이티브에서 색인을 찾는 데 걸린 시간 */
+    tookMs: number;
+}
+
+export interface NoteSearchStats {
+    /** 색인을 여는 중이면 false */
+    ready: boolean;
+    documents?: number;
+    deletedDocuments?: number;
+    segments?: number;
+    bufferedDocuments?: number;
+    terms?: number;
+    indexBytes?: number;
+}
+
+export interface NoteSearchPlugin {
+    /** 내용이 바뀐 문서 수를 돌려줌 */
+    index(options: { documents: SearchIndexDocument[] }): Promise<{ indexed: number }>;
+    remove(options: { ids: string[] }): Promise<{ removed: number }>;
+    search(options: NoteSearchOptions): Promise<NoteSearchResult>;
+    getStats(): Promise<NoteSearchStats>;
+    /** 로그아웃 때 색인을 비움 */
+    clear(): Promise<void>;
+}
+
+/**
+ * DraftStore 에 보내는 변경. value 가 있으면 필드 전체, 없으면 start 부터 deleteCount 글자를 text 로 (UTF-16 index)
+ */
+export type DraftFieldOp =
+    | { field: string; value: string }
+    | { field: string; start: number; deleteCount: number; text: string };
+
+export interface DraftStoreWriteOptions {
+    key: string;
+    ops: DraftFieldOp[];
+}
+
+export interface StoredDraft {
+    key: string;
+    updatedAt: number;
+    fields: Record<string, string>;
+    /** 긴 필드는 blob 채널로 (UTF-8 텍스트, 한 번만 읽을 수 있음) */
+    blobFields?: Record<string, NativeBlobRef>;
+}
+
+export interface DraftSummary {
+    key: string;
+    updatedAt: number;
+    /** 모든 필드의 글자 수 합 */
+    length: number;
+}
+
+export interface DraftStorePlugin {
+    /**
+     * 디스크에 쓴 뒤 resolve. splice 범위가 저장된 내용과 맞지 않으면 code "OUT_OF_SYNC",
+     * 저장할 수 없을 만큼 길면 (웹은 localStorage 용량 초과) code "TOO_LARGE" 로 reject
+     */
+    write(options: DraftStoreWriteOptions): Promise<{ savedAt: number }>;
+    load(options: { key: string }): Promise<{ draft: StoredDraft | null }>;
+    list(): Promise<{ drafts: DraftSummary[] }>;
+    remove(options: { key: string }): Promise<{ savedAt: number }>;
+    /** 쌓인 변경을 바로 디스크에 */
+    flush(): Promise<void>;
 }
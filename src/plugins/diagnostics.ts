@@ -0,0 +1,7 @@
+import { registerPlugin } from "@capacitor/core";
+
+import type { DiagnosticsPlugin } from "./definitions";
+
+export const Diagnostics = registerPlugin<DiagnosticsPlugin>("Diagnostics", {
+    web: () => import("./diagnostics.web").then((m) => new m.DiagnosticsWeb()),
+});
@@ -0,0 +1,24 @@
+import { WebPlugin } from "@capacitor/core";
+
+import type {
+    BridgeMetricsOptions,
+    BridgeMetricsResult,
+    DiagnosticsPlugin,
+    ImageCacheStats,
+    StartupTimelineResult,
+} from "./definitions";
+
+export class DiagnosticsWeb extends WebPlugin implements DiagnosticsPlugin {
+    async getStartupTimeline(): Promise<StartupTimelineResult> {
+        // 웹에는 네이티브 구간이 없으므로 performance 항목만 쓰도록 빈 타임라인
+        return { nowMs: 0, entries: [], dropped: 0 };
+    }
+
+    async getBridgeMetrics(_options?: BridgeMetricsOptions): Promise<BridgeMetricsResult> {
+        return { methods: [], executors: [] };
+    }
+
+    async getImageCacheStats(): Promise<ImageCacheStats> {
+        return { installed: false };
+    }
+}
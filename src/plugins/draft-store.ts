@@ -0,0 +1,7 @@
+import { registerPlugin } from "@capacitor/core";
+
+import type { DraftStorePlugin } from "./definitions";
+
+export const DraftStore = registerPlugin<DraftStorePlugin>("DraftStore", {
+    web: () => import("./draft-store.web").then((m) => new m.DraftStoreWeb()),
+});
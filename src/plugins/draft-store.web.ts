@@ -0,0 +1,80 @@
+import { WebPlugin } from "@capacitor/core";
+
+import type { DraftStorePlugin, DraftStoreWriteOptions, DraftSummary, StoredDraft } from "./definitions";
+
+const STORAGE_PREFIX = "draftStore:";
+
+interface SavedDraft {
+    updatedAt: number;
+    fields: Record<string, string>;
+}
+
+function read(key: string): SavedDraft | null {
+    try {
+        const raw = localStorage.getItem(STORAGE_PREFIX + key);
+        return raw ? (JSON.parse(raw) as SavedDraft) : null;
+    } catch {
+        return null;
+    }
+}
+
+/**
+ * 웹에는 네이티브 저널이 없으므로 localStorage 에 글 전체를 씀 (예전 임시 저장과 같은 방식)
+ */
+export class DraftStoreWeb extends WebPlugin implements DraftStorePlugin {
+    async write({ key, ops }: DraftStoreWriteOptions): Promise<{ savedAt: number }> {
+        const savedAt = Date.now();
+        const draft: SavedDraft = read(key) ?? { updatedAt: savedAt, fields: {} };
+        for (const op of ops) {
+            if ("value" in op) {
+                draft.fields[op.field] = op.value;
+                continue;
+            }
+            const current = draft.fields[op.field] ?? "";
+            if (op.start < 0 || op.deleteCount < 0 || op.start + op.deleteCount > current.length) {
+                const err: any = new Error(`Splice is outside ${key}.${op.field}`);
+                err.code = "OUT_OF_SYNC";
+                throw err;
+            }
+            draft.fields[op.field] = current.slice(0, op.start) + op.text + current.slice(op.start + op.deleteCount);
+        }
+        draft.updatedAt = savedAt;
+        try {
+            localStorage.setItem(STORAGE_PREFIX + key, JSON.stringify(draft));
+        } catch (error) {
+            if (!(error instanceof DOMException) || error.name !== "QuotaExceededError") throw error;
+            const err: any = new Error(`Draft ${key} is too large for localStorage`);
+            err.code = "TOO_LARGE";
+            throw err;
+        }
+        return { savedAt };
+    }
+
+    async load({ key }: { key: string }): Promise<{ draft: StoredDraft | null }> {
+        const saved = read(key);
+        return { draft: saved ? { key, updatedAt: saved.updatedAt, fields: saved.fields } : null };
+    }
+
+    async list(): Promise<{ drafts: DraftSummary[] }> {
+        const drafts: DraftSummary[] = [];
+        for (let i = 0; i < localStorage.length; i++) {
+            const storageKey = localStorage.key(i);
+            if (!storageKey?.startsWith(STORAGE_PREFIX)) continue;
+            const key = storageKey.slice(STORAGE_PREFIX.length);
+            const saved = read(key);
+            if (!saved) continue;
+            const length = Object.values(saved.fields).reduce((sum, value) => sum + value.length, 0);
+            drafts.push({ key, updatedAt: saved.updatedAt, length });
+        }
+        return { drafts };
+    }
+
+    async remove({ key }: { key: string }): Promise<{ savedAt: number }> {
+        localStorage.removeItem(STORAGE_PREFIX + key);
+        return { savedAt: Date.now() };
+    }
+
+    async flush(): Promise<void> {
+        // localStorage 는 바로 씀
+    }
+}
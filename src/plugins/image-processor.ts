@@ -0,0 +1,7 @@
+import { registerPlugin } from "@capacitor/core";
+
+import type { ImageProcessorPlugin } from "./definitions";
+
+export const ImageProcessor = registerPlugin<ImageProcessorPlugin>("ImageProcessor", {
+    web: () => import("./image-processor.web").then((m) => new m.ImageProcessorWeb()),
+});
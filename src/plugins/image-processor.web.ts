@@ -0,0 +1,17 @@
+import { WebPlugin } from "@capacitor/core";
+
+import type { ImageProcessorPlugin, PickImageResult, ProcessedImage, ProcessImageOptions } from "./definitions";
+
+export class ImageProcessorWeb extends WebPlugin implements ImageProcessorPlugin {
+    async pickImage(): Promise<PickImageResult> {
+        throw this.unavailable("Native image processing is only available on Android.");
+    }
+
+    async processImage(_options: ProcessImageOptions): Promise<ProcessedImage> {
+        throw this.unavailable("Native image processing is only available on Android.");
+    }
+
+    async deleteImage(_options: { path: string }): Promise<{ deleted: boolean }> {
+        return { deleted: false };
+    }
+}
@@ -1,12 +1,15 @@
 import { WebPlugin } from "@capacitor/core";
 
 import type {
+    InAppPurchaseGetEntitlementsResult,
     InAppPurchaseGetProductsOptions,
     InAppPurchaseGetProductsResult,
     InAppPurchaseInitializeResult,
     InAppPurchasePurchaseOptions,
     InAppPurchasePurchaseResult,
+    InAppPurchaseRestorePurchasesOptions,
     InAppPurchaseRestorePurchasesResult,
+    InAppPurchaseStartupTiming,
     InAppPurchasesPlugin,
 } from "./definitions";
 
@@ -23,7 +26,15 @@ export class InAppPurchasesWeb extends WebPlugin implements InAppPurchasesPlugin
         throw new Error("In-app purchases are only available on native platforms.");
     }
 
-    async restorePurchases(): Promise<InAppPurchaseRestorePurchasesResult> {
+    async restorePurchases(_options?: InAppPurchaseRestorePurchasesOptions): Promise<InAppPurchaseRestorePurchasesResult> {
         return { products: [] };
     }
+
+    async getEntitlements(): Promise<InAppPurchaseGetEntitlementsResult> {
+        return { entitlements: [], verified: false };
+    }
+
+    async getStartupTiming(): Promise<InAppPurchaseStartupTiming> {
+        return { initMode: "eager", loadMs: 0, clientInitOnMainThread: false };
+    }
 }
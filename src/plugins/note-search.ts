@@ -0,0 +1,7 @@
+import { registerPlugin } from "@capacitor/core";
+
+import type { NoteSearchPlugin } from "./definitions";
+
+export const NoteSearch = registerPlugin<NoteSearchPlugin>("NoteSearch", {
+    web: () => import("./note-search.web").then((m) => new m.NoteSearchWeb()),
+});
@@ -0,0 +1,31 @@
+import { WebPlugin } from "@capacitor/core";
+
+import type {
+    NoteSearchOptions,
+    NoteSearchPlugin,
+    NoteSearchResult,
+    NoteSearchStats,
+    SearchIndexDocument,
+} from "./definitions";
+
+export class NoteSearchWeb extends WebPlugin implements NoteSearchPlugin {
+    async index(_options: { documents: SearchIndexDocument[] }): Promise<{ indexed: number }> {
+        return { indexed: 0 };
+    }
+
+    async remove(_options: { ids: string[] }): Promise<{ removed: number }> {
+        return { removed: 0 };
+    }
+
+    async search(_options: NoteSearchOptions): Promise<NoteSearchResult> {
+        throw this.unavailable("Native search index is only available on Android.");
+    }
+
+    async getStats(): Promise<NoteSearchStats> {
+        return { ready: false };
+    }
+
+    async clear(): Promise<void> {
+        // 웹에는 색인이 없음
+    }
+}
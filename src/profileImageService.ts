@@ -3,6 +3,58 @@ import { auth, db, storage } from "./firebase";
 import { updateProfile } from "firebase/auth";
 import { doc, setDoc, serverTimestamp } from "firebase/firestore";
 import { ref, uploadBytes, getDownloadURL } from "firebase/storage";
+import { Capacitor } from "@capacitor/core";
+import { ImageProcessor } from "./plugins/image-processor";
+import type { ProcessedImage } from "./plugins/definitions";
+
+const PROFILE_IMAGE_MAX_SIZE = 512;
+const PROFILE_IMAGE_QUALITY = 0.82;
+
+/** 업로드할 프로필 이미지: 웹 input 의 File 또는 네이티브에서 처리한 파일 */
+export type ProfileImageSource = File | ProcessedImage;
+
+/**
+ * 네이티브 이미지 처리 플러그인을 쓸 수 있는지 (Android 앱)
+ */
+export function isNativeImageProcessingAvailable(): boolean {
+    return Capacitor.getPlatform() === "android" && Capacitor.isPluginAvailable("ImageProcessor");
+}
+
+/**
+ * 네이티브 사진 선택기로 고른 이미지를 백그라운드 스레드에서 줄이고 WebP 로 인코딩
+ * - 디코딩/회전/압축 모두 네이티브에서 처리하므로 WebView 가 멈추지 않음
+ * - 취소하면 null
+ */
+export async function pickProfileImage(): Promise<ProcessedImage | null> {
+    const { uri } = await ImageProcessor.pickImage();
+    if (!uri) return null;
+    return ImageProcessor.processImage({
+        uri,
+        maxSize: PROFILE_IMAGE_MAX_SIZE,
+        quality: PROFILE_IMAGE_QUALITY,
+    });
+}
+
+/**
+ * 미리보기/업로드용 URL (네이티브 파일은 WebView 로컬 서버 경로로 변환)
+ */
+export function getProfileImagePreviewUrl(image: ProcessedImage): string {
+    return Capacitor.convertFileSrc(image.path);
+}
+
+function isProcessedImage(image: ProfileImageSource): image is ProcessedImage {
+    return typeof (image as ProcessedImage).path === "string";
+}
+
+/**
+ * 네이티브에서 처리한 파일을 base64 없이 Blob 으로 읽음
+ */
+async function readProcessedImage(image: ProcessedImage): Promise<Blob> {
+    const response = await fetch(getProfileImagePreviewUrl(image));
+    if (!response.ok) throw new Error(`처리된 이미지를 읽지 못했습니다: ${response.status}`);
+    const blob = await response.blob();
+    return blob.type === image.mimeType ? blob : new Blob([blob], { type: image.mimeType });
+}
 
 /**
  * 이미지 리사이징 및 압축
@@ -10,7 +62,7 @@ import { ref, uploadBytes, getDownloadURL } from "firebase/storage";
  * - 형식: WebP (미지원 시 JPEG)
  * - 개선점: 작지만 용량이 큰 파일도 강제 압축
  */
-async function resizeProfileImage(file: File, maxSize = 512, quality = 0.82): Promise<File> {
+async function resizeProfileImage(file: File, maxSize = PROFILE_IMAGE_MAX_SIZE, quality = PROFILE_IMAGE_QUALITY): Promise<File> {
     if (typeof window === "undefined" || typeof document === "undefined") return file;
     if (!file.type.startsWith("image/")) return file;
 
@@ -76,15 +128,17 @@ async function resizeProfileImage(file: File, maxSize = 512, quality = 0.82): Pr
 /**
  * 프로필 이미지 업로드 및 프로필 갱신
  */
-export async function uploadAndUpdateProfileImage(file: File): Promise<string> {
+export async function uploadAndUpdateProfileImage(image: ProfileImageSource): Promise<string> {
     const currentUser = auth.currentUser;
     if (!currentUser) throw new Error("로그인된 사용자가 없습니다.");
 
     const uid = currentUser.uid;
 
     try {
-        // 1) 리사이징 (오래 걸릴 수 있으므로 가장 먼저)
-        const optimizedFile = await resizeProfileImage(file);
+        // 1) 리사이징 (오래 걸릴 수 있으므로 가장 먼저, 네이티브에서 처리한 이미지는 이미 줄어 있음)
+        const optimizedFile = isProcessedImage(image)
+            ? await readProcessedImage(image)
+            : await resizeProfileImage(image);
 
         // 2) Storage 업로드 (덮어쓰기)
         const storageRef = ref(storage, `profileImages/${uid}`);
@@ -105,6 +159,11 @@ export async function uploadAndUpdateProfileImage(file: File): Promise<string> {
             }, { merge: true })
         ]);
 
+        // 네이티브 임시 파일 정리 (실패하면 미리보기에 계속 쓰이므로 성공했을 때만, 남은 파일은 네이티브가 하루 뒤 정리)
+        if (isProcessedImage(image)) {
+            ImageProcessor.deleteImage({ path: image.path }).catch(() => undefined);
+        }
+
         return downloadURL;
     } catch (error) {
         console.error("프로필 이미지 업로드 실패:", error);
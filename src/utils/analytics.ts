@@ -4,6 +4,8 @@
 import { getAnalytics, logEvent, Analytics, setUserId, setUserProperties } from "firebase/analytics";
 import { app } from "@/firebase";
 import { Capacitor } from "@capacitor/core";
+import { Diagnostics } from "@/plugins/diagnostics";
+import { getColdStartTimeline } from "@/utils/startupTimeline";
 
 let analytics: Analytics | null = null;
 let isInitialized = false;
@@ -259,3 +261,81 @@ export function trackPerformance(name: string, durationMs: number, metadata?: Re
         // 무시
     }
 }
+
+// 백그라운드로 갈 때마다 보내지 않도록 (값은 프로세스 시작 이후 누적)
+const BRIDGE_METRICS_INTERVAL_MS = 30 * 60 * 1000;
+let bridgeMetricsSentAt = 0;
+
+/**
+ * 네이티브 플러그인 메서드별 지연 시간(p50/p99)과 실패 수를 메서드마다 이벤트 하나로 전송
+ * (앱이 백그라운드로 갈 때 호출, 30분에 한 번까지)
+ */
+export async function trackBridgeMetrics(): Promise<void> {
+    if (!analytics || !Capacitor.isNativePlatform()) return;
+    const now = Date.now();
+    if (bridgeMetricsSentAt !== 0 && now - bridgeMetricsSentAt < BRIDGE_METRICS_INTERVAL_MS) return;
+    bridgeMetricsSentAt = now;
+    try {
+        const { methods, executors } = await Diagnostics.getBridgeMetrics();
+        for (const metrics of methods) {
+            if (metrics.total.count === 0) continue;
+            logEvent(analytics, "bridge_metric", {
+                plugin: metrics.plugin,
+                method: metrics.method,
+                calls: metrics.calls,
+                rejected: metrics.rejected,
+                errors: metrics.errors,
+                queue_p50_ms: metrics.queue.p50Ms,
+                queue_p99_ms: metrics.queue.p99Ms,
+                total_p50_ms: metrics.total.p50Ms,
+                total_p99_ms: metrics.total.p99Ms,
+                platform: Capacitor.getPlatform(),
+            });
+        }
+        // Cordova 플러그인 전용 executor: queue 가 가득 차 거절된 적이 있는 것만
+        for (const stats of executors) {
+            if (stats.rejected === 0) continue;
+            logEvent(analytics, "bridge_executor", {
+                name: stats.name,
+                submitted: stats.submitted,
+                rejected: stats.rejected,
+                queue_wait_max_ms: stats.queueWaitMaxMs,
+                platform: Capacitor.getPlatform(),
+            });
+        }
+    } catch {
+        // 무시
+    }
+}
+
+// cold_start 이벤트로 보낼 타임라인 항목 → 파라미터 이름
+const COLD_START_PARAMS: Record<string, string> = {
+    bridgeReady: "bridge_ready_ms",
+    firstVisualState: "first_visual_state_ms",
+    pageCommitVisible: "page_commit_visible_ms",
+    "web:domContentLoaded": "dom_content_loaded_ms",
+    "web:first-contentful-paint": "first_contentful_paint_ms",
+    "web:firstScreen": "first_screen_ms",
+};
+
+let coldStartTracked = false;
+
+/**
+ * 콜드 스타트 타임라인의 주요 시점(origin 기준 ms)을 이벤트 하나로 전송 (세션당 한 번)
+ * 첫 화면이 그려진 뒤에 호출
+ */
+export async function trackColdStart(): Promise<void> {
+    if (!analytics || coldStartTracked) return;
+    coldStartTracked = true;
+    try {
+        const timeline = await getColdStartTimeline();
+        const params: Record<string, string | number> = { origin: timeline.origin };
+        for (const entry of timeline.entries) {
+            const param = COLD_START_PARAMS[entry.name];
+            if (param && params[param] === undefined) params[param] = Math.round(entry.startMs);
+        }
+        logEvent(analytics, "cold_start", { ...params, platform: Capacitor.getPlatform() });
+    } catch {
+        // 무시
+    }
+}
@@ -0,0 +1,135 @@
+// draftStore.ts - 쓰던 글 임시 저장 (DraftStore 플러그인)
+// 안드로이드는 네이티브 저널에 바뀐 부분만 보내고, 웹은 localStorage 에 글 전체를 씁니다.
+
+import { DraftStore } from "@/plugins/draft-store";
+import type { DraftFieldOp } from "@/plugins/definitions";
+import { readNativeBlobText } from "./nativeBlob";
+
+export type DraftFields = Record<string, string>;
+
+export interface LoadedDraft {
+    fields: DraftFields;
+    /** 마지막으로 디스크에 쓴 시각 (ms) */
+    updatedAt: number;
+}
+
+export interface TextSplice {
+    start: number;
+    deleteCount: number;
+    text: string;
+}
+
+function isHighSurrogate(code: number): boolean {
+    return code >= 0xd800 && code <= 0xdbff;
+}
+
+function isLowSurrogate(code: number): boolean {
+    return code >= 0xdc00 && code <= 0xdfff;
+}
+
+/**
+ * prev 를 next 로 바꾸는 splice 하나 (같은 앞부분과 뒷부분을 뺀 가운데). 같으면 null
+ * 타이핑은 보통 한 곳만 바뀌므로 글 길이와 상관없이 몇 글자만 보냅니다.
+ */
+export function diffText(prev: string, next: string): TextSplice | null {
+    if (prev === next) return null;
+    const max = Math.min(prev.length, next.length);
+    let start = 0;
+    while (start < max && prev.charCodeAt(start) === next.charCodeAt(start)) start++;
+    let end = 0;
+    while (end < max - start
+        && prev.charCodeAt(prev.length - 1 - end) === next.charCodeAt(next.length - 1 - end)) end++;
+    // 이모지 같은 surrogate 쌍을 가르지 않도록
+    if (start > 0 && isHighSurrogate(prev.charCodeAt(start - 1))) start--;
+    if (end > 0 && isLowSurrogate(prev.charCodeAt(prev.length - end))) end--;
+    return {
+        start,
+        deleteCount: prev.length - start - end,
+        text: next.slice(start, next.length - end),
+    };
+}
+
+function isOutOfSync(error: unknown): boolean {
+    return (error as { code?: string } | null)?.code === "OUT_OF_SYNC";
+}
+
+/**
+ * 글 하나(key)의 자동 저장. 마지막으로 보낸 내용과 비교해서 바뀐 필드의 바뀐 부분만 보냅니다.
+ * save 는 차례로 하나씩 보내므로 기다리지 않고 불러도 되고, resolve 값은 디스크에 쓴 시각 (바뀐 게 없으면 null)
+ */
+export class DraftAutosaver {
+    // 네이티브가 가진 내용 (모르면 null → 다음 save 는 전체)
+    private sent: DraftFields | null = null;
+    private queue: Promise<unknown> = Promise.resolve();
+
+    constructor(private readonly key: string) {}
+
+    /** 불러온 내용을 기준으로 (다음 save 부터 바뀐 부분만) */
+    reset(fields: DraftFields | null): void {
+        this.sent = fields ? { ...fields } : null;
+    }
+
+    save(fields: DraftFields): Promise<number | null> {
+        return this.enqueue(() => this.write({ ...fields }));
+    }
+
+    remove(): Promise<void> {
+        return this.enqueue(async () => {
+            this.sent = null;
+            await DraftStore.remove({ key: this.key });
+        });
+    }
+
+    private enqueue<T>(task: () => Promise<T>): Promise<T> {
+        const run = this.queue.then(task);
+        this.queue = run.catch(() => undefined);
+        return run;
+    }
+
+    private async write(fields: DraftFields): Promise<number | null> {
+        const previous = this.sent;
+        const ops: DraftFieldOp[] = [];
+        for (const [field, value] of Object.entries(fields)) {
+            const before = previous?.[field];
+            if (before === undefined) {
+                ops.push({ field, value });
+                continue;
+            }
+            const splice = diffText(before, value);
+            if (splice) ops.push({ field, ...splice });
+        }
+        if (ops.length === 0) return null;
+
+        this.sent = fields;
+        try {
+            return (await DraftStore.write({ key: this.key, ops })).savedAt;
+        } catch (error) {
+            // TOO_LARGE 는 전체를 다시 보내도 마찬가지이므로 그대로 실패 (앞의 op 은 적용됐을 수 있으니 다음은 전체)
+            if (!isOutOfSync(error) || previous === null) {
+                this.sent = null;
+                throw error;
+            }
+            // 저장된 내용과 어긋남 (다른 화면에서 지웠거나 저장소를 새로 만듦) → 전체를 다시
+            const full = Object.entries(fields).map(([field, value]) => ({ field, value }));
+            try {
+                return (await DraftStore.write({ key: this.key, ops: full })).savedAt;
+            } catch (retryError) {
+                this.sent = null;
+                throw retryError;
+            }
+        }
+    }
+}
+
+/**
+ * 임시 저장된 글. 긴 필드는 blob 채널로 받아 JSON 문자열을 거치지 않습니다.
+ */
+export async function loadDraft(key: string): Promise<LoadedDraft | null> {
+    const { draft } = await DraftStore.load({ key });
+    if (!draft) return null;
+    const fields: DraftFields = { ...draft.fields };
+    await Promise.all(Object.entries(draft.blobFields ?? {}).map(async ([field, ref]) => {
+        fields[field] = await readNativeBlobText(ref);
+    }));
+    return { fields, updatedAt: draft.updatedAt };
+}
@@ -3,6 +3,7 @@
 import { Capacitor } from "@capacitor/core";
 import { toast } from "@/toastHelper";
 import { InAppPurchases } from "@/plugins/in-app-purchases";
+import type { InAppPurchaseUpdate } from "@/plugins/definitions";
 
 // 테마 ID와 인앱 구매 상품 ID 매핑
 export const THEME_PRODUCT_IDS: Record<string, string> = {
@@ -52,6 +53,19 @@ export async function getProducts(productIds: string[]): Promise<any[]> {
     }
 }
 
+// purchase() 호출 없이 도착한 구매(나중에 완료된 보류 결제, 앱 밖 구매, 프로모션 코드)까지 포함한 구매 상태 변경
+// 구독 전에 도착한 이벤트는 네이티브에서 보관했다가 구독하는 순간 전달됨 (restorePurchases 반복 호출 불필요)
+export function onPurchaseUpdated(listener: (purchase: InAppPurchaseUpdate) => void): () => void {
+    if (!isInAppPurchaseAvailable()) {
+        return () => {};
+    }
+
+    const handle = InAppPurchases.addListener("purchaseUpdated", listener);
+    return () => {
+        handle.then((h) => h.remove());
+    };
+}
+
 // 구매 요청
 export async function purchaseProduct(productId: string): Promise<{
     success: boolean;
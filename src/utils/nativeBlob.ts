@@ -0,0 +1,18 @@
+// nativeBlob.ts - 네이티브 blob 채널 읽기
+
+import type { NativeBlobRef } from "@/plugins/definitions";
+
+async function openNativeBlob(ref: NativeBlobRef): Promise<Response> {
+    const response = await fetch(ref.path, { cache: "no-store" });
+    if (!response.ok) {
+        throw new Error(`네이티브 blob 을 읽지 못했습니다 (${response.status}): ${ref.handle}`);
+    }
+    return response;
+}
+
+/**
+ * 네이티브가 등록한 blob 을 텍스트로 받음 (한 번만 읽을 수 있음)
+ */
+export async function readNativeBlobText(ref: NativeBlobRef): Promise<string> {
+    return (await openNativeBlob(ref)).text();
+}
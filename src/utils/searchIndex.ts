@@ -0,0 +1,82 @@
+// searchIndex.ts - 기기 내 전문 검색 색인(NoteSearch 플러그인)에 글/노트를 넣고 찾기
+// 앱이 글이나 노트를 받아 오거나 쓸 때마다 넣어 두고, 검색 화면은 색인에서 찾습니다. (안드로이드 전용)
+
+import { Capacitor } from "@capacitor/core";
+import { NoteSearch } from "@/plugins/note-search";
+import type { SearchIndexDocument } from "@/plugins/definitions";
+import type { Post } from "@/components/MainScreen/types";
+
+const POST_PREFIX = "post:";
+const NOTE_PREFIX = "note:";
+
+export interface NoteLike {
+    id: string;
+    title?: string;
+    body?: string;
+}
+
+export function isNativeSearchAvailable(): boolean {
+    return Capacitor.getPlatform() === "android" && Capacitor.isPluginAvailable("NoteSearch");
+}
+
+function postDocument(post: Post): SearchIndexDocument {
+    return {
+        id: POST_PREFIX + post.id,
+        title: post.title,
+        body: post.content,
+        // 기존 검색처럼 카테고리와 작성자 이름으로도 찾을 수 있게
+        tags: [...post.tags, post.category, post.subCategory, post.author].filter(Boolean),
+    };
+}
+
+// 색인은 검색을 빠르게 하려는 것이므로 실패해도 화면 동작에는 영향을 주지 않음
+function indexDocuments(documents: SearchIndexDocument[]): void {
+    if (documents.length === 0 || !isNativeSearchAvailable()) return;
+    NoteSearch.index({ documents }).catch(() => undefined);
+}
+
+/** 숨김 글은 넣지 않음. 내용이 그대로인 글은 네이티브에서 건너뜀 */
+export function indexPosts(posts: Post[]): void {
+    indexDocuments(posts.filter((post) => !post.hidden).map(postDocument));
+}
+
+export function indexNotes(notes: NoteLike[]): void {
+    indexDocuments(notes.map((note) => ({
+        id: NOTE_PREFIX + note.id,
+        title: note.title ?? "",
+        body: note.body ?? "",
+    })));
+}
+
+export function removePostsFromIndex(postIds: Array<string | number>): void {
+    if (postIds.length === 0 || !isNativeSearchAvailable()) return;
+    NoteSearch.remove({ ids: postIds.map((id) => POST_PREFIX + id) }).catch(() => undefined);
+}
+
+export function removeNotesFromIndex(noteIds: string[]): void {
+    if (noteIds.length === 0 || !isNativeSearchAvailable()) return;
+    NoteSearch.remove({ ids: noteIds.map((id) => NOTE_PREFIX + id) }).catch(() => undefined);
+}
+
+/**
+ * 점수 순 글 id. 색인을 쓸 수 없으면 null (호출한 쪽은 기존 방식으로 찾음)
+ */
+export async function searchPostIds(query: string, limit = 50): Promise<string[] | null> {
+    if (!isNativeSearchAvailable()) return null;
+    try {
+        const { hits } = await NoteSearch.search({ query, limit, kind: "post" });
+        return hits.map((hit) => hit.id.slice(POST_PREFIX.length));
+    } catch {
+        return null;
+    }
+}
+
+/** 로그아웃 때. 다른 계정으로 들어왔을 때 이전 계정의 노트가 검색되지 않도록 */
+export async function clearSearchIndex(): Promise<void> {
+    if (!isNativeSearchAvailable()) return;
+    try {
+        await NoteSearch.clear();
+    } catch {
+        // ignore
+    }
+}
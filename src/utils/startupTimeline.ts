@@ -0,0 +1,87 @@
+// startupTimeline.ts - 네이티브 + 웹 콜드 스타트 타임라인
+
+import { Capacitor } from "@capacitor/core";
+import { Diagnostics } from "@/plugins/diagnostics";
+import type { StartupTimelineEntry } from "@/plugins/definitions";
+
+export interface ColdStartEntry extends StartupTimelineEntry {
+    source: "native" | "web";
+}
+
+export interface ColdStartTimeline {
+    /** 모든 시각의 기준. 네이티브에서는 프로세스 시작, 웹에서는 performance.timeOrigin */
+    origin: "processStart" | "timeOrigin";
+    /** performance.now() 값에 더하면 origin 기준 ms 가 되는 값 */
+    webOffsetMs: number;
+    entries: ColdStartEntry[];
+    dropped: number;
+}
+
+const round = (ms: number) => Math.round(ms * 1000) / 1000;
+
+// 웹 쪽 mark/measure 와 navigation/paint 항목
+function collectWebEntries(offsetMs: number): ColdStartEntry[] {
+    if (typeof performance === "undefined" || typeof performance.getEntriesByType !== "function") {
+        return [];
+    }
+    const entries: ColdStartEntry[] = [];
+    const nav = performance.getEntriesByType("navigation")[0] as PerformanceNavigationTiming | undefined;
+    if (nav) {
+        entries.push({ source: "web", name: "web:domInteractive", startMs: round(nav.domInteractive + offsetMs) });
+        entries.push({
+            source: "web",
+            name: "web:domContentLoaded",
+            startMs: round(nav.domContentLoadedEventStart + offsetMs),
+        });
+        if (nav.loadEventEnd > 0) {
+            entries.push({ source: "web", name: "web:load", startMs: round(nav.loadEventEnd + offsetMs) });
+        }
+    }
+    for (const entry of [
+        ...performance.getEntriesByType("paint"),
+        ...performance.getEntriesByType("mark"),
+        ...performance.getEntriesByType("measure"),
+    ]) {
+        const item: ColdStartEntry = { source: "web", name: `web:${entry.name}`, startMs: round(entry.startTime + offsetMs) };
+        if (entry.duration > 0) {
+            item.endMs = round(entry.startTime + entry.duration + offsetMs);
+            item.durationMs = round(entry.duration);
+        }
+        entries.push(item);
+    }
+    return entries;
+}
+
+async function buildTimeline(): Promise<ColdStartTimeline> {
+    if (!Capacitor.isNativePlatform()) {
+        return { origin: "timeOrigin", webOffsetMs: 0, entries: collectWebEntries(0), dropped: 0 };
+    }
+    // 네이티브가 nowMs 를 읽은 시점을 왕복 시간의 중간으로 보고 두 시계를 맞춤
+    const sentAt = performance.now();
+    const native = await Diagnostics.getStartupTimeline();
+    const receivedAt = performance.now();
+    const webOffsetMs = native.nowMs - (sentAt + receivedAt) / 2;
+
+    const entries: ColdStartEntry[] = [
+        ...native.entries.map((entry) => ({ ...entry, source: "native" as const })),
+        ...collectWebEntries(webOffsetMs),
+    ];
+    entries.sort((a, b) => a.startMs - b.startMs);
+    return { origin: "processStart", webOffsetMs: round(webOffsetMs), entries, dropped: native.dropped };
+}
+
+let timelinePromise: Promise<ColdStartTimeline> | null = null;
+
+/**
+ * 이번 세션(프로세스)의 콜드 스타트 타임라인. 첫 호출 때 한 번만 만들고 이후에는 같은 값을 돌려줍니다.
+ * 첫 화면이 그려진 뒤에 호출해야 paint 항목까지 포함됩니다.
+ */
+export function getColdStartTimeline(): Promise<ColdStartTimeline> {
+    if (!timelinePromise) {
+        timelinePromise = buildTimeline().catch((error) => {
+            timelinePromise = null;
+            throw error;
+        });
+    }
+    return timelinePromise;
+}